@@ -531,6 +531,41 @@ public class ARQ
     // TDB reorders based on stats when the input binding is known.
     public static final Symbol optReorderBGP = SystemARQ.allocSymbol("optReorderBGP");
 
+    /**
+     * Context key controlling whether the general purpose stage generator orders
+     * the triple patterns of a basic graph pattern using the cardinality
+     * statistics of the graph ({@link org.apache.jena.graph.GraphCardinality}),
+     * when the graph provides them. Otherwise a fixed weighting is used.
+     * <p>By default, this is applied.
+     */
+    public static final Symbol optReorderBGPGraphStats = SystemARQ.allocSymbol("optReorderBGPGraphStats");
+
+    /**
+     * Context key controlling whether {@code COUNT} over a single triple pattern,
+     * and {@code EXISTS}/{@code NOT EXISTS} of a single triple pattern, are
+     * answered by the storage ({@link org.apache.jena.graph.GraphCount#count},
+     * {@link org.apache.jena.graph.Graph#contains}) instead of by evaluating the
+     * pattern.
+     * <p>By default, this is applied.
+     */
+    public static final Symbol optStorageCount = SystemARQ.allocSymbol("optStorageCount");
+
+    /**
+     * Context key controlling whether basic graph patterns over in-memory graphs
+     * ({@code GraphMem}) are evaluated in parallel: the first triple pattern is
+     * matched as a parallel stream, and the remaining patterns are matched for
+     * each split. The order of the results is not defined.
+     * <p>By default, this is not applied.
+     */
+    public static final Symbol parallelBGP = SystemARQ.allocSymbol("parallelBGP");
+
+    /**
+     * Context key for the number of results of a parallel basic graph pattern
+     * (see {@link #parallelBGP}) that are buffered, waiting to be consumed.
+     * <p>By default, this is 1024.
+     */
+    public static final Symbol parallelBGPBufferSize = SystemARQ.allocSymbol("parallelBGPBufferSize");
+
     /**
      *  Context key controlling whether the main query engine processes property functions.
      *  <p>By default, this is applied.
@@ -49,6 +49,9 @@ public class RDFFormat {
     /** Variant for RDF Canonicalization output (N-Triples and N-Quads) */
     public static final RDFFormatVariant CANONICAL      = new RDFFormatVariant("canonical");
 
+    /** Variant for RDF Dataset Canonicalization (RDFC-1.0) output (N-Quads) */
+    public static final RDFFormatVariant RDFC10         = new RDFFormatVariant("rdfc-1.0");
+
     /** Turtle - pretty form */
     public static final RDFFormat TURTLE_PRETTY     = new RDFFormat(Lang.TURTLE, PRETTY) ;
     /** Turtle - default form */
@@ -87,6 +90,8 @@ public class RDFFormat {
     public static final RDFFormat  NQUADS_PRETTY    = new RDFFormat(Lang.NTRIPLES, PRETTY) ;
     /** N-Quads in UTF-8 and canonical form. */
     public static final RDFFormat  NQUADS_C14N      = new RDFFormat(Lang.NTRIPLES, CANONICAL) ;
+    /** N-Quads in RDFC-1.0 canonical form, including canonical blank node labels. */
+    public static final RDFFormat  NQUADS_RDFC10    = new RDFFormat(Lang.NQUADS, RDFC10) ;
 
     /** TriG - pretty form */
     public static final RDFFormat  TRIG_PRETTY      = new RDFFormat(Lang.TRIG, PRETTY) ;
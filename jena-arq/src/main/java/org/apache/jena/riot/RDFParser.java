@@ -32,13 +32,17 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
+import org.apache.jena.atlas.io.CharStreamMappedUTF8;
 import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.IRILib;
 import org.apache.jena.atlas.lib.InternalErrorException;
 import org.apache.jena.atlas.lib.Lib;
 import org.apache.jena.atlas.web.ContentType;
@@ -62,6 +66,7 @@ import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
 import org.apache.jena.sparql.graph.GraphFactory;
 import org.apache.jena.sparql.util.Context;
+import org.apache.jena.util.FileUtils;
 
 /**
  * An {@link RDFParser} is a process that will generate triples and quads;
@@ -112,6 +117,7 @@ public class RDFParser {
     private final PrefixMap           prefixMap;
     private final boolean             canonicalLexicalValues;
     private final LangTagForm         langTagForm;
+    private final boolean             memoryMapped;
     private final Optional<Boolean>   checking;
     private final FactoryRDF          factory;
     private final ErrorHandler        errorHandler;
@@ -193,7 +199,7 @@ public class RDFParser {
                             String appAcceptHeader, Map<String, String> httpHeaders,
                             HttpClient httpClient, Lang hintLang, Lang forceLang,
                             String parserBaseURI, boolean strict, Optional<Boolean> checking,
-                            boolean canonicalLexicalValues, LangTagForm langTagForm,
+                            boolean canonicalLexicalValues, LangTagForm langTagForm, boolean memoryMapped,
                             boolean resolveURIs, IRIxResolver resolver, PrefixMap prefixMap,
                             FactoryRDF factory, ErrorHandler errorHandler, Context context) {
         int x = Lib.countNonNull(uri, path, content, inputStream, javaReader);
@@ -223,6 +229,7 @@ public class RDFParser {
         this.prefixMap = prefixMap;
         this.canonicalLexicalValues = canonicalLexicalValues;
         this.langTagForm = langTagForm;
+        this.memoryMapped = memoryMapped;
         this.checking = checking;
         this.factory = factory;
         this.errorHandler = errorHandler;
@@ -359,6 +366,8 @@ public class RDFParser {
 
     /** Parse when there is a URI to guide the choice of syntax */
     private void parseURI(StreamRDF destination) {
+        if ( memoryMapped && parseMapped(destination) )
+            return;
         // Source by uri or path.
         try (TypedInputStream input = openTypedInputStream(uri, path)) {
             ReaderRIOT readerRiot;
@@ -401,6 +410,62 @@ public class RDFParser {
         }
     }
 
+    /**
+     * Parse a local file by memory-mapping it.
+     * Return false, having done nothing, if the source is not a suitable file or the
+     * syntax is not one that is read through the text tokenizer.
+     */
+    private boolean parseMapped(StreamRDF destination) {
+        Path file = localFile();
+        if ( file == null )
+            return false;
+        String target = file.toString();
+        // Compressed files are decompressed from a stream.
+        String ext = FileUtils.getFilenameExt(target);
+        if ( ext.equals("gz") || ext.equals("bz2") || ext.equals("sz") )
+            return false;
+        ContentType ct;
+        if ( forceLang != null )
+            ct = forceLang.getContentType();
+        else
+            ct = WebContent.determineCT(null, hintLang, target);
+        if ( ct == null )
+            return false;
+        Lang lang = RDFLanguages.contentTypeToLang(ct);
+        if ( ! mappedLangs.contains(lang) )
+            return false;
+        ReaderRIOT readerRiot = createReader(lang);
+        if ( readerRiot == null )
+            return false;
+        try ( CharStreamMappedUTF8 in = new CharStreamMappedUTF8(file) ) {
+            read(readerRiot, null, in, baseURI, context, ct, destination);
+        } catch (IOException ex) { IO.exception(ex); }
+        return true;
+    }
+
+    // Syntaxes read by TokenizerText where reading from a Reader is the same as from an InputStream.
+    private static final Set<Lang> mappedLangs = Set.of(Lang.TURTLE, Lang.TRIG, Lang.NTRIPLES, Lang.NQUADS);
+
+    /** The source as a local, regular file or null. */
+    private Path localFile() {
+        if ( path != null )
+            return Files.isRegularFile(path) ? path : null;
+        String fn = streamManager.mapURI(uri);
+        if ( fn.startsWith("file:") )
+            fn = IRILib.IRIToFilename(fn);
+        else if ( IRIs.scheme(fn) != null && !isWindowsDrive(fn) )
+            // Some other scheme, e.g. http:
+            return null;
+        try {
+            Path p = Path.of(fn);
+            return Files.isRegularFile(p) ? p : null;
+        } catch (InvalidPathException ex) { return null; }
+    }
+
+    private static boolean isWindowsDrive(String fn) {
+        return fn.length() > 2 && Character.isLetter(fn.charAt(0)) && fn.charAt(1) == ':';
+    }
+
     /** Parse when there is no URI to guide the choice of syntax */
     private void parseNotUri(StreamRDF destination) {
         // parse from bytes or chars, no indication of the syntax from the source.
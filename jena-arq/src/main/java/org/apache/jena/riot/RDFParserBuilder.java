@@ -96,6 +96,7 @@ public class RDFParserBuilder {
 
     private boolean canonicalValues = false;
     private LangTagForm langTagForm = LangTagForm.NONE;
+    private Optional<Boolean> memoryMapped = Optional.empty();
 
     private Optional<Boolean> checking = Optional.empty();
 
@@ -377,6 +378,20 @@ public class RDFParserBuilder {
      */
     public RDFParserBuilder checking(boolean flag) { this.checking = Optional.of(flag) ; return this; }
 
+    /**
+     * Read local files by memory-mapping them.
+     * <p>
+     * This applies when the source is a {@link #source(Path) path} or a filename
+     * or {@code file:} URI, the file is not compressed, and the syntax is
+     * Turtle, TriG, N-Triples or N-Quads. The parser reads characters decoded
+     * directly from the mapped file, avoiding the copying of the stream-based
+     * input path. Other sources and syntaxes are read in the usual way.
+     * <p>
+     * The default is taken from the context setting {@link SysRIOT#sysMemoryMappedFiles},
+     * which is normally unset (false).
+     */
+    public RDFParserBuilder memoryMapped(boolean flag) { this.memoryMapped = Optional.of(flag) ; return this; }
+
     /**
      * Set the {@link ErrorHandler} to use.
      * This replaces any previous setting.
@@ -614,13 +629,15 @@ public class RDFParserBuilder {
         if ( sMgr == null )
             sMgr = StreamManager.get(context);
 
+        boolean memoryMapped$ = memoryMapped.orElseGet(()->context.isTrue(SysRIOT.sysMemoryMappedFiles));
+
         // Can't build the profile here as it is Lang/conneg dependent.
         return new RDFParser(uri, path, stringToParse, inputStream, javaReader, sMgr,
                              appAcceptHeader, httpHeaders,
                              httpClient,
                              hintLang, forceLang,
                              parserBaseURI, strict, checking,
-                             canonicalValues, langTagForm,
+                             canonicalValues, langTagForm, memoryMapped$,
                              resolveURIs, resolver, prefixMap,
                              factory$, errorHandler$, context);
     }
@@ -657,6 +674,7 @@ public class RDFParserBuilder {
         builder.checking =          this.checking;
         builder.canonicalValues =   this.canonicalValues;
         builder.langTagForm =       this.langTagForm;
+        builder.memoryMapped =      this.memoryMapped;
         builder.strict =            this.strict;
         builder.resolveURIs =       this.resolveURIs;
         builder.factory =           this.factory;
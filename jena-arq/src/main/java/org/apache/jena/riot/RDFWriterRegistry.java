@@ -32,6 +32,7 @@ import org.apache.jena.riot.thrift.WriterDatasetThrift;
 import org.apache.jena.riot.thrift.WriterGraphThrift;
 import org.apache.jena.riot.writer.*;
 import org.apache.jena.riot.writer.c14n.NQuadsWriter_C14N;
+import org.apache.jena.riot.writer.c14n.NQuadsWriter_RDFC10;
 import org.apache.jena.riot.writer.c14n.NTriplesWriter_C14N;
 import org.apache.jena.sys.JenaSystem;
 
@@ -118,6 +119,8 @@ public class RDFWriterRegistry
                 return new NQuadsWriterPretty();
             if ( Objects.equals(RDFFormat.NQUADS_C14N, serialization) )
                 return new NQuadsWriter_C14N();
+            if ( Objects.equals(RDFFormat.NQUADS_RDFC10, serialization) )
+                return new NQuadsWriter_RDFC10();
 
             if ( Objects.equals(RDFFormat.RDFNULL, serialization) )
                 return NullWriter.factory.create(RDFFormat.RDFNULL);
@@ -218,6 +221,7 @@ public class RDFWriterRegistry
         register(RDFFormat.NQUADS_ASCII,    wgfactory);
         register(RDFFormat.NQUADS_PRETTY,   wgfactory);
         register(RDFFormat.NQUADS_C14N,     wgfactory);
+        register(RDFFormat.NQUADS_RDFC10,   wgfactory);
 
         register(RDFFormat.RDF_PROTO,           wgProtoFactory);
         register(RDFFormat.RDF_PROTO_VALUES,    wgProtoFactory);
@@ -236,6 +240,7 @@ public class RDFWriterRegistry
         register(RDFFormat.NQUADS,          wdsfactory);
         register(RDFFormat.NQUADS_ASCII,    wdsfactory);
         register(RDFFormat.NQUADS_C14N,     wdsfactory);
+        register(RDFFormat.NQUADS_RDFC10,   wdsfactory);
 
         register(RDFFormat.RDF_PROTO,           wdsProtoFactory);
         register(RDFFormat.RDF_PROTO_VALUES,    wdsProtoFactory);
@@ -157,4 +157,42 @@ public class RIOT {
      * Print literals with newlines in multiple line form, using triple quotes.
      */
     public static final Symbol symTurtleMultilineLiterals = SystemARQ.allocSymbol(TURTLE_SYMBOL_BASE, "multiline_literals") ;
+
+    /**
+     * Number of threads used by the pretty Turtle and TriG writers.
+     * <p>
+     * A value greater than one causes the graph analysis (lists and blank nodes that can
+     * be written with {@code []}) to be done in parallel and the subjects of the graph
+     * to be partitioned and formatted by worker threads. The partitions are output in
+     * the same order as a single threaded write. Blank node labels are then derived from
+     * the internal blank node label so that they are the same in every partition.
+     * <p>
+     * Parallel writing only applies to data that does not use transactions (e.g. the
+     * default in-memory graphs); otherwise the writer falls back to a single thread.
+     * The default is 1.
+     */
+    public static final Symbol symTurtleWriterThreads = SystemARQ.allocSymbol(TURTLE_SYMBOL_BASE, "writerThreads") ;
+
+    private static String RDFC_SYMBOL_BASE = "http://jena.apache.org/riot/rdfc#";
+
+    /**
+     * Number of threads used by RDFC-1.0 canonicalization ({@link RDFFormat#NQUADS_RDFC10})
+     * to calculate blank node hashes.
+     * The default is the number of available processors.
+     */
+    public static final Symbol symRDFC10Threads = SystemARQ.allocSymbol(RDFC_SYMBOL_BASE, "threads") ;
+
+    /**
+     * Limit on the work done by RDFC-1.0 canonicalization when distinguishing blank nodes
+     * that have the same first degree hash. The work is counted as the number of
+     * N-degree hash calculations and blank node permutations tried.
+     * Exceeding the limit causes a {@link RiotException}.
+     */
+    public static final Symbol symRDFC10MaxWork = SystemARQ.allocSymbol(RDFC_SYMBOL_BASE, "maxWork") ;
+
+    /**
+     * Limit on the recursion depth of the RDFC-1.0 N-degree hash calculation.
+     * Exceeding the limit causes a {@link RiotException}.
+     */
+    public static final Symbol symRDFC10MaxDepth = SystemARQ.allocSymbol(RDFC_SYMBOL_BASE, "maxDepth") ;
 }
@@ -56,6 +56,12 @@ public class SysRIOT
     /** Context key for the StreamManager */
     public static Symbol sysStreamManager = Symbol.create(riotBase+"streamManager") ;
 
+    /**
+     * Context key to read local files by memory-mapping them when parsing.
+     * This is the default for {@link RDFParserBuilder#memoryMapped(boolean)}.
+     */
+    public static final Symbol sysMemoryMappedFiles = Symbol.create(riotBase+"memoryMappedFiles") ;
+
     public static void setStrictMode(boolean state) {
         SysRIOT.strictMode = state ;
         //SysRIOT.StrictXSDLexicialForms = state ;
@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.riot.rowset.rw;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.Cache;
+import org.apache.jena.atlas.lib.CacheFactory;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.SystemARQ;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.sparql.util.Symbol;
+
+/**
+ * Buffered UTF-8 byte output for the result set writers.
+ * <p>
+ * Output is collected in a byte buffer and passed on in large chunks.
+ * Fixed parts of the output (keywords, per-variable fragments) are encoded once by the writer,
+ * and the encoded form of RDF terms is kept in a bounded cache (see {@link #termCache(Context)}).
+ * <p>
+ * Output can be compressed with gzip (context setting {@link #rsOutputGzip}).
+ * Compression only applies when writing to an {@link OutputStream}.
+ */
+public final class RowSetOutput {
+
+    /** Compress the output with gzip. Default: false. */
+    public static final Symbol rsOutputGzip = SystemARQ.allocSymbol("rsOutputGzip");
+
+    /** Size, in bytes, of the output buffer. Default: {@value #DFT_BUFFER_SIZE}. */
+    public static final Symbol rsOutputBufferSize = SystemARQ.allocSymbol("rsOutputBufferSize");
+
+    /** Number of slots in the cache of encoded RDF terms. Zero for no cache. Default: {@value #DFT_TERM_CACHE_SIZE}. */
+    public static final Symbol rsOutputTermCacheSize = SystemARQ.allocSymbol("rsOutputTermCacheSize");
+
+    public static final int DFT_BUFFER_SIZE     = 64*1024;
+    public static final int DFT_TERM_CACHE_SIZE = 16*1024;
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    /** Create a {@code RowSetOutput} to an {@link OutputStream}. */
+    public static RowSetOutput create(OutputStream out, Context context) {
+        int bufferSize = bufferSize(context);
+        if ( context != null && context.isTrue(rsOutputGzip) ) {
+            try {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, bufferSize);
+                return new RowSetOutput(gzip, gzip, null, bufferSize);
+            } catch (IOException ex) { IO.exception(ex); }
+        }
+        return new RowSetOutput(out, null, null, bufferSize);
+    }
+
+    /** Create a {@code RowSetOutput} to a {@link Writer}. */
+    public static RowSetOutput create(Writer out, Context context) {
+        return new RowSetOutput(null, null, out, bufferSize(context));
+    }
+
+    /** Create the cache of encoded RDF terms for one result set. */
+    public static Cache<Node, byte[]> termCache(Context context) {
+        int size = ( context == null ) ? DFT_TERM_CACHE_SIZE : context.getInt(rsOutputTermCacheSize, DFT_TERM_CACHE_SIZE);
+        if ( size <= 0 )
+            return CacheFactory.createNullCache();
+        return CacheFactory.createSimpleCache(size);
+    }
+
+    private static int bufferSize(Context context) {
+        int size = ( context == null ) ? DFT_BUFFER_SIZE : context.getInt(rsOutputBufferSize, DFT_BUFFER_SIZE);
+        // Large enough for any 4 byte UTF-8 sequence.
+        return Math.max(size, 16);
+    }
+
+    /** Encode a string as UTF-8. */
+    public static byte[] bytes(String string) {
+        if ( string.isEmpty() )
+            return NO_BYTES;
+        return string.getBytes(UTF_8);
+    }
+
+    private final OutputStream out;
+    private final GZIPOutputStream gzip;
+    private final Writer writer;
+    private final byte[] buffer;
+    private int idx = 0;
+
+    private RowSetOutput(OutputStream out, GZIPOutputStream gzip, Writer writer, int bufferSize) {
+        this.out = out;
+        this.gzip = gzip;
+        this.writer = writer;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public void write(byte[] bytes) {
+        write(bytes, 0, bytes.length);
+    }
+
+    public void write(byte[] bytes, int offset, int length) {
+        if ( length > buffer.length - idx ) {
+            flushBuffer();
+            if ( length > buffer.length - idx ) {
+                // Large item. Copy via the buffer in chunks.
+                while ( length > 0 ) {
+                    int len = Math.min(length, buffer.length - idx);
+                    System.arraycopy(bytes, offset, buffer, idx, len);
+                    idx += len;
+                    offset += len;
+                    length -= len;
+                    if ( idx == buffer.length )
+                        flushBuffer();
+                }
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, idx, length);
+        idx += length;
+    }
+
+    /** Write one byte. The value must be ASCII. */
+    public void write(char ch) {
+        if ( idx == buffer.length )
+            flushBuffer();
+        buffer[idx++] = (byte)ch;
+    }
+
+    /** Write a string, encoded as UTF-8. */
+    public void write(String string) {
+        int len = string.length();
+        for ( int i = 0 ; i < len ; i++ ) {
+            char ch = string.charAt(i);
+            if ( ch >= 0x80 ) {
+                write(bytes(string.substring(i)));
+                return;
+            }
+            if ( idx == buffer.length )
+                flushBuffer();
+            buffer[idx++] = (byte)ch;
+        }
+    }
+
+    /** Pass on buffered output and flush the destination. */
+    public void flush() {
+        flushBuffer();
+        try {
+            if ( out != null )
+                out.flush();
+            else
+                writer.flush();
+        } catch (IOException ex) { IO.exception(ex); }
+    }
+
+    /**
+     * Finish output. This completes a gzip stream if compression is in use.
+     * The destination is flushed, not closed.
+     */
+    public void finish() {
+        flushBuffer();
+        try {
+            if ( gzip != null )
+                gzip.finish();
+        } catch (IOException ex) { IO.exception(ex); }
+        flush();
+    }
+
+    private void flushBuffer() {
+        if ( idx == 0 )
+            return;
+        try {
+            if ( out != null ) {
+                out.write(buffer, 0, idx);
+                idx = 0;
+                return;
+            }
+            // Writer: only decode complete UTF-8 sequences.
+            int end = completeUTF8(buffer, idx);
+            writer.write(new String(buffer, 0, end, UTF_8));
+            int remaining = idx - end;
+            System.arraycopy(buffer, end, buffer, 0, remaining);
+            idx = remaining;
+        } catch (IOException ex) { IO.exception(ex); }
+    }
+
+    /** The length of the prefix of {@code bytes[0..len)} that does not end part way through a UTF-8 sequence. */
+    private static int completeUTF8(byte[] bytes, int len) {
+        // Look back for the start of the last sequence.
+        for ( int i = len-1 ; i >= 0 && i >= len-4 ; i-- ) {
+            int b = bytes[i] & 0xFF;
+            if ( b < 0x80 )
+                return len;
+            if ( b >= 0xC0 ) {
+                int seqLen = ( b >= 0xF0 ) ? 4 : ( b >= 0xE0 ) ? 3 : 2;
+                return ( i + seqLen <= len ) ? len : i;
+            }
+            // Continuation byte.
+        }
+        return len;
+    }
+}
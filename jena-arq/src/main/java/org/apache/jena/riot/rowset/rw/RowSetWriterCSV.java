@@ -25,9 +25,11 @@ import java.io.OutputStream;
 import java.io.Writer;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
 import org.apache.jena.atlas.io.AWriter;
 import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.lib.Cache;
 import org.apache.jena.graph.Node;
 import org.apache.jena.query.ARQ;
 import org.apache.jena.riot.out.NodeToLabel;
@@ -59,12 +61,12 @@ public class RowSetWriterCSV implements RowSetWriter {
 
     @Override
     public void write(OutputStream out, RowSet resultSet, Context context) {
-        output(IO.wrapUTF8(out), resultSet, context);
+        output(RowSetOutput.create(out, context), resultSet, context);
     }
 
     @Override
     public void write(Writer out, RowSet resultSet, Context context) {
-        output(IO.wrap(out), resultSet, context);
+        output(RowSetOutput.create(out, context), resultSet, context);
     }
 
     @Override
@@ -85,12 +87,16 @@ public class RowSetWriterCSV implements RowSetWriter {
         }
     }
 
-    private static void output(AWriter out, RowSet rowSet, Context context) {
+    private static final byte[] NL_BYTES = RowSetOutput.bytes(NL);
+
+    private static void output(RowSetOutput out, RowSet rowSet, Context context) {
         try {
             boolean outputGraphBNodeLabels = (context != null) && context.isTrue(ARQ.outputGraphBNodeLabels);
             NodeToLabel bnodes = outputGraphBNodeLabels
                     ? SyntaxLabels.createNodeToLabelAsGiven()
                     : SyntaxLabels.createNodeToLabel();
+            Cache<Node, byte[]> cache = RowSetOutput.termCache(context);
+            Function<Node, byte[]> encoder = n -> RowSetOutput.bytes(csvSafe(str(n, bnodes)));
 
             String sep = null;
             List<Var> vars = rowSet.getResultVars();
@@ -104,45 +110,38 @@ public class RowSetWriterCSV implements RowSetWriter {
                     sep = ",";
                 out.write(csvSafe(v));
             }
-            out.write(NL);
+            out.write(NL_BYTES);
 
             // Data output
+            int numVars = vars.size();
             for ( ; rowSet.hasNext() ; ) {
-                sep = null;
                 Binding b = rowSet.next();
-
-                for ( Var v : vars ) {
-                    if ( sep != null )
-                        out.write(sep);
-                    sep = ",";
-
-                    Node n = b.get(v);
-                    if ( n != null )
-                        output(out, n, bnodes);
+                for ( int i = 0 ; i < numVars ; i++ ) {
+                    if ( i > 0 )
+                        out.write(',');
+                    Node n = b.get(vars.get(i));
+                    if ( n != null ) {
+                        byte[] bytes = n.isTripleTerm() ? encoder.apply(n) : cache.get(n, encoder);
+                        out.write(bytes);
+                    }
                 }
-                out.write(NL);
+                out.write(NL_BYTES);
             }
-        } finally { out.flush(); }
+        } finally { out.finish(); }
     }
 
-    private static void output(AWriter w, Node n, NodeToLabel bnodes) {
-        String str;
+    private static String str(Node n, NodeToLabel bnodes) {
         // Without quotes.
         if ( n.isLiteral() )
-            str = n.getLiteralLexicalForm();
-        else if ( n.isURI() )
-            str = n.getURI();
-        else if ( n.isBlank() ) {
-            str = bnodes.get(null, n);
+            return n.getLiteralLexicalForm();
+        if ( n.isURI() )
+            return n.getURI();
+        if ( n.isBlank() )
             // Comes with leading "_:"
-        } else if ( n.isTripleTerm() ) {
-            str = FmtUtils.stringForNode(n) ;
-        } else {
-            str = "?";
-        }
-        str = csvSafe(str);
-        w.write(str);
-        w.flush();
+            return bnodes.get(null, n);
+        if ( n.isTripleTerm() )
+            return FmtUtils.stringForNode(n);
+        return "?";
     }
 
     static protected String csvSafe(String str) {
@@ -26,11 +26,12 @@ import static org.apache.jena.riot.rowset.rw.JSONResultsKW.*;
 import java.io.OutputStream;
 import java.io.Writer;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.jena.atlas.io.IO;
-import org.apache.jena.atlas.io.IndentedWriter;
 import org.apache.jena.atlas.json.io.JSWriter;
+import org.apache.jena.atlas.lib.Cache;
 import org.apache.jena.atlas.logging.Log;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.TextDirection;
@@ -86,304 +87,215 @@ public class RowSetWriterJSON implements RowSetWriter {
 
     @Override
     public void write(OutputStream outStream, RowSet rowSet, Context context) {
-        IndentedWriter out = new IndentedWriter(outStream);
+        RowSetOutput out = RowSetOutput.create(outStream, context);
         try {
             ResultSetWriterTableJSON x = new ResultSetWriterTableJSON(out, context);
             x.write(rowSet);
         }
         finally {
-            IO.flush(out);
+            out.finish();
         }
     }
 
     // Create once per write call.
     // This holds the state of the writing of one ResultSet.
+    //
+    // The layout is fixed: keys, separators and indentation are pre-encoded and
+    // the encoded form of RDF terms is cached, except for triple terms, which
+    // span several lines and depend on the indentation.
     static class ResultSetWriterTableJSON {
         private final NodeToLabel    labels;
-        private final  IndentedWriter out;
-        /** Control whether the type/literal/fileds all go on one line. */
-        private static final boolean MultiLineValues   = false;
-        /** Control whether variables in header are one per line (minor). */
-        private static final boolean MultiLineVarNames = false;
-
-        private static final int MainIndent = 2 ;
-        private static final int VarIndent = 2 ;
-        private static final int OuterIndent = Math.min(2, MainIndent);
-
-        private ResultSetWriterTableJSON(OutputStream outStream, Context context) {
-            this(new IndentedWriter(outStream), context);
-        }
+        private final RowSetOutput   out;
+        private final Cache<Node, byte[]> termCache;
+
+        private static final int RowIndent = 6;
+        private static final int VarIndent = RowIndent + 2;
 
-        private ResultSetWriterTableJSON(IndentedWriter indentedOut, Context context) {
-            out = indentedOut;
-            out.setUnitIndent(MainIndent);
+        private static final byte[] rowStart        = bytes(" ".repeat(RowIndent) + "{ ");
+        private static final byte[] rowFinish       = bytes("\n" + " ".repeat(RowIndent) + "}");
+        private static final byte[] rowSeparator    = bytes(" ,\n");
+        private static final byte[] memberSeparator = bytes(" ,");
 
+        private ResultSetWriterTableJSON(RowSetOutput out, Context context) {
+            this.out = out;
             boolean outputGraphBNodeLabels = (context != null) && context.isTrue(ARQ.outputGraphBNodeLabels);
             labels = outputGraphBNodeLabels
                 ? SyntaxLabels.createNodeToLabelAsGiven()
                     : SyntaxLabels.createNodeToLabel();
+            termCache = RowSetOutput.termCache(context);
         }
 
         private void write(RowSet rowSet) {
-            print(out, "{");
-            out.incIndent(OuterIndent);
-            //incIndent(out);
             writeHeader(rowSet);
-            println(out, " ,");
             writeRows(rowSet);
-            out.decIndent(OuterIndent);
-            println(out, "}");      // top level {}
+            out.write("}\n");      // top level {}
         }
 
-
         private void writeRows(RowSet rowSet) {
-            println(out, quoteName(kResults), ": {");
-            incIndent(out);
-            println(out, quoteName(kBindings), ": [");
-            incIndent(out);
+            out.write("  "+quoteName(kResults)+": {\n");
+            out.write("    "+quoteName(kBindings)+": [\n");
+
+            List<Var> vars = rowSet.getResultVars();
+            // Per variable: newline, indent and the member name.
+            byte[][] varKeys = new byte[vars.size()][];
+            for ( int i = 0 ; i < varKeys.length ; i++ )
+                // Do not use quoteName - varName may not be JSON-safe as a bare name.
+                varKeys[i] = bytes("\n" + " ".repeat(VarIndent) + quote(vars.get(i).getVarName()) + ": ");
 
             boolean firstRow = true;
             for ( ; rowSet.hasNext() ; ) {
                 Binding binding = rowSet.next();
                 if ( !firstRow )
-                    println(out, " ,");
-                writeRow(out, rowSet, binding);
+                    out.write(rowSeparator);
+                writeRow(vars, varKeys, binding);
                 firstRow = false;
             }
-            println(out);
-            decIndent(out);
-            println(out, "]");      // bindings
-            decIndent(out);
-            println(out, "}");      // results
-            //decIndent(out);
+            // No rows: the line is padded to the indent.
+            if ( firstRow )
+                out.write(" ".repeat(RowIndent));
+            out.write("\n");
+            out.write("    ]\n");      // bindings
+            out.write("  }\n");        // results
         }
 
         // Write policy - write objects, leave point of output just after the closing "}"
 
         private void writeHeader(RowSet rs) {
-            println(out, quoteName(kHead),": {");
-            incIndent(out);
+            out.write("{ "+quoteName(kHead)+": {\n");
             writeHeaderLink(out, rs);
             writeHeaderVars(out, rs);
-            decIndent(out);
-            print(out, "}");
+            out.write("  } ,\n");
         }
 
-        private static void writeHeaderLink(IndentedWriter out, RowSet rs) {
+        private static void writeHeaderLink(RowSetOutput out, RowSet rs) {
             // ---- link
             // out.println("\"link\": [] ,") ;
         }
 
         //  "var": [  ... ]
-        private static void writeHeaderVars(IndentedWriter out, RowSet rs) {
+        private static void writeHeaderVars(RowSetOutput out, RowSet rs) {
             // On one line.
-            print(out, quoteName(kVars), ": [ ");
-            if ( MultiLineVarNames )
-                println(out);
-            incIndent(out);
+            out.write("    "+quoteName(kVars)+": [ ");
             for ( Iterator<Var> iter = rs.getResultVars().iterator() ; iter.hasNext() ; ) {
                 String varname = iter.next().getVarName();
-                print(out, "\"", varname, "\"");
+                out.write("\"");
+                out.write(varname);
+                out.write("\"");
                 if ( iter.hasNext() )
-                    print(out, " , ");
-                if ( MultiLineVarNames )
-                    println(out);
+                    out.write(" , ");
             }
-            decIndent(out);
-            println(out, " ]");
+            out.write(" ]\n");
         }
 
-        private void writeRow(IndentedWriter out, RowSet rowSet, Binding binding) {
-            print(out, "{ ");
-            //incIndent(out);
-            out.incIndent(VarIndent);
+        private void writeRow(List<Var> vars, byte[][] varKeys, Binding binding) {
+            out.write(rowStart);
             boolean firstInRow = true;
             // Print in the order seen in the header.
-            for ( Iterator<Var> iter = rowSet.getResultVars().iterator() ; iter.hasNext() ; ) {
-                Var var = iter.next();
-                Node value = binding.get(var);
+            for ( int i = 0 ; i < varKeys.length ; i++ ) {
+                Node value = binding.get(vars.get(i));
                 if ( value == null )
                     continue;
                 if ( ! firstInRow )
-                    print(out, " ,");
-                writeVarValue(out, var, value, firstInRow);
+                    out.write(memberSeparator);
+                // Write one JSON member (key, value pair in a JSON object)
+                // i.e.    "var": { ... term ... }
+                out.write(varKeys[i]);
+                writeValue(value, VarIndent);
                 firstInRow = false;
             }
-
-            if ( false ) {
-                // Print "missing" variables.
-                // If the header is right, this should not be necessary.
-                for ( Iterator<Var> vars = binding.vars() ; vars.hasNext() ; ) {
-                    Var var = vars.next();
-                    if ( ! rowSet.getResultVars().contains(var) ) {
-                        Node value = binding.get(var);
-                        if ( ! firstInRow )
-                            println(out, " ,");
-                        writeVarValue(out, var, value, firstInRow);
-                        firstInRow = false;
-                    }
-                }
-            }
-            println(out);
-            out.decIndent(VarIndent);
-            //decIndent(out);
-            print(out, "}");
+            out.write(rowFinish);
         }
 
-        /* Write one JSON member (key, value pair in a JSON object)
-         * i.e.    "var": { ... term ... }
-         * Separating comma handled by caller writeRow
-         */
-        private void writeVarValue(IndentedWriter out, Var var, Node value, boolean firstInRow) {
-            if ( value == null )
-                // Skip if no value.
+        private void writeValue(Node value, int indent) {
+            if ( value.isTripleTerm() ) {
+                writeValueNodeTriple(value, indent);
                 return;
-            println(out);
-            // Do not use quoteName - varName may not be JSON-safe as a bare name.
-            print(out, quote(var.getVarName()), ": ");
-            writeValue(out, value, MultiLineValues);
-            // No newline - allow for " ,"
+            }
+            out.write(termCache.get(value, this::encodeValue));
         }
 
-        private void writeValue(IndentedWriter out, Node value, boolean multiLine) {
-            if ( multiLine || value.isTripleTerm() )
-                println(out, "{");
-            else
-                print(out, "{ ");
-            incIndent(out);
-            // Explicit unbound
-            // if ( value == null )
-            //     writeValueUnbound(out) ;
-            // else
+        // A term, other than a triple term, on one line.
+        private byte[] encodeValue(Node value) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("{ ");
             if ( value.isLiteral() )
-                writeValueLiteral(out, value, multiLine);
+                encodeValueLiteral(sb, value);
             else if ( value.isURI() )
-                writeValueURI(out, value, multiLine);
+                encodeValueURI(sb, value);
             else if ( value.isBlank() )
-                writeValueBlankNode(out, value, multiLine);
-            else if ( value.isTripleTerm() )
-                writeValueNodeTriple(out, value, multiLine);
+                encodeValueBlankNode(sb, value);
             else if ( value.isNodeGraph() )
-                writeValueNodeGraph(out, value, multiLine);
+                throw new UnsupportedOperationException("Graph terms");
             else
                 Log.warn(RowSetWriterJSON.class, "Unknown RDFNode type in result set: " + value.getClass());
-            if ( multiLine || value.isTripleTerm()) // OR triple
-                println(out) ;
-            else
-                print(out, " ");
-            decIndent(out);
-            print(out, "}");
-        }
-
-        // On entry to writeTerm : ready to start the "type" field.
-
-        private void writeValueUnbound(IndentedWriter out, boolean multiLine) {
-            print(out, quoteName(kType), ": ", quote(kUnbound), " , ") ;
-            if ( MultiLineValues )
-                println(out) ;
-            print(out, quoteName(kValue), ": null") ;
+            sb.append(" }");
+            return bytes(sb.toString());
         }
 
-        private void writeValueLiteral(IndentedWriter out, Node literal, boolean multiLine) {
+        private void encodeValueLiteral(StringBuilder sb, Node literal) {
             String datatype = literal.getLiteralDatatypeURI();
 
             if ( Util.isSimpleString(literal) || Util.isLangString(literal) || Util.isDirLangString(literal) ) {
                 String lang = literal.getLiteralLanguage();
                 TextDirection direction = literal.getLiteralBaseDirection();
 
-                print(out, quoteName(kType), ": ", quote(kLiteral), " , ");
-                if ( multiLine )
-                    println(out);
-
-                if ( lang != null && !lang.equals("") ) {
-                    print(out, quoteName(kXmlLang), ": ", quote(lang), " , ");
-                    if ( multiLine )
-                        println(out);
-                }
-
-                if ( direction != null  ) {
-                    print(out, quoteName(kBaseDirection), ": ", quote(direction.direction()), " , ");
-                    if ( multiLine )
-                        println(out);
-                }
-
+                sb.append(quoteName(kType)).append(": ").append(quote(kLiteral)).append(" , ");
+                if ( lang != null && !lang.equals("") )
+                    sb.append(quoteName(kXmlLang)).append(": ").append(quote(lang)).append(" , ");
+                if ( direction != null  )
+                    sb.append(quoteName(kBaseDirection)).append(": ").append(quote(direction.direction())).append(" , ");
             } else {
-                print(out, quoteName(kType), ": ", quote(kLiteral), " , ");
-                if ( MultiLineValues )
-                    println(out);
-
-                print(out, quoteName(kDatatype), ": ", quote(datatype), " , ");
-                if ( multiLine )
-                    println(out);
+                sb.append(quoteName(kType)).append(": ").append(quote(kLiteral)).append(" , ");
+                sb.append(quoteName(kDatatype)).append(": ").append(quote(datatype)).append(" , ");
             }
-
-            print(out, quoteName(kValue), ": ", quote(literal.getLiteralLexicalForm()));
+            sb.append(quoteName(kValue)).append(": ").append(quote(literal.getLiteralLexicalForm()));
         }
 
-        private void writeValueBlankNode(IndentedWriter out, Node resource, boolean multiLine) {
+        private void encodeValueBlankNode(StringBuilder sb, Node resource) {
             String label = labels.get(null, resource);
             // Comes with leading "_:"
             label = label.substring(2);
-
-            print(out, quoteName(kType), ": ", quote(kBnode), " , ");
-            if ( multiLine )
-                println(out);
-            print(out, quoteName(kValue), ": ", quote(label));
+            sb.append(quoteName(kType)).append(": ").append(quote(kBnode)).append(" , ");
+            sb.append(quoteName(kValue)).append(": ").append(quote(label));
         }
 
-        private void writeValueURI(IndentedWriter out, Node resource, boolean multiLine) {
-            print(out, quoteName(kType), ": ", quote(kUri), " , ");
-            if ( multiLine )
-                println(out);
-            print(out, quoteName(kValue), ": ", quote(resource.getURI()));
-            return;
+        private void encodeValueURI(StringBuilder sb, Node resource) {
+            sb.append(quoteName(kType)).append(": ").append(quote(kUri)).append(" , ");
+            sb.append(quoteName(kValue)).append(": ").append(quote(resource.getURI()));
         }
 
-        private void writeValueNodeTriple(IndentedWriter out, Node value, boolean multiLine) {
+        // Triple terms are written over several lines.
+        // On entry, the output is just after the member name, which is at the given indent.
+        private void writeValueNodeTriple(Node value, int indent) {
             Triple triple = value.getTriple();
-            print(out, quoteName(kType), ": ", quote(kTriple), " , ");
-            println(out);
-
-            //if ( multiLineValues )
-            // println(out);
-            print(out, quoteName(kValue), ": ");
+            String pad1 = " ".repeat(indent+2);
+            String pad2 = " ".repeat(indent+4);
+            out.write("{\n");
+            out.write(pad1+quoteName(kType)+": "+quote(kTriple)+" , \n");
+            out.write(pad1+quoteName(kValue)+": {\n");
 
-            // Allow for different multiline choice for triple components
-            boolean multiLineInnerValue = multiLine;
+            out.write(pad2+quoteName(kSubject)+":  ");
+            writeValue(triple.getSubject(), indent+4);
+            out.write(" ,\n");
 
-            // Start of triple object.
-            // ----
-            println(out, "{");
-            incIndent(out);
+            out.write(pad2+quoteName(kPredicate)+": ");
+            writeValue(triple.getPredicate(), indent+4);
+            out.write(" ,\n");
 
-            // ---
-            print(out, quoteName(kSubject), ": ");
-            print(out, " ");
+            out.write(pad2+quoteName(kObject)+":   ");
+            writeValue(triple.getObject(), indent+4);
+            out.write("\n");
 
-            writeValue(out, triple.getSubject(), multiLineInnerValue);
-            println(out, " ,");
-
-            print(out, quoteName(kPredicate), ": ");
-            writeValue(out, triple.getPredicate(), multiLineInnerValue);
-            println(out, " ,");
-
-            print(out, quoteName(kObject), ": ");
-            print(out, "  ");
-            writeValue(out, triple.getObject(), multiLineInnerValue);
             // End of triple object.
-            decIndent(out);
-            println(out);
-            print(out, "}");
-            // ----
-            return;
+            out.write(pad1+"}\n");
+            out.write(" ".repeat(indent)+"}");
         }
 
-        private void writeValueNodeGraph(IndentedWriter out, Node value, boolean multiLine) {
-            throw new UnsupportedOperationException("Graph terms");
+        private static byte[] bytes(String string) {
+            return RowSetOutput.bytes(string);
         }
 
         private static String quote(String string) {
-            // Scope for efficiency improvement.
             return JSWriter.outputQuotedString(string);
         }
 
@@ -398,25 +310,5 @@ public class RowSetWriterJSON implements RowSetWriter {
             //return "\""+string+"\"";
             return quote(string);
         }
-
-        // Intercept all operations - development assistance.
-
-        private static void incIndent(IndentedWriter out) {
-            out.incIndent();
-        }
-
-        private static void decIndent(IndentedWriter out) {
-            out.decIndent();
-        }
-
-        private static void print(IndentedWriter out, String... strings) {
-            for ( String s : strings )
-                out.print(s);
-        }
-
-        private static void println(IndentedWriter out, String... strings) {
-            print(out, strings);
-            out.println();
-        }
     }
 }
@@ -25,9 +25,12 @@ import java.io.OutputStream;
 import java.io.Writer;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Function;
 
 import org.apache.jena.atlas.io.AWriter;
 import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.io.StringWriterI;
+import org.apache.jena.atlas.lib.Cache;
 import org.apache.jena.graph.Node;
 import org.apache.jena.riot.out.NodeFormatter;
 import org.apache.jena.riot.out.NodeFormatterTTL;
@@ -59,12 +62,12 @@ public class RowSetWriterTSV implements RowSetWriter {
 
     @Override
     public void write(OutputStream out, RowSet rowSet, Context context) {
-        output(IO.wrapUTF8(out), rowSet);
+        output(RowSetOutput.create(out, context), rowSet, context);
     }
 
     @Override
     public void write(Writer out, RowSet rowSet, Context context) {
-        output(IO.wrap(out), rowSet);
+        output(RowSetOutput.create(out, context), rowSet, context);
     }
 
     @Override
@@ -83,13 +86,20 @@ public class RowSetWriterTSV implements RowSetWriter {
         } finally { out.flush(); }
     }
 
-    private static void output(AWriter out, RowSet rowSet) {
+    private static void output(RowSetOutput out, RowSet rowSet, Context context) {
         try {
             NodeFormatter formatter = createNodeFormatter();
-            String sep = null;
+            Cache<Node, byte[]> cache = RowSetOutput.termCache(context);
+            Function<Node, byte[]> encoder = n -> {
+                StringWriterI w = new StringWriterI();
+                // This will not include a raw tab.
+                formatter.format(w, n);
+                return RowSetOutput.bytes(w.toString());
+            };
             List<Var> vars = rowSet.getResultVars();
 
             // writes the variables on the first line
+            String sep = null;
             for ( Var var : vars ) {
                 if ( sep != null )
                     out.write(sep);
@@ -101,24 +111,21 @@ public class RowSetWriterTSV implements RowSetWriter {
             out.write(NL);
 
             // writes one binding by line
+            int numVars = vars.size();
             for ( ; rowSet.hasNext() ; ) {
-                sep = null;
                 Binding b = rowSet.next();
-
-                for ( Var v : vars ) {
-                    if ( sep != null )
-                        out.write(sep);
-                    sep = SEP;
-
-                    Node n = b.get(v);
+                for ( int i = 0 ; i < numVars ; i++ ) {
+                    if ( i > 0 )
+                        out.write('\t');
+                    Node n = b.get(vars.get(i));
                     if ( n != null ) {
-                        // This will not include a raw tab.
-                        formatter.format(out, n);
+                        byte[] bytes = n.isTripleTerm() ? encoder.apply(n) : cache.get(n, encoder);
+                        out.write(bytes);
                     }
                 }
-                out.write(NL);
+                out.write('\n');
             }
-        } finally { out.flush();}
+        } finally { out.finish(); }
     }
 
     protected static NodeFormatter createNodeFormatter() {
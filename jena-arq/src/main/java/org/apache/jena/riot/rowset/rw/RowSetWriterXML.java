@@ -25,9 +25,11 @@ import static org.apache.jena.riot.rowset.rw.XMLResults.*;
 
 import java.io.OutputStream;
 import java.io.Writer;
+import java.util.List;
 import java.util.Objects;
 
 import org.apache.jena.atlas.io.IndentedWriter;
+import org.apache.jena.atlas.lib.Cache;
 import org.apache.jena.atlas.logging.Log;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
@@ -76,23 +78,29 @@ public class RowSetWriterXML implements RowSetWriter {
 
     @Override
     public void write(OutputStream outStream, RowSet rs, Context context) {
-        XMLOutputRowSet xOut = new XMLOutputRowSet(outStream, context);
+        RowSetOutput out = RowSetOutput.create(outStream, context);
+        XMLOutputRowSet xOut = new XMLOutputRowSet(out, context);
         if ( context != null && context.isDefined(xmlInstruction) )
             xOut.setXmlInst(context.isTrue(xmlInstruction));
         if ( context != null && context.isDefined(xmlStylesheet) )
             xOut.setStylesheetURL((String)(context.get(xmlStylesheet)));
-        xOut.start(rs);
-        for ( ; rs.hasNext() ; ) {
-            Binding qs = rs.next();
-            xOut.start(qs);
-            for ( Var var : rs.getResultVars() ) {
-                Node node = qs.get(var);
-                // node may be null
-                xOut.solution(var, node);
+        try {
+            List<Var> vars = rs.getResultVars();
+            xOut.start(rs);
+            for ( ; rs.hasNext() ; ) {
+                Binding qs = rs.next();
+                xOut.start(qs);
+                for ( int i = 0 ; i < vars.size() ; i++ ) {
+                    Node node = qs.get(vars.get(i));
+                    // node may be null
+                    xOut.solution(i, node);
+                }
+                xOut.finish(qs);
             }
-            xOut.finish(qs);
+            xOut.finish(rs);
+        } finally {
+            out.finish();
         }
-        xOut.finish(rs);
     }
 
     private class XMLOutputASK implements XMLResults {
@@ -144,158 +152,131 @@ public class RowSetWriterXML implements RowSetWriter {
         }
     }
 
+    // The layout is fixed: tags and indentation are pre-encoded and the
+    // encoded form of RDF terms is cached, except for triple terms, which
+    // span several lines and depend on the indentation.
     private static class XMLOutputRowSet
     {
         private static boolean outputExplicitUnbound = false ;
 
+        private static final int ResultIndent  = 2*INDENT;
+        private static final int BindingIndent = 3*INDENT;
+        private static final int ValueIndent   = 4*INDENT;
+
+        private static final byte[] resultStart  = bytes(" ".repeat(ResultIndent)+"<"+dfSolution+">\n");
+        private static final byte[] resultFinish = bytes(" ".repeat(ResultIndent)+"</"+dfSolution+">\n");
+        private static final byte[] unbound      = bytes(" ".repeat(BindingIndent)+"<"+dfUnbound+"/>\n");
+        private static final byte[] bindingFinish= bytes(" ".repeat(BindingIndent)+"</"+dfBinding+">\n");
+
         private int index = 0 ;                     // First index is 1
         private String stylesheetURL = null ;
         private boolean xmlInst = true ;
 
-        private final IndentedWriter  out ;
-        private int bNodeCounter = 0 ;
+        private final RowSetOutput out ;
         private final NodeToLabel bNodeMap;
+        private final Cache<Node, byte[]> termCache;
+        // Per variable: the start of the binding element.
+        private byte[][] bindingStart;
 
-        private XMLOutputRowSet(OutputStream outStream, Context context) {
-            this(new IndentedWriter(outStream), context);
-        }
-
-        private XMLOutputRowSet(IndentedWriter indentedOut, Context context) {
-            out = indentedOut;
+        private XMLOutputRowSet(RowSetOutput out, Context context) {
+            this.out = out;
             boolean outputGraphBNodeLabels = (context != null) && context.isTrue(ARQ.outputGraphBNodeLabels);
             bNodeMap = outputGraphBNodeLabels
                 ? SyntaxLabels.createNodeToLabelAsGiven()
                 : SyntaxLabels.createNodeToLabel();
+            termCache = RowSetOutput.termCache(context);
         }
 
         public void start(RowSet rs) {
             if ( xmlInst )
-                out.println("<?xml version=\"1.0\"?>");
+                out.write("<?xml version=\"1.0\"?>\n");
 
-            if ( stylesheetURL != null ) {
-                out.print("<?xml-stylesheet type=\"text/xsl\" href=\"");
-                out.print(stylesheetURL);
-                out.println("\"?>");
-            }
+            if ( stylesheetURL != null )
+                out.write("<?xml-stylesheet type=\"text/xsl\" href=\""+stylesheetURL+"\"?>\n");
 
             // ---- Root
-            out.print("<");
-            out.print(dfRootTag);
-            out.print(" xmlns=\"");
-            out.print(dfNamespace);
-            out.println("\">");
+            out.write("<"+dfRootTag+" xmlns=\""+dfNamespace+"\">\n");
 
             // ---- Header
-
-            out.incIndent(INDENT);
-            out.print("<");
-            out.print(dfHead);
-            out.println(">");
+            String pad = " ".repeat(INDENT);
+            out.write(pad+"<"+dfHead+">\n");
 
             if ( false ) {
                 String link = "UNSET";
-                out.print("<link href=\"");
-                out.print(link);
-                out.println("\"/>");
+                out.write(pad+pad+"<link href=\""+link+"\"/>\n");
             }
 
-            for ( Var var : rs.getResultVars() ) {
-                String n = var.getVarName();
-                out.incIndent(INDENT);
-                out.print("<");
-                out.print(dfVariable);
-                out.print(" ");
-                out.print(dfAttrVarName);
-                out.print("=\"");
-                out.print(n);
-                out.print("\"");
-                out.println("/>");
-                out.decIndent(INDENT);
+            List<Var> vars = rs.getResultVars();
+            bindingStart = new byte[vars.size()][];
+            for ( int i = 0 ; i < vars.size() ; i++ ) {
+                String n = vars.get(i).getVarName();
+                out.write(pad+pad+"<"+dfVariable+" "+dfAttrVarName+"=\""+n+"\"/>\n");
+                bindingStart[i] = bytes(" ".repeat(BindingIndent)+"<"+dfBinding+" name=\""+n+"\">\n");
             }
-            out.print("</");
-            out.print(dfHead);
-            out.println(">");
-            out.decIndent(INDENT);
+            out.write(pad+"</"+dfHead+">\n");
 
             // Start results proper
-            out.incIndent(INDENT);
-            out.print("<");
-            out.print(dfResults);
-            out.println(">");
-            out.incIndent(INDENT);
+            out.write(pad+"<"+dfResults+">\n");
         }
 
         public void finish(RowSet rs) {
-            out.decIndent(INDENT);
-            out.print("</");
-            out.print(dfResults);
-            out.println(">");
-            out.decIndent(INDENT);
-            out.print("</");
-            out.print(dfRootTag);
-            out.println(">");
-            out.flush();
+            out.write(" ".repeat(INDENT)+"</"+dfResults+">\n");
+            out.write("</"+dfRootTag+">\n");
         }
 
         public void start(Binding qs) {
-            out.print("<");
-            out.print(dfSolution);
-            out.println(">");
+            out.write(resultStart);
             index++;
-            out.incIndent(INDENT);
         }
 
         public void finish(Binding qs) {
-            out.decIndent(INDENT);
-            out.print("</");
-            out.print(dfSolution);
-            out.println(">");
+            out.write(resultFinish);
         }
 
-        public void solution(Var var, Node rdfNode) {
+        public void solution(int varIdx, Node rdfNode) {
             if ( rdfNode == null && !outputExplicitUnbound )
                 return;
             if ( rdfNode == null ) {
                 // Unbound
-                out.print("<");
-                out.print(dfUnbound);
-                out.println("/>");
+                out.write(unbound);
                 return;
             }
-            String varName = var.getVarName();
-            out.print("<");
-            out.print(dfBinding);
-            out.print(" name=\"");
-            out.print(varName);
-            out.println("\">");
-            out.incIndent(INDENT);
-            printBindingValue(rdfNode);
-            out.decIndent(INDENT);
-            out.print("</");
-            out.print(dfBinding);
-            out.println(">");
+            out.write(bindingStart[varIdx]);
+            if ( rdfNode.isTripleTerm() ) {
+                StringBuilder sb = new StringBuilder();
+                printBindingValue(sb, rdfNode, ValueIndent);
+                out.write(sb.toString());
+            } else {
+                out.write(termCache.get(rdfNode, n->{
+                    StringBuilder sb = new StringBuilder();
+                    printBindingValue(sb, n, ValueIndent);
+                    return bytes(sb.toString());
+                }));
+            }
+            out.write(bindingFinish);
         }
 
-        private void printBindingValue(Node node) {
+        // Each value is written as complete lines, starting with the indent.
+        private void printBindingValue(StringBuilder sb, Node node, int indent) {
             if ( node == null )
                 return;
 
             if ( node.isLiteral() ) {
-                printLiteral(node);
+                printLiteral(sb, node, indent);
                 return;
             }
 
             if ( node.isURI() ) {
-                printURI(node);
+                printURI(sb, node, indent);
                 return;
             }
 
             if ( node.isBlank() ) {
-                printBlankNode(node);
+                printBlankNode(sb, node, indent);
                 return;
             }
             if ( node.isTripleTerm() ) {
-                printTripleTerm(node);
+                printTripleTerm(sb, node, indent);
                 return;
             }
 
@@ -305,99 +286,89 @@ public class RowSetWriterXML implements RowSetWriter {
             Log.warn(this, "Unknown RDFNode type in result set: " + node);
         }
 
-        private void printURI(Node nodeURI) {
+        private void printURI(StringBuilder sb, Node nodeURI, int indent) {
             String uri = nodeURI.getURI();
-            out.print("<");
-            out.print(dfURI);
-            out.print(">");
-            out.print(xml_escape(uri));
-            out.print("</");
-            out.print(dfURI);
-            out.println(">");
+            pad(sb, indent);
+            sb.append("<").append(dfURI).append(">");
+            sb.append(xml_escape(uri));
+            sb.append("</").append(dfURI).append(">\n");
         }
 
-        private void printBlankNode(Node node) {
+        private void printBlankNode(StringBuilder sb, Node node, int indent) {
             String label = bNodeMap.get(null, node);
             // Comes with leading "_:"
             label = label.substring(2);
-            out.print("<");
-            out.print(dfBNode);
-            out.print(">");
-            out.print(xml_escape(label));
-            out.print("</");
-            out.print(dfBNode);
-            out.println(">");
+            pad(sb, indent);
+            sb.append("<").append(dfBNode).append(">");
+            sb.append(xml_escape(label));
+            sb.append("</").append(dfBNode).append(">\n");
         }
 
-        private void printLiteral(Node literal) {
-            out.print("<");
-            out.print(dfLiteral);
+        private void printLiteral(StringBuilder sb, Node literal, int indent) {
+            pad(sb, indent);
+            sb.append("<").append(dfLiteral);
 
             if ( Util.isLangString(literal) ||  Util.isDirLangString(literal) ) {
                 String lang = literal.getLiteralLanguage();
                 if ( Util.isDirLangString(literal) ) {
-                    out.print(" xmlns:its=\"http://www.w3.org/2005/11/its\" its:version=\"2.0\"");
-                    out.println();
-                    out.print("        ");
-                }
-                out.print(" xml:lang=\"");
-                out.print(lang);
-                out.print("\"");
-                if ( Util.isDirLangString(literal) ) {
-                    out.print(" its:dir=\"");
-                    out.print(literal.getLiteralBaseDirection().direction());
-                    out.print("\"");
+                    sb.append(" xmlns:its=\"http://www.w3.org/2005/11/its\" its:version=\"2.0\"");
+                    sb.append("\n");
+                    pad(sb, indent);
+                    sb.append("        ");
                 }
+                sb.append(" xml:lang=\"").append(lang).append("\"");
+                if ( Util.isDirLangString(literal) )
+                    sb.append(" its:dir=\"").append(literal.getLiteralBaseDirection().direction()).append("\"");
             } else if ( !Util.isSimpleString(literal) ) {
                 // Datatype
                 // (RDF 1.1) not xsd:string nor rdf:langString.
                 // (RDF 1.0) any datatype.
                 String datatype = literal.getLiteralDatatypeURI();
-                out.print(" ");
-                out.print(dfAttrDatatype);
-                out.print("=\"");
-                out.print(datatype);
-                out.print("\"");
+                sb.append(" ").append(dfAttrDatatype).append("=\"").append(datatype).append("\"");
             }
 
-            out.print(">");
-            out.print(xml_escape(literal.getLiteralLexicalForm()));
-            out.print("</");
-            out.print(dfLiteral);
-            out.println(">");
+            sb.append(">");
+            sb.append(xml_escape(literal.getLiteralLexicalForm()));
+            sb.append("</").append(dfLiteral).append(">\n");
         }
 
-        private void printTripleTerm(Node node) {
+        private void printTripleTerm(StringBuilder sb, Node node, int indent) {
             Triple triple = node.getTriple();
-            openTag(dfTriple);
+            openTag(sb, dfTriple, indent);
 
             // Subject
-            openTag(dfSubject);
-            printBindingValue(triple.getSubject());
-            closeTag(dfSubject);
+            openTag(sb, dfSubject, indent+INDENT);
+            printBindingValue(sb, triple.getSubject(), indent+2*INDENT);
+            closeTag(sb, dfSubject, indent+INDENT);
             // Predicate
-            openTag(dfPredicate);
-            printBindingValue(triple.getPredicate());
-            closeTag(dfPredicate);
+            openTag(sb, dfPredicate, indent+INDENT);
+            printBindingValue(sb, triple.getPredicate(), indent+2*INDENT);
+            closeTag(sb, dfPredicate, indent+INDENT);
             // Object
-            openTag(dfObject);
-            printBindingValue(triple.getObject());
-            closeTag(dfObject);
+            openTag(sb, dfObject, indent+INDENT);
+            printBindingValue(sb, triple.getObject(), indent+2*INDENT);
+            closeTag(sb, dfObject, indent+INDENT);
+
+            closeTag(sb, dfTriple, indent);
+        }
 
-            closeTag(dfTriple);
+        private static void openTag(StringBuilder sb, String name, int indent) {
+            pad(sb, indent);
+            sb.append("<").append(name).append(">\n");
         }
 
-        private void openTag(String name) {
-            out.print("<");
-            out.print(name);
-            out.println(">");
-            out.incIndent();
+        private static void closeTag(StringBuilder sb, String name, int indent) {
+            pad(sb, indent);
+            sb.append("</").append(name).append(">\n");
         }
-        private void closeTag(String name) {
-            out.decIndent();
-            out.print("</");
-            out.print(name);
-            out.println(">");
+
+        private static void pad(StringBuilder sb, int indent) {
+            for ( int i = 0 ; i < indent ; i++ )
+                sb.append(' ');
+        }
+
+        private static byte[] bytes(String string) {
+            return RowSetOutput.bytes(string);
         }
 
         private static String xml_escape(String string) {
@@ -31,7 +31,13 @@ import org.apache.jena.graph.Node ;
 import org.apache.jena.riot.lang.LabelToNode ;
 import org.apache.jena.sparql.graph.NodeConst ;
 
-/** Adds some caching of created nodes - the caching is tuned to RIOT parser usage */
+/**
+ * Adds some caching of created nodes - the caching is tuned to RIOT parser usage.
+ * <p>
+ * The cache is per parser. Nodes are created by {@link org.apache.jena.graph.NodeFactory},
+ * so when {@link org.apache.jena.graph.NodeInterner JVM-wide interning} is enabled the
+ * cached nodes are the canonical ones, shared with other parsers and graphs.
+ */
 public class FactoryRDFCaching extends FactoryRDFStd {
     public static final int DftNodeCacheSize = 5000 ;
 
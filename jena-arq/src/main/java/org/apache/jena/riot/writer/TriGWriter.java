@@ -38,14 +38,14 @@ public class TriGWriter extends TriGWriterBase
 {
     @Override
     protected void output(IndentedWriter iOut, DatasetGraph dsg, PrefixMap prefixMap, String baseURI, Context context) {
-        TriGWriter$ w = new TriGWriter$(iOut, prefixMap, baseURI, context);
+        TriGWriter$ w = new TriGWriter$(iOut, prefixMap, baseURI, context, TurtleShell.writerThreads(dsg, context));
         w.write(dsg);
     }
 
     private static class TriGWriter$ extends TurtleShell
     {
-        TriGWriter$(IndentedWriter out, PrefixMap prefixMap, String baseURI, Context context) {
-            super(out, prefixMap, baseURI, context);
+        TriGWriter$(IndentedWriter out, PrefixMap prefixMap, String baseURI, Context context, int writerThreads) {
+            super(out, prefixMap, baseURI, context, writerThreads);
         }
 
         private void write(DatasetGraph dsg) {
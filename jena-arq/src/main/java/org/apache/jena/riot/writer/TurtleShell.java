@@ -25,7 +25,13 @@ import static org.apache.jena.graph.Node.ANY;
 import static org.apache.jena.riot.writer.WriterConst.*;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
+import org.apache.jena.atlas.io.IndentedLineBuffer;
 import org.apache.jena.atlas.io.IndentedWriter;
 import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.atlas.lib.InternalErrorException;
@@ -43,6 +49,7 @@ import org.apache.jena.riot.system.PrefixMap;
 import org.apache.jena.riot.system.PrefixMapFactory;
 import org.apache.jena.riot.system.RiotLib;
 import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphMapLink;
 import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.sparql.util.Context;
 import org.apache.jena.system.G;
@@ -61,8 +68,28 @@ public abstract class TurtleShell {
     protected final Context        context;
     protected final DirectiveStyle directiveStyle;
     protected final IndentStyle    indentStyle;
+    protected final int            writerThreads;
+
+    // Number of subjects in each partition when writing with worker threads.
+    private static final int PARTITION_SIZE = 1000;
 
     protected TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, NodeFormatter nodeFmt, Context context) {
+        this(out, pmap, baseURI, nodeFmt, context, 1);
+    }
+
+    protected TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, Context context) {
+        this(out, pmap, baseURI, context, 1);
+    }
+
+    /**
+     * Writer using worker threads if {@code writerThreads} is more than one.
+     * See {@link #writerThreads(Graph, Context)} and {@link #writerThreads(DatasetGraph, Context)}.
+     */
+    protected TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, Context context, int writerThreads) {
+        this(out, pmap, baseURI, createNodeFormatter(pmap, baseURI, context, writerThreads), context, writerThreads);
+    }
+
+    private TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, NodeFormatter nodeFmt, Context context, int writerThreads) {
         this.out = out;
         if ( pmap == null )
             pmap = PrefixMapFactory.emptyPrefixMap();
@@ -72,17 +99,66 @@ public abstract class TurtleShell {
         this.context = context;
         this.directiveStyle = WriterLib.directiveStyle(context);
         this.indentStyle = WriterLib.indentStyle(context);
+        this.writerThreads = Math.max(writerThreads, 1);
     }
 
-    protected TurtleShell(IndentedWriter out, PrefixMap pmap, String baseURI, Context context) {
-        this(out, pmap, baseURI, createNodeFormatter(pmap,baseURI,context), context);
+    static public NodeFormatter createNodeFormatter(PrefixMap pmap, String baseURI, Context context) {
+        return createNodeFormatter(pmap, baseURI, context, 1);
     }
 
-    static public NodeFormatter createNodeFormatter(PrefixMap pmap, String baseURI, Context context) {
+    private static NodeFormatter createNodeFormatter(PrefixMap pmap, String baseURI, Context context, int writerThreads) {
+        // Partitions written by different threads must agree on blank node labels
+        // so the labels come from the blank node, not from the order of writing.
+        NodeToLabel nodeToLabel = ( writerThreads > 1 )
+            ? NodeToLabel.createBNodeByLabelEncoded()
+            : NodeToLabel.createScopeByDocument();
         if ( context != null && context.isTrue(RIOT.symTurtleMultilineLiterals) )
-            return new NodeFormatterTTL_MultiLine(baseURI, pmap, NodeToLabel.createScopeByDocument());
+            return new NodeFormatterTTL_MultiLine(baseURI, pmap, nodeToLabel);
         else
-            return new NodeFormatterTTL(baseURI, pmap, NodeToLabel.createScopeByDocument());
+            return new NodeFormatterTTL(baseURI, pmap, nodeToLabel);
+    }
+
+    /**
+     * The number of threads to write the graph with: the setting of
+     * {@link RIOT#symTurtleWriterThreads}, or one if the graph can not be read from
+     * several threads.
+     */
+    protected static int writerThreads(Graph graph, Context context) {
+        int threads = WriterLib.writerThreads(context);
+        if ( threads > 1 && ! isParallelSafe(graph) )
+            return 1;
+        return threads;
+    }
+
+    /**
+     * The number of threads to write the dataset with: the setting of
+     * {@link RIOT#symTurtleWriterThreads}, or one if the dataset can not be read from
+     * several threads.
+     */
+    protected static int writerThreads(DatasetGraph dsg, Context context) {
+        int threads = WriterLib.writerThreads(context);
+        if ( threads > 1 && ! isParallelSafe(dsg) )
+            return 1;
+        return threads;
+    }
+
+    /**
+     * Whether the data can be read from several threads. Transactions are usually
+     * per-thread so only storage without transactions, or with only a lock, is read
+     * by worker threads. A {@link DatasetGraphMapLink} is safe if the graphs it links
+     * to do not have transactions.
+     */
+    private static boolean isParallelSafe(DatasetGraph dsg) {
+        if ( dsg instanceof DatasetGraphMapLink ) {
+            if ( ! isParallelSafe(dsg.getDefaultGraph()) )
+                return false;
+            return Iter.allMatch(dsg.listGraphNodes(), gn -> isParallelSafe(dsg.getGraph(gn)));
+        }
+        return ! dsg.supportsTransactions();
+    }
+
+    private static boolean isParallelSafe(Graph graph) {
+        return ! graph.getTransactionHandler().transactionsSupported();
     }
 
     protected void writeBase(String base) {
@@ -117,12 +193,38 @@ public abstract class TurtleShell {
         }
     }
 
+    /** Create a {@link ShellGraph} that writes to this shell, reusing the graph analysis of another one. */
+    private ShellGraph createShellGraph(ShellGraph analysis) {
+        if (this.indentStyle == IndentStyle.LONG) {
+            return new ShellGraphLong(analysis);
+        } else {
+            return new ShellGraphWide(analysis);
+        }
+    }
+
+    /**
+     * The writer for one partition of subjects. This is used by a worker thread and
+     * writes into a buffer with its own node formatter and copy of the prefix map.
+     */
+    private static final class TurtleShellPartition extends TurtleShell {
+        TurtleShellPartition(IndentedWriter out, TurtleShell parent) {
+            super(out, PrefixMapFactory.create(parent.prefixMap), parent.baseURI, parent.context, parent.writerThreads);
+        }
+    }
+
+    /** The output of writing a partition, and the nested objects written in that partition. */
+    private record PartitionOutput(String text, Set<Node> nestedObjectsWritten) {}
+
     private final class ShellGraphWide extends ShellGraph {
 
         private ShellGraphWide(Graph graph, Node graphName, DatasetGraph dsg, Set<Node> graphNames) {
             super(graph, graphName, dsg, graphNames);
         }
 
+        private ShellGraphWide(ShellGraph analysis) {
+            super(analysis);
+        }
+
         @Override
         protected boolean writeRemainingNLinkedLists(boolean somethingWritten) {
             // Print carefully - need a label for the first cell.
@@ -410,6 +512,10 @@ public abstract class TurtleShell {
             super(graph, graphName, dsg, graphNames);
         }
 
+        private ShellGraphLong(ShellGraph analysis) {
+            super(analysis);
+        }
+
 
         @Override
         protected boolean writeRemainingNLinkedLists(boolean somethingWritten) {
@@ -649,6 +755,9 @@ public abstract class TurtleShell {
         private boolean allowDeepPretty = true;
         protected final boolean printTypeKeyword;
 
+        // Worker threads for analysis and writing; null when single threaded.
+        private final ForkJoinPool pool;
+
         private ShellGraph(Graph graph, Node graphName, DatasetGraph dsg, Set<Node> graphNames) {
             this.dsg = dsg;
             this.graphName = graphName;
@@ -663,13 +772,21 @@ public abstract class TurtleShell {
             this.nLinkedLists = new HashMap<>();
             this.listElts = new HashSet<>();
             this.allowDeepPretty = true;
+            this.pool = ( writerThreads > 1 ) ? new ForkJoinPool(writerThreads) : null;
 
             // ?? Single pass?
             // <<>> - and nested - bnodes can't be PP.
 
-            // Must be in this order.
-            findLists();
-            findBNodesSyntax1();
+            try {
+                // Must be in this order.
+                findLists();
+                findBNodesSyntax1();
+            } catch (RuntimeException | Error ex) {
+                // The pool is shut down by writeGraph, which is not called.
+                if ( pool != null )
+                    pool.shutdown();
+                throw ex;
+            }
             // Stop head of lists printed as triples going all the way to the
             // good part.
             nestedObjects.removeAll(listElts);
@@ -677,6 +794,25 @@ public abstract class TurtleShell {
             //printDetails();
         }
 
+        // For partitions: share the (read-only) analysis of the graph.
+        private ShellGraph(ShellGraph analysis) {
+            this.dsg = analysis.dsg;
+            this.graphName = analysis.graphName;
+            this.graphNames = analysis.graphNames;
+            this.graph = analysis.graph;
+            this.nestedObjects = analysis.nestedObjects;
+            this.nestedObjectsWritten = new HashSet<>();
+            this.freeBnodes = analysis.freeBnodes;
+
+            this.lists = analysis.lists;
+            this.freeLists = analysis.freeLists;
+            this.nLinkedLists = analysis.nLinkedLists;
+            this.listElts = analysis.listElts;
+            this.allowDeepPretty = true;
+            this.pool = null;
+            this.printTypeKeyword = analysis.printTypeKeyword;
+        }
+
         // Debug
         private void printDetails() {
             printDetails("nestedObjects", nestedObjects);
@@ -842,6 +978,10 @@ public abstract class TurtleShell {
          *   triple term must refer to a triple in the graph so blank node used elsewhere.)
          */
         private void findBNodesSyntax1() {
+            if ( pool != null ) {
+                findBNodesSyntax1Parallel();
+                return;
+            }
             // Set of all bnodes used into triple terms
             Set<Node> blankNodesInTripleTerms = new HashSet<>();
             // Nodes known not to meet the requirement.
@@ -850,37 +990,7 @@ public abstract class TurtleShell {
             try {
                 for (; iter.hasNext(); ) {
                     Triple t = iter.next();
-                    Node subj = t.getSubject();
-                    Node obj = t.getObject();
-
-                    if ( subj.isBlank() )
-                    {
-                        int sConn = inLinks(subj);
-                        if ( sConn == 0 && containedInOneGraph(subj) )
-                            // Not used as an object in this graph.
-                            freeBnodes.add(subj);
-                    } else if ( subj.isTripleTerm() ) {
-                        extractBlankNodesInTripleTerms(blankNodesInTripleTerms, subj);
-                    }
-
-                    if ( obj.isTripleTerm() ) {
-                        extractBlankNodesInTripleTerms(blankNodesInTripleTerms, obj);
-                        continue;
-                    }
-
-                    if ( ! obj.isBlank() )
-                        continue;
-                    if ( rejects.contains(obj) )
-                        continue;
-
-                    int connectivity = inLinks(obj);
-                    if ( connectivity == 1 && containedInOneGraph(obj) ) {
-                        // If not used in another graph (or as graph name)
-                        nestedObjects.add(obj);
-                    }
-                    else
-                        // Uninteresting object connected multiple times.
-                        rejects.add(obj);
+                    findBNodesSyntax1(t, freeBnodes, nestedObjects, rejects, blankNodesInTripleTerms);
                 }
                 // Remove any blank nodes in triple terms. These have to be done
                 // without nesting' we also do not abbreviate as [],.
@@ -889,6 +999,71 @@ public abstract class TurtleShell {
             } finally { iter.close(); }
         }
 
+        // Helper for findBNodeSyntax1 : process one triple.
+        private void findBNodesSyntax1(Triple t, Set<Node> freeBnodes, Set<Node> nestedObjects,
+                                       Set<Node> rejects, Set<Node> blankNodesInTripleTerms) {
+            Node subj = t.getSubject();
+            Node obj = t.getObject();
+
+            if ( subj.isBlank() )
+            {
+                int sConn = inLinks(subj);
+                if ( sConn == 0 && containedInOneGraph(subj) )
+                    // Not used as an object in this graph.
+                    freeBnodes.add(subj);
+            } else if ( subj.isTripleTerm() ) {
+                extractBlankNodesInTripleTerms(blankNodesInTripleTerms, subj);
+            }
+
+            if ( obj.isTripleTerm() ) {
+                extractBlankNodesInTripleTerms(blankNodesInTripleTerms, obj);
+                return;
+            }
+
+            if ( ! obj.isBlank() )
+                return;
+            if ( rejects.contains(obj) )
+                return;
+
+            int connectivity = inLinks(obj);
+            if ( connectivity == 1 && containedInOneGraph(obj) ) {
+                // If not used in another graph (or as graph name)
+                nestedObjects.add(obj);
+            }
+            else
+                // Uninteresting object connected multiple times.
+                rejects.add(obj);
+        }
+
+        /**
+         * Parallel version of {@link #findBNodesSyntax1()}. The link tests are
+         * done by the worker threads into concurrent sets, then the results are
+         * added to {@code freeBnodes} and {@code nestedObjects} in the order of a
+         * single threaded pass so that later iteration over these sets is the same
+         * from run to run.
+         */
+        private void findBNodesSyntax1Parallel() {
+            Set<Node> blankNodesInTripleTerms = ConcurrentHashMap.newKeySet();
+            Set<Node> rejects = ConcurrentHashMap.newKeySet();
+            Set<Node> free = ConcurrentHashMap.newKeySet();
+            Set<Node> nested = ConcurrentHashMap.newKeySet();
+            try ( Stream<Triple> stream = graph.stream() ) {
+                pool.submit(()->stream.parallel().forEach(t->findBNodesSyntax1(t, free, nested, rejects, blankNodesInTripleTerms))).join();
+            }
+            ExtendedIterator<Triple> iter = find(ANY, ANY, ANY);
+            try {
+                for (; iter.hasNext(); ) {
+                    Triple t = iter.next();
+                    if ( free.contains(t.getSubject()) )
+                        freeBnodes.add(t.getSubject());
+                    if ( nested.contains(t.getObject()) )
+                        nestedObjects.add(t.getObject());
+                }
+            } finally { iter.close(); }
+            freeBnodes.removeAll(blankNodesInTripleTerms);
+            nestedObjects.removeAll(blankNodesInTripleTerms);
+        }
+
         // Helper for findBNodeSyntax1
         private void extractBlankNodesInTripleTerms(Set<Node> blankNodesInTripleTerms, Node nodeTriple) {
             // Needs to recurse.
@@ -914,26 +1089,50 @@ public abstract class TurtleShell {
          */
         private void findLists() {
             List<Triple> tails = triples(ANY, RDF_Rest, RDF_Nil);
-            for ( Triple t : tails ) {
-                // Returns the elements, reversed.
-                Collection<Node> listElts2 = new HashSet<>();
-                Pair<Node, List<Node>> p = followTailToHead(t.getSubject(), listElts2);
-                if ( p != null ) {
-                    Node headElt = p.getLeft();
-                    // Free standing/private
-                    List<Node> elts = p.getRight();
-                    long numLinks = countTriples(null, null, headElt);
-                    if ( numLinks == 1 )
-                        lists.put(headElt, elts);
-                    else if ( numLinks == 0 )
-                        // 0 connected lists
-                        freeLists.put(headElt, elts);
-                    else
-                        // Two triples to this list.
-                        nLinkedLists.put(headElt, elts);
-                    listElts.addAll(listElts2);
-                }
+            if ( pool != null ) {
+                // Follow the lists in parallel; record the results in the order of the tails.
+                ListDetails[] results = new ListDetails[tails.size()];
+                pool.submit(()->IntStream.range(0, tails.size()).parallel()
+                                         .forEach(i->results[i] = findList(tails.get(i)))).join();
+                for ( ListDetails details : results )
+                    recordList(details);
+                return;
             }
+            for ( Triple t : tails )
+                recordList(findList(t));
+        }
+
+        // A well-formed list : head, elements, number of links to the head and the list cells.
+        private record ListDetails(Node headElt, List<Node> elts, long numLinks, Collection<Node> listElts) {}
+
+        private ListDetails findList(Triple tail) {
+            // Returns the elements, reversed.
+            Collection<Node> listElts2 = new HashSet<>();
+            Pair<Node, List<Node>> p = followTailToHead(tail.getSubject(), listElts2);
+            if ( p == null )
+                return null;
+            Node headElt = p.getLeft();
+            // Free standing/private
+            List<Node> elts = p.getRight();
+            long numLinks = countTriples(null, null, headElt);
+            return new ListDetails(headElt, elts, numLinks, listElts2);
+        }
+
+        private void recordList(ListDetails details) {
+            if ( details == null )
+                return;
+            Node headElt = details.headElt();
+            List<Node> elts = details.elts();
+            long numLinks = details.numLinks();
+            if ( numLinks == 1 )
+                lists.put(headElt, elts);
+            else if ( numLinks == 0 )
+                // 0 connected lists
+                freeLists.put(headElt, elts);
+            else
+                // Two triples to this list.
+                nLinkedLists.put(headElt, elts);
+            listElts.addAll(details.listElts());
         }
 
         // return head elt node, list of elements.
@@ -1016,7 +1215,13 @@ public abstract class TurtleShell {
 
         protected void writeGraph() {
             Iterator<Node> subjects = listSubjects();
-            boolean somethingWritten = writeBySubject(subjects);
+            boolean somethingWritten;
+            if ( pool != null ) {
+                try {
+                    somethingWritten = writeBySubjectParallel(subjects);
+                } finally { pool.shutdown(); }
+            } else
+                somethingWritten = writeBySubject(subjects);
             // Write remainders
             // 1 - Shared lists
             somethingWritten = writeRemainingNLinkedLists(somethingWritten);
@@ -1127,16 +1332,87 @@ public abstract class TurtleShell {
                 if ( !first )
                     out.println();
                 first = false;
-                if ( freeBnodes.contains(subj) ) {
-                    // Top level: write in "[....]" on "[] :p" form.
-                    writeNestedObjectTopLevel(subj);
+                writeSubject(subj);
+            }
+            return !first;
+        }
+
+        private void writeSubject(Node subj) {
+            if ( freeBnodes.contains(subj) ) {
+                // Top level: write in "[....]" on "[] :p" form.
+                writeNestedObjectTopLevel(subj);
+                return;
+            }
+            Collection<Triple> cluster = triplesOfSubject(subj);
+            writeCluster(subj, cluster);
+        }
+
+        /**
+         * Write by subject using worker threads. Subjects are grouped into partitions
+         * of {@link #PARTITION_SIZE} and each partition is written to a buffer by a
+         * worker thread. The buffers are output in the order of the partitions,
+         * so the output is the same as writing with one thread. At most
+         * {@code 2*writerThreads} partitions are in progress at any one time.
+         */
+        private boolean writeBySubjectParallel(Iterator<Node> subjects) {
+            Deque<ForkJoinTask<PartitionOutput>> inProgress = new ArrayDeque<>();
+            int window = 2 * writerThreads;
+            boolean somethingWritten = false;
+            List<Node> partition = new ArrayList<>(PARTITION_SIZE);
+            for (; subjects.hasNext(); ) {
+                Node subj = subjects.next();
+                if ( nestedObjects.contains(subj) )
+                    continue;
+                if ( listElts.contains(subj) )
+                    continue;
+                if ( inProgress.isEmpty() && partition.isEmpty() && ! out.atLineStart() ) {
+                    // Partitions are written starting on a fresh line.
+                    // Write in place until the output is at the start of a line.
+                    if ( somethingWritten )
+                        out.println();
+                    writeSubject(subj);
+                    somethingWritten = true;
                     continue;
                 }
-
-                Collection<Triple> cluster = triplesOfSubject(subj);
-                writeCluster(subj, cluster);
+                partition.add(subj);
+                if ( partition.size() < PARTITION_SIZE )
+                    continue;
+                inProgress.add(writePartition(partition));
+                partition = new ArrayList<>(PARTITION_SIZE);
+                if ( inProgress.size() >= window )
+                    somethingWritten = outputPartition(inProgress.removeFirst().join(), somethingWritten);
             }
-            return !first;
+            if ( ! partition.isEmpty() )
+                inProgress.add(writePartition(partition));
+            while ( ! inProgress.isEmpty() )
+                somethingWritten = outputPartition(inProgress.removeFirst().join(), somethingWritten);
+            return somethingWritten;
+        }
+
+        private ForkJoinTask<PartitionOutput> writePartition(List<Node> subjects) {
+            int indent = out.getAbsoluteIndent();
+            return pool.submit(()->{
+                IndentedLineBuffer buffer = new IndentedLineBuffer();
+                buffer.setAbsoluteIndent(indent);
+                TurtleShell shell = new TurtleShellPartition(buffer, TurtleShell.this);
+                ShellGraph x = shell.createShellGraph(this);
+                x.writeBySubject(subjects.iterator());
+                return new PartitionOutput(buffer.asString(), x.nestedObjectsWritten);
+            });
+        }
+
+        private boolean outputPartition(PartitionOutput partition, boolean somethingWritten) {
+            if ( partition.text().isEmpty() )
+                return somethingWritten;
+            if ( somethingWritten )
+                out.println();
+            // The buffer has been indented already.
+            int indent = out.getAbsoluteIndent();
+            out.setAbsoluteIndent(0);
+            out.print(partition.text());
+            out.setAbsoluteIndent(indent);
+            nestedObjectsWritten.addAll(partition.nestedObjectsWritten());
+            return true;
         }
 
         // A Cluster is a collection of triples with the same subject.
@@ -30,13 +30,13 @@ public class TurtleWriter extends TurtleWriterBase {
 
     @Override
     protected void output(IndentedWriter iOut, Graph graph, PrefixMap prefixMap, String baseURI, Context context) {
-        TurtleWriter$ w = new TurtleWriter$(iOut, prefixMap, baseURI, context);
+        TurtleWriter$ w = new TurtleWriter$(iOut, prefixMap, baseURI, context, TurtleShell.writerThreads(graph, context));
         w.write(graph);
     }
 
     private static class TurtleWriter$ extends TurtleShell {
-        public TurtleWriter$(IndentedWriter out, PrefixMap prefixMap, String baseURI, Context context) {
-            super(out, prefixMap, baseURI, context);
+        public TurtleWriter$(IndentedWriter out, PrefixMap prefixMap, String baseURI, Context context, int writerThreads) {
+            super(out, prefixMap, baseURI, context, writerThreads);
         }
 
         private void write(Graph graph) {
@@ -57,4 +57,12 @@ import org.apache.jena.sparql.util.Context;
         // Default choice; includes null in context.
         return dftIndentStyle;
     }
+
+    // Number of threads for the pretty writers. 1 means the writer does not use worker threads.
+    /*package*/ static int writerThreads(Context context) {
+        if ( context == null )
+            return 1;
+        int x = context.getInt(RIOT.symTurtleWriterThreads, 1);
+        return Math.max(x, 1);
+    }
 }
@@ -0,0 +1,577 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.riot.writer.c14n;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.jena.atlas.io.AWriter;
+import org.apache.jena.atlas.io.IO;
+import org.apache.jena.atlas.io.IndentedLineBuffer;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.RIOT;
+import org.apache.jena.riot.RiotException;
+import org.apache.jena.riot.out.NodeFormatter;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * RDF Dataset Canonicalization, <a href="https://www.w3.org/TR/rdf-canon/">RDFC-1.0</a>.
+ * <p>
+ * The canonical form of a dataset is the canonical N-Quads, sorted, with blank nodes
+ * relabelled {@code _:c14n0}, {@code _:c14n1}, ... Isomorphic datasets have the
+ * same canonical form.
+ * <p>
+ * The first degree hashes of blank nodes are calculated in parallel for datasets with
+ * many blank nodes. Blank nodes that share a first degree hash are distinguished by the
+ * N-degree hash algorithm which is memoized and limited by the work limit ("maxWork")
+ * and recursion depth limit ("maxDepth"); some graphs (for example, many copies of a
+ * highly symmetric structure) require exponential work and canonicalization of such data
+ * fails with a {@link RiotException} rather than running for an unbounded time.
+ * <p>
+ * Blank nodes inside triple terms are not supported.
+ * <pre>
+ *   RDFC10.create().threads(4).build().write(System.out, dataset);
+ * </pre>
+ * or use {@link org.apache.jena.riot.RDFFormat#NQUADS_RDFC10} with {@code RDFDataMgr} or {@code RDFWriter}.
+ */
+public class RDFC10 {
+
+    /** Default hash algorithm. RDFC-1.0 also allows "SHA-384". */
+    public static final String DFT_HASH_ALGORITHM = "SHA-256";
+    /** Default limit on the work to distinguish blank nodes with the same first degree hash. */
+    public static final long   DFT_MAX_WORK       = 1_000_000;
+    /** Default limit on the recursion depth of the N-degree hash. */
+    public static final int    DFT_MAX_DEPTH      = 1_000;
+
+    // Below this number of blank nodes, do not use multiple threads.
+    private static final int PARALLEL_THRESHOLD = 1_000;
+    // Limit on the number of memoized N-degree hash results in one canonicalization.
+    private static final int MEMO_LIMIT = 100_000;
+
+    private static final String canonicalPrefix = "c14n";
+    private static final String temporaryPrefix = "b";
+    private static final NodeFormatter nodeFmt  = new NodeFormatter_C14N();
+
+    /** Builder for an RDFC-1.0 canonicalizer. */
+    public static Builder create() {
+        return new Builder();
+    }
+
+    /** Write the canonical N-Quads for a dataset using the default settings. */
+    public static void canonicalize(OutputStream output, DatasetGraph dataset) {
+        create().build().write(output, dataset);
+    }
+
+    private final int    threads;
+    private final long   maxWork;
+    private final int    maxDepth;
+    private final String hashAlgorithm;
+
+    private RDFC10(int threads, long maxWork, int maxDepth, String hashAlgorithm) {
+        this.threads = threads;
+        this.maxWork = maxWork;
+        this.maxDepth = maxDepth;
+        this.hashAlgorithm = hashAlgorithm;
+    }
+
+    /**
+     * Calculate the canonical blank node labels for a dataset.
+     * The map is from the blank nodes of the dataset to the canonical label (without "_:"),
+     * in the order the canonical labels were issued.
+     */
+    public Map<Node, String> canonicalLabels(DatasetGraph dataset) {
+        Canonicalization c14n = new Canonicalization(dataset);
+        c14n.exec();
+        return Collections.unmodifiableMap(c14n.canonicalIssuer.issued);
+    }
+
+    /** The canonical N-Quads for a dataset, one string per quad including the newline, sorted. */
+    public List<String> canonicalNQuads(DatasetGraph dataset) {
+        Canonicalization c14n = new Canonicalization(dataset);
+        c14n.exec();
+        return c14n.canonicalNQuads();
+    }
+
+    /** Write the canonical N-Quads for a dataset as UTF-8. */
+    public void write(OutputStream output, DatasetGraph dataset) {
+        AWriter out = IO.wrapUTF8(output);
+        write(out, dataset);
+        out.flush();
+    }
+
+    /** Write the canonical N-Quads for a dataset. */
+    public void write(Writer output, DatasetGraph dataset) {
+        AWriter out = IO.wrap(output);
+        write(out, dataset);
+        out.flush();
+    }
+
+    private void write(AWriter out, DatasetGraph dataset) {
+        for ( String line : canonicalNQuads(dataset) )
+            out.write(line);
+    }
+
+    /** Settings for {@link RDFC10}. */
+    public static class Builder {
+        private int    threads       = Runtime.getRuntime().availableProcessors();
+        private long   maxWork       = DFT_MAX_WORK;
+        private int    maxDepth      = DFT_MAX_DEPTH;
+        private String hashAlgorithm = DFT_HASH_ALGORITHM;
+
+        private Builder() {}
+
+        /** Number of threads used to calculate hashes. 1 means use the calling thread only. */
+        public Builder threads(int threads) {
+            if ( threads < 1 )
+                throw new IllegalArgumentException("Threads must be at least 1: "+threads);
+            this.threads = threads;
+            return this;
+        }
+
+        /** Limit on the work to distinguish blank nodes that have the same first degree hash. */
+        public Builder maxWork(long maxWork) {
+            if ( maxWork < 1 )
+                throw new IllegalArgumentException("Max work must be at least 1: "+maxWork);
+            this.maxWork = maxWork;
+            return this;
+        }
+
+        /** Limit on the recursion depth of the N-degree hash algorithm. */
+        public Builder maxDepth(int maxDepth) {
+            if ( maxDepth < 1 )
+                throw new IllegalArgumentException("Max depth must be at least 1: "+maxDepth);
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /** Hash algorithm : "SHA-256" (the default) or "SHA-384". */
+        public Builder hashAlgorithm(String hashAlgorithm) {
+            try {
+                MessageDigest.getInstance(hashAlgorithm);
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalArgumentException("No such hash algorithm: "+hashAlgorithm);
+            }
+            this.hashAlgorithm = hashAlgorithm;
+            return this;
+        }
+
+        /**
+         * Settings from a context:
+         * {@link RIOT#symRDFC10Threads}, {@link RIOT#symRDFC10MaxWork}, {@link RIOT#symRDFC10MaxDepth}.
+         */
+        public Builder context(Context context) {
+            if ( context == null )
+                return this;
+            threads(context.getInt(RIOT.symRDFC10Threads, threads));
+            maxWork(context.getLong(RIOT.symRDFC10MaxWork, maxWork));
+            maxDepth(context.getInt(RIOT.symRDFC10MaxDepth, maxDepth));
+            return this;
+        }
+
+        public RDFC10 build() {
+            return new RDFC10(threads, maxWork, maxDepth, hashAlgorithm);
+        }
+    }
+
+    /** Blank node identifier issuer. */
+    private static final class IdIssuer {
+        private final String prefix;
+        // Issued identifiers, in order of issue.
+        private final LinkedHashMap<Node, String> issued;
+
+        IdIssuer(String prefix) {
+            this(prefix, new LinkedHashMap<>());
+        }
+
+        private IdIssuer(String prefix, LinkedHashMap<Node, String> issued) {
+            this.prefix = prefix;
+            this.issued = issued;
+        }
+
+        String get(Node bnode) {
+            return issued.get(bnode);
+        }
+
+        String issue(Node bnode) {
+            String id = issued.get(bnode);
+            if ( id == null ) {
+                id = prefix + issued.size();
+                issued.put(bnode, id);
+            }
+            return id;
+        }
+
+        IdIssuer copy() {
+            return new IdIssuer(prefix, new LinkedHashMap<>(issued));
+        }
+    }
+
+    private record NDegreeResult(String hash, IdIssuer issuer) {}
+
+    // The state of the canonical issuer is determined by the number of identifiers it has issued.
+    private record NDegreeKey(Node bnode, int canonicalIssued, List<Node> issued) {}
+
+    /** One canonicalization of a dataset. */
+    private class Canonicalization {
+        private final List<Quad> quads = new ArrayList<>();
+        private final Map<Node, List<Quad>> bnodeToQuads = new LinkedHashMap<>();
+        private final Map<Node, String> firstDegreeHashes = new ConcurrentHashMap<>();
+        // Formatted RDF terms, other than blank nodes.
+        private final Map<Node, String> terms = new ConcurrentHashMap<>();
+        private final Map<NDegreeKey, NDegreeResult> memo = new ConcurrentHashMap<>();
+        private final AtomicLong work = new AtomicLong(0);
+        private final IdIssuer canonicalIssuer = new IdIssuer(canonicalPrefix);
+        private final MessageDigest digestPrototype;
+
+        Canonicalization(DatasetGraph dataset) {
+            try {
+                digestPrototype = MessageDigest.getInstance(hashAlgorithm);
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalArgumentException("No such hash algorithm: "+hashAlgorithm);
+            }
+            dataset.find().forEachRemaining(quad->{
+                quads.add(quad);
+                Node s = quad.getSubject();
+                Node o = quad.getObject();
+                Node g = quad.getGraph();
+                checkTerm(s);
+                checkTerm(o);
+                if ( s.isBlank() )
+                    addBNodeQuad(s, quad);
+                if ( o.isBlank() && !o.equals(s) )
+                    addBNodeQuad(o, quad);
+                if ( g.isBlank() && !g.equals(s) && !g.equals(o) )
+                    addBNodeQuad(g, quad);
+            });
+        }
+
+        private void addBNodeQuad(Node bnode, Quad quad) {
+            bnodeToQuads.computeIfAbsent(bnode, b->new ArrayList<>()).add(quad);
+        }
+
+        void exec() {
+            List<Node> bnodes = new ArrayList<>(bnodeToQuads.keySet());
+            ForkJoinPool pool = ( threads > 1 && bnodes.size() >= PARALLEL_THRESHOLD ) ? new ForkJoinPool(threads) : null;
+            try {
+                exec(bnodes, pool);
+            } finally {
+                if ( pool != null )
+                    pool.shutdown();
+            }
+        }
+
+        private void exec(List<Node> bnodes, ForkJoinPool pool) {
+            // First degree hashes.
+            if ( pool != null )
+                pool.submit(()->bnodes.parallelStream().forEach(this::firstDegreeHash)).join();
+            else
+                bnodes.forEach(this::firstDegreeHash);
+
+            // Hash to blank nodes, in hash order.
+            SortedMap<String, List<Node>> hashToBNodes = new TreeMap<>();
+            for ( Node bnode : bnodes )
+                hashToBNodes.computeIfAbsent(firstDegreeHashes.get(bnode), h->new ArrayList<>()).add(bnode);
+
+            // Unique hashes.
+            List<List<Node>> shared = new ArrayList<>();
+            hashToBNodes.forEach((hash, list)->{
+                if ( list.size() == 1 )
+                    canonicalIssuer.issue(list.get(0));
+                else
+                    shared.add(list);
+            });
+
+            // Shared hashes, in first degree hash order.
+            // The canonical issuer does not change while the N-degree hashes of one list
+            // are calculated so the blank nodes of a list can be processed in parallel.
+            for ( List<Node> list : shared ) {
+                List<Node> todo = list.stream().filter(bnode->canonicalIssuer.get(bnode) == null).toList();
+                List<NDegreeResult> results;
+                if ( pool != null && todo.size() > 1 )
+                    results = pool.submit(()->todo.parallelStream().map(this::nDegreeHashTop).toList()).join();
+                else
+                    results = todo.stream().map(this::nDegreeHashTop).toList();
+                results.stream()
+                       .sorted(Comparator.comparing(NDegreeResult::hash))
+                       .forEach(result->result.issuer.issued.keySet().forEach(canonicalIssuer::issue));
+            }
+        }
+
+        List<String> canonicalNQuads() {
+            Function<Node, String> labels = canonicalIssuer::get;
+            List<String> lines = new ArrayList<>(quads.size());
+            for ( Quad quad : quads )
+                lines.add(nquad(quad, labels));
+            lines.sort(RDFC10::compareCodePoints);
+            return lines;
+        }
+
+        // Hash First Degree Quads
+        private void firstDegreeHash(Node bnode) {
+            Function<Node, String> labels = b -> b.equals(bnode) ? "a" : "z";
+            List<String> lines = new ArrayList<>();
+            for ( Quad quad : bnodeToQuads.get(bnode) )
+                lines.add(nquad(quad, labels));
+            lines.sort(RDFC10::compareCodePoints);
+            StringBuilder sb = new StringBuilder();
+            lines.forEach(sb::append);
+            firstDegreeHashes.put(bnode, hash(sb));
+        }
+
+        private NDegreeResult nDegreeHashTop(Node bnode) {
+            IdIssuer issuer = new IdIssuer(temporaryPrefix);
+            issuer.issue(bnode);
+            return nDegreeHash(bnode, issuer, 1);
+        }
+
+        // Hash N-Degree Quads
+        private NDegreeResult nDegreeHash(Node bnode, IdIssuer issuer, int depth) {
+            if ( depth > maxDepth )
+                throw new RiotException("RDFC-1.0: N-degree hash recursion depth exceeds "+maxDepth);
+            addWork();
+
+            NDegreeKey key = new NDegreeKey(bnode, canonicalIssuer.issued.size(), List.copyOf(issuer.issued.keySet()));
+            NDegreeResult memoResult = memo.get(key);
+            if ( memoResult != null )
+                return new NDegreeResult(memoResult.hash, memoResult.issuer.copy());
+
+            // Related hash to related blank nodes.
+            SortedMap<String, List<Node>> hashToRelated = new TreeMap<>();
+            for ( Quad quad : bnodeToQuads.get(bnode) ) {
+                related(hashToRelated, bnode, quad, quad.getSubject(), "s", issuer);
+                related(hashToRelated, bnode, quad, quad.getObject(), "o", issuer);
+                related(hashToRelated, bnode, quad, quad.getGraph(), "g", issuer);
+            }
+
+            StringBuilder dataToHash = new StringBuilder();
+            for ( Map.Entry<String, List<Node>> e : hashToRelated.entrySet() ) {
+                dataToHash.append(e.getKey());
+                String chosenPath = null;
+                IdIssuer chosenIssuer = null;
+                Permutations permutations = new Permutations(e.getValue());
+                permutation:
+                while ( permutations.hasNext() ) {
+                    List<Node> permutation = permutations.next();
+                    addWork();
+                    IdIssuer issuerCopy = issuer.copy();
+                    StringBuilder path = new StringBuilder();
+                    List<Node> recursionList = new ArrayList<>();
+                    for ( Node related : permutation ) {
+                        String canonicalId = canonicalIssuer.get(related);
+                        if ( canonicalId != null ) {
+                            path.append("_:").append(canonicalId);
+                        } else {
+                            if ( issuerCopy.get(related) == null )
+                                recursionList.add(related);
+                            path.append("_:").append(issuerCopy.issue(related));
+                        }
+                        if ( worsePath(path, chosenPath) )
+                            continue permutation;
+                    }
+                    for ( Node related : recursionList ) {
+                        NDegreeResult result = nDegreeHash(related, issuerCopy, depth+1);
+                        path.append("_:").append(issuerCopy.issue(related));
+                        path.append('<').append(result.hash).append('>');
+                        issuerCopy = result.issuer;
+                        if ( worsePath(path, chosenPath) )
+                            continue permutation;
+                    }
+                    if ( chosenPath == null || compareCodePoints(path, chosenPath) < 0 ) {
+                        chosenPath = path.toString();
+                        chosenIssuer = issuerCopy;
+                    }
+                }
+                dataToHash.append(chosenPath);
+                issuer = chosenIssuer;
+            }
+
+            NDegreeResult result = new NDegreeResult(hash(dataToHash), issuer);
+            if ( memo.size() < MEMO_LIMIT )
+                memo.put(key, new NDegreeResult(result.hash, issuer.copy()));
+            return result;
+        }
+
+        private void related(SortedMap<String, List<Node>> hashToRelated, Node bnode, Quad quad, Node component, String position, IdIssuer issuer) {
+            if ( !component.isBlank() || component.equals(bnode) )
+                return;
+            String hash = relatedHash(component, quad, issuer, position);
+            hashToRelated.computeIfAbsent(hash, h->new ArrayList<>()).add(component);
+        }
+
+        // Hash Related Blank Node
+        private String relatedHash(Node related, Quad quad, IdIssuer issuer, String position) {
+            StringBuilder input = new StringBuilder(position);
+            if ( !position.equals("g") )
+                input.append('<').append(quad.getPredicate().getURI()).append('>');
+            String id = canonicalIssuer.get(related);
+            if ( id == null )
+                id = issuer.get(related);
+            if ( id != null )
+                input.append("_:").append(id);
+            else
+                input.append(firstDegreeHashes.get(related));
+            return hash(input);
+        }
+
+        private void addWork() {
+            if ( work.incrementAndGet() > maxWork )
+                throw new RiotException("RDFC-1.0: work limit exceeded ("+maxWork+")");
+        }
+
+        private String nquad(Quad quad, Function<Node, String> bnodeLabels) {
+            StringBuilder sb = new StringBuilder();
+            term(sb, quad.getSubject(), bnodeLabels);
+            sb.append(' ');
+            term(sb, quad.getPredicate(), bnodeLabels);
+            sb.append(' ');
+            term(sb, quad.getObject(), bnodeLabels);
+            if ( !Quad.isDefaultGraph(quad.getGraph()) ) {
+                sb.append(' ');
+                term(sb, quad.getGraph(), bnodeLabels);
+            }
+            sb.append(" .\n");
+            return sb.toString();
+        }
+
+        private void term(StringBuilder sb, Node node, Function<Node, String> bnodeLabels) {
+            if ( node.isBlank() ) {
+                sb.append("_:").append(bnodeLabels.apply(node));
+                return;
+            }
+            sb.append(terms.computeIfAbsent(node, n->{
+                IndentedLineBuffer x = new IndentedLineBuffer();
+                nodeFmt.format(x, n);
+                return x.asString();
+            }));
+        }
+
+        private String hash(CharSequence input) {
+            MessageDigest digest;
+            try {
+                digest = (MessageDigest)digestPrototype.clone();
+            } catch (CloneNotSupportedException ex) {
+                try {
+                    digest = MessageDigest.getInstance(hashAlgorithm);
+                } catch (NoSuchAlgorithmException ex2) { throw new IllegalStateException(ex2); }
+            }
+            byte[] bytes = digest.digest(input.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(bytes);
+        }
+    }
+
+    private static void checkTerm(Node node) {
+        if ( node.isTripleTerm() && hasBlankNode(node.getTriple()) )
+            throw new RiotException("RDFC-1.0: blank nodes in triple terms are not supported");
+    }
+
+    private static boolean hasBlankNode(Triple triple) {
+        return hasBlankNode(triple.getSubject()) || hasBlankNode(triple.getObject());
+    }
+
+    private static boolean hasBlankNode(Node node) {
+        return node.isBlank() || ( node.isTripleTerm() && hasBlankNode(node.getTriple()) );
+    }
+
+    /** Is the path so far worse than the chosen path? If so, the permutation can be skipped. */
+    private static boolean worsePath(CharSequence path, String chosenPath) {
+        return chosenPath != null && path.length() >= chosenPath.length() && compareCodePoints(path, chosenPath) > 0;
+    }
+
+    /** Unicode code point order (not the UTF-16 order of {@link String#compareTo}). */
+    private static int compareCodePoints(CharSequence s1, CharSequence s2) {
+        int n1 = s1.length();
+        int n2 = s2.length();
+        int i1 = 0;
+        int i2 = 0;
+        while ( i1 < n1 && i2 < n2 ) {
+            int cp1 = Character.codePointAt(s1, i1);
+            int cp2 = Character.codePointAt(s2, i2);
+            if ( cp1 != cp2 )
+                return Integer.compare(cp1, cp2);
+            i1 += Character.charCount(cp1);
+            i2 += Character.charCount(cp2);
+        }
+        return Integer.compare(n1 - i1, n2 - i2);
+    }
+
+    /** All permutations of a list, generated in lexicographic order of positions. */
+    private static class Permutations implements Iterator<List<Node>> {
+        private final List<Node> items;
+        private final int[] indexes;
+        private boolean hasNext = true;
+
+        Permutations(List<Node> items) {
+            this.items = items;
+            this.indexes = new int[items.size()];
+            for ( int i = 0 ; i < indexes.length ; i++ )
+                indexes[i] = i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public List<Node> next() {
+            if ( !hasNext )
+                throw new NoSuchElementException();
+            List<Node> permutation = new ArrayList<>(indexes.length);
+            for ( int idx : indexes )
+                permutation.add(items.get(idx));
+            hasNext = advance();
+            return permutation;
+        }
+
+        private boolean advance() {
+            int i = indexes.length - 2;
+            while ( i >= 0 && indexes[i] >= indexes[i+1] )
+                i--;
+            if ( i < 0 )
+                return false;
+            int j = indexes.length - 1;
+            while ( indexes[j] <= indexes[i] )
+                j--;
+            swap(i, j);
+            for ( int a = i+1, b = indexes.length-1 ; a < b ; a++, b-- )
+                swap(a, b);
+            return true;
+        }
+
+        private void swap(int i, int j) {
+            int t = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = t;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.apache.jena.graph.Node;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.sparql.core.mem.DatasetGraphInMemory;
+import org.apache.jena.sparql.core.mem.DatasetGraphMVCC;
 import org.apache.jena.sparql.graph.GraphFactory;
 import org.apache.jena.sys.JenaSystem;
 
@@ -64,6 +65,19 @@ public class DatasetGraphFactory
      */
     public static DatasetGraph createTxnMem() { return new DatasetGraphInMemory(); }
 
+    /**
+     * Create an in-memory, transactional {@link Dataset} using multi-version
+     * concurrency control.
+     * <p>
+     * Readers work on a snapshot and are never blocked by the single writer.
+     * Changes are kept as per-transaction deltas over {@code GraphMem} graphs
+     * and merged in the background.
+     *
+     * @see DatasetGraphMVCC
+     * @return a transactional, in-memory, modifiable DatasetGraph
+     */
+    public static DatasetGraph createTxnMemMVCC() { return new DatasetGraphMVCC(); }
+
     /**
      * Create a general-purpose  {@link DatasetGraph}.<br/>
      * Any graphs needed are in-memory unless explicitly added with {@link DatasetGraph#addGraph(Node, Graph)}.
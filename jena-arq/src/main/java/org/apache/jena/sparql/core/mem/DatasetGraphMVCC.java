@@ -0,0 +1,627 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.core.mem;
+
+import static org.apache.jena.query.ReadWrite.WRITE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.GraphMem;
+import org.apache.jena.mem.GraphMemIndexedSet;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.riot.system.PrefixMap;
+import org.apache.jena.riot.system.PrefixMapStd;
+import org.apache.jena.sparql.JenaTransactionException;
+import org.apache.jena.sparql.core.*;
+import org.apache.jena.system.Txn;
+import org.slf4j.Logger;
+
+/**
+ * A transactional in-memory {@link DatasetGraph} that uses multi-version
+ * concurrency control over the {@code jena-core} {@link GraphMem} stores.
+ * <p>
+ * The committed state of the dataset is an immutable {@code Version}: a
+ * <em>base</em> of one {@link GraphMem} per graph, which is never modified once
+ * published, and a list of <em>deltas</em>, the added and deleted triples of
+ * each write transaction committed since the base was built.
+ * <ul>
+ * <li>A read transaction takes the current version when it begins and reads
+ * from it without any locking; later commits do not affect it.</li>
+ * <li>There is a single writer at a time. It collects its changes in a private
+ * delta on top of the version it started from, and readers are never blocked
+ * by it. Commit publishes a new version with the delta appended.</li>
+ * <li>When {@link #getMergeThreshold() enough} deltas have accumulated, a
+ * background task copies the affected base graphs, folds the deltas into them
+ * and publishes a new base. This does not change the content of the dataset
+ * and runs concurrently with readers and the writer.</li>
+ * </ul>
+ * A delta records a change only if it alters the state below it, so a triple
+ * is visible if the topmost layer that mentions it added it, or if no layer
+ * mentions it and it is in the base.
+ * <p>
+ * Transactions are serializable: a {@link TxnType#READ_PROMOTE} transaction
+ * can only promote if no writer has committed since it began.
+ * <p>
+ * The graphs are created by a {@code Supplier<GraphMem>}; they are read
+ * concurrently, so they must not build indices lazily. The default is
+ * {@link GraphMemIndexedSet} with eager indexing, which also copies quickly.
+ */
+public class DatasetGraphMVCC extends DatasetGraphTriplesQuads implements Transactional {
+
+    private static final Logger log = getLogger(DatasetGraphMVCC.class);
+
+    /** Number of committed deltas that triggers a background merge. */
+    public static final int DEFAULT_MERGE_THRESHOLD = 4;
+
+    /** Key of the default graph in the base and delta maps. */
+    private static final Node DFT = Quad.defaultGraphIRI;
+
+    /**
+     * The changes of one write transaction, per graph. Mutable while the
+     * transaction is active, immutable once committed.
+     */
+    private final class Delta {
+        final Map<Node, GraphMem> added = new HashMap<>();
+        final Map<Node, GraphMem> deleted = new HashMap<>();
+
+        /**
+         * @return {@code TRUE} if the triple was added, {@code FALSE} if it was
+         *         deleted, {@code null} if this delta does not mention it
+         */
+        Boolean change(final Node g, final Triple t) {
+            final var a = added.get(g);
+            if (a != null && a.contains(t))
+                return Boolean.TRUE;
+            final var d = deleted.get(g);
+            if (d != null && d.contains(t))
+                return Boolean.FALSE;
+            return null;
+        }
+
+        boolean mentions(final Node g, final Triple t) {
+            return change(g, t) != null;
+        }
+
+        GraphMem addedGraph(final Node g) {
+            return added.computeIfAbsent(g, x -> graphFactory.get());
+        }
+
+        GraphMem deletedGraph(final Node g) {
+            return deleted.computeIfAbsent(g, x -> graphFactory.get());
+        }
+
+        boolean isEmpty() {
+            return added.values().stream().allMatch(Graph::isEmpty)
+                    && deleted.values().stream().allMatch(Graph::isEmpty);
+        }
+    }
+
+    /** Committed state of the dataset. Immutable. */
+    private record Version(long generation, Map<Node, GraphMem> base, List<Delta> deltas) {}
+
+    /** What a transaction reads: a base and the deltas above it, oldest first. */
+    private record View(Map<Node, GraphMem> base, List<Delta> layers) {}
+
+    /** Per-thread transaction state. */
+    private static final class TxnState {
+        final TxnType type;
+        ReadWrite mode;
+        Version snapshot;
+        Delta writes;
+
+        TxnState(final TxnType type, final ReadWrite mode, final Version snapshot) {
+            this.type = type;
+            this.mode = mode;
+            this.snapshot = snapshot;
+        }
+    }
+
+    private final PrefixMap prefixes = new PrefixMapStd();
+    private final Supplier<GraphMem> graphFactory;
+    private final int mergeThreshold;
+
+    /** The single writer. */
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    /** Serializes merges. */
+    private final ReentrantLock mergeLock = new ReentrantLock();
+    /** Guards replacing {@link #current}, which both commit and merge do. */
+    private final Object publishLock = new Object();
+    private final AtomicBoolean mergeScheduled = new AtomicBoolean(false);
+
+    private volatile Version current = new Version(0, Map.of(), List.of());
+
+    private final ThreadLocal<TxnState> txnState = new ThreadLocal<>();
+
+    /**
+     * Creates an empty dataset with {@link GraphMemIndexedSet} graphs and the
+     * {@link #DEFAULT_MERGE_THRESHOLD default merge threshold}.
+     */
+    public DatasetGraphMVCC() {
+        this(GraphMemIndexedSet::new, DEFAULT_MERGE_THRESHOLD);
+    }
+
+    /**
+     * Creates an empty dataset.
+     *
+     * @param graphFactory   creates the graphs of the base and the deltas; the
+     *                       graphs must be safe for concurrent reads
+     * @param mergeThreshold number of committed deltas that triggers a background
+     *                       merge into the base; at least 1
+     */
+    public DatasetGraphMVCC(final Supplier<GraphMem> graphFactory, final int mergeThreshold) {
+        if (mergeThreshold < 1)
+            throw new IllegalArgumentException("Merge threshold must be at least 1: " + mergeThreshold);
+        this.graphFactory = graphFactory;
+        this.mergeThreshold = mergeThreshold;
+    }
+
+    /**
+     * @return the number of committed deltas that triggers a background merge
+     */
+    public int getMergeThreshold() {
+        return mergeThreshold;
+    }
+
+    /**
+     * @return the number of committed deltas not yet merged into the base
+     */
+    public int getDeltaCount() {
+        return current.deltas().size();
+    }
+
+    // ---- Transactions
+
+    @Override
+    public boolean supportsTransactions()       { return true; }
+    @Override
+    public boolean supportsTransactionAbort()   { return true; }
+
+    @Override
+    public boolean isInTransaction() {
+        return txnState.get() != null;
+    }
+
+    @Override
+    public ReadWrite transactionMode() {
+        final var state = txnState.get();
+        return state == null ? null : state.mode;
+    }
+
+    @Override
+    public TxnType transactionType() {
+        final var state = txnState.get();
+        return state == null ? null : state.type;
+    }
+
+    @Override
+    public void begin(final TxnType txnType) {
+        if (isInTransaction())
+            throw new JenaTransactionException("Transactions cannot be nested!");
+        final var mode = TxnType.initial(txnType);
+        if (mode == WRITE) {
+            writerLock.lock();
+            final var state = new TxnState(txnType, WRITE, current);
+            state.writes = new Delta();
+            txnState.set(state);
+        } else {
+            txnState.set(new TxnState(txnType, mode, current));
+        }
+    }
+
+    @Override
+    public boolean promote(final Promote promoteMode) {
+        final var state = txnState.get();
+        if (state == null)
+            throw new JenaTransactionException("Tried to promote outside a transaction!");
+        if (state.mode == WRITE)
+            return true;
+        if (state.type == TxnType.READ)
+            return false;
+        try {
+            _promote(state, promoteMode == Promote.READ_COMMITTED);
+            return true;
+        } catch (JenaTransactionException ex) {
+            return false;
+        }
+    }
+
+    private void _promote(final TxnState state, final boolean readCommitted) {
+        // Outside the lock: fail fast.
+        if (!readCommitted && state.snapshot.generation() != current.generation())
+            throw new JenaTransactionException("Dataset changed - can't promote");
+        writerLock.lock();
+        // Check again now we are the writer.
+        if (!readCommitted && state.snapshot.generation() != current.generation()) {
+            writerLock.unlock();
+            throw new JenaTransactionException("Concurrent writer changed the dataset : can't promote");
+        }
+        state.snapshot = current;
+        state.mode = WRITE;
+        state.writes = new Delta();
+    }
+
+    @Override
+    public void commit() {
+        final var state = txnState.get();
+        if (state == null)
+            throw new JenaTransactionException("Tried to commit outside a transaction!");
+        if (state.mode == WRITE) {
+            final int deltaCount;
+            try {
+                synchronized (publishLock) {
+                    final var version = current;
+                    final List<Delta> deltas;
+                    if (state.writes.isEmpty()) {
+                        deltas = version.deltas();
+                    } else {
+                        final var list = new ArrayList<>(version.deltas());
+                        list.add(state.writes);
+                        deltas = List.copyOf(list);
+                    }
+                    current = new Version(version.generation() + 1, version.base(), deltas);
+                    deltaCount = deltas.size();
+                }
+            } finally {
+                finishTransaction(state);
+            }
+            if (deltaCount >= mergeThreshold)
+                scheduleMerge();
+        } else {
+            finishTransaction(state);
+        }
+    }
+
+    @Override
+    public void abort() {
+        final var state = txnState.get();
+        if (state == null)
+            throw new JenaTransactionException("Tried to abort outside a transaction!");
+        finishTransaction(state);
+    }
+
+    @Override
+    public void end() {
+        final var state = txnState.get();
+        if (state == null)
+            return;
+        finishTransaction(state);
+        if (state.mode == WRITE)
+            throw new JenaTransactionException("end() called for WRITE transaction without commit or abort having been called. This causes a forced abort.");
+    }
+
+    private void finishTransaction(final TxnState state) {
+        txnState.remove();
+        if (state.mode == WRITE)
+            writerLock.unlock();
+    }
+
+    @Override
+    public void close() {
+        if (isInTransaction())
+            abort();
+    }
+
+    // ---- Merging
+
+    private void scheduleMerge() {
+        if (!mergeScheduled.compareAndSet(false, true))
+            return;
+        CompletableFuture.runAsync(() -> {
+            try {
+                mergeDeltas();
+            } catch (RuntimeException ex) {
+                log.error("Failed to merge deltas", ex);
+            } finally {
+                mergeScheduled.set(false);
+            }
+        });
+    }
+
+    /**
+     * Fold all committed deltas into the base now. This happens automatically
+     * in the background once {@link #getMergeThreshold()} deltas have been
+     * committed; calling it explicitly is only needed to compact the dataset,
+     * e.g. after a bulk load. Readers and the writer are not blocked.
+     */
+    public void mergeDeltas() {
+        mergeLock.lock();
+        try {
+            final var version = current;
+            final var count = version.deltas().size();
+            if (count == 0)
+                return;
+            final var base = new HashMap<>(version.base());
+            final var merged = new HashMap<Node, GraphMem>();
+            for (final var delta : version.deltas()) {
+                delta.deleted.forEach((g, triples) -> {
+                    if (!triples.isEmpty())
+                        triples.find().forEachRemaining(target(g, version, merged)::delete);
+                });
+                delta.added.forEach((g, triples) -> {
+                    if (!triples.isEmpty())
+                        triples.find().forEachRemaining(target(g, version, merged)::add);
+                });
+            }
+            merged.forEach((g, graph) -> {
+                if (graph.isEmpty())
+                    base.remove(g);
+                else
+                    base.put(g, graph);
+            });
+            synchronized (publishLock) {
+                final var latest = current;
+                final var remaining = latest.deltas().subList(count, latest.deltas().size());
+                current = new Version(latest.generation(), Map.copyOf(base), List.copyOf(remaining));
+            }
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    /** The private copy of a base graph that a merge writes to. */
+    private GraphMem target(final Node g, final Version version, final Map<Node, GraphMem> merged) {
+        return merged.computeIfAbsent(g, x -> {
+            final var graph = version.base().get(g);
+            return graph == null ? graphFactory.get() : graph.copy();
+        });
+    }
+
+    // ---- Reading
+
+    private View view() {
+        final var state = txnState.get();
+        if (state == null) {
+            final var version = current;
+            return new View(version.base(), version.deltas());
+        }
+        return view(state, true);
+    }
+
+    private static View view(final TxnState state, final boolean includeWrites) {
+        final var version = state.snapshot;
+        if (!includeWrites || state.writes == null)
+            return new View(version.base(), version.deltas());
+        final var layers = new ArrayList<>(version.deltas());
+        layers.add(state.writes);
+        return new View(version.base(), layers);
+    }
+
+    private static boolean isVisible(final View view, final Node g, final Triple t) {
+        final var layers = view.layers();
+        for (int i = layers.size() - 1; i >= 0; i--) {
+            final var change = layers.get(i).change(g, t);
+            if (change != null)
+                return change;
+        }
+        final var graph = view.base().get(g);
+        return graph != null && graph.contains(t);
+    }
+
+    /** True if no layer from {@code from} upwards mentions the triple. */
+    private static boolean isFinal(final List<Delta> layers, final int from, final Node g, final Triple t) {
+        for (int i = from; i < layers.size(); i++) {
+            if (layers.get(i).mentions(g, t))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * The visible triples of one graph. Each triple is taken from the base or
+     * from the added triples of the topmost layer that mentions it, so there
+     * are no duplicates.
+     */
+    private static Stream<Triple> streamGraph(final View view, final Node g, final Node s, final Node p, final Node o) {
+        final var layers = view.layers();
+        final var base = view.base().get(g);
+        var result = base == null
+                ? Stream.<Triple>empty()
+                : layers.isEmpty() ? base.stream(s, p, o) : base.stream(s, p, o).filter(t -> isFinal(layers, 0, g, t));
+        for (int i = 0; i < layers.size(); i++) {
+            final var added = layers.get(i).added.get(g);
+            if (added != null && !added.isEmpty()) {
+                final var from = i + 1;
+                result = Stream.concat(result, added.stream(s, p, o).filter(t -> isFinal(layers, from, g, t)));
+            }
+        }
+        return result;
+    }
+
+    /** Names of the named graphs with at least one visible triple. */
+    private static List<Node> graphNames(final View view) {
+        final var candidates = new LinkedHashSet<>(view.base().keySet());
+        view.layers().forEach(delta -> candidates.addAll(delta.added.keySet()));
+        candidates.remove(DFT);
+        final var names = new ArrayList<Node>();
+        for (final var g : candidates) {
+            try (var triples = streamGraph(view, g, Node.ANY, Node.ANY, Node.ANY)) {
+                if (triples.findAny().isPresent())
+                    names.add(g);
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public Iterator<Node> listGraphNodes() {
+        return graphNames(view()).iterator();
+    }
+
+    @Override
+    public long size() {
+        return graphNames(view()).size();
+    }
+
+    @Override
+    protected Iterator<Quad> findInDftGraph(final Node s, final Node p, final Node o) {
+        return streamInDftGraph(s, p, o).iterator();
+    }
+
+    @Override
+    protected Stream<Quad> streamInDftGraph(final Node s, final Node p, final Node o) {
+        return streamGraph(view(), DFT, s, p, o).map(t -> Quad.create(Quad.defaultGraphIRI, t));
+    }
+
+    @Override
+    protected Iterator<Quad> findInSpecificNamedGraph(final Node g, final Node s, final Node p, final Node o) {
+        return streamInSpecificNamedGraph(g, s, p, o).iterator();
+    }
+
+    @Override
+    protected Stream<Quad> streamInSpecificNamedGraph(final Node g, final Node s, final Node p, final Node o) {
+        return streamGraph(view(), g, s, p, o).map(t -> Quad.create(g, t));
+    }
+
+    @Override
+    protected Iterator<Quad> findInAnyNamedGraphs(final Node s, final Node p, final Node o) {
+        return streamInAnyNamedGraphs(s, p, o).iterator();
+    }
+
+    @Override
+    protected Stream<Quad> streamInAnyNamedGraphs(final Node s, final Node p, final Node o) {
+        final var view = view();
+        return graphNames(view).stream()
+                .flatMap(g -> streamGraph(view, g, s, p, o).map(t -> Quad.create(g, t)));
+    }
+
+    @Override
+    public Graph getGraph(final Node graphNode) {
+        return GraphView.createNamedGraph(this, graphNode);
+    }
+
+    @Override
+    public Graph getDefaultGraph() {
+        return GraphView.createDefaultGraph(this);
+    }
+
+    @Override
+    public Graph getUnionGraph() {
+        return GraphView.createUnionGraph(this);
+    }
+
+    @Override
+    public PrefixMap prefixes() {
+        return prefixes;
+    }
+
+    // ---- Writing
+
+    /**
+     * Run a change in the current write transaction, promoting a read
+     * transaction or starting a write transaction if necessary.
+     */
+    private void mutate(final Runnable change) {
+        final var state = txnState.get();
+        if (state == null) {
+            Txn.executeWrite(this, change);
+            return;
+        }
+        if (state.mode != WRITE) {
+            switch (state.type) {
+                case READ -> throw new JenaTransactionException("Tried to write inside a READ transaction!");
+                case READ_COMMITTED_PROMOTE, READ_PROMOTE -> _promote(state, state.type == TxnType.READ_COMMITTED_PROMOTE);
+                default -> {}
+            }
+        }
+        change.run();
+    }
+
+    private void addTriple(final Node g, final Triple t) {
+        mutate(() -> {
+            final var state = txnState.get();
+            final var writes = state.writes;
+            final var change = writes.change(g, t);
+            if (change == Boolean.TRUE)
+                return;
+            if (change == Boolean.FALSE) {
+                // Deletes are only recorded for triples visible below.
+                writes.deleted.get(g).delete(t);
+                return;
+            }
+            if (!isVisible(view(state, false), g, t))
+                writes.addedGraph(g).add(t);
+        });
+    }
+
+    private void deleteTriple(final Node g, final Triple t) {
+        mutate(() -> {
+            final var state = txnState.get();
+            final var writes = state.writes;
+            final var change = writes.change(g, t);
+            if (change == Boolean.FALSE)
+                return;
+            if (change == Boolean.TRUE) {
+                // Adds are only recorded for triples not visible below.
+                writes.added.get(g).delete(t);
+                return;
+            }
+            if (isVisible(view(state, false), g, t))
+                writes.deletedGraph(g).add(t);
+        });
+    }
+
+    @Override
+    protected void addToDftGraph(final Node s, final Node p, final Node o) {
+        addTriple(DFT, Triple.create(s, p, o));
+    }
+
+    @Override
+    protected void addToNamedGraph(final Node g, final Node s, final Node p, final Node o) {
+        addTriple(g, Triple.create(s, p, o));
+    }
+
+    @Override
+    protected void deleteFromDftGraph(final Node s, final Node p, final Node o) {
+        deleteTriple(DFT, Triple.create(s, p, o));
+    }
+
+    @Override
+    protected void deleteFromNamedGraph(final Node g, final Node s, final Node p, final Node o) {
+        deleteTriple(g, Triple.create(s, p, o));
+    }
+
+    @Override
+    public void clear() {
+        mutate(() -> {
+            final var view = view();
+            final var names = new ArrayList<>(graphNames(view));
+            names.add(DFT);
+            for (final var g : names) {
+                final List<Triple> triples;
+                try (var stream = streamGraph(view, g, Node.ANY, Node.ANY, Node.ANY)) {
+                    triples = stream.toList();
+                }
+                triples.forEach(t -> deleteTriple(g, t));
+            }
+        });
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.engine.iterator;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.jena.atlas.io.IndentedWriter;
+import org.apache.jena.atlas.lib.Lib;
+import org.apache.jena.query.QueryCancelledException;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.serializer.SerializationContext;
+
+/**
+ * A {@link QueryIter} over a parallel stream of bindings.
+ * <p>
+ * The stream is evaluated in a fork/join pool of its own when the first binding
+ * is requested. The bindings are handed over through a bounded buffer, so the
+ * producers wait when the consumer falls behind, rather than materializing the
+ * results. Waiting producers do not hold threads of the common pool. Closing or
+ * cancelling the iterator stops the producers, and the pool is shut down when
+ * the stream ends or the iterator is closed.
+ * <p>
+ * The order of the bindings is not defined.
+ */
+public class QueryIterParallelStream extends QueryIter {
+
+    /** Marks the end of the stream in the buffer. */
+    private static final Object END = new Object();
+
+    /** Unwinds the producers when the iterator has been closed. */
+    private static class Stopped extends RuntimeException {
+        Stopped() { super(null, null, false, false); }
+    }
+
+    private final Stream<Binding> stream;
+    private final BlockingQueue<Object> buffer;
+    private volatile boolean stopped = false;
+    private volatile Throwable error = null;
+    private ForkJoinPool pool = null;
+    private boolean started = false;
+    private boolean ended = false;
+    private Binding slot = null;
+
+    /**
+     * @param stream     the bindings; made parallel if it is not already
+     * @param bufferSize the maximum number of bindings waiting for the consumer
+     */
+    public QueryIterParallelStream(Stream<Binding> stream, int bufferSize, ExecutionContext execCxt) {
+        super(execCxt);
+        if ( bufferSize < 1 )
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        this.stream = stream.parallel();
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    private void start() {
+        started = true;
+        // The parallel stream runs in the pool of the task that starts it.
+        ForkJoinPool producers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        pool = producers;
+        producers.execute(() -> {
+            try {
+                stream.forEach(this::put);
+                put(END);
+            } catch (Stopped ex) {
+            } catch (Throwable th) {
+                error = th;
+                try {
+                    put(END);
+                } catch (Stopped ex) {}
+            } finally {
+                producers.shutdown();
+            }
+        });
+    }
+
+    private void put(Object item) {
+        try {
+            while ( !buffer.offer(item, 10, TimeUnit.MILLISECONDS) ) {
+                if ( stopped )
+                    throw new Stopped();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new Stopped();
+        }
+        if ( stopped )
+            throw new Stopped();
+    }
+
+    @Override
+    protected boolean hasNextBinding() {
+        if ( slot != null )
+            return true;
+        if ( ended )
+            return false;
+        if ( !started )
+            start();
+        Object item;
+        try {
+            // Poll, so that a cancel request is seen while the producers are busy.
+            while ( (item = buffer.poll(10, TimeUnit.MILLISECONDS)) == null ) {
+                if ( stopped )
+                    throw new QueryCancelledException();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            stopped = true;
+            throw new QueryCancelledException();
+        }
+        if ( item == END ) {
+            ended = true;
+            Throwable th = error;
+            if ( th instanceof RuntimeException ex )
+                throw ex;
+            if ( th instanceof Error err )
+                throw err;
+            if ( th != null )
+                throw new RuntimeException(th);
+            return false;
+        }
+        slot = (Binding)item;
+        return true;
+    }
+
+    @Override
+    protected Binding moveToNextBinding() {
+        Binding binding = slot;
+        slot = null;
+        return binding;
+    }
+
+    @Override
+    protected void closeIterator() {
+        stopped = true;
+        buffer.clear();
+        stream.close();
+        if ( pool != null )
+            pool.shutdown();
+    }
+
+    @Override
+    protected void requestCancel() {
+        stopped = true;
+    }
+
+    @Override
+    public void output(IndentedWriter out, SerializationContext sCxt) {
+        out.print(Lib.className(this));
+    }
+}
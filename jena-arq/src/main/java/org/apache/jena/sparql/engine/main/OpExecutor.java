@@ -46,6 +46,7 @@ import org.apache.jena.sparql.engine.join.Join;
 import org.apache.jena.sparql.engine.main.iterator.QueryIterGraph;
 import org.apache.jena.sparql.engine.main.iterator.QueryIterOptionalIndex;
 import org.apache.jena.sparql.engine.main.iterator.QueryIterUnion;
+import org.apache.jena.sparql.engine.main.solver.PatternCount;
 import org.apache.jena.sparql.expr.Expr;
 import org.apache.jena.sparql.expr.ExprList;
 import org.apache.jena.sparql.procedure.ProcEval;
@@ -417,6 +418,9 @@ public class OpExecutor {
     }
 
     protected QueryIterator execute(OpGroup opGroup, QueryIterator input) {
+        QueryIterator qIterCount = PatternCount.execute(opGroup, input, execCxt);
+        if ( qIterCount != null )
+            return qIterCount;
         QueryIterator qIter = exec(opGroup.getSubOp(), input);
         qIter = new QueryIterGroup(qIter, opGroup.getGroupVars(), opGroup.getAggregators(), execCxt);
         return qIter;
@@ -23,6 +23,8 @@ package org.apache.jena.sparql.engine.main;
 
 import org.apache.jena.atlas.lib.Lib ;
 import org.apache.jena.atlas.logging.Log ;
+import org.apache.jena.graph.GraphCardinality ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.QueryCancelledException;
 import org.apache.jena.sparql.core.BasicPattern ;
 import org.apache.jena.sparql.core.Substitute ;
@@ -52,6 +54,9 @@ public class StageGeneratorGeneric implements StageGenerator {
 
         // Choose reorder transformation and execution strategy.
         ReorderTransformation reorder = reorderFixed ;
+        if ( execCxt.getActiveGraph() instanceof GraphCardinality graph
+             && execCxt.getContext().isTrueOrUndef(ARQ.optReorderBGPGraphStats) )
+            reorder = ReorderLib.graphStats(graph) ;
         return execute(pattern, reorder, input, execCxt) ;
     }
 
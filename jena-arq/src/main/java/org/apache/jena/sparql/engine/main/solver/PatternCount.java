@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.engine.main.solver;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphCount;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.op.*;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.Substitute;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingBuilder;
+import org.apache.jena.sparql.engine.iterator.QueryIterSingleton;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprAggregator;
+import org.apache.jena.sparql.expr.NodeValue;
+import org.apache.jena.sparql.expr.aggregate.*;
+import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
+
+/**
+ * Answer {@code COUNT} and {@code EXISTS} over a single triple pattern from the
+ * storage, without evaluating the pattern.
+ * <ul>
+ * <li>A group with no group keys whose aggregates are all {@code COUNT(*)},
+ * {@code COUNT(DISTINCT *)}, {@code COUNT(?v)} (for a variable of the pattern)
+ * or {@code COUNT(DISTINCT ?v)} (when {@code ?v} is the only variable) is the
+ * number of triples matching the pattern. It is answered with
+ * {@link GraphCount#count} when the graph provides it.</li>
+ * <li>{@code EXISTS} and {@code NOT EXISTS} of a pattern, after substituting the
+ * current binding, is {@link Graph#contains}.</li>
+ * </ul>
+ * The pattern may be in a named graph (a {@code GRAPH} with a fixed name, or a
+ * quad pattern). Patterns with a repeated variable, a quoted triple with
+ * variables or a property function are left to the normal evaluation.
+ * <p>
+ * Controlled by {@link ARQ#optStorageCount}.
+ */
+public class PatternCount {
+
+    /** The graph name (null for the active graph) and the triple of a single pattern. */
+    private record Pattern(Node graphNode, Triple triple) {}
+
+    /**
+     * Execute the group as a count, if it has the right form.
+     *
+     * @return the results, or null if the group must be evaluated normally
+     */
+    public static QueryIterator execute(OpGroup opGroup, QueryIterator input, ExecutionContext execCxt) {
+        if ( execCxt.getContext().isFalse(ARQ.optStorageCount) )
+            return null;
+        if ( !opGroup.getGroupVars().isEmpty() || opGroup.getAggregators().isEmpty() || !input.isJoinIdentity() )
+            return null;
+        Pattern pattern = singlePattern(opGroup.getSubOp());
+        if ( pattern == null || !isCountable(pattern.triple(), execCxt) )
+            return null;
+        for ( ExprAggregator agg : opGroup.getAggregators() ) {
+            if ( !isCount(agg.getAggregator(), pattern.triple()) )
+                return null;
+        }
+        Graph graph = graph(pattern.graphNode(), execCxt);
+        long count;
+        if ( graph == null )
+            return null;
+        if ( graph == Graph.emptyGraph )
+            count = 0;
+        else if ( graph instanceof GraphCount graphCount ) {
+            Triple t = pattern.triple();
+            count = graphCount.count(term(t.getSubject()), term(t.getPredicate()), term(t.getObject()));
+        } else
+            return null;
+
+        Binding root = input.nextBinding();
+        input.close();
+        Node value = NodeValue.makeInteger(count).asNode();
+        BindingBuilder builder = Binding.builder(root);
+        for ( ExprAggregator agg : opGroup.getAggregators() )
+            builder.add(agg.getVar(), value);
+        return QueryIterSingleton.create(builder.build(), execCxt);
+    }
+
+    /**
+     * Test whether the pattern has a match for the binding, if it has the right
+     * form.
+     *
+     * @return the result, or null if the pattern must be evaluated normally
+     */
+    public static Boolean exists(Op op, Binding binding, ExecutionContext execCxt) {
+        if ( execCxt == null || execCxt.getContext().isFalse(ARQ.optStorageCount) )
+            return null;
+        Pattern pattern = singlePattern(op);
+        if ( pattern == null )
+            return null;
+        Node graphNode = pattern.graphNode();
+        if ( Var.isVar(graphNode) )
+            graphNode = binding.get(Var.alloc(graphNode));
+        Triple triple = Substitute.substitute(pattern.triple(), binding);
+        if ( !isCountable(triple, execCxt) )
+            return null;
+        if ( pattern.graphNode() != null && graphNode == null )
+            return null;
+        Graph graph = graph(graphNode, execCxt);
+        if ( graph == null )
+            return null;
+        return graph.contains(term(triple.getSubject()), term(triple.getPredicate()), term(triple.getObject()));
+    }
+
+    private static Pattern singlePattern(Op op) {
+        if ( op instanceof OpTriple opTriple )
+            return new Pattern(null, opTriple.getTriple());
+        if ( op instanceof OpBGP opBGP && opBGP.getPattern().size() == 1 )
+            return new Pattern(null, opBGP.getPattern().get(0));
+        if ( op instanceof OpQuadPattern opQuadPattern && opQuadPattern.getBasicPattern().size() == 1 )
+            return new Pattern(opQuadPattern.getGraphNode(), opQuadPattern.getBasicPattern().get(0));
+        if ( op instanceof OpGraph opGraph ) {
+            Pattern pattern = singlePattern(opGraph.getSubOp());
+            if ( pattern != null && pattern.graphNode() == null )
+                return new Pattern(opGraph.getNode(), pattern.triple());
+        }
+        return null;
+    }
+
+    /**
+     * Whether each match of the triple pattern is one solution: the terms are
+     * variables or concrete, no variable is repeated, and the predicate is not
+     * a property function.
+     */
+    private static boolean isCountable(Triple triple, ExecutionContext execCxt) {
+        Set<Var> vars = new HashSet<>();
+        for ( Node n : List.of(triple.getSubject(), triple.getPredicate(), triple.getObject()) ) {
+            if ( Var.isVar(n) ) {
+                if ( !vars.add(Var.alloc(n)) )
+                    return false;
+            } else if ( !n.isConcrete() )
+                return false;
+        }
+        Node p = triple.getPredicate();
+        if ( p.isURI() && PropertyFunctionRegistry.chooseRegistry(execCxt.getContext()).isRegistered(p.getURI()) )
+            return false;
+        return true;
+    }
+
+    /** Whether the aggregate is the number of matches of the triple pattern. */
+    private static boolean isCount(Aggregator agg, Triple triple) {
+        if ( agg instanceof AggCount || agg instanceof AggCountDistinct )
+            return true;
+        if ( agg instanceof AggCountVar aggCount )
+            return isPatternVar(aggCount.getExprList().get(0), triple);
+        if ( agg instanceof AggCountVarDistinct aggCount ) {
+            // Only when the variable is the only variable, so distinct values are distinct triples.
+            if ( !isPatternVar(aggCount.getExprList().get(0), triple) )
+                return false;
+            int numVars = 0;
+            for ( Node n : List.of(triple.getSubject(), triple.getPredicate(), triple.getObject()) ) {
+                if ( Var.isVar(n) )
+                    numVars++;
+            }
+            return numVars == 1;
+        }
+        return false;
+    }
+
+    private static boolean isPatternVar(Expr expr, Triple triple) {
+        if ( !expr.isVariable() )
+            return false;
+        Var v = expr.asVar();
+        return v.equals(triple.getSubject()) || v.equals(triple.getPredicate()) || v.equals(triple.getObject());
+    }
+
+    /**
+     * The graph for a pattern: the active graph for null, else the graph of the
+     * dataset. {@link Graph#emptyGraph} if the dataset has no such graph, null
+     * if the graph can not be determined.
+     */
+    private static Graph graph(Node graphNode, ExecutionContext execCxt) {
+        if ( graphNode == null )
+            return execCxt.getActiveGraph();
+        DatasetGraph dsg = execCxt.getDataset();
+        if ( dsg == null || Var.isVar(graphNode) )
+            return null;
+        if ( Quad.isDefaultGraph(graphNode) )
+            return dsg.getDefaultGraph();
+        if ( Quad.isUnionGraph(graphNode) )
+            return dsg.getUnionGraph();
+        if ( !graphNode.isURI() )
+            return null;
+        return dsg.containsGraph(graphNode) ? dsg.getGraph(graphNode) : Graph.emptyGraph;
+    }
+
+    /** Variables are wildcards. */
+    private static Node term(Node node) {
+        return Var.isVar(node) ? Node.ANY : node;
+    }
+}
@@ -51,6 +51,9 @@ public class PatternMatchData {
                                         QueryIterator input, Predicate<Triple> filter,
                                         ExecutionContext execCxt)
     {
+        if ( filter == null && StageMatchParallel.isParallel(pattern, input, execCxt) )
+            return StageMatchParallel.execute(pattern, input, execCxt);
+
         List<Triple> triples = pattern.getList();
 
         Iterator<Binding> chain = input;
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.engine.main.solver;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.GraphMem;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIterParallelStream;
+
+/**
+ * Parallel execution of a basic graph pattern over an in-memory graph.
+ * <p>
+ * The first triple pattern is matched with {@link Graph#stream(org.apache.jena.graph.Node, org.apache.jena.graph.Node, org.apache.jena.graph.Node)},
+ * which the {@link GraphMem} stores can split. For each match, the remaining
+ * triple patterns are matched as usual (index nested loops), on the thread
+ * working on that split. The results are merged into one
+ * {@link QueryIterParallelStream}.
+ * <p>
+ * Enabled with {@link ARQ#parallelBGP}. It is only used at the start of the
+ * evaluation (the input is the join identity) and when the graph needs no
+ * more index building, because reading from several threads is safe but
+ * changing the graph is not.
+ */
+public class StageMatchParallel {
+
+    public static final int DefaultBufferSize = 1024;
+
+    /** Whether {@link #execute} applies to this pattern, input and context. */
+    public static boolean isParallel(BasicPattern pattern, QueryIterator input, ExecutionContext execCxt) {
+        if ( !execCxt.getContext().isTrue(ARQ.parallelBGP) )
+            return false;
+        if ( !(execCxt.getActiveGraph() instanceof GraphMem graph) || !graph.isIndexInitialized() )
+            return false;
+        if ( pattern.isEmpty() || SolverLib.tripleHasEmbTripleWithVars(pattern.get(0)) )
+            return false;
+        return input.isJoinIdentity();
+    }
+
+    /**
+     * Execute the pattern; the input must be the join identity
+     * (see {@link #isParallel}). The order of the results is not defined.
+     */
+    public static QueryIterator execute(BasicPattern pattern, QueryIterator input, ExecutionContext execCxt) {
+        Graph graph = execCxt.getActiveGraph();
+        Binding root = input.nextBinding();
+        input.close();
+
+        List<Triple> triples = pattern.getList();
+        List<Triple> rest = triples.subList(1, triples.size());
+        Stream<Binding> stream = StageMatchTriple.streamTriple(root, graph, triples.get(0), execCxt).parallel();
+        if ( !rest.isEmpty() )
+            stream = stream.flatMap(binding -> Iter.asStream(matchRest(binding, rest, execCxt)));
+
+        int bufferSize = execCxt.getContext().getInt(ARQ.parallelBGPBufferSize, DefaultBufferSize);
+        return new QueryIterParallelStream(stream, bufferSize, execCxt);
+    }
+
+    private static Iterator<Binding> matchRest(Binding binding, List<Triple> triples, ExecutionContext execCxt) {
+        Iterator<Binding> chain = Iter.singletonIterator(binding);
+        for ( Triple triple : triples )
+            chain = SolverRX3.rdfStarTriple(chain, triple, execCxt);
+        return chain;
+    }
+}
@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.graph.Graph;
@@ -79,6 +80,26 @@ public class StageMatchTriple {
         return iter;
     }
 
+    /**
+     * Stream version of {@link #accessTriple} for a single binding. The stream
+     * may be made parallel: each match is given its own binding builder.
+     */
+    public static Stream<Binding> streamTriple(Binding binding, Graph graph, Triple pattern, ExecutionContext execCxt) {
+        Node s = substituteFlat(pattern.getSubject(), binding) ;
+        Node p = substituteFlat(pattern.getPredicate(), binding) ;
+        Node o = substituteFlat(pattern.getObject(), binding) ;
+        Stream<Triple> graphStream = graph.stream(tripleNode(s), tripleNode(p), tripleNode(o));
+        AtomicBoolean cancelSignal = execCxt.getCancelSignal();
+        if (cancelSignal != null) {
+            graphStream = graphStream.peek(x -> {
+                if (cancelSignal.get()) {
+                    throw new QueryCancelledException();
+                }
+            });
+        }
+        return graphStream.map(r -> mapper(Binding.builder(binding), s, p, o, r)).filter(Objects::nonNull);
+    }
+
     private static Node tripleNode(Node node) {
         if ( node.isVariable() )
             return Node.ANY;
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.engine.optimizer.reorder;
+
+import static org.apache.jena.sparql.engine.optimizer.reorder.PatternElements.TERM;
+
+import java.util.function.LongSupplier;
+
+import org.apache.jena.graph.GraphCardinality;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.sse.Item;
+
+/**
+ * Reorder the triple patterns of a basic graph pattern using the cardinality
+ * statistics of the graph being queried (see {@link GraphCardinality}), so the
+ * pattern with the fewest matches goes first.
+ * <p>
+ * The weight of a triple pattern is the number of triples matching its
+ * constant terms. For each variable already bound by an earlier pattern the
+ * weight is divided by the number of distinct terms in that position, which
+ * is the expected number of matches per value.
+ * <p>
+ * If the graph cannot estimate a pattern (e.g. its index has not been built),
+ * the weight of {@link ReorderFixed} is used, scaled to the size of the graph.
+ */
+public class ReorderGraphStats extends ReorderTransformationSubstitution {
+
+    private final GraphCardinality graph;
+    private final ReorderFixed fixed = new ReorderFixed();
+
+    public ReorderGraphStats(GraphCardinality graph) {
+        this.graph = graph;
+    }
+
+    @Override
+    protected double weight(PatternTriple pt) {
+        Node s = constant(pt.subject);
+        Node p = constant(pt.predicate);
+        Node o = constant(pt.object);
+        long estimate = graph.estimateCardinality(s, p, o);
+        if ( estimate < 0 )
+            return fallback(pt);
+        double w = estimate;
+        w = perBoundTerm(w, pt.subject, graph::distinctSubjects);
+        w = perBoundTerm(w, pt.predicate, graph::distinctPredicates);
+        w = perBoundTerm(w, pt.object, graph::distinctObjects);
+        return w;
+    }
+
+    /** The constant term of a slot, or {@link Node#ANY} for variables and bound variables. */
+    private static Node constant(Item item) {
+        if ( item.isNode() && !Var.isVar(item.getNode()) )
+            return item.getNode();
+        return Node.ANY;
+    }
+
+    private static double perBoundTerm(double w, Item item, LongSupplier distinct) {
+        if ( !TERM.equals(item) )
+            return w;
+        long n = distinct.getAsLong();
+        return n > 0 ? w / n : w;
+    }
+
+    private double fallback(PatternTriple pt) {
+        double w = fixed.weight(pt);
+        long size = graph.estimateCardinality(Node.ANY, Node.ANY, Node.ANY);
+        if ( w < 0 || size < 0 )
+            return w;
+        return w * size / ReorderFixed.MultiTermSampleSize;
+    }
+}
@@ -21,6 +21,7 @@
 
 package org.apache.jena.sparql.engine.optimizer.reorder ;
 
+import org.apache.jena.graph.GraphCardinality ;
 import org.apache.jena.sparql.core.BasicPattern ;
 import org.apache.jena.sparql.engine.optimizer.StatsMatcher ;
 
@@ -79,6 +80,14 @@ public class ReorderLib
         return new ReorderFixed() ;
     }
 
+    /**
+     * Return a ReorderTransformation that uses the cardinality statistics
+     * kept by the graph itself, such as those of the in-memory graphs.
+     */
+    public static ReorderTransformation graphStats(GraphCardinality graph) {
+        return new ReorderGraphStats(graph) ;
+    }
+
     /**
      * Return a ReorderTransformation that uses statistics.
      * <a href="https://jena.apache.org/documentation/tdb/optimizer.html">As used in TDB</a>.
@@ -23,8 +23,10 @@ package org.apache.jena.sparql.expr;
 
 import org.apache.jena.sparql.algebra.Algebra;
 import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.engine.ExecutionContext;
 import org.apache.jena.sparql.engine.QueryIterator;
 import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.main.solver.PatternCount;
 import org.apache.jena.sparql.function.FunctionEnv;
 import org.apache.jena.sparql.sse.Tags;
 import org.apache.jena.sparql.syntax.Element;
@@ -56,6 +58,14 @@ public class E_NotExists extends ExprFunctionOp {
         return NodeValue.booleanReturn(!b);
     }
 
+    @Override
+    protected NodeValue evalDirect(Binding binding, ExecutionContext execCxt) {
+        Boolean b = PatternCount.exists(getGraphPattern(), binding, execCxt);
+        if ( b == null )
+            return null;
+        return NodeValue.booleanReturn(!b);
+    }
+
     @Override
     public int hashCode() {
         return symbol.hashCode() ^ getGraphPattern().hashCode();
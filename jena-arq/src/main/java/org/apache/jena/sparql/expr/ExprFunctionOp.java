@@ -116,6 +116,9 @@ public abstract class ExprFunctionOp extends ExprFunction
     @Override
     public final NodeValue eval(Binding binding, FunctionEnv env) {
         ExecutionContext execCxt = ExecutionContext.fromFunctionEnv(env);
+        NodeValue nv = evalDirect(binding, execCxt);
+        if ( nv != null )
+            return nv;
         QueryIterator qIter1 = QueryIterSingleton.create(binding, execCxt);
         QueryIterator qIter = QC.execute(op, qIter1, execCxt);
         // Wrap with something to check for closed iterators.
@@ -128,6 +131,15 @@ public abstract class ExprFunctionOp extends ExprFunction
 
     protected abstract NodeValue eval(Binding binding, QueryIterator iter, FunctionEnv env);
 
+    /**
+     * Evaluate without executing the pattern, if the operation can do so for
+     * this pattern, for example by asking the storage.
+     * Return null to execute the pattern and call {@link #eval(Binding, QueryIterator, FunctionEnv)}.
+     */
+    protected NodeValue evalDirect(Binding binding, ExecutionContext execCxt) {
+        return null;
+    }
+
     public abstract ExprFunctionOp copy(ExprList args, Op x);
     public abstract ExprFunctionOp copy(ExprList args, Element elPattern);
     @Override
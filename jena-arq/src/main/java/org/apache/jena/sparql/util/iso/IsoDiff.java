@@ -0,0 +1,655 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.util.iso;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+
+/**
+ * Isomorphism and difference for large graphs and datasets.
+ * <p>
+ * Unlike {@link IsoAlgTuple}, which backtracks over all tuples, this works in stages:
+ * <ul>
+ * <li>Triples/quads without blank nodes are compared using the indexes of the graph or
+ *     dataset ({@code contains}) and do not take part in blank node matching.
+ * <li>Blank nodes are coloured by iterated neighbourhood hashing (Weisfeiler-Lehman colour
+ *     refinement) over the triples/quads that have blank nodes, for both inputs together.
+ * <li>Blank nodes are paired by colour. Only if that does not give a complete matching,
+ *     and the colour classes have the same sizes in both inputs, is there a search, which
+ *     fixes one pair of blank nodes in an ambiguous colour class at a time and refines again.
+ * </ul>
+ * The result is a {@link Delta}: the triples/quads to remove from the first input and to
+ * add to it to get a graph/dataset isomorphic to the second input. Added triples/quads
+ * use the blank nodes of the first input where a blank node has been matched, and new
+ * blank nodes for blank nodes of the second input that have not been matched, so the
+ * delta can be applied to the first input, for example as an RDF Patch. An empty delta
+ * means the inputs are isomorphic.
+ * <p>
+ * If the inputs are not isomorphic, blank nodes are matched greedily and the delta is
+ * minimal for that matching, not necessarily the smallest possible delta (in general,
+ * finding that is an NP-hard problem). The search is limited (see {@link #DFT_MAX_SEARCH});
+ * if the limit is reached, the greedy matching is used.
+ * <p>
+ * Blank nodes inside triple terms are compared by label.
+ */
+public class IsoDiff {
+
+    /** Default limit on the number of steps in the search for a blank node matching. */
+    public static final int DFT_MAX_SEARCH = 10_000;
+
+    // Use parallel colour refinement above this number of blank nodes.
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    /**
+     * Difference between two graphs or datasets.
+     * Removed triples/quads are expressed with the blank nodes of the first input, as are
+     * added triples/quads for matched blank nodes. Unmatched blank nodes of the second
+     * input are replaced by new blank nodes in added triples/quads.
+     * Triples of graphs are quads in the default graph ({@link Quad#defaultGraphIRI}).
+     */
+    public record Delta(List<Quad> removed, List<Quad> added) {
+        /** No differences - the inputs were isomorphic. */
+        public boolean isEmpty() {
+            return removed.isEmpty() && added.isEmpty();
+        }
+
+        public List<Triple> removedTriples() {
+            return removed.stream().map(Quad::asTriple).toList();
+        }
+
+        public List<Triple> addedTriples() {
+            return added.stream().map(Quad::asTriple).toList();
+        }
+    }
+
+    /** Graph isomorphism. */
+    public static boolean isomorphic(Graph graph1, Graph graph2) {
+        if ( graph1.size() != graph2.size() )
+            return false;
+        return diff(graph1, graph2).isEmpty();
+    }
+
+    /** Dataset isomorphism. */
+    public static boolean isomorphic(DatasetGraph dsg1, DatasetGraph dsg2) {
+        return diff(dsg1, dsg2).isEmpty();
+    }
+
+    /** Calculate the difference between two graphs. */
+    public static Delta diff(Graph graph1, Graph graph2) {
+        return diff(graph1, graph2, DFT_MAX_SEARCH);
+    }
+
+    /** Calculate the difference between two graphs, with a limit on the search for a blank node matching. */
+    public static Delta diff(Graph graph1, Graph graph2, int maxSearch) {
+        Source src1 = new Source(graphQuads(graph1), q->graph1.contains(q.asTriple()));
+        Source src2 = new Source(graphQuads(graph2), q->graph2.contains(q.asTriple()));
+        return diff(src1, src2, maxSearch);
+    }
+
+    /** Calculate the difference between two datasets. */
+    public static Delta diff(DatasetGraph dsg1, DatasetGraph dsg2) {
+        return diff(dsg1, dsg2, DFT_MAX_SEARCH);
+    }
+
+    /** Calculate the difference between two datasets, with a limit on the search for a blank node matching. */
+    public static Delta diff(DatasetGraph dsg1, DatasetGraph dsg2, int maxSearch) {
+        Source src1 = new Source(dsg1.find(), dsg1::contains);
+        Source src2 = new Source(dsg2.find(), dsg2::contains);
+        return diff(src1, src2, maxSearch);
+    }
+
+    private record Source(Iterator<Quad> quads, Predicate<Quad> contains) {}
+
+    private static Iterator<Quad> graphQuads(Graph graph) {
+        return graph.find().mapWith(t->Quad.create(Quad.defaultGraphIRI, t));
+    }
+
+    private static Delta diff(Source src1, Source src2, int maxSearch) {
+        List<Quad> removed = new ArrayList<>();
+        List<Quad> added = new ArrayList<>();
+        List<Quad> bnodeQuads1 = new ArrayList<>();
+        List<Quad> bnodeQuads2 = new ArrayList<>();
+        // Quads without blank nodes : use the indexes of the other side.
+        src1.quads.forEachRemaining(quad->{
+            if ( hasBlankNode(quad) )
+                bnodeQuads1.add(quad);
+            else if ( !src2.contains.test(quad) )
+                removed.add(quad);
+        });
+        src2.quads.forEachRemaining(quad->{
+            if ( hasBlankNode(quad) )
+                bnodeQuads2.add(quad);
+            else if ( !src1.contains.test(quad) )
+                added.add(quad);
+        });
+        if ( !bnodeQuads1.isEmpty() || !bnodeQuads2.isEmpty() ) {
+            BNodeMatcher matcher = new BNodeMatcher(bnodeQuads1, bnodeQuads2, maxSearch);
+            matcher.delta(matcher.match(), removed, added);
+        }
+        return new Delta(removed, added);
+    }
+
+    private static boolean hasBlankNode(Quad quad) {
+        return quad.getGraph().isBlank() || quad.getSubject().isBlank() || quad.getPredicate().isBlank() || quad.getObject().isBlank();
+    }
+
+    private static Node[] nodes(Quad quad) {
+        return new Node[] {quad.getGraph(), quad.getSubject(), quad.getPredicate(), quad.getObject()};
+    }
+
+    /** Signalled when the search for a blank node matching exceeds the limit. */
+    private static class SearchLimitException extends RuntimeException {
+        SearchLimitException() { super(null, null, false, false); }
+    }
+
+    /** Blank node quad with blank nodes as indexes and other terms as hashes. */
+    private record BQuad(Quad quad, int[] bnodes, long[] hashes) {}
+
+    /** A colour class : unmatched blank nodes of each side with the same colour. */
+    private record ColourClass(List<Integer> side1, List<Integer> side2) {}
+
+    /**
+     * Matching of the blank nodes in the quads that have blank nodes.
+     * The blank nodes of both sides are numbered: side 1 is 0 to n1-1, side 2 is n1 to n-1.
+     */
+    private static class BNodeMatcher {
+        private static final long SELF      = 0x5DEECE66DL;
+        private static final long UNMATCHED = 0x2545F4914F6CDD1DL;
+        private static final long PAIR      = 0x9E3779B97F4A7C15L;
+        // Limit on (unmatched side 1) * (unmatched side 2) for comparing all unmatched blank nodes.
+        private static final long LOCAL_LIMIT = 1_000_000;
+
+        private final List<BQuad> bquads1 = new ArrayList<>();
+        private final List<BQuad> bquads2 = new ArrayList<>();
+        private final List<Node> bnodes = new ArrayList<>();
+        private final int n1;
+        // Blank node index to the quads that blank node occurs in.
+        private final List<List<BQuad>> incident = new ArrayList<>();
+        private final Set<Quad> quads2;
+        private final int maxSearch;
+        private int searchSteps = 0;
+
+        BNodeMatcher(List<Quad> bnodeQuads1, List<Quad> bnodeQuads2, int maxSearch) {
+            this.maxSearch = maxSearch;
+            Map<Node, Integer> ids1 = new HashMap<>();
+            for ( Quad quad : bnodeQuads1 )
+                bquads1.add(encode(quad, ids1));
+            this.n1 = bnodes.size();
+            Map<Node, Integer> ids2 = new HashMap<>();
+            for ( Quad quad : bnodeQuads2 )
+                bquads2.add(encode(quad, ids2));
+            this.quads2 = new HashSet<>(bnodeQuads2);
+        }
+
+        private BQuad encode(Quad quad, Map<Node, Integer> ids) {
+            Node[] nodes = nodes(quad);
+            int[] idx = new int[4];
+            long[] hashes = new long[4];
+            for ( int i = 0 ; i < 4 ; i++ ) {
+                Node n = nodes[i];
+                if ( n.isBlank() ) {
+                    idx[i] = ids.computeIfAbsent(n, b->{
+                        bnodes.add(b);
+                        incident.add(new ArrayList<>());
+                        return bnodes.size()-1;
+                    });
+                } else {
+                    idx[i] = -1;
+                    hashes[i] = mix(n.hashCode(), i);
+                }
+            }
+            BQuad bquad = new BQuad(quad, idx, hashes);
+            for ( int i = 0 ; i < 4 ; i++ ) {
+                if ( idx[i] >= 0 && !occursBefore(idx, i, idx[i]) )
+                    incident.get(idx[i]).add(bquad);
+            }
+            return bquad;
+        }
+
+        private static boolean occursBefore(int[] idx, int i, int bnode) {
+            for ( int j = 0 ; j < i ; j++ )
+                if ( idx[j] == bnode )
+                    return true;
+            return false;
+        }
+
+        /** Find a matching, as an array of side 1 index to side 2 index or -1. */
+        int[] match() {
+            State state = new State();
+            state.refineAndMatch();
+            if ( state.unmatched1() == 0 && isComplete(state.map) )
+                return state.map;
+            if ( state.balanced() ) {
+                try {
+                    State result = search(state.copy());
+                    if ( result != null )
+                        return result.map;
+                } catch (SearchLimitException ex) {}
+            }
+            state.matchLocal();
+            state.pairRemaining();
+            return state.map;
+        }
+
+        /** Isomorphism search : fix a pair of blank nodes in the smallest ambiguous colour class, refine, recurse. */
+        private State search(State state) {
+            if ( state.unmatched1() == 0 )
+                return isComplete(state.map) ? state : null;
+            List<ColourClass> classes = state.colourClasses();
+            ColourClass choice = null;
+            for ( ColourClass cc : classes ) {
+                if ( cc.side1.size() != cc.side2.size() )
+                    return null;
+                if ( choice == null || cc.side1.size() < choice.side1.size() )
+                    choice = cc;
+            }
+            if ( choice == null )
+                return null;
+            int b1 = choice.side1.get(0);
+            for ( int b2 : choice.side2 ) {
+                if ( ++searchSteps > maxSearch )
+                    throw new SearchLimitException();
+                State state2 = state.copy();
+                state2.anchor(b1, b2);
+                state2.propagate();
+                state2.refineAndMatch();
+                State result = search(state2);
+                if ( result != null )
+                    return result;
+            }
+            return null;
+        }
+
+        /** Is the mapping a complete isomorphism of the blank node quads? */
+        private boolean isComplete(int[] mapping) {
+            if ( bquads1.size() != bquads2.size() || n1 != bnodes.size() - n1 )
+                return false;
+            for ( BQuad bquad : bquads1 ) {
+                Quad q = mapQuad(bquad, mapping);
+                if ( q == null || !quads2.contains(q) )
+                    return false;
+            }
+            return true;
+        }
+
+        /** Map a side 1 quad to side 2 blank nodes; null if a blank node is not mapped. */
+        private Quad mapQuad(BQuad bquad, int[] mapping) {
+            Node[] nodes = nodes(bquad.quad);
+            for ( int i = 0 ; i < 4 ; i++ ) {
+                int x = bquad.bnodes[i];
+                if ( x < 0 )
+                    continue;
+                int y = mapping[x];
+                if ( y < 0 )
+                    return null;
+                nodes[i] = bnodes.get(y);
+            }
+            return Quad.create(nodes[0], nodes[1], nodes[2], nodes[3]);
+        }
+
+        /**
+         * The state of a matching: the pairs of blank nodes matched so far ("anchors")
+         * and the colours of blank nodes. A matched pair has a colour of its own.
+         */
+        private class State {
+            final int[] map;        // Side 1 to side 2.
+            final int[] reverse;    // Side 2 to side 1, indexed by blank node index.
+            long[] colours;
+            final Deque<Integer> queue = new ArrayDeque<>();
+
+            State() {
+                map = new int[n1];
+                Arrays.fill(map, -1);
+                reverse = new int[bnodes.size()];
+                Arrays.fill(reverse, -1);
+                colours = new long[bnodes.size()];
+            }
+
+            private State(State other) {
+                map = other.map.clone();
+                reverse = other.reverse.clone();
+                colours = other.colours.clone();
+            }
+
+            State copy() {
+                return new State(this);
+            }
+
+            boolean matched(int b) {
+                return ( b < n1 ) ? map[b] >= 0 : reverse[b] >= 0;
+            }
+
+            int unmatched1() {
+                int count = 0;
+                for ( int b = 0 ; b < n1 ; b++ )
+                    if ( map[b] < 0 )
+                        count++;
+                return count;
+            }
+
+            void anchor(int b1, int b2) {
+                map[b1] = b2;
+                reverse[b2] = b1;
+                long c = mix(PAIR, b1);
+                colours[b1] = c;
+                colours[b2] = c;
+                queue.add(b1);
+            }
+
+            /**
+             * Colour refinement of the unmatched blank nodes, matching blank nodes that are
+             * the only ones of their colour on each side, until there are no changes.
+             */
+            void refineAndMatch() {
+                int count = countColours(colours);
+                for ( ;; ) {
+                    refineOnce();
+                    boolean progress = matchUnique();
+                    propagate();
+                    int count2 = countColours(colours);
+                    if ( !progress && count2 == count )
+                        return;
+                    count = count2;
+                }
+            }
+
+            private void refineOnce() {
+                int n = colours.length;
+                long[] current = colours;
+                long[] next = new long[n];
+                IntStream indexes = IntStream.range(0, n);
+                if ( n >= PARALLEL_THRESHOLD )
+                    indexes = indexes.parallel();
+                indexes.forEach(b->next[b] = matched(b) ? current[b] : refineColour(b, current));
+                colours = next;
+            }
+
+            private boolean matchUnique() {
+                boolean progress = false;
+                for ( ColourClass cc : colourClasses() ) {
+                    if ( cc.side1.size() == 1 && cc.side2.size() == 1 ) {
+                        anchor(cc.side1.get(0), cc.side2.get(0));
+                        progress = true;
+                    }
+                }
+                return progress;
+            }
+
+            /**
+             * Match the neighbours of matched blank nodes: a quad with one unmatched blank
+             * node that is the only quad of its form for a matched pair.
+             */
+            void propagate() {
+                while ( !queue.isEmpty() ) {
+                    int b1 = queue.poll();
+                    int b2 = map[b1];
+                    Map<Long, List<Integer>> neighbours1 = neighbours(b1);
+                    Map<Long, List<Integer>> neighbours2 = neighbours(b2);
+                    neighbours1.forEach((key, list1)->{
+                        List<Integer> list2 = neighbours2.get(key);
+                        if ( list2 == null )
+                            return;
+                        if ( list1.size() == 1 && list2.size() == 1 ) {
+                            tryAnchor(list1.get(0), list2.get(0));
+                            return;
+                        }
+                        // Several : use colours.
+                        Map<Long, List<Integer>> byColour = new HashMap<>();
+                        list1.forEach(x->byColour.computeIfAbsent(colours[x], c->new ArrayList<>()).add(x));
+                        list2.forEach(x->byColour.computeIfAbsent(colours[x], c->new ArrayList<>()).add(x));
+                        byColour.values().forEach(xs->{
+                            if ( xs.size() == 2 && xs.get(0) < n1 && xs.get(1) >= n1 )
+                                tryAnchor(xs.get(0), xs.get(1));
+                        });
+                    });
+                }
+            }
+
+            private void tryAnchor(int x1, int x2) {
+                if ( !matched(x1) && !matched(x2) )
+                    anchor(x1, x2);
+            }
+
+            /** Unmatched neighbours of a matched blank node, keyed by the form of the quad they occur in. */
+            private Map<Long, List<Integer>> neighbours(int b) {
+                Map<Long, List<Integer>> result = new HashMap<>();
+                for ( BQuad bquad : incident.get(b) ) {
+                    int other = -1;
+                    long key = 23;
+                    for ( int j = 0 ; j < 4 ; j++ ) {
+                        int x = bquad.bnodes[j];
+                        long term;
+                        if ( x < 0 )
+                            term = bquad.hashes[j];
+                        else if ( x == b )
+                            term = mix(SELF, j);
+                        else if ( matched(x) )
+                            term = mix(colours[x], j);
+                        else {
+                            if ( other >= 0 && other != x ) {
+                                // More than one unmatched blank node.
+                                other = -2;
+                                break;
+                            }
+                            other = x;
+                            term = mix(UNMATCHED, j);
+                        }
+                        key = mix(key, term);
+                    }
+                    if ( other >= 0 )
+                        result.computeIfAbsent(key, k->new ArrayList<>()).add(other);
+                }
+                // Remove duplicates (the same neighbour in several quads of the same form).
+                result.replaceAll((k, list)->list.stream().distinct().toList());
+                return result;
+            }
+
+            private long refineColour(int b, long[] current) {
+                List<BQuad> quads = incident.get(b);
+                long[] signatures = new long[quads.size()];
+                for ( int i = 0 ; i < signatures.length ; i++ ) {
+                    BQuad bquad = quads.get(i);
+                    long h = 17;
+                    for ( int j = 0 ; j < 4 ; j++ ) {
+                        int x = bquad.bnodes[j];
+                        long term = ( x < 0 ) ? bquad.hashes[j] : ( x == b ) ? mix(SELF, j) : mix(current[x], j);
+                        h = mix(h, term);
+                    }
+                    signatures[i] = h;
+                }
+                Arrays.sort(signatures);
+                long h = current[b];
+                for ( long sig : signatures )
+                    h = mix(h, sig);
+                return h;
+            }
+
+            /** Colour classes of the unmatched blank nodes. */
+            List<ColourClass> colourClasses() {
+                Map<Long, ColourClass> classes = new LinkedHashMap<>();
+                for ( int b = 0 ; b < colours.length ; b++ ) {
+                    if ( matched(b) )
+                        continue;
+                    ColourClass cc = classes.computeIfAbsent(colours[b], c->new ColourClass(new ArrayList<>(), new ArrayList<>()));
+                    if ( b < n1 )
+                        cc.side1.add(b);
+                    else
+                        cc.side2.add(b);
+                }
+                return new ArrayList<>(classes.values());
+            }
+
+            boolean balanced() {
+                for ( ColourClass cc : colourClasses() ) {
+                    if ( cc.side1.size() != cc.side2.size() )
+                        return false;
+                }
+                return true;
+            }
+
+            /**
+             * Not isomorphic : match each unmatched side 1 blank node to the unmatched side 2
+             * blank node with the most quads in common, if any.
+             */
+            void matchLocal() {
+                boolean progress = true;
+                while ( progress ) {
+                    progress = false;
+                    long unmatched2 = bnodes.size() - n1 - (n1 - unmatched1());
+                    boolean all = (long)unmatched1() * unmatched2 <= LOCAL_LIMIT;
+                    for ( int b1 = 0 ; b1 < n1 ; b1++ ) {
+                        if ( matched(b1) )
+                            continue;
+                        Set<Integer> candidates = candidates(b1);
+                        if ( candidates.isEmpty() && all ) {
+                            for ( int b2 = n1 ; b2 < bnodes.size() ; b2++ )
+                                if ( !matched(b2) )
+                                    candidates.add(b2);
+                        }
+                        int best = -1;
+                        int bestScore = 0;
+                        for ( int b2 : candidates ) {
+                            map[b1] = b2;
+                            int score = localScore(b1);
+                            map[b1] = -1;
+                            if ( score > bestScore ) {
+                                best = b2;
+                                bestScore = score;
+                            }
+                        }
+                        if ( best >= 0 ) {
+                            anchor(b1, best);
+                            propagate();
+                            progress = true;
+                        }
+                    }
+                }
+            }
+
+            /** Unmatched side 2 blank nodes in the same position as b1 in quads with matched blank nodes. */
+            private Set<Integer> candidates(int b1) {
+                Set<Integer> candidates = new LinkedHashSet<>();
+                for ( BQuad bquad : incident.get(b1) ) {
+                    for ( int j = 0 ; j < 4 ; j++ ) {
+                        int x = bquad.bnodes[j];
+                        if ( x < 0 || x == b1 || !matched(x) )
+                            continue;
+                        for ( BQuad bquad2 : incident.get(map[x]) ) {
+                            for ( int k = 0 ; k < 4 ; k++ ) {
+                                if ( bquad.bnodes[k] == b1 ) {
+                                    int y = bquad2.bnodes[k];
+                                    if ( y >= 0 && !matched(y) )
+                                        candidates.add(y);
+                                }
+                            }
+                        }
+                    }
+                }
+                return candidates;
+            }
+
+            /** Number of quads of a side 1 blank node that are in side 2 under the current mapping. */
+            private int localScore(int b1) {
+                int score = 0;
+                for ( BQuad bquad : incident.get(b1) ) {
+                    Quad q = mapQuad(bquad, map);
+                    if ( q != null && quads2.contains(q) )
+                        score++;
+                }
+                return score;
+            }
+
+            /** Pair the remaining unmatched blank nodes by colour. */
+            void pairRemaining() {
+                for ( ColourClass cc : colourClasses() ) {
+                    int k = Math.min(cc.side1.size(), cc.side2.size());
+                    for ( int i = 0 ; i < k ; i++ ) {
+                        map[cc.side1.get(i)] = cc.side2.get(i);
+                        reverse[cc.side2.get(i)] = cc.side1.get(i);
+                    }
+                }
+            }
+        }
+
+        private static int countColours(long[] colours) {
+            Set<Long> x = new HashSet<>();
+            for ( long c : colours )
+                x.add(c);
+            return x.size();
+        }
+
+        /** Calculate the removed and added quads for a mapping. */
+        void delta(int[] mapping, List<Quad> removed, List<Quad> added) {
+            Set<Quad> matched = new HashSet<>();
+            for ( BQuad bquad : bquads1 ) {
+                Quad q = mapQuad(bquad, mapping);
+                if ( q != null && quads2.contains(q) )
+                    matched.add(q);
+                else
+                    removed.add(bquad.quad);
+            }
+            // Added quads use side 1 blank nodes where mapped, and new blank nodes otherwise
+            // so that they can not be confused with side 1 blank nodes of the same label.
+            int[] reverse = new int[bnodes.size()];
+            Arrays.fill(reverse, -1);
+            for ( int i = 0 ; i < mapping.length ; i++ ) {
+                if ( mapping[i] >= 0 )
+                    reverse[mapping[i]] = i;
+            }
+            Node[] fresh = new Node[bnodes.size()];
+            for ( BQuad bquad : bquads2 ) {
+                if ( matched.contains(bquad.quad) )
+                    continue;
+                Node[] nodes = nodes(bquad.quad);
+                for ( int i = 0 ; i < 4 ; i++ ) {
+                    int x = bquad.bnodes[i];
+                    if ( x < 0 )
+                        continue;
+                    if ( reverse[x] >= 0 )
+                        nodes[i] = bnodes.get(reverse[x]);
+                    else {
+                        if ( fresh[x] == null )
+                            fresh[x] = NodeFactory.createBlankNode();
+                        nodes[i] = fresh[x];
+                    }
+                }
+                added.add(Quad.create(nodes[0], nodes[1], nodes[2], nodes[3]));
+            }
+        }
+    }
+
+    // 64 bit hash combination (from SplitMix64).
+    private static long mix(long h, long x) {
+        long z = h * 0x9E3779B97F4A7C15L + x;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -382,7 +382,7 @@ public class G {
     /** Count matches of subject-predicate (which can be wildcards). */
     public static long countSP(Graph graph, Node subject, Node predicate) {
         Objects.requireNonNull(graph, "graph");
-        return Iter.count(iterSP(graph, subject, predicate));
+        return count(graph, subject, predicate, null);
     }
 
     /**
@@ -413,7 +413,7 @@ public class G {
     /** Count matches of predicate-object (which can be wildcards). */
     public static long countPO(Graph graph, Node predicate, Node object) {
         Objects.requireNonNull(graph, "graph");
-        return Iter.count(iterPO(graph, predicate, object));
+        return count(graph, null, predicate, object);
     }
 
     // DISTINCT means these are space using.
@@ -680,9 +680,14 @@ public class G {
         } finally { iter.close(); }
     }
 
-    /** Count occurrences of the pattern. */
+    /**
+     * Count occurrences of the pattern.
+     * Uses {@link GraphCount#count} if the graph can count from its indexes.
+     */
     public static long count(Graph graph, Node subject, Node predicate, Node object) {
         Objects.requireNonNull(graph, "graph");
+        if ( graph instanceof GraphCount graphCount )
+            return graphCount.count(subject, predicate, object);
         return Iter.count(graph.find(subject, predicate, object));
     }
 
@@ -113,6 +113,51 @@ public class TestRDFParser {
         assertEquals(3, graph.size());
     }
 
+    @Test
+    public void source_mapped_01() {
+        Graph graph = GraphFactory.createGraphMem();
+        RDFParser.create()
+                 .source(Path.of(DIR + "data.ttl"))
+                 .memoryMapped(true)
+                 .parse(graph);
+        assertEquals(3, graph.size());
+        Graph graph2 = RDFParser.source(DIR + "data.ttl").toGraph();
+        assertTrue(graph.isIsomorphicWith(graph2));
+    }
+
+    @Test
+    public void source_mapped_02() {
+        Graph graph = GraphFactory.createGraphMem();
+        RDFParser.create()
+                 .source("file:" + DIR + "data.unknown")
+                 .lang(Lang.TTL)
+                 .memoryMapped(true)
+                 .parse(graph);
+        assertEquals(3, graph.size());
+    }
+
+    @Test
+    public void source_mapped_03() {
+        Graph graph = GraphFactory.createGraphMem();
+        RDFParser.create()
+                 .source(DIR + "data.rdf")
+                 .forceLang(Lang.TTL)
+                 .memoryMapped(true)
+                 .parse(graph);
+        assertEquals(3, graph.size());
+    }
+
+    @Test
+    public void source_mapped_notfound() {
+        Graph graph = GraphFactory.createGraphMem();
+        assertThrows(RiotNotFoundException.class, ()->
+            RDFParser.create()
+                     .source(Path.of(DIR + "data.nosuchfile.ttl"))
+                     .memoryMapped(true)
+                     .parse(graph)
+                     );
+    }
+
     // Shortcut source
     @Test
     public void source_shortcut_01() {
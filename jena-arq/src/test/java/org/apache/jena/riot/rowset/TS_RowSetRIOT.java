@@ -21,6 +21,7 @@
 
 package org.apache.jena.riot.rowset;
 
+import org.apache.jena.riot.rowset.rw.TestRowSetOutput;
 import org.apache.jena.riot.rowset.rw.TestRowSetReader;
 import org.apache.jena.riot.rowset.rw.TestRowSetWriterCSV;
 import org.apache.jena.riot.rowset.rw.TestRowSetWriterTSV;
@@ -31,6 +32,7 @@ import org.junit.platform.suite.api.Suite;;
 @SelectClasses({
     TestRowSetWriterCSV.class,
     TestRowSetWriterTSV.class,
+    TestRowSetOutput.class,
     TestRowSetReader.class
 })
 
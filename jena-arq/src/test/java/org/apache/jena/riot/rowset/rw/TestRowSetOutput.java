@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.riot.rowset.rw;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.resultset.ResultSetLang;
+import org.apache.jena.riot.rowset.RowSetWriterRegistry;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.exec.RowSet;
+import org.apache.jena.sparql.exec.RowSetStream;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.Context;
+
+/** The result set writers with different output settings. */
+public class TestRowSetOutput {
+
+    private static final Var s = Var.alloc("s");
+    private static final Var o = Var.alloc("o");
+
+    private static RowSet rowSet() {
+        Node b = NodeFactory.createBlankNode("b");
+        Node t = NodeFactory.createTripleTerm(b, SSE.parseNode("<http://example/p>"), SSE.parseNode("'x'@en--ltr"));
+        List<Binding> rows = new ArrayList<>();
+        rows.add(Binding.builder().add(s, b).add(o, SSE.parseNode("'abc\"\\n\u00E9'@en")).build());
+        rows.add(Binding.builder().add(s, SSE.parseNode("<http://example/s>")).add(o, t).build());
+        rows.add(Binding.builder().add(o, SSE.parseNode("123")).build());
+        return RowSetStream.create(List.of(s, o), rows.iterator());
+    }
+
+    @Test public void rowset_output_json() {
+        String expected = """
+                { "head": {
+                    "vars": [ "s" , "o" ]
+                  } ,
+                  "results": {
+                    "bindings": [
+                      { \n\
+                        "s": { "type": "bnode" , "value": "b0" } ,
+                        "o": { "type": "literal" , "xml:lang": "en" , "value": "abc\\"\\né" }
+                      } ,
+                      { \n\
+                        "s": { "type": "uri" , "value": "http://example/s" } ,
+                        "o": {
+                          "type": "triple" , \n\
+                          "value": {
+                            "subject":  { "type": "bnode" , "value": "b0" } ,
+                            "predicate": { "type": "uri" , "value": "http://example/p" } ,
+                            "object":   { "type": "literal" , "xml:lang": "en" , "its:dir": "ltr" , "value": "x" }
+                          }
+                        }
+                      } ,
+                      { \n\
+                        "o": { "type": "literal" , "datatype": "http://www.w3.org/2001/XMLSchema#integer" , "value": "123" }
+                      }
+                    ]
+                  }
+                }
+                """;
+        test(ResultSetLang.RS_JSON, expected);
+    }
+
+    @Test public void rowset_output_xml() {
+        String expected = """
+                <?xml version="1.0"?>
+                <sparql xmlns="http://www.w3.org/2005/sparql-results#">
+                  <head>
+                    <variable name="s"/>
+                    <variable name="o"/>
+                  </head>
+                  <results>
+                    <result>
+                      <binding name="s">
+                        <bnode>b0</bnode>
+                      </binding>
+                      <binding name="o">
+                        <literal xml:lang="en">abc"&#x000A;é</literal>
+                      </binding>
+                    </result>
+                    <result>
+                      <binding name="s">
+                        <uri>http://example/s</uri>
+                      </binding>
+                      <binding name="o">
+                        <triple>
+                          <subject>
+                            <bnode>b0</bnode>
+                          </subject>
+                          <predicate>
+                            <uri>http://example/p</uri>
+                          </predicate>
+                          <object>
+                            <literal xmlns:its="http://www.w3.org/2005/11/its" its:version="2.0"
+                                     xml:lang="en" its:dir="ltr">x</literal>
+                          </object>
+                        </triple>
+                      </binding>
+                    </result>
+                    <result>
+                      <binding name="o">
+                        <literal datatype="http://www.w3.org/2001/XMLSchema#integer">123</literal>
+                      </binding>
+                    </result>
+                  </results>
+                </sparql>
+                """;
+        test(ResultSetLang.RS_XML, expected);
+    }
+
+    @Test public void rowset_output_tsv() {
+        String expected = """
+                ?s\t?o
+                _:Bb\t"abc\\"\\né"@en
+                <http://example/s>\t<<( _:Bb <http://example/p> "x"@en--ltr )>>
+                \t123
+                """;
+        test(ResultSetLang.RS_TSV, expected);
+    }
+
+    @Test public void rowset_output_csv() {
+        String expected = "s,o\r\n"
+                + "_:b0,\"abc\"\"\né\"\r\n"
+                + "http://example/s,\"<<( _:b0 <http://example/p> \"\"x\"\"@en--ltr )>>\"\r\n"
+                + ",123\r\n";
+        test(ResultSetLang.RS_CSV, expected);
+    }
+
+    private static void test(Lang lang, String expected) {
+        assertEquals(expected, new String(write(lang, null), UTF_8));
+
+        // Small buffer, no term cache.
+        Context cxt = new Context();
+        cxt.set(RowSetOutput.rsOutputBufferSize, 16);
+        cxt.set(RowSetOutput.rsOutputTermCacheSize, 0);
+        assertEquals(expected, new String(write(lang, cxt), UTF_8));
+
+        // Compressed.
+        Context cxtGzip = new Context();
+        cxtGzip.set(RowSetOutput.rsOutputGzip, true);
+        assertArrayEquals(expected.getBytes(UTF_8), gunzip(write(lang, cxtGzip)));
+
+        // Character output, which must not split UTF-8 sequences.
+        if ( lang.equals(ResultSetLang.RS_TSV) || lang.equals(ResultSetLang.RS_CSV) ) {
+            for ( int size = 16 ; size < 24 ; size++ ) {
+                Context cxtWriter = new Context();
+                cxtWriter.set(RowSetOutput.rsOutputBufferSize, size);
+                StringWriter sw = new StringWriter();
+                RowSetWriterRegistry.getFactory(lang).create(lang).write(sw, rowSet(), cxtWriter);
+                assertEquals(expected, sw.toString());
+            }
+        }
+    }
+
+    private static byte[] write(Lang lang, Context context) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RowSetWriterRegistry.getFactory(lang).create(lang).write(out, rowSet(), context);
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] bytes) {
+        try ( GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes)) ) {
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+}
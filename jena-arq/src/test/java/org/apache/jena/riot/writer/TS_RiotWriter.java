@@ -33,6 +33,7 @@ import org.junit.platform.suite.api.Suite;
 
     , TestTurtleWriter.class
     , TestTrigWriter.class
+    , TestRDFC10.class
     , TestTurtleFormats.class
 
     , TestWriterRDFXML.class
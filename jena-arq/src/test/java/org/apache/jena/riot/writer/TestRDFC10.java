@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.riot.writer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.riot.*;
+import org.apache.jena.riot.writer.c14n.RDFC10;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.util.Context;
+
+public class TestRDFC10 {
+
+    private static final String PREFIX = "PREFIX : <http://example.com/#>\n";
+
+    // Examples from the RDFC-1.0 specification.
+
+    @Test public void rdfc10_unique_hashes() {
+        String data = PREFIX + """
+                :p :q _:e0 .
+                :p :r _:e1 .
+                _:e0 :s :u .
+                _:e1 :t :u .
+                """;
+        String expected = """
+                <http://example.com/#p> <http://example.com/#q> _:c14n0 .
+                <http://example.com/#p> <http://example.com/#r> _:c14n1 .
+                _:c14n0 <http://example.com/#s> <http://example.com/#u> .
+                _:c14n1 <http://example.com/#t> <http://example.com/#u> .
+                """;
+        test(data, expected);
+    }
+
+    @Test public void rdfc10_shared_hashes() {
+        String data = PREFIX + """
+                :p :q _:e0 .
+                :p :q _:e1 .
+                _:e0 :p _:e2 .
+                _:e1 :p _:e3 .
+                _:e2 :r _:e3 .
+                """;
+        String expected = """
+                <http://example.com/#p> <http://example.com/#q> _:c14n2 .
+                <http://example.com/#p> <http://example.com/#q> _:c14n3 .
+                _:c14n0 <http://example.com/#r> _:c14n1 .
+                _:c14n2 <http://example.com/#p> _:c14n1 .
+                _:c14n3 <http://example.com/#p> _:c14n0 .
+                """;
+        test(data, expected);
+    }
+
+    @Test public void rdfc10_no_bnodes() {
+        String data = PREFIX + """
+                :s :p "abc"@EN .
+                :s :p 'x\ty' .
+                GRAPH :g { :s :p 123 }
+                """;
+        String expected = """
+                <http://example.com/#s> <http://example.com/#p> "123"^^<http://www.w3.org/2001/XMLSchema#integer> <http://example.com/#g> .
+                <http://example.com/#s> <http://example.com/#p> "abc"@en .
+                <http://example.com/#s> <http://example.com/#p> "x\\ty" .
+                """;
+        test(data, expected);
+    }
+
+    @Test public void rdfc10_graph_bnode() {
+        String data = PREFIX + """
+                GRAPH _:g { _:x :p _:y }
+                """;
+        String expected = """
+                _:c14n1 <http://example.com/#p> _:c14n2 _:c14n0 .
+                """;
+        test(data, expected);
+    }
+
+    @Test public void rdfc10_isomorphic_01() {
+        // Cycles of blank nodes: all first degree hashes are the same.
+        DatasetGraph dsg1 = cycles(3, 5, 1);
+        DatasetGraph dsg2 = cycles(3, 5, 2);
+        String s1 = canonical(dsg1, 1);
+        String s2 = canonical(dsg2, 1);
+        assertEquals(s1, s2);
+        assertEquals(15, RDFC10.create().build().canonicalLabels(dsg1).size());
+    }
+
+    @Test public void rdfc10_not_isomorphic() {
+        DatasetGraph dsg1 = cycles(2, 6, 1);
+        DatasetGraph dsg2 = cycles(3, 4, 1);
+        assertNotEquals(canonical(dsg1, 1), canonical(dsg2, 1));
+    }
+
+    @Test public void rdfc10_parallel() {
+        // Enough blank nodes to use multiple threads.
+        DatasetGraph dsg1 = chains(500, 4, 1);
+        DatasetGraph dsg2 = chains(500, 4, 2);
+        String s1 = canonical(dsg1, 1);
+        String s2 = canonical(dsg2, 4);
+        assertEquals(s1, s2);
+    }
+
+    @Test public void rdfc10_work_limit() {
+        DatasetGraph dsg = cycles(6, 6, 1);
+        RDFC10 c14n = RDFC10.create().maxWork(100).build();
+        assertThrows(RiotException.class, ()->c14n.canonicalNQuads(dsg));
+    }
+
+    @Test public void rdfc10_depth_limit() {
+        DatasetGraph dsg = cycles(1, 20, 1);
+        RDFC10 c14n = RDFC10.create().maxDepth(5).build();
+        assertThrows(RiotException.class, ()->c14n.canonicalNQuads(dsg));
+    }
+
+    @Test public void rdfc10_writer() {
+        DatasetGraph dsg = cycles(2, 3, 1);
+        Context cxt = new Context();
+        cxt.set(RIOT.symRDFC10Threads, 2);
+        String s1 = RDFWriter.source(dsg).format(RDFFormat.NQUADS_RDFC10).context(cxt).asString();
+        assertEquals(canonical(dsg, 1), s1);
+        String s2 = RDFWriter.source(dsg.getDefaultGraph()).format(RDFFormat.NQUADS_RDFC10).asString();
+        assertEquals(s1, s2);
+    }
+
+    private static void test(String data, String expected) {
+        DatasetGraph dsg = parse(data);
+        assertEquals(expected, canonical(dsg, 1));
+        assertEquals(expected, canonical(dsg, 4));
+    }
+
+    private static DatasetGraph parse(String data) {
+        return RDFParser.fromString(data, Lang.TRIG).toDatasetGraph();
+    }
+
+    private static String canonical(DatasetGraph dsg, int threads) {
+        return String.join("", RDFC10.create().threads(threads).build().canonicalNQuads(dsg));
+    }
+
+    private static final Node p = NodeFactory.createURI("http://example.com/#p");
+    private static final Node q = NodeFactory.createURI("http://example.com/#q");
+
+    /** Cycles of blank nodes, added in an order determined by the seed. */
+    private static DatasetGraph cycles(int numCycles, int length, long seed) {
+        List<Quad> quads = new ArrayList<>();
+        for ( int i = 0 ; i < numCycles ; i++ ) {
+            List<Node> bnodes = new ArrayList<>();
+            for ( int j = 0 ; j < length ; j++ )
+                bnodes.add(NodeFactory.createBlankNode());
+            for ( int j = 0 ; j < length ; j++ )
+                quads.add(Quad.create(Quad.defaultGraphIRI, bnodes.get(j), p, bnodes.get((j+1)%length)));
+        }
+        return dataset(quads, seed);
+    }
+
+    /** Chains of blank nodes, ending in a literal, added in an order determined by the seed. */
+    private static DatasetGraph chains(int numChains, int length, long seed) {
+        List<Quad> quads = new ArrayList<>();
+        for ( int i = 0 ; i < numChains ; i++ ) {
+            Node x = NodeFactory.createBlankNode();
+            quads.add(Quad.create(Quad.defaultGraphIRI, x, q, NodeFactory.createLiteralString("chain"+(i%7))));
+            for ( int j = 0 ; j < length ; j++ ) {
+                Node y = NodeFactory.createBlankNode();
+                quads.add(Quad.create(Quad.defaultGraphIRI, x, p, y));
+                x = y;
+            }
+        }
+        return dataset(quads, seed);
+    }
+
+    private static DatasetGraph dataset(List<Quad> quads, long seed) {
+        Collections.shuffle(quads, new Random(seed));
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        quads.forEach(dsg::add);
+        return dsg;
+    }
+}
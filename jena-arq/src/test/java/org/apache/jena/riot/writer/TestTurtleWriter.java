@@ -34,10 +34,16 @@ import org.junit.jupiter.api.Test;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.atlas.io.IO;
 import org.apache.jena.atlas.lib.Bytes;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.*;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.graph.GraphFactory;
 import org.apache.jena.sparql.util.Context;
+import org.apache.jena.system.G;
 
 public class TestTurtleWriter {
     // Tests data.
@@ -191,6 +197,99 @@ public class TestTurtleWriter {
         assertEquals(0, count2);
     }
 
+    // Parallel writing.
+
+    private static Graph largeGraph(boolean withBlankNodes) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PREFIX : <http://example/>\n");
+        for ( int i = 0 ; i < 2500 ; i++ ) {
+            sb.append(":s"+i+" :p "+i+" ; :q :s"+(i+1)+" ; :r \"abc\" .\n");
+            if ( withBlankNodes )
+                sb.append(":s"+i+" :list (1 2 [ :p "+i+" ]) ; :nested [ :q [ :r "+i+" ] ] .\n");
+        }
+        if ( withBlankNodes )
+            sb.append(cycle2);
+        return RDFParser.fromString(sb.toString(), Lang.TTL).toGraph();
+    }
+
+    private static String graphToString(Graph graph, RDFFormat format, int threads) {
+        Context cxt = RIOT.getContext().copy().set(RIOT.symTurtleWriterThreads, threads);
+        return RDFWriter.source(graph).format(format).context(cxt).asString();
+    }
+
+    @Test
+    public void parallel_same_as_sequential() {
+        Graph graph = largeGraph(false);
+        String x1 = graphToString(graph, RDFFormat.TURTLE_PRETTY, 1);
+        String x2 = graphToString(graph, RDFFormat.TURTLE_PRETTY, 4);
+        assertEquals(x1, x2);
+    }
+
+    @Test
+    public void parallel_blank_nodes_wide() {
+        parallelWrite(RDFFormat.TURTLE_PRETTY);
+    }
+
+    @Test
+    public void parallel_blank_nodes_long() {
+        parallelWrite(RDFFormat.TURTLE_LONG);
+    }
+
+    private static void parallelWrite(RDFFormat format) {
+        Graph graph = largeGraph(true);
+        String x1 = graphToString(graph, format, 4);
+        String x2 = graphToString(graph, format, 3);
+        // Deterministic.
+        assertEquals(x1, x2);
+        Graph graph2 = RDFParser.fromString(x1, Lang.TTL).toGraph();
+        assertTrue(graph.isIsomorphicWith(graph2));
+    }
+
+    @Test
+    public void parallel_trig() {
+        Graph graph = largeGraph(true);
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        dsg.addGraph(NodeFactory.createURI("http://example/g"), graph);
+        dsg.getDefaultGraph().add(NodeFactory.createURI("http://example/s"), NodeFactory.createURI("http://example/p"), NodeFactory.createBlankNode());
+        Context cxt = RIOT.getContext().copy().set(RIOT.symTurtleWriterThreads, 4);
+        String x = RDFWriter.source(dsg).format(RDFFormat.TRIG_PRETTY).context(cxt).asString();
+        DatasetGraph dsg2 = RDFParser.fromString(x, Lang.TRIG).toDatasetGraph();
+        assertTrue(dsg.getDefaultGraph().isIsomorphicWith(dsg2.getDefaultGraph()));
+        assertTrue(graph.isIsomorphicWith(dsg2.getGraph(NodeFactory.createURI("http://example/g"))));
+    }
+
+    private static String datasetToString(DatasetGraph dsg, int threads) {
+        Context cxt = RIOT.getContext().copy().set(RIOT.symTurtleWriterThreads, threads);
+        return RDFWriter.source(dsg).format(RDFFormat.TRIG_PRETTY).context(cxt).asString();
+    }
+
+    @Test
+    public void parallel_transactional_graph() {
+        // Written by one thread, with the same blank node labels as when writing with one thread.
+        Graph graph = GraphFactory.createTxnGraph();
+        graph.getPrefixMapping().setNsPrefix("", "http://example/");
+        G.addInto(graph, largeGraph(true));
+        assertEquals(graphToString(graph, RDFFormat.TURTLE_PRETTY, 1), graphToString(graph, RDFFormat.TURTLE_PRETTY, 4));
+    }
+
+    @Test
+    public void parallel_transactional_dataset() {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        dsg.addGraph(NodeFactory.createURI("http://example/g"), largeGraph(true));
+        assertEquals(datasetToString(dsg, 1), datasetToString(dsg, 4));
+    }
+
+    @Test
+    public void parallel_linked_transactional_graph() {
+        // A dataset of links to graphs, one of which has transactions.
+        DatasetGraph dsg = DatasetGraphFactory.createGeneral();
+        Graph graph = GraphFactory.createTxnGraph();
+        G.addInto(graph, largeGraph(true));
+        dsg.addGraph(NodeFactory.createURI("http://example/g1"), largeGraph(false));
+        dsg.addGraph(NodeFactory.createURI("http://example/g2"), graph);
+        assertEquals(datasetToString(dsg, 1), datasetToString(dsg, 4));
+    }
+
     private String modelToString(Model model, RDFFormat format, Context context) {
         try(ByteArrayOutputStream o = new ByteArrayOutputStream()) {
             RDFWriter.create().source(baseTestData).format(format).base(base).context(context).output(o);
@@ -43,6 +43,13 @@ import org.junit.platform.suite.api.Suite;
     TestDatasetGraphInMemoryFindPattern.class,
     TestDatasetGraphInMemoryIsolation.class,
     TestDatasetGraphInMemoryPromote.class,
-    TestDatasetGraphInMemoryMisc.class
+    TestDatasetGraphInMemoryMisc.class,
+
+    TestDatasetGraphMVCCBasic.class,
+    TestDatasetGraphMVCCTransactions.class,
+    TestDatasetGraphMVCCFind.class,
+    TestDatasetGraphMVCCFindPattern.class,
+    TestDatasetGraphMVCCIsolation.class,
+    TestDatasetGraphMVCCPromote.class
  })
 public class TS_DatasetTxnMem {}
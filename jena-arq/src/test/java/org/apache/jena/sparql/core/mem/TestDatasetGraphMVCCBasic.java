@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.core.mem;
+
+import static org.apache.jena.sparql.sse.SSE.parseQuad;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.mem.GraphMemIndexedSet;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.sparql.core.AbstractDatasetGraphTests;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.Txn;
+
+public class TestDatasetGraphMVCCBasic extends AbstractDatasetGraphTests {
+
+    @Override
+    protected DatasetGraph emptyDataset() {
+        return new DatasetGraphMVCC();
+    }
+
+    private static Set<Quad> quads(final DatasetGraph dsg) {
+        return Txn.calculateRead(dsg, () -> Iter.toSet(dsg.find()));
+    }
+
+    @Test
+    public void datasetSize() {
+        final DatasetGraph dsg = emptyDataset();
+        final Quad q1 = parseQuad("(:g :s :p 1)");
+        dsg.add(parseQuad("(_ :s :p 0)"));
+        assertEquals(0, dsg.size());
+        dsg.add(q1);
+        assertEquals(1, dsg.size());
+        dsg.delete(q1);
+        assertEquals(0, dsg.size());
+        assertFalse(dsg.listGraphNodes().hasNext());
+    }
+
+    @Test
+    public void changesWithinTransaction() {
+        final DatasetGraph dsg = emptyDataset();
+        final Quad q1 = parseQuad("(:g :s :p 1)");
+        final Quad q2 = parseQuad("(:g :s :p 2)");
+        dsg.add(q1);
+        Txn.executeWrite(dsg, () -> {
+            dsg.delete(q1);
+            assertFalse(dsg.contains(q1));
+            dsg.add(q1);
+            dsg.add(q2);
+            dsg.delete(q2);
+            assertTrue(dsg.contains(q1));
+            assertFalse(dsg.contains(q2));
+            assertEquals(1, Iter.count(dsg.find()));
+        });
+        assertEquals(Set.of(q1), quads(dsg));
+    }
+
+    @Test
+    public void abortDiscardsChanges() {
+        final DatasetGraph dsg = emptyDataset();
+        final Quad q1 = parseQuad("(:g :s :p 1)");
+        final Quad q2 = parseQuad("(:g :s :p 2)");
+        dsg.add(q1);
+        dsg.begin(TxnType.WRITE);
+        dsg.delete(q1);
+        dsg.add(q2);
+        dsg.abort();
+        dsg.end();
+        assertEquals(Set.of(q1), quads(dsg));
+    }
+
+    @Test
+    public void readerKeepsSnapshot() throws Exception {
+        final DatasetGraph dsg = emptyDataset();
+        final Quad q1 = parseQuad("(:g :s :p 1)");
+        final Quad q2 = parseQuad("(:g :s :p 2)");
+        dsg.add(q1);
+
+        final var started = new CountDownLatch(1);
+        final var committed = new CountDownLatch(1);
+        final var reader = CompletableFuture.supplyAsync(() -> {
+            dsg.begin(TxnType.READ);
+            try {
+                started.countDown();
+                committed.await();
+                return Iter.toSet(dsg.find());
+            } catch (InterruptedException ex) {
+                throw new RuntimeException(ex);
+            } finally {
+                dsg.end();
+            }
+        });
+        started.await();
+        Txn.executeWrite(dsg, () -> {
+            dsg.delete(q1);
+            dsg.add(q2);
+        });
+        committed.countDown();
+
+        assertEquals(Set.of(q1), reader.get());
+        assertEquals(Set.of(q2), quads(dsg));
+    }
+
+    @Test
+    public void mergeKeepsContent() {
+        final var dsg = new DatasetGraphMVCC(GraphMemIndexedSet::new, Integer.MAX_VALUE);
+        final Set<Quad> expected = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            final var n = i;
+            Txn.executeWrite(dsg, () -> {
+                final Quad added = parseQuad("(:g" + (n % 3) + " :s :p " + n + ")");
+                final Quad dft = parseQuad("(_ :s :p " + n + ")");
+                dsg.add(added);
+                dsg.add(dft);
+                expected.add(added);
+                expected.add(Quad.create(Quad.defaultGraphIRI, dft.asTriple()));
+                if (n % 4 == 3) {
+                    final Quad deleted = parseQuad("(:g" + ((n - 3) % 3) + " :s :p " + (n - 3) + ")");
+                    dsg.delete(deleted);
+                    expected.remove(deleted);
+                }
+            });
+        }
+        assertEquals(20, dsg.getDeltaCount());
+        final Set<Quad> before = quads(dsg);
+        assertEquals(expected, before);
+
+        // A reader that began before the merge still sees the same content.
+        dsg.begin(TxnType.READ);
+        dsg.mergeDeltas();
+        assertEquals(before, Iter.toSet(dsg.find()));
+        dsg.end();
+
+        assertEquals(0, dsg.getDeltaCount());
+        assertEquals(before, quads(dsg));
+        assertEquals(Set.of("g0", "g1", "g2"), Txn.calculateRead(dsg, () -> {
+            final Set<String> names = new HashSet<>();
+            dsg.listGraphNodes().forEachRemaining(g -> names.add(g.getLocalName()));
+            return names;
+        }));
+    }
+
+    @Test
+    public void mergeDropsEmptyGraphs() {
+        final var dsg = new DatasetGraphMVCC(GraphMemIndexedSet::new, 1);
+        final Quad q = parseQuad("(:g :s :p :o)");
+        dsg.add(q);
+        dsg.delete(q);
+        dsg.mergeDeltas();
+        assertEquals(0, dsg.getDeltaCount());
+        assertEquals(List.of(), Txn.calculateRead(dsg, () -> Iter.toList(dsg.listGraphNodes())));
+        assertFalse(Txn.calculateRead(dsg, () -> dsg.find(Node.ANY, Node.ANY, Node.ANY, Node.ANY).hasNext()));
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.core.mem;
+
+import org.apache.jena.sparql.JenaTransactionException;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.transaction.AbstractTestTransPromote;
+
+public class TestDatasetGraphMVCCPromote extends AbstractTestTransPromote {
+
+    public TestDatasetGraphMVCCPromote() {
+        super(getLoggers());
+    }
+
+    @Override
+    protected DatasetGraph create() {
+        return new DatasetGraphMVCC();
+    }
+
+    private static String[] getLoggers() {
+        return new String[]{ DatasetGraphMVCC.class.getName() };
+    }
+
+    @Override
+    protected Class<JenaTransactionException> getTransactionExceptionClass() {
+        return JenaTransactionException.class;
+    }
+}
@@ -26,7 +26,9 @@ import org.junit.platform.suite.api.Suite;
 
 @Suite
 @SelectClasses({
-    TestReorder.class      // Reorder engine
+    TestReorder.class,     // Reorder engine
+    TestParallelBGP.class,
+    TestPatternCount.class
 })
 
 public class TS_Solver
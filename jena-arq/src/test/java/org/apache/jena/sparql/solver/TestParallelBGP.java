@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.solver;
+
+import static org.apache.jena.sparql.solver.SolverLibTest.triple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.GraphMem;
+import org.apache.jena.mem.GraphMemFast;
+import org.apache.jena.mem.GraphMemRoaring;
+import org.apache.jena.mem.IndexingStrategy;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.RowSet;
+import org.apache.jena.util.iterator.ExtendedIterator;
+
+public class TestParallelBGP
+{
+    private static final String PREFIX = "PREFIX : <http://example/> ";
+
+    /** Records whether the graph was read with {@link Graph#stream}. */
+    private static class GraphMemStreamCount extends GraphMemFast {
+        final AtomicInteger streamCalls = new AtomicInteger();
+
+        @Override
+        public Stream<Triple> stream(Node sm, Node pm, Node om) {
+            streamCalls.incrementAndGet();
+            return super.stream(sm, pm, om);
+        }
+    }
+
+    /** Records the fork/join pools that the graph is read from. */
+    private static class GraphMemFindPools extends GraphMemFast {
+        final Set<ForkJoinPool> pools = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public ExtendedIterator<Triple> graphBaseFind(Triple tripleMatch) {
+            ForkJoinPool pool = ForkJoinTask.getPool();
+            if ( pool != null )
+                pools.add(pool);
+            return super.graphBaseFind(tripleMatch);
+        }
+    }
+
+    private static Node uri(String localName) {
+        return NodeFactory.createURI("http://example/"+localName);
+    }
+
+    private static <G extends GraphMem> G fill(G graph) {
+        Node p = uri("p");
+        Node q = uri("q");
+        for ( int i = 0 ; i < 5000 ; i++ ) {
+            graph.add(uri("s"+i), p, uri("o"+(i%50)));
+            graph.add(uri("o"+(i%50)), q, NodeFactory.createLiteralDT(Integer.toString(i%7), XSDDatatype.XSDinteger));
+        }
+        return graph;
+    }
+
+    private static List<Binding> select(Graph graph, String query, boolean parallel) {
+        List<Binding> results = new ArrayList<>();
+        try ( QueryExec qExec = QueryExec.graph(graph).query(PREFIX+query).set(ARQ.parallelBGP, parallel).build() ) {
+            RowSet rowSet = qExec.select();
+            rowSet.forEachRemaining(results::add);
+        }
+        return results;
+    }
+
+    private static Map<Binding, Long> multiset(List<Binding> bindings) {
+        return bindings.stream().collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    }
+
+    private static void testSameResults(Graph graph, String query) {
+        List<Binding> expected = select(graph, query, false);
+        List<Binding> actual = select(graph, query, true);
+        assertEquals(multiset(expected), multiset(actual));
+    }
+
+    @Test public void parallel_01()
+    {
+        GraphMemStreamCount graph = fill(new GraphMemStreamCount());
+        testSameResults(graph, "SELECT * { ?s :p ?o }");
+        assertTrue(graph.streamCalls.get() > 0);
+    }
+
+    @Test public void parallel_02()
+    {
+        GraphMemStreamCount graph = fill(new GraphMemStreamCount());
+        List<Binding> results = select(graph, "SELECT * { ?s :p ?o . ?o :q ?n }", true);
+        assertEquals(35000, results.size());
+        testSameResults(graph, "SELECT * { ?s :p ?o . ?o :q ?n }");
+    }
+
+    @Test public void parallel_03()
+    {
+        // Repeated variable; filter on the result.
+        GraphMem graph = fill(new GraphMemFast());
+        graph.add(triple("(:x :r :x)"));
+        graph.add(triple("(:x :r :y)"));
+        testSameResults(graph, "SELECT * { ?s :r ?s }");
+        testSameResults(graph, "SELECT * { ?s :p ?o . ?o :q ?n FILTER(?n > 3) }");
+    }
+
+    @Test public void parallel_04()
+    {
+        // Only some of the results are read: the producers are stopped.
+        GraphMem graph = fill(new GraphMemFast());
+        for ( int i = 0 ; i < 20 ; i++ )
+            assertEquals(5, select(graph, "SELECT * { ?s :p ?o . ?o :q ?n } LIMIT 5", true).size());
+    }
+
+    @Test public void parallel_05()
+    {
+        // No results.
+        GraphMem graph = fill(new GraphMemFast());
+        assertEquals(0, select(graph, "SELECT * { ?s :p ?o . ?o :q 99 }", true).size());
+        assertEquals(0, select(graph, "SELECT * { ?s :none ?o }", true).size());
+    }
+
+    @Test public void parallel_06()
+    {
+        // Lazy index: the first query builds the index serially.
+        GraphMemRoaring graph = fill(new GraphMemRoaring(IndexingStrategy.LAZY));
+        testSameResults(graph, "SELECT * { ?s :p ?o . ?o :q ?n }");
+        assertTrue(graph.isIndexInitialized());
+        testSameResults(graph, "SELECT * { ?s :p ?o . ?o :q ?n }");
+    }
+
+    @Test public void parallel_07()
+    {
+        // The producers do not run in the common pool.
+        GraphMemFindPools graph = fill(new GraphMemFindPools());
+        assertEquals(35000, select(graph, "SELECT * { ?s :p ?o . ?o :q ?n }", true).size());
+        assertFalse(graph.pools.isEmpty());
+        assertFalse(graph.pools.contains(ForkJoinPool.commonPool()));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.solver;
+
+import static org.apache.jena.sparql.solver.SolverLibTest.triple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.mem.GraphMemFast;
+import org.apache.jena.query.ARQ;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.exec.QueryExec;
+
+public class TestPatternCount
+{
+    private static final String PREFIX = "PREFIX : <http://example/> ";
+
+    /** Records whether the graph was asked for counts. */
+    private static class GraphMemCount extends GraphMemFast {
+        final AtomicInteger countCalls = new AtomicInteger();
+
+        @Override
+        public long count(Node s, Node p, Node o) {
+            countCalls.incrementAndGet();
+            return super.count(s, p, o);
+        }
+    }
+
+    private static Node uri(String localName) {
+        return NodeFactory.createURI("http://example/"+localName);
+    }
+
+    private static <G extends GraphMemFast> G fill(G graph) {
+        Node p = uri("p");
+        for ( int i = 0 ; i < 100 ; i++ )
+            graph.add(uri("s"+i), p, uri("o"+(i%10)));
+        graph.add(triple("(:x :r :x)"));
+        graph.add(triple("(:x :r :y)"));
+        return graph;
+    }
+
+    private static List<Binding> select(DatasetGraph dsg, String query, boolean storageCount) {
+        List<Binding> results = new ArrayList<>();
+        try ( QueryExec qExec = QueryExec.dataset(dsg).query(PREFIX+query).set(ARQ.optStorageCount, storageCount).build() ) {
+            qExec.select().forEachRemaining(results::add);
+        }
+        return results;
+    }
+
+    private static void testSameResults(DatasetGraph dsg, String query) {
+        assertEquals(select(dsg, query, false), select(dsg, query, true));
+    }
+
+    private static long count(DatasetGraph dsg, String query) {
+        List<Binding> results = select(dsg, query, true);
+        assertEquals(1, results.size());
+        return Long.parseLong(results.get(0).get("c").getLiteralLexicalForm());
+    }
+
+    @Test public void count_01()
+    {
+        GraphMemCount graph = fill(new GraphMemCount());
+        DatasetGraph dsg = DatasetGraphFactory.wrap(graph);
+        assertEquals(100, count(dsg, "SELECT (COUNT(*) AS ?c) { ?s :p ?o }"));
+        assertEquals(1, graph.countCalls.get());
+        testSameResults(dsg, "SELECT (COUNT(*) AS ?c) { ?s :p ?o }");
+    }
+
+    @Test public void count_02()
+    {
+        GraphMemCount graph = fill(new GraphMemCount());
+        DatasetGraph dsg = DatasetGraphFactory.wrap(graph);
+        assertEquals(10, count(dsg, "SELECT (COUNT(?s) AS ?c) { ?s :p :o3 }"));
+        assertEquals(10, count(dsg, "SELECT (COUNT(DISTINCT *) AS ?c) { ?s :p :o3 }"));
+        assertEquals(10, count(dsg, "SELECT (COUNT(DISTINCT ?s) AS ?c) { ?s :p :o3 }"));
+        assertEquals(3, graph.countCalls.get());
+        testSameResults(dsg, "SELECT (COUNT(?s) AS ?c) (COUNT(*) AS ?c2) { ?s :p :o3 }");
+    }
+
+    @Test public void count_03()
+    {
+        // Not answered by the storage: distinct values of one of several
+        // variables, a repeated variable, grouping.
+        GraphMemCount graph = fill(new GraphMemCount());
+        DatasetGraph dsg = DatasetGraphFactory.wrap(graph);
+        assertEquals(10, count(dsg, "SELECT (COUNT(DISTINCT ?o) AS ?c) { ?s :p ?o }"));
+        assertEquals(1, count(dsg, "SELECT (COUNT(*) AS ?c) { ?s :r ?s }"));
+        assertEquals(0, graph.countCalls.get());
+        testSameResults(dsg, "SELECT ?o (COUNT(*) AS ?c) { ?s :p ?o } GROUP BY ?o ORDER BY ?o");
+        assertEquals(0, graph.countCalls.get());
+    }
+
+    @Test public void count_04()
+    {
+        // No matches.
+        GraphMemCount graph = fill(new GraphMemCount());
+        DatasetGraph dsg = DatasetGraphFactory.wrap(graph);
+        assertEquals(0, count(dsg, "SELECT (COUNT(*) AS ?c) { ?s :none ?o }"));
+        testSameResults(dsg, "SELECT (COUNT(*) AS ?c) { ?s :none ?o }");
+    }
+
+    @Test public void count_05()
+    {
+        // Named graphs.
+        DatasetGraph dsg = DatasetGraphFactory.createGeneral();
+        GraphMemCount graph = fill(new GraphMemCount());
+        dsg.addGraph(uri("g"), graph);
+        assertEquals(100, count(dsg, "SELECT (COUNT(*) AS ?c) { GRAPH :g { ?s :p ?o } }"));
+        assertEquals(0, count(dsg, "SELECT (COUNT(*) AS ?c) { GRAPH :none { ?s :p ?o } }"));
+        assertEquals(0, count(dsg, "SELECT (COUNT(*) AS ?c) { ?s :p ?o }"));
+        assertEquals(1, graph.countCalls.get());
+        testSameResults(dsg, "SELECT (COUNT(*) AS ?c) { GRAPH ?g { ?s :p ?o } }");
+    }
+
+    @Test public void exists_01()
+    {
+        DatasetGraph dsg = DatasetGraphFactory.wrap(fill(new GraphMemCount()));
+        String query1 = "SELECT ?s { ?s :p ?o FILTER EXISTS { ?o :p ?z } }";
+        String query2 = "SELECT ?s { ?s :p ?o FILTER NOT EXISTS { ?s :p :o1 } } ORDER BY ?s";
+        String query3 = "SELECT ?s { ?s :r ?o FILTER EXISTS { ?o :r ?o } }";
+        assertEquals(0, select(dsg, query1, true).size());
+        assertEquals(90, select(dsg, query2, true).size());
+        assertEquals(1, select(dsg, query3, true).size());
+        testSameResults(dsg, query2);
+        testSameResults(dsg, query3);
+    }
+}
@@ -29,6 +29,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.Test;
 
 import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.GraphMem;
+import org.apache.jena.mem.GraphMemFast;
 import org.apache.jena.sparql.core.BasicPattern;
 import org.apache.jena.sparql.engine.optimizer.StatsMatcher;
 import org.apache.jena.sparql.engine.optimizer.reorder.*;
@@ -230,4 +232,51 @@ public class TestReorder
         assertEquals(bgp2, bgp);
     }
 
+    private static GraphMem statsGraph()
+    {
+        // :p is common, :q is rare; :type has one value.
+        GraphMem graph = new GraphMemFast();
+        for ( int i = 0 ; i < 100 ; i++ ) {
+            graph.add(triple("(:s"+i+" :p :o"+(i%10)+")"));
+            graph.add(triple("(:s"+i+" :type :T)"));
+        }
+        graph.add(triple("(:s1 :q :o1)"));
+        return graph;
+    }
+
+    @Test public void graphStats_01()
+    {
+        ReorderTransformation transform = ReorderLib.graphStats(statsGraph());
+        BasicPattern bgp1 = bgp("(bgp (?x :p ?v) (?x :q ?w))");
+        BasicPattern bgp2 = bgp("(bgp (?x :q ?w) (?x :p ?v))");
+        assertEquals(bgp2, transform.reorder(bgp1));
+    }
+
+    @Test public void graphStats_02()
+    {
+        // Fixed weights put (?x :p :o1) first; the data says :q is smaller.
+        ReorderTransformation transform = ReorderLib.graphStats(statsGraph());
+        BasicPattern bgp1 = bgp("(bgp (?x :p :o1) (?x :q ?v))");
+        BasicPattern bgp2 = bgp("(bgp (?x :q ?v) (?x :p :o1))");
+        assertEquals(bgp2, transform.reorder(bgp1));
+        assertEquals(bgp1, ReorderLib.fixed().reorder(bgp1));
+    }
+
+    @Test public void graphStats_03()
+    {
+        // Once ?x is bound, (?x :type ?t) has one match per subject.
+        ReorderTransformation transform = ReorderLib.graphStats(statsGraph());
+        BasicPattern bgp1 = bgp("(bgp (?x :type ?t) (?x :p ?v) (?x :q :o1))");
+        BasicPattern bgp2 = bgp("(bgp (?x :q :o1) (?x :type ?t) (?x :p ?v))");
+        assertEquals(bgp2, transform.reorder(bgp1));
+    }
+
+    @Test public void graphStats_04()
+    {
+        // No matches at all: goes first.
+        ReorderTransformation transform = ReorderLib.graphStats(statsGraph());
+        BasicPattern bgp1 = bgp("(bgp (?x :q ?w) (?x :r ?v))");
+        BasicPattern bgp2 = bgp("(bgp (?x :r ?v) (?x :q ?w))");
+        assertEquals(bgp2, transform.reorder(bgp1));
+    }
 }
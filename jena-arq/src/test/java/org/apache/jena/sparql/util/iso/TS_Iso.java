@@ -28,7 +28,8 @@ import org.junit.platform.suite.api.Suite;
 @SelectClasses({
     TestIso.class,
     TestIsoMatcher.class,
-    TestIsoAlgRows.class
+    TestIsoAlgRows.class,
+    TestIsoDiff.class
 })
 
 public class TS_Iso { }
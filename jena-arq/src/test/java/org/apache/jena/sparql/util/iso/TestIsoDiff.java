@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.sparql.util.iso;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.IsoMatcher;
+
+public class TestIsoDiff {
+
+    @Test public void isodiff_00() { testIso("(graph)", "(graph)", true); }
+
+    @Test public void isodiff_01() { testIso("(graph (<x> <p> 1))", "(graph (<x> <p> 1))", true); }
+
+    @Test public void isodiff_02() { testIso("(graph (<x> <p> 1))", "(graph (<x> <p> 2))", false); }
+
+    @Test public void isodiff_03() { testIso("(graph (<x> <p> _:a))", "(graph (<x> <p> _:b))", true); }
+
+    @Test public void isodiff_04() { testIso("(graph (_:a <p> _:a))", "(graph (_:b <p> _:b))", true); }
+
+    @Test public void isodiff_05() { testIso("(graph (_:a1 <p> _:a2))", "(graph (_:b <p> _:b))", false); }
+
+    @Test public void isodiff_06() {
+        testIso("(graph (_:a <p> _:b) (_:b <p> _:a) (_:a <q> 1))",
+                "(graph (_:y <p> _:x) (_:x <p> _:y) (_:y <q> 1))",
+                true);
+    }
+
+    @Test public void isodiff_07() {
+        // Colour refinement does not distinguish these : two 3-cycles and one 6-cycle.
+        testIso("(graph (_:a1 <p> _:a2) (_:a2 <p> _:a3) (_:a3 <p> _:a1) (_:b1 <p> _:b2) (_:b2 <p> _:b3) (_:b3 <p> _:b1))",
+                "(graph (_:c1 <p> _:c2) (_:c2 <p> _:c3) (_:c3 <p> _:c4) (_:c4 <p> _:c5) (_:c5 <p> _:c6) (_:c6 <p> _:c1))",
+                false);
+    }
+
+    @Test public void isodiff_08() {
+        // Automorphic blank nodes : search needed.
+        testIso("(graph (_:a1 <p> _:a2) (_:a2 <p> _:a3) (_:a3 <p> _:a1) (_:b1 <p> _:b2) (_:b2 <p> _:b3) (_:b3 <p> _:b1))",
+                "(graph (_:x1 <p> _:x2) (_:x3 <p> _:x1) (_:y1 <p> _:y2) (_:y2 <p> _:y3) (_:x2 <p> _:x3) (_:y3 <p> _:y1))",
+                true);
+    }
+
+    @Test public void isodiff_ground_delta() {
+        Graph g1 = SSE.parseGraph("(graph (<x> <p> 1) (<x> <p> 2))");
+        Graph g2 = SSE.parseGraph("(graph (<x> <p> 2) (<x> <p> 3))");
+        IsoDiff.Delta delta = IsoDiff.diff(g1, g2);
+        assertEquals(List.of(SSE.parseTriple("(<x> <p> 1)")), delta.removedTriples());
+        assertEquals(List.of(SSE.parseTriple("(<x> <p> 3)")), delta.addedTriples());
+    }
+
+    @Test public void isodiff_bnode_delta() {
+        Graph g1 = SSE.parseGraph("(graph (<x> <p> _:a) (_:a <q> 1) (_:a <q> 2))");
+        Graph g2 = SSE.parseGraph("(graph (<x> <p> _:b) (_:b <q> 1) (_:b <q> 3))");
+        IsoDiff.Delta delta = IsoDiff.diff(g1, g2);
+        // One triple changed.
+        assertEquals(1, delta.removed().size());
+        assertEquals(1, delta.added().size());
+        testApply(g1, g2, delta);
+    }
+
+    @Test public void isodiff_bnode_unmatched() {
+        // The unmatched blank node of graph2 has the same label as a blank node of graph1.
+        Node a = NodeFactory.createBlankNode("a");
+        Node x = NodeFactory.createBlankNode("x");
+        Node p = NodeFactory.createURI("http://example/p");
+        Node q = NodeFactory.createURI("http://example/q");
+        Node one = NodeFactory.createLiteralString("1");
+        Graph g1 = GraphFactory.createDefaultGraph();
+        g1.add(Triple.create(a, p, one));
+        Graph g2 = GraphFactory.createDefaultGraph();
+        g2.add(Triple.create(x, p, one));
+        g2.add(Triple.create(a, q, one));
+        IsoDiff.Delta delta = IsoDiff.diff(g1, g2);
+        assertEquals(0, delta.removed().size());
+        assertEquals(1, delta.added().size());
+        assertNotEquals(a, delta.addedTriples().get(0).getSubject());
+        testApply(g1, g2, delta);
+    }
+
+    @Test public void isodiff_dataset() {
+        DatasetGraph dsg1 = SSE.parseDatasetGraph("(dataset (graph (_:a <p> 1)) (graph <g> (_:a <p> 2)) (_:g _:b <q> _:b))");
+        DatasetGraph dsg2 = SSE.parseDatasetGraph("(dataset (graph <g> (_:x <p> 2)) (graph (_:x <p> 1)) (_:h _:z <q> _:z))");
+        assertTrue(IsoDiff.isomorphic(dsg1, dsg2));
+        DatasetGraph dsg3 = SSE.parseDatasetGraph("(dataset (graph <g> (_:x <p> 2)) (graph (_:y <p> 1)) (_:h _:z <q> _:z))");
+        assertFalse(IsoDiff.isomorphic(dsg1, dsg3));
+        assertEquals(IsoMatcher.isomorphic(dsg1, dsg3), IsoDiff.isomorphic(dsg1, dsg3));
+    }
+
+    @Test public void isodiff_large_iso() {
+        Graph g1 = generate(2000, 1);
+        Graph g2 = generate(2000, 1);
+        assertTrue(IsoDiff.isomorphic(g1, g2));
+    }
+
+    @Test public void isodiff_large_changed() {
+        Graph g1 = generate(1000, 1);
+        Graph g2 = generate(1000, 2);
+        // Change one value in a blank node structure, add and remove triples.
+        Triple t = g2.find(null, NodeFactory.createURI("http://example/value"), null).next();
+        g2.delete(t);
+        g2.add(Triple.create(t.getSubject(), t.getPredicate(), NodeFactory.createLiteralString("changed")));
+        g2.add(SSE.parseTriple("(<http://example/s> <http://example/p> 'new')"));
+        IsoDiff.Delta delta = IsoDiff.diff(g1, g2);
+        assertEquals(1, delta.removed().size());
+        assertEquals(2, delta.added().size());
+        testApply(g1, g2, delta);
+    }
+
+    private static void testIso(String str1, String str2, boolean expected) {
+        Graph g1 = SSE.parseGraph(str1);
+        Graph g2 = SSE.parseGraph(str2);
+        assertEquals(IsoMatcher.isomorphic(g1, g2), expected, "IsoMatcher");
+        assertEquals(expected, IsoDiff.isomorphic(g1, g2));
+        assertEquals(expected, IsoDiff.isomorphic(g2, g1));
+        testApply(g1, g2, IsoDiff.diff(g1, g2));
+    }
+
+    /** Applying the delta to graph1 gives a graph isomorphic to graph2. */
+    private static void testApply(Graph graph1, Graph graph2, IsoDiff.Delta delta) {
+        Graph g = GraphFactory.createDefaultGraph();
+        graph1.find().forEach(g::add);
+        delta.removedTriples().forEach(g::delete);
+        delta.addedTriples().forEach(g::add);
+        assertTrue(graph2.isIsomorphicWith(g));
+        assertTrue(IsoDiff.diff(g, graph2).isEmpty());
+    }
+
+    /** Blank node rich data : records with shared structure and a list. */
+    private static Graph generate(int n, long seed) {
+        Node p = NodeFactory.createURI("http://example/p");
+        Node value = NodeFactory.createURI("http://example/value");
+        Node next = NodeFactory.createURI("http://example/next");
+        List<Triple> triples = new ArrayList<>();
+        Node previous = null;
+        for ( int i = 0 ; i < n ; i++ ) {
+            Node record = NodeFactory.createBlankNode();
+            Node detail = NodeFactory.createBlankNode();
+            triples.add(Triple.create(record, p, detail));
+            triples.add(Triple.create(detail, value, NodeFactory.createLiteralString("v"+(i%10))));
+            if ( previous != null )
+                triples.add(Triple.create(previous, next, record));
+            previous = record;
+        }
+        Collections.shuffle(triples, new Random(seed));
+        Graph graph = GraphFactory.createDefaultGraph();
+        triples.forEach(graph::add);
+        return graph;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.atlas.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.jena.atlas.lib.Chars;
+
+/**
+ * UTF-8 characters from a file, read by memory-mapping the file.
+ * <p>
+ * The bytes are decoded directly from the mapped region into a character buffer;
+ * there is no copy into a byte buffer as there is when reading
+ * {@code FileInputStream} &rarr; {@code InputStreamReader}.
+ * <p>
+ * The file is mapped in segments of at most {@link #DFT_SEGMENT_SIZE} bytes
+ * so files over 2G can be read. A UTF-8 sequence that is split at the end of a
+ * segment is carried over to the start of the next segment.
+ * <p>
+ * A leading byte order mark is skipped. Malformed UTF-8 is replaced by U+FFFD, the
+ * same as {@link IO#asUTF8(InputStream)}.
+ * <p>
+ * This class is also a {@link Reader} and {@link PeekReader#make(Reader)} uses it
+ * without adding another buffering layer.
+ */
+public final class CharStreamMappedUTF8 extends Reader implements CharStream {
+
+    /** Default size of the regions of the file mapped at one time. */
+    public static final long DFT_SEGMENT_SIZE = 1L << 30;
+
+    private final FileChannel    channel;
+    private final long           fileSize;
+    private final long           segmentSize;
+    private final CharsetDecoder decoder;
+    private final CharBuffer     chars;
+
+    // Current mapped region and its start in the file.
+    private MappedByteBuffer segment = null;
+    private long segmentStart = 0;
+    private boolean eof = false;
+
+    /** Read a file, mapping it in segments of {@link #DFT_SEGMENT_SIZE}. */
+    public CharStreamMappedUTF8(Path path) {
+        this(path, DFT_SEGMENT_SIZE);
+    }
+
+    /** Read a file, mapping it in segments of at most {@code segmentSize} bytes. */
+    public CharStreamMappedUTF8(Path path, long segmentSize) {
+        // Segments must be big enough to hold a complete UTF-8 sequence.
+        if ( segmentSize < 4 || segmentSize > Integer.MAX_VALUE )
+            throw new IllegalArgumentException("Segment size out of range: "+segmentSize);
+        this.segmentSize = segmentSize;
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.fileSize = channel.size();
+        } catch (IOException ex) { throw IOX.exception(ex); }
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(CharStreamBuffered.CB_SIZE);
+        this.chars.flip();
+        // Skip BOM.
+        if ( fill() && chars.get(chars.position()) == Chars.BOM )
+            chars.get();
+    }
+
+    @Override
+    public int advance() {
+        if ( !chars.hasRemaining() && !fill() )
+            return IO.EOF;
+        return chars.get();
+    }
+
+    @Override
+    public int read() {
+        return advance();
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        if ( len == 0 )
+            return 0;
+        if ( !chars.hasRemaining() && !fill() )
+            return IO.EOF;
+        int n = Math.min(len, chars.remaining());
+        chars.get(cbuf, off, n);
+        return n;
+    }
+
+    @Override
+    public boolean ready() {
+        return chars.hasRemaining() || !eof;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mapping is released when the buffer is garbage collected.
+        segment = null;
+        eof = true;
+        channel.close();
+    }
+
+    @Override
+    public void closeStream() {
+        IO.close(this);
+    }
+
+    /** Refill the character buffer. Return false if there are no more characters. */
+    private boolean fill() {
+        chars.clear();
+        while ( chars.position() == 0 && !eof ) {
+            if ( segment == null && !mapNextSegment() ) {
+                eof = true;
+                break;
+            }
+            boolean lastSegment = ( segmentStart + segment.limit() >= fileSize );
+            CoderResult cr = decoder.decode(segment, chars, lastSegment);
+            if ( cr.isOverflow() )
+                // Character buffer full.
+                break;
+            // Underflow : the segment has been consumed, apart from any incomplete UTF-8 sequence at the end.
+            if ( lastSegment ) {
+                decoder.flush(chars);
+                eof = true;
+            } else {
+                mapNextSegment();
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+
+    /**
+     * Map the next segment, starting at the first unconsumed byte of the current segment.
+     * Return false if the end of the file has been reached.
+     */
+    private boolean mapNextSegment() {
+        long start = ( segment == null ) ? 0 : segmentStart + segment.position();
+        if ( start >= fileSize )
+            return false;
+        long length = Math.min(segmentSize, fileSize - start);
+        try {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        } catch (IOException ex) { throw IOX.exception(ex); }
+        segmentStart = start;
+        return true;
+    }
+}
@@ -64,6 +64,9 @@ public final class PeekReader extends Reader {
     public static PeekReader make(Reader r) {
         if ( r instanceof PeekReader pr )
             return pr;
+        if ( r instanceof CharStreamMappedUTF8 cs )
+            // Already buffered.
+            return new PeekReader(cs);
         return make(r, CharStreamBuffered.CB_SIZE);
     }
 
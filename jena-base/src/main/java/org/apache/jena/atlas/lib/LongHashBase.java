@@ -0,0 +1,330 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.atlas.lib;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Base class for the hash collections with primitive {@code long} keys:
+ * {@link LongHashSet} and {@link LongLongHashMap}.
+ * Keys are not boxed, so adding, finding and removing entries does not
+ * allocate.
+ * <p>
+ * The layout follows {@code org.apache.jena.mem.collection.FastHashBase}:
+ * <ul>
+ *   <li><b>positions</b>: power-of-two sized open-addressing probe table
+ *   (linear probing). {@code 0} marks an empty slot; other slots hold the
+ *   bitwise complement ({@code ~}) of the index of the entry in the
+ *   {@code keys} array.</li>
+ *   <li><b>keys</b>: dense array of keys, filled from index 0 up to
+ *   {@code keysPos}. Slots emptied by removal are reused before the array
+ *   grows. Subclasses keep their values in arrays parallel to it.</li>
+ *   <li><b>deletedIndices</b>: parallel array to {@code keys}; {@code 0} for
+ *   live entries. As every {@code long} is a valid key, freed slots are
+ *   marked here instead: they hold {@code -(i + 2)}, where {@code i} is the
+ *   previously freed slot or {@code -1}, forming a freelist.</li>
+ * </ul>
+ * The hash code of a key is recomputed rather than cached; it is a
+ * multiplication and a shift.
+ * <p>
+ * The collection grows on demand but never shrinks. Iteration order is not
+ * defined. Not thread-safe.
+ */
+public abstract class LongHashBase {
+    /** Initial size of the {@link #positions} probe table. */
+    protected static final int MINIMUM_HASHES_SIZE = 16;
+    /** Initial size of the {@link #keys} array. */
+    protected static final int MINIMUM_ELEMENTS_SIZE = 8;
+
+    /** High-water mark in {@link #keys}; one past the largest slot ever used. */
+    protected int keysPos = 0;
+    /** Dense array of stored keys. */
+    protected long[] keys;
+    /** {@code 0} for live entries, the freelist link for freed slots. */
+    protected int[] deletedIndices;
+    /** Head of the freelist of removed slots, or {@code -1} if the freelist is empty. */
+    protected int lastDeletedIndex = -1;
+    /** Number of freed slots. */
+    protected int removedKeysCount = 0;
+    /** Probe table; see the class comment. */
+    protected int[] positions;
+
+    /**
+     * Creates a collection that holds at least {@code initialSize} entries
+     * before growing.
+     */
+    protected LongHashBase(final int initialSize) {
+        final var size = Math.max(initialSize, MINIMUM_ELEMENTS_SIZE);
+        this.positions = new int[positionsSizeFor(size)];
+        this.keys = new long[size];
+        this.deletedIndices = new int[size];
+    }
+
+    /** Creates a collection with the default minimum capacities. */
+    protected LongHashBase() {
+        this.positions = new int[MINIMUM_HASHES_SIZE];
+        this.keys = new long[MINIMUM_ELEMENTS_SIZE];
+        this.deletedIndices = new int[MINIMUM_ELEMENTS_SIZE];
+    }
+
+    /** Copy constructor. */
+    protected LongHashBase(final LongHashBase baseToCopy) {
+        this.positions = baseToCopy.positions.clone();
+        this.keys = baseToCopy.keys.clone();
+        this.deletedIndices = baseToCopy.deletedIndices.clone();
+        this.keysPos = baseToCopy.keysPos;
+        this.lastDeletedIndex = baseToCopy.lastDeletedIndex;
+        this.removedKeysCount = baseToCopy.removedKeysCount;
+    }
+
+    private static int positionsSizeFor(final int size) {
+        var positionsSize = Integer.highestOneBit(size << 1);
+        if (positionsSize < size << 1) {
+            positionsSize <<= 1;
+        }
+        return positionsSize;
+    }
+
+    /**
+     * Spreads the bits of a key (Fibonacci hashing), so that sequential keys,
+     * such as ids, do not cluster in the probe table.
+     */
+    protected static int hashCode(final long key) {
+        final var h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    protected final int calcStartIndexByHashCode(final int hashCode) {
+        return hashCode & (positions.length - 1);
+    }
+
+    /**
+     * Returns the index in {@link #positions} of the key, or the bitwise
+     * complement of the empty slot where it would be inserted.
+     */
+    protected final int findPosition(final long key) {
+        var pIndex = calcStartIndexByHashCode(hashCode(key));
+        while (true) {
+            final var pos = positions[pIndex];
+            if (0 == pos) {
+                return ~pIndex;
+            }
+            if (keys[~pos] == key) {
+                return pIndex;
+            }
+            if (--pIndex < 0) {
+                pIndex += positions.length;
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the key in the {@link #keys} array, or {@code -1}
+     * if it is not present.
+     */
+    protected final int indexOf(final long key) {
+        final var pIndex = findPosition(key);
+        return pIndex < 0 ? -1 : ~positions[pIndex];
+    }
+
+    /**
+     * Adds the key if it is not present.
+     *
+     * @return the index of the new entry in the {@link #keys} array, or the
+     *         bitwise complement of the index of the existing entry
+     */
+    protected final int addKey(final long key) {
+        final var pIndex = findPosition(key);
+        if (pIndex >= 0) {
+            return positions[pIndex];
+        }
+        final var eIndex = getFreeKeyIndex();
+        keys[eIndex] = key;
+        deletedIndices[eIndex] = 0;
+        positions[~pIndex] = ~eIndex;
+        growPositionsArrayIfNeeded();
+        return eIndex;
+    }
+
+    /**
+     * Removes the key.
+     *
+     * @return the index the entry occupied in the {@link #keys} array, or
+     *         {@code -1} if the key was not present
+     */
+    protected final int removeKey(final long key) {
+        final var pIndex = findPosition(key);
+        if (pIndex < 0) {
+            return -1;
+        }
+        final var eIndex = ~positions[pIndex];
+        removeFrom(pIndex);
+        return eIndex;
+    }
+
+    private int getFreeKeyIndex() {
+        if (lastDeletedIndex == -1) {
+            final var index = keysPos++;
+            if (index == keys.length) {
+                growKeysArrays();
+            }
+            return index;
+        }
+        final var index = lastDeletedIndex;
+        lastDeletedIndex = -deletedIndices[index] - 2;
+        removedKeysCount--;
+        return index;
+    }
+
+    /**
+     * Grows the {@link #keys} and {@link #deletedIndices} arrays by about a
+     * factor of 1.5. Subclasses grow their value arrays to the new length.
+     */
+    protected void growKeysArrays() {
+        var newSize = (keys.length >> 1) + keys.length;
+        if (newSize < 0) {
+            newSize = Integer.MAX_VALUE;
+        }
+        keys = Arrays.copyOf(keys, newSize);
+        deletedIndices = Arrays.copyOf(deletedIndices, newSize);
+    }
+
+    private void growPositionsArrayIfNeeded() {
+        if (keysPos << 1 > positions.length) {
+            fillPositionsArray(positions.length << 1);
+        }
+    }
+
+    private void fillPositionsArray(final int newSize) {
+        positions = new int[newSize];
+        for (int i = keysPos - 1; i >= 0; i--) {
+            if (deletedIndices[i] == 0) {
+                var pIndex = calcStartIndexByHashCode(hashCode(keys[i]));
+                while (positions[pIndex] != 0) {
+                    if (--pIndex < 0) {
+                        pIndex += positions.length;
+                    }
+                }
+                positions[pIndex] = ~i;
+            }
+        }
+    }
+
+    /**
+     * Removes the entry referenced by the probe table slot {@code here} and
+     * closes the gap in the probe chain (Knuth's Algorithm R, as in
+     * {@code FastHashBase}).
+     */
+    protected void removeFrom(int here) {
+        final var eIndex = ~positions[here];
+        deletedIndices[eIndex] = -(lastDeletedIndex + 2);
+        lastDeletedIndex = eIndex;
+        removedKeysCount++;
+        while (true) {
+            positions[here] = 0;
+            int scan = here;
+            while (true) {
+                if (--scan < 0) scan += positions.length;
+                if (positions[scan] == 0) return;
+                int r = calcStartIndexByHashCode(hashCode(keys[~positions[scan]]));
+                if ((scan > r || r >= here) && (r >= here || here >= scan) && (here >= scan || scan > r)) {
+                    positions[here] = positions[scan];
+                    here = scan;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Grows the internal arrays so that at least {@code expectedSize} entries
+     * fit without further resizing.
+     */
+    public final void ensureCapacity(final int expectedSize) {
+        while (keys.length < expectedSize && keys.length < Integer.MAX_VALUE) {
+            growKeysArrays();
+        }
+        if (expectedSize > (positions.length >> 1) && expectedSize <= (1 << 29)) {
+            fillPositionsArray(positionsSizeFor(expectedSize));
+        }
+    }
+
+    /** @return true if the entry at the index of the {@link #keys} array is live */
+    protected final boolean isLive(final int eIndex) {
+        return deletedIndices[eIndex] == 0;
+    }
+
+    /** @return the number of entries */
+    public final int size() {
+        return keysPos - removedKeysCount;
+    }
+
+    /** @return true if there are no entries */
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** @return true if the key is present */
+    public final boolean containsKey(final long key) {
+        return findPosition(key) >= 0;
+    }
+
+    /** Removes all entries. The capacity is kept. */
+    public void clear() {
+        Arrays.fill(positions, 0);
+        keysPos = 0;
+        lastDeletedIndex = -1;
+        removedKeysCount = 0;
+    }
+
+    /** Performs the action for each key. */
+    public final void forEachKey(final LongConsumer action) {
+        for (int i = 0; i < keysPos; i++) {
+            if (deletedIndices[i] == 0) {
+                action.accept(keys[i]);
+            }
+        }
+    }
+
+    /**
+     * @return a stream of the keys; the collection must not be changed while
+     *         the stream is used
+     */
+    public final LongStream keyStream() {
+        return IntStream.range(0, keysPos).filter(this::isLive).mapToLong(i -> keys[i]);
+    }
+
+    /** @return the keys in an array */
+    public final long[] keysToArray() {
+        final var array = new long[size()];
+        var pos = 0;
+        for (int i = 0; i < keysPos; i++) {
+            if (deletedIndices[i] == 0) {
+                array[pos++] = keys[i];
+            }
+        }
+        return array;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.atlas.lib;
+
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+/**
+ * A set of primitive {@code long} values, without boxing.
+ * See {@link LongHashBase} for the layout.
+ */
+public class LongHashSet extends LongHashBase {
+
+    public LongHashSet() {
+        super();
+    }
+
+    public LongHashSet(int initialSize) {
+        super(initialSize);
+    }
+
+    public LongHashSet(LongHashSet setToCopy) {
+        super(setToCopy);
+    }
+
+    /**
+     * Adds the value.
+     * @return true if the value was not already in the set
+     */
+    public boolean add(long value) {
+        return addKey(value) >= 0;
+    }
+
+    /** @return true if the value is in the set */
+    public boolean contains(long value) {
+        return containsKey(value);
+    }
+
+    /**
+     * Removes the value.
+     * @return true if the value was in the set
+     */
+    public boolean remove(long value) {
+        return removeKey(value) >= 0;
+    }
+
+    /** Performs the action for each value. */
+    public void forEach(LongConsumer action) {
+        forEachKey(action);
+    }
+
+    /** @return a stream of the values; the set must not be changed while the stream is used */
+    public LongStream stream() {
+        return keyStream();
+    }
+
+    /** @return the values in an array */
+    public long[] toArray() {
+        return keysToArray();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.atlas.lib;
+
+import java.util.Arrays;
+
+/**
+ * A map from primitive {@code long} keys to primitive {@code long} values,
+ * without boxing. See {@link LongHashBase} for the layout.
+ * <p>
+ * {@link #addTo} makes it suitable for counting.
+ */
+public class LongLongHashMap extends LongHashBase {
+
+    /** Called for each entry by {@link LongLongHashMap#forEach}. */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private long[] values;
+
+    public LongLongHashMap() {
+        super();
+        this.values = new long[keys.length];
+    }
+
+    public LongLongHashMap(int initialSize) {
+        super(initialSize);
+        this.values = new long[keys.length];
+    }
+
+    public LongLongHashMap(LongLongHashMap mapToCopy) {
+        super(mapToCopy);
+        this.values = mapToCopy.values.clone();
+    }
+
+    @Override
+    protected void growKeysArrays() {
+        super.growKeysArrays();
+        values = Arrays.copyOf(values, keys.length);
+    }
+
+    /**
+     * Sets the value for the key.
+     * @return true if the key was not already in the map
+     */
+    public boolean put(long key, long value) {
+        final int eIndex = addKey(key);
+        if ( eIndex < 0 ) {
+            values[~eIndex] = value;
+            return false;
+        }
+        values[eIndex] = value;
+        return true;
+    }
+
+    /** @return the value for the key, or {@code dftValue} if the key is not in the map */
+    public long get(long key, long dftValue) {
+        final int eIndex = indexOf(key);
+        return eIndex < 0 ? dftValue : values[eIndex];
+    }
+
+    /**
+     * Adds {@code delta} to the value for the key; a key not in the map
+     * starts at zero.
+     * @return the new value
+     */
+    public long addTo(long key, long delta) {
+        final int eIndex = addKey(key);
+        if ( eIndex < 0 )
+            return values[~eIndex] += delta;
+        return values[eIndex] = delta;
+    }
+
+    /**
+     * Removes the key.
+     * @return true if the key was in the map
+     */
+    public boolean remove(long key) {
+        return removeKey(key) >= 0;
+    }
+
+    /** Performs the action for each entry. */
+    public void forEach(EntryConsumer action) {
+        for ( int i = 0 ; i < keysPos ; i++ ) {
+            if ( isLive(i) )
+                action.accept(keys[i], values[i]);
+        }
+    }
+}
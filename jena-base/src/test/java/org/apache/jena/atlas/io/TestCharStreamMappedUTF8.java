@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.atlas.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.apache.jena.atlas.lib.Chars;
+
+public class TestCharStreamMappedUTF8 {
+
+    @TempDir
+    Path dir;
+
+    private static final String text = "abc Àéíÿ αβγ 孫子兵法 😀 xyz\n";
+
+    @Test public void mapped_00() { test("", 1024); }
+    @Test public void mapped_01() { test(text, 1024); }
+    @Test public void mapped_02() { test(text.repeat(10), 4); }
+    @Test public void mapped_03() { test(text.repeat(10), 5); }
+    @Test public void mapped_04() { test(text.repeat(10), 7); }
+    @Test public void mapped_05() { test(text.repeat(10000), 1000); }
+
+    @Test public void mapped_bom() {
+        byte[] bytes = (Chars.BOM + text).getBytes(StandardCharsets.UTF_8);
+        assertEquals(text, read(write(bytes), 5));
+    }
+
+    @Test public void mapped_bad_utf8() {
+        // Truncated sequence at the end, bad lead byte in the middle.
+        byte[] bytes = { 'a', (byte)0xF8, 'b', (byte)0xE2, (byte)0x82 };
+        Path path = write(bytes);
+        String expected = IO.readWholeFileAsUTF8(new ByteArrayInputStream(bytes));
+        assertEquals(expected, read(path, 4));
+        assertEquals(expected, read(path, 1024));
+    }
+
+    @Test public void mapped_peekreader() {
+        Path path = write(text.getBytes(StandardCharsets.UTF_8));
+        try ( CharStreamMappedUTF8 in = new CharStreamMappedUTF8(path) ) {
+            PeekReader pr = PeekReader.make((Reader)in);
+            StringBuilder sb = new StringBuilder();
+            int ch;
+            while ( (ch = pr.readChar()) != IO.EOF )
+                sb.append((char)ch);
+            assertEquals(text, sb.toString());
+        } catch (IOException ex) { throw IOX.exception(ex); }
+    }
+
+    private void test(String string, long segmentSize) {
+        Path path = write(string.getBytes(StandardCharsets.UTF_8));
+        assertEquals(string, read(path, segmentSize));
+        assertEquals(string, readByChar(path, segmentSize));
+    }
+
+    private Path write(byte[] bytes) {
+        try {
+            Path path = Files.createTempFile(dir, "data", ".txt");
+            Files.write(path, bytes);
+            return path;
+        } catch (IOException ex) { throw IOX.exception(ex); }
+    }
+
+    private static String read(Path path, long segmentSize) {
+        try ( Reader r = new CharStreamMappedUTF8(path, segmentSize) ) {
+            StringBuilder sb = new StringBuilder();
+            char[] cbuf = new char[3];
+            int n;
+            while ( (n = r.read(cbuf, 0, cbuf.length)) != IO.EOF )
+                sb.append(cbuf, 0, n);
+            return sb.toString();
+        } catch (IOException ex) { throw IOX.exception(ex); }
+    }
+
+    private static String readByChar(Path path, long segmentSize) {
+        try ( CharStreamMappedUTF8 r = new CharStreamMappedUTF8(path, segmentSize) ) {
+            StringBuilder sb = new StringBuilder();
+            int ch;
+            while ( (ch = r.advance()) != IO.EOF )
+                sb.append((char)ch);
+            return sb.toString();
+        } catch (IOException ex) { throw IOX.exception(ex); }
+    }
+}
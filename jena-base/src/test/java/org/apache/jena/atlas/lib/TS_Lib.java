@@ -57,6 +57,7 @@ import org.junit.platform.suite.api.Suite;
     , TestRefCountingMap.class
     , TestVersion.class
     , TestPowerSet.class
+    , TestLongHashCollections.class
 } )
 
 public class TS_Lib {}
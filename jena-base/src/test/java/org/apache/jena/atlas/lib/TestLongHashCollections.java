@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.atlas.lib;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class TestLongHashCollections {
+
+    @Test public void longSet_01() {
+        LongHashSet set = new LongHashSet();
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(0L));
+        assertTrue(set.add(-1L));
+        assertTrue(set.add(Long.MAX_VALUE));
+        assertFalse(set.add(0L));
+        assertEquals(3, set.size());
+        assertTrue(set.contains(-1L));
+        assertFalse(set.contains(1L));
+        assertTrue(set.remove(-1L));
+        assertFalse(set.remove(-1L));
+        assertFalse(set.contains(-1L));
+        assertEquals(2, set.size());
+        assertEquals(Set.of(0L, Long.MAX_VALUE), toSet(set));
+    }
+
+    @Test public void longSet_02() {
+        LongHashSet set = new LongHashSet();
+        for ( long i = 0 ; i < 1000 ; i++ )
+            set.add(i << 8);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(256L));
+        set.add(5L);
+        assertEquals(Set.of(5L), toSet(set));
+        LongHashSet copy = new LongHashSet(set);
+        copy.add(6L);
+        assertEquals(1, set.size());
+        assertEquals(2, copy.size());
+    }
+
+    @Test public void longSet_random() {
+        // Compare with HashSet, with removals so that slots are reused.
+        Random random = new Random(1234);
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+        for ( int i = 0 ; i < 20_000 ; i++ ) {
+            long x = random.nextInt(2000) * 0x1_0000_0000L;
+            if ( random.nextInt(3) == 0 )
+                assertEquals(expected.remove(x), set.remove(x));
+            else
+                assertEquals(expected.add(x), set.add(x));
+            assertEquals(expected.size(), set.size());
+        }
+        assertEquals(expected, toSet(set));
+        expected.forEach(x -> assertTrue(set.contains(x)));
+        assertEquals(expected.size(), set.stream().count());
+        assertEquals(expected.size(), set.toArray().length);
+    }
+
+    @Test public void longLongMap_01() {
+        LongLongHashMap map = new LongLongHashMap();
+        assertTrue(map.put(1L, 10L));
+        assertFalse(map.put(1L, 11L));
+        assertEquals(11L, map.get(1L, -1L));
+        assertEquals(-1L, map.get(2L, -1L));
+        assertEquals(5L, map.addTo(2L, 5L));
+        assertEquals(8L, map.addTo(2L, 3L));
+        assertTrue(map.containsKey(2L));
+        assertTrue(map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertEquals(1, map.size());
+        assertEquals(Map.of(2L, 8L), toMap(map));
+    }
+
+    @Test public void longLongMap_random() {
+        Random random = new Random(5678);
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        for ( int i = 0 ; i < 20_000 ; i++ ) {
+            long k = random.nextInt(3000);
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(expected.remove(k) != null, map.remove(k));
+                case 1 -> assertEquals(expected.put(k, (long)i) == null, map.put(k, i));
+                default -> assertEquals((long)expected.merge(k, 1L, Long::sum), map.addTo(k, 1));
+            }
+        }
+        assertEquals(expected, toMap(map));
+        map.ensureCapacity(100_000);
+        assertEquals(expected, toMap(map));
+    }
+
+    private static Set<Long> toSet(LongHashSet set) {
+        Set<Long> result = new HashSet<>();
+        set.forEach(result::add);
+        return result;
+    }
+
+    private static Map<Long, Long> toMap(LongLongHashMap map) {
+        Map<Long, Long> result = new HashMap<>();
+        map.forEach(result::put);
+        return result;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.atlas.lib;
+
+import org.apache.jena.jmh.JmhDefaultOptions;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Compares the primitive long-keyed collections with the boxed JDK ones,
+ * for keys that look like NodeIds: dense pointers, with repeats as in
+ * the predicate counts of the loader statistics.
+ */
+@State(Scope.Benchmark)
+public class TestLongHashCollections {
+
+    @Param({
+            "1000",
+            "1000000"
+    })
+    public String param0_distinctKeys;
+
+    @Param({
+            "JDK",
+            "Long"
+    })
+    public String param1_Collection;
+
+    /** Each key occurs several times. */
+    private long[] keys;
+
+    private HashMap<Long, Long> jdkCounts;
+    private LongLongHashMap longCounts;
+    private HashSet<Long> jdkSet;
+    private LongHashSet longSet;
+
+    @Benchmark
+    public int countKeys() {
+        if (param1_Collection.equals("JDK")) {
+            var counts = new HashMap<Long, Long>();
+            for (long key : keys) {
+                counts.merge(key, 1L, Long::sum);
+            }
+            return counts.size();
+        }
+        var counts = new LongLongHashMap();
+        for (long key : keys) {
+            counts.addTo(key, 1);
+        }
+        return counts.size();
+    }
+
+    @Benchmark
+    public long getCounts() {
+        long total = 0;
+        if (param1_Collection.equals("JDK")) {
+            for (long key : keys) {
+                total += jdkCounts.getOrDefault(key, 0L);
+            }
+        } else {
+            for (long key : keys) {
+                total += longCounts.get(key, 0L);
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int addToSet() {
+        if (param1_Collection.equals("JDK")) {
+            var set = new HashSet<Long>();
+            for (long key : keys) {
+                set.add(key);
+            }
+            return set.size();
+        }
+        var set = new LongHashSet();
+        for (long key : keys) {
+            set.add(key);
+        }
+        return set.size();
+    }
+
+    @Benchmark
+    public int containsInSet() {
+        int found = 0;
+        if (param1_Collection.equals("JDK")) {
+            for (long key : keys) {
+                if (jdkSet.contains(key))
+                    found++;
+            }
+        } else {
+            for (long key : keys) {
+                if (longSet.contains(key))
+                    found++;
+            }
+        }
+        return found;
+    }
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        var distinct = Integer.parseInt(param0_distinctKeys);
+        var random = new Random(4711);
+        this.keys = new long[distinct * 4];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(distinct);
+        }
+        this.jdkCounts = new HashMap<>();
+        this.longCounts = new LongLongHashMap();
+        this.jdkSet = new HashSet<>();
+        this.longSet = new LongHashSet();
+        for (long key : keys) {
+            jdkCounts.merge(key, 1L, Long::sum);
+            longCounts.addTo(key, 1);
+            jdkSet.add(key);
+            longSet.add(key);
+        }
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        var opt = JmhDefaultOptions.getDefaults(this.getClass())
+                .build();
+        var results = new Runner(opt).run();
+        Assert.assertNotNull(results);
+    }
+}
@@ -60,6 +60,7 @@ public class TestGraphCopy {
     @Param({
             "copy",
 //            "findAndAddAll",
+//            "bulkAddAll",
     })
     public String param2_CopyOrConstruct;
 
@@ -83,6 +84,12 @@ public class TestGraphCopy {
         return copy;
     }
 
+    private GraphMem bulkAddAll() {
+        var copy = newGraphSupplier.get();
+        copy.addAll(sutCurrent.stream());
+        return copy;
+    }
+
     @Setup(Level.Trial)
     public void setupTrial() {
         var trialContext = new Context(param1_GraphImplementation);
@@ -106,6 +113,9 @@ public class TestGraphCopy {
             case "findAndAddAll":
                 this.copySupplier = this::findAndAddAll;
                 break;
+            case "bulkAddAll":
+                this.copySupplier = this::bulkAddAll;
+                break;
             default:
                 throw new IllegalArgumentException("Unsupported copy or construct: " + param2_CopyOrConstruct);
         }
@@ -55,6 +55,8 @@ public class TestGraphMemoryConsumption {
 //            "GraphMemRoaring LAZY (current)",
 //            "GraphMemRoaring LAZY_PARALLEL (current)",
 //            "GraphMemRoaring MINIMAL (current)",
+            "GraphMemCompact EAGER (current)",
+//            "GraphMemCompact MINIMAL (current)",
     })
     public String param1_GraphImplementation;
     java.util.function.Supplier<Object> graphFill;
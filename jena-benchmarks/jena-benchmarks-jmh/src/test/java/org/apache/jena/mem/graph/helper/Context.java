@@ -86,6 +86,27 @@ public class Context {
                 this.graphClass = GraphClass.GraphMemRoaringManual;
                 this.jenaVersion = JenaVersion.CURRENT;
                 break;
+            case "GraphMemCompact (current)":
+            case "GraphMemCompact EAGER (current)":
+                this.graphClass = GraphClass.GraphMemCompactEager;
+                this.jenaVersion = JenaVersion.CURRENT;
+                break;
+            case "GraphMemCompact LAZY (current)":
+                this.graphClass = GraphClass.GraphMemCompactLazy;
+                this.jenaVersion = JenaVersion.CURRENT;
+                break;
+            case "GraphMemCompact LAZY_PARALLEL (current)":
+                this.graphClass = GraphClass.GraphMemCompactLazyParallel;
+                this.jenaVersion = JenaVersion.CURRENT;
+                break;
+            case "GraphMemCompact MINIMAL (current)":
+                this.graphClass = GraphClass.GraphMemCompactMinimal;
+                this.jenaVersion = JenaVersion.CURRENT;
+                break;
+            case "GraphMemCompact MANUAL (current)":
+                this.graphClass = GraphClass.GraphMemCompactManual;
+                this.jenaVersion = JenaVersion.CURRENT;
+                break;
             case "GraphMemValue (Jena 5.6.0)":
                 this.graphClass = GraphClass.GraphMemValue;
                 this.jenaVersion = JenaVersion.JENA_5_6_0;
@@ -127,6 +148,11 @@ public class Context {
         GraphMemRoaringLazyParallel,
         GraphMemRoaringMinimal,
         GraphMemRoaringManual,
+        GraphMemCompactEager,
+        GraphMemCompactLazy,
+        GraphMemCompactLazyParallel,
+        GraphMemCompactMinimal,
+        GraphMemCompactManual,
     }
 
 
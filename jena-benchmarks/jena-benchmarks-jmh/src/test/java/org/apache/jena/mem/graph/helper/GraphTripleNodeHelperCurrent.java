@@ -50,6 +50,11 @@ public class GraphTripleNodeHelperCurrent implements GraphTripleNodeHelper<Graph
             case GraphMemRoaringLazyParallel -> new GraphMemRoaring(IndexingStrategy.LAZY_PARALLEL);
             case GraphMemRoaringMinimal -> new GraphMemRoaring(IndexingStrategy.MINIMAL);
             case GraphMemRoaringManual -> new GraphMemRoaring(IndexingStrategy.MANUAL);
+            case GraphMemCompactEager -> new GraphMemCompact(IndexingStrategy.EAGER);
+            case GraphMemCompactLazy -> new GraphMemCompact(IndexingStrategy.LAZY);
+            case GraphMemCompactLazyParallel -> new GraphMemCompact(IndexingStrategy.LAZY_PARALLEL);
+            case GraphMemCompactMinimal -> new GraphMemCompact(IndexingStrategy.MINIMAL);
+            case GraphMemCompactManual -> new GraphMemCompact(IndexingStrategy.MANUAL);
         };
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.riot.writer.c14n;
+
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.jmh.JmhDefaultOptions;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+
+/** RDFC-1.0 canonicalization of blank node rich datasets. */
+@State(Scope.Benchmark)
+public class TestRDFC10Canonicalization {
+
+    @Param({
+            "Chains",       // Mostly unique first degree hashes.
+            "Cycles",       // All first degree hashes are the same.
+            "Trees",        // Nested blank node structures, as written with [] in Turtle.
+    })
+    public String param0_Shape;
+
+    @Param({
+            "1",
+            "4",
+    })
+    public String param1_Threads;
+
+    private static final Node p = NodeFactory.createURI("http://example/p");
+    private static final Node q = NodeFactory.createURI("http://example/q");
+
+    private DatasetGraph dataset;
+    private RDFC10 c14n;
+
+    @Benchmark
+    public List<String> canonicalize() {
+        return c14n.canonicalNQuads(dataset);
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dataset = DatasetGraphFactory.create();
+        switch (param0_Shape) {
+            case "Chains" -> {
+                for ( int i = 0 ; i < 20_000 ; i++ ) {
+                    Node x = NodeFactory.createBlankNode();
+                    add(x, q, NodeFactory.createLiteralString("chain-"+i));
+                    for ( int j = 0 ; j < 5 ; j++ ) {
+                        Node y = NodeFactory.createBlankNode();
+                        add(x, p, y);
+                        x = y;
+                    }
+                }
+            }
+            case "Cycles" -> {
+                for ( int i = 0 ; i < 200 ; i++ ) {
+                    Node first = NodeFactory.createBlankNode();
+                    Node x = first;
+                    for ( int j = 1 ; j < 5 ; j++ ) {
+                        Node y = NodeFactory.createBlankNode();
+                        add(x, p, y);
+                        x = y;
+                    }
+                    add(x, p, first);
+                }
+            }
+            case "Trees" -> {
+                for ( int i = 0 ; i < 5_000 ; i++ ) {
+                    Node root = NodeFactory.createBlankNode();
+                    add(root, q, NodeFactory.createLiteralString("tree-"+(i % 100)));
+                    for ( int j = 0 ; j < 4 ; j++ ) {
+                        Node child = NodeFactory.createBlankNode();
+                        add(root, p, child);
+                        add(child, q, NodeFactory.createLiteralString("leaf-"+j));
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown shape: " + param0_Shape);
+        }
+        c14n = RDFC10.create()
+                .threads(Integer.parseInt(param1_Threads))
+                .maxWork(Long.MAX_VALUE)
+                .build();
+    }
+
+    private void add(Node s, Node p, Node o) {
+        dataset.add(Quad.create(Quad.defaultGraphIRI, s, p, o));
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        var opt = JmhDefaultOptions.getDefaults(this.getClass())
+                .warmupIterations(2)
+                .measurementIterations(4)
+                .build();
+        var results = new Runner(opt).run();
+        Assert.assertNotNull(results);
+    }
+}
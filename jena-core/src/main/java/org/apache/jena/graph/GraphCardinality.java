@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.graph;
+
+/**
+ * A graph that can tell how many triples match a pattern without finding them.
+ * <p>
+ * The numbers come from the indices of the graph and are cheap to obtain, so
+ * query engines may ask for them while planning, e.g. to order the triple
+ * patterns of a basic graph pattern.
+ * <p>
+ * In a pattern, {@code null}, {@link Node#ANY} and variables are wildcards.
+ * A result of -1 means the graph cannot tell (e.g. because the index needed
+ * for the pattern has not been built).
+ */
+public interface GraphCardinality {
+
+    /**
+     * Estimate the number of triples matching the pattern. Implementations
+     * document how exact the estimate is; it must never be less than the real
+     * count unless it is -1.
+     *
+     * @param s subject or wildcard
+     * @param p predicate or wildcard
+     * @param o object or wildcard
+     * @return the (estimated) number of matches, or -1 if it is unknown
+     */
+    long estimateCardinality(Node s, Node p, Node o);
+
+    /**
+     * @return the number of distinct subjects, or -1 if it is unknown
+     */
+    default long distinctSubjects() {
+        return -1;
+    }
+
+    /**
+     * @return the number of distinct predicates, or -1 if it is unknown
+     */
+    default long distinctPredicates() {
+        return -1;
+    }
+
+    /**
+     * @return the number of distinct objects, or -1 if it is unknown
+     */
+    default long distinctObjects() {
+        return -1;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.graph;
+
+/**
+ * A graph that can count the triples matching a pattern from its indexes,
+ * without creating a {@link Triple} for each match.
+ * <p>
+ * Unlike {@link GraphCardinality}, the count is exact. It may still take time
+ * proportional to the number of matches (e.g. a range scan of an index).
+ * <p>
+ * In a pattern, {@code null} and {@link Node#ANY} are wildcards.
+ */
+public interface GraphCount {
+
+    /**
+     * Count the triples matching the pattern.
+     *
+     * @param s subject or wildcard
+     * @param p predicate or wildcard
+     * @param o object or wildcard
+     * @return the number of matches
+     */
+    long count(Node s, Node p, Node o);
+}
@@ -61,7 +61,7 @@ public class NodeFactory {
     /** make a URI node with the specified URIref string */
     public static Node createURI(String uri) {
         Objects.requireNonNull(uri, "Argument to NodeFactory.createURI is null");
-        return new Node_URI(uri);
+        return NodeInterner.internIfEnabled(new Node_URI(uri));
     }
 
     /** make a variable node with a given name */
@@ -83,7 +83,7 @@ public class NodeFactory {
     @Deprecated
     public static Node createLiteral(LiteralLabel lit) {
         Objects.requireNonNull(lit, "Argument to NodeFactory.createLiteral is null");
-        return new Node_Literal( lit );
+        return NodeInterner.internIfEnabled(new Node_Literal( lit ));
     }
 
     /*
@@ -91,7 +91,7 @@ public class NodeFactory {
      */
     public static Node createLiteralString(String string) {
         Objects.requireNonNull(string, "Argument to NodeFactory.createLiteralString is null");
-        return new Node_Literal(string);
+        return NodeInterner.internIfEnabled(new Node_Literal(string));
     }
 
     /**
@@ -105,7 +105,7 @@ public class NodeFactory {
     public static Node createLiteralLang(String string, String lang) {
         Objects.requireNonNull(string, "null lexical form for literal");
         if ( isEmpty(lang) )
-            return new Node_Literal(string);
+            return createLiteralString(string);
 
         int idx = lang.indexOf("--");
         if ( idx >= 0 ) {
@@ -116,7 +116,7 @@ public class NodeFactory {
             return createLiteralDirLang(string, lang, textDir);
         }
         String langFmt = formatLanguageTag(lang);
-        return new Node_Literal(string, langFmt);
+        return NodeInterner.internIfEnabled(new Node_Literal(string, langFmt));
     }
 
     /**
@@ -142,12 +142,12 @@ public class NodeFactory {
         if ( isEmpty(lang) ) {
             if ( textDir != null )
                 throw new JenaException("The language must be given for a language direction literal");
-            return new Node_Literal(string);
+            return createLiteralString(string);
         }
         if ( noTextDir(textDir) )
-            return new Node_Literal(string, lang);
+            return NodeInterner.internIfEnabled(new Node_Literal(string, lang));
         String langFmt = formatLanguageTag(lang);
-        return new Node_Literal(string, langFmt, textDir);
+        return NodeInterner.internIfEnabled(new Node_Literal(string, langFmt, textDir));
     }
 
     /**
@@ -280,7 +280,7 @@ public class NodeFactory {
         Objects.requireNonNull(lex, "null lexical form for literal");
         if ( dtype == null )
             dtype = XSDDatatype.XSDstring;
-        return new Node_Literal(lex, dtype);
+        return NodeInterner.internIfEnabled(new Node_Literal(lex, dtype));
     }
 
     /** Create a Node based on the value
@@ -291,7 +291,7 @@ public class NodeFactory {
      */
     public static Node createLiteralByValue(Object value) {
         Objects.requireNonNull(value, "Argument 'value' to NodeFactory.createLiteralByValue is null");
-        return new Node_Literal(LiteralLabelFactory.createByValue(value));
+        return NodeInterner.internIfEnabled(new Node_Literal(LiteralLabelFactory.createByValue(value)));
     }
 
     /** Create a Node based on the value
@@ -303,7 +303,7 @@ public class NodeFactory {
      */
     public static Node createLiteralByValue(Object value, RDFDatatype dtype) {
         Objects.requireNonNull(value, "Argument 'value' to NodeFactory.createLiteralByValue is null");
-        return new Node_Literal(LiteralLabelFactory.createByValue(value, dtype));
+        return NodeInterner.internIfEnabled(new Node_Literal(LiteralLabelFactory.createByValue(value, dtype)));
     }
 
     /** Create a triple term */
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.graph;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.jena.atlas.lib.cache.CacheInfo;
+import org.apache.jena.util.SystemUtils;
+
+/**
+ * JVM-wide interning of URI and literal nodes.
+ * <p>
+ * Interning maps every node to a canonical instance that is equal to it, so
+ * that equal terms read by different parsers, queries and graphs share one
+ * object. This saves heap when the same IRIs and literals occur many times,
+ * and equality tests between interned nodes succeed on the identity check
+ * that {@link Node#equals} makes first.
+ * <p>
+ * The table holds its nodes weakly: a canonical node that is no longer used
+ * elsewhere is garbage collected. It is split into independently locked
+ * segments, so it can be used from many threads.
+ * <p>
+ * Interning is off by default. When {@link #setEnabled(boolean) enabled} (or
+ * with the system property {@value #SYSTEM_PROPERTY} set to {@code true}),
+ * {@link NodeFactory} interns the URI and literal nodes it creates, and the
+ * {@code GraphMem} graphs intern the nodes of added triples. Parsers create
+ * their nodes through {@link NodeFactory} and so share the table too. Other
+ * kinds of node (blank nodes, variables, triple terms) are never interned.
+ */
+public final class NodeInterner {
+
+    /** System property that enables interning at startup. */
+    public static final String SYSTEM_PROPERTY = "jena.node.interning";
+
+    /** Number of segments of the global interner. */
+    public static final int DEFAULT_SEGMENTS = 64;
+
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(SystemUtils.getSystemProperty(SYSTEM_PROPERTY, "false"));
+
+    private static final NodeInterner global = new NodeInterner(DEFAULT_SEGMENTS);
+
+    /**
+     * @return the JVM-wide interner
+     */
+    public static NodeInterner get() {
+        return global;
+    }
+
+    /**
+     * @return true if {@link NodeFactory} and the in-memory graphs intern nodes
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switch global interning on or off. Nodes created while interning is off
+     * are not canonical, but remain equal to the canonical nodes.
+     */
+    public static void setEnabled(final boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * Intern the node with the global interner if interning is enabled,
+     * otherwise return it unchanged.
+     */
+    public static Node internIfEnabled(final Node node) {
+        return enabled ? global.intern(node) : node;
+    }
+
+    /**
+     * Intern the nodes of the triple with the global interner if interning is
+     * enabled, otherwise return it unchanged.
+     */
+    public static Triple internIfEnabled(final Triple triple) {
+        return enabled ? global.intern(triple) : triple;
+    }
+
+    /**
+     * A segment maps each canonical node to a weak reference to itself. The
+     * keys of a {@link WeakHashMap} are weak, so the entry goes when the node
+     * is no longer used.
+     */
+    private static final class Segment extends WeakHashMap<Node, WeakReference<Node>> {}
+
+    private final Segment[] segments;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Create an interner independent of the global one.
+     *
+     * @param segments the number of independently locked segments; rounded up
+     *                 to a power of two
+     */
+    public NodeInterner(final int segments) {
+        if (segments < 1)
+            throw new IllegalArgumentException("At least one segment is required: " + segments);
+        final var size = segments == 1 ? 1 : Integer.highestOneBit(segments - 1) << 1;
+        this.segments = new Segment[size];
+        for (int i = 0; i < size; i++) {
+            this.segments[i] = new Segment();
+        }
+        this.mask = size - 1;
+    }
+
+    private Segment segmentFor(final Node node) {
+        final var h = node.hashCode();
+        return segments[(h ^ (h >>> 16)) & mask];
+    }
+
+    /**
+     * Return the canonical node equal to the given node. The first node seen
+     * for a term becomes the canonical one. Nodes other than URIs and literals
+     * are returned unchanged.
+     */
+    public Node intern(final Node node) {
+        if (node == null || !(node.isURI() || node.isLiteral()))
+            return node;
+        final var segment = segmentFor(node);
+        synchronized (segment) {
+            final var ref = segment.get(node);
+            if (ref != null) {
+                final var canonical = ref.get();
+                if (canonical != null) {
+                    hits.increment();
+                    return canonical;
+                }
+            }
+            segment.put(node, new WeakReference<>(node));
+        }
+        misses.increment();
+        return node;
+    }
+
+    /**
+     * Return a triple with canonical nodes. The triple itself is returned if
+     * its nodes are canonical already.
+     */
+    public Triple intern(final Triple triple) {
+        final var s = triple.getSubject();
+        final var p = triple.getPredicate();
+        final var o = triple.getObject();
+        final var si = intern(s);
+        final var pi = intern(p);
+        final var oi = intern(o);
+        if (si == s && pi == p && oi == o)
+            return triple;
+        return Triple.create(si, pi, oi);
+    }
+
+    /**
+     * @return the number of canonical nodes currently held; nodes that have
+     *         been garbage collected but not yet purged may be included
+     */
+    public int size() {
+        var size = 0;
+        for (final var segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /** Remove all canonical nodes and reset the statistics. */
+    public void clear() {
+        for (final var segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+        resetStats();
+    }
+
+    /**
+     * @return the number of lookups, hits and misses since the last reset
+     */
+    public CacheInfo stats() {
+        final var h = hits.sum();
+        final var m = misses.sum();
+        final var requests = h + m;
+        return new CacheInfo(requests, h, m, requests == 0 ? 1.0 : (double) h / requests);
+    }
+
+    /** Reset the hit and miss counters. */
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+    }
+}
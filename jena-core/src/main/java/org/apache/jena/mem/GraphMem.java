@@ -21,13 +21,19 @@
 
 package org.apache.jena.mem;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.apache.jena.atlas.lib.Copyable;
+import org.apache.jena.graph.GraphCardinality;
+import org.apache.jena.graph.GraphCount;
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeInterner;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.graph.impl.GraphBase;
 import org.apache.jena.graph.impl.GraphWithPerform;
+import org.apache.jena.mem.pattern.PatternClassifier;
 import org.apache.jena.mem.store.TripleStore;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
@@ -38,7 +44,19 @@ import org.apache.jena.util.iterator.ExtendedIterator;
  * Implementation must always comply to term-equality semantics. The characteristics of the
  * implementations always have handlesLiteralTyping() == false.
  */
-public class GraphMem extends GraphBase implements GraphWithPerform, Copyable<GraphMem> {
+public class GraphMem extends GraphBase implements GraphWithPerform, GraphCardinality, GraphCount, Copyable<GraphMem> {
+
+    /** Whether a class overrides {@link #performAdd(Triple)}. */
+    private static final ClassValue<Boolean> OVERRIDES_PERFORM_ADD = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            try {
+                return type.getMethod("performAdd", Triple.class).getDeclaringClass() != GraphMem.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
 
     final TripleStore tripleStore;
 
@@ -60,12 +78,54 @@ public class GraphMem extends GraphBase implements GraphWithPerform, Copyable<Gr
      * Add a triple to the graph without notifying. The default implementation throws an
      * AddDeniedException; subclasses must override if they want to be able to
      * add triples.
+     * <p>
+     * If {@link NodeInterner#isEnabled() node interning} is enabled, the
+     * stored triple has canonical nodes.
      *
      * @param t triple to add
      */
     @Override
     public void performAdd(final Triple t) {
-        tripleStore.add(t);
+        tripleStore.add(NodeInterner.internIfEnabled(t));
+    }
+
+    /**
+     * Add all the triples to the graph. Triples already in the graph are
+     * ignored.
+     * <p>
+     * This is faster than adding the triples one by one: for large collections,
+     * the stores build their indices in parallel. Listeners are notified once
+     * with the whole list, as {@link org.apache.jena.graph.GraphUtil#add(org.apache.jena.graph.Graph, List)} does.
+     * <p>
+     * If a subclass overrides {@link #performAdd(Triple)}, the triples are
+     * added one by one with {@code performAdd}, so that the override is not
+     * bypassed.
+     *
+     * @param triples the triples to add
+     */
+    public void addAll(final Collection<Triple> triples) {
+        checkOpen();
+        if (OVERRIDES_PERFORM_ADD.get(getClass())) {
+            final List<Triple> list = triples instanceof List<Triple> l ? l : List.copyOf(triples);
+            list.forEach(this::performAdd);
+            getEventManager().notifyAddList(this, list);
+            return;
+        }
+        final List<Triple> list = NodeInterner.isEnabled()
+                ? triples.stream().map(NodeInterner::internIfEnabled).toList()
+                : triples instanceof List<Triple> l ? l : List.copyOf(triples);
+        tripleStore.addAll(list);
+        getEventManager().notifyAddList(this, list);
+    }
+
+    /**
+     * Add all the triples of the stream to the graph.
+     *
+     * @param triples the triples to add
+     * @see #addAll(Collection)
+     */
+    public void addAll(final Stream<Triple> triples) {
+        addAll(triples.toList());
     }
 
     /**
@@ -135,6 +195,63 @@ public class GraphMem extends GraphBase implements GraphWithPerform, Copyable<Gr
         return this.tripleStore.countTriples();
     }
 
+    /**
+     * Reports whether the index of the store is built, so that pattern lookups
+     * do not change the graph. Only graphs with an indexing strategy other than
+     * eager return {@code false}.
+     *
+     * @return {@code true} iff the index is initialized
+     */
+    public boolean isIndexInitialized() {
+        return true;
+    }
+
+    /**
+     * Estimates the number of matching triples from the indices of the store.
+     * Patterns with at most one concrete node are counted exactly; for patterns
+     * with two the result is an upper bound. Stores whose index is not built
+     * yet return -1.
+     */
+    @Override
+    public long estimateCardinality(final Node s, final Node p, final Node o) {
+        checkOpen();
+        return this.tripleStore.estimateCount(Triple.createMatch(s, p, o));
+    }
+
+    /**
+     * Counts the matching triples. Patterns with at most one concrete node are
+     * answered from the sizes of the index entries; patterns with two concrete
+     * nodes, and stores whose index is not built yet, are counted by iterating
+     * over the matches.
+     */
+    @Override
+    public long count(final Node s, final Node p, final Node o) {
+        checkOpen();
+        final var match = Triple.createMatch(s, p, o);
+        return switch (PatternClassifier.classify(match)) {
+            case SUB_PRE_ANY, SUB_ANY_OBJ, ANY_PRE_OBJ -> this.tripleStore.stream(match).count();
+            default -> {
+                final var count = this.tripleStore.estimateCount(match);
+                yield count >= 0 ? count : this.tripleStore.stream(match).count();
+            }
+        };
+    }
+
+    @Override
+    public long distinctSubjects() {
+        return this.tripleStore.countDistinctSubjects();
+    }
+
+    @Override
+    public long distinctPredicates() {
+        return this.tripleStore.countDistinctPredicates();
+    }
+
+    @Override
+    public long distinctObjects() {
+        return this.tripleStore.countDistinctObjects();
+    }
+
     /**
      * Creates a copy of this graph.
      * Since the triples and nodes are immutable, the copy contains the same triples and nodes as this graph.
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem;
+
+import org.apache.jena.mem.store.compact.CompactTripleStore;
+
+/**
+ * In-memory {@link GraphMem} implementation that dictionary-encodes its nodes
+ * ({@link CompactTripleStore}). This class is not thread-safe.
+ * <p>
+ * Every distinct node is stored once and assigned an {@code int} id; a triple
+ * is stored as three ids and the subject/predicate/object indices hold triple
+ * indices per node id. No {@link org.apache.jena.graph.Triple} objects are
+ * retained, so the footprint is considerably lower than that of
+ * {@link GraphMemIndexedSet}, in particular for graphs with many triples
+ * sharing the same nodes. The price is that triples are created on demand
+ * when they are returned by {@link #find} and {@link #stream}.
+ * <p>
+ * As for {@link GraphMemIndexedSet}, different
+ * {@link IndexingStrategy indexing strategies} can be selected to balance
+ * memory usage and lookup performance. With {@link IndexingStrategy#MINIMAL}
+ * pattern lookups scan the id columns instead of using an index.
+ * A typical bulk-load pattern is to start without an index, add all triples and
+ * then call {@link #initializeIndexParallel()} to build the index in parallel.
+ */
+public class GraphMemCompact extends GraphMem {
+
+    private final CompactTripleStore compactTripleStore;
+
+    /**
+     * Creates a new graph using the {@link IndexingStrategy#EAGER} default
+     * indexing strategy.
+     */
+    public GraphMemCompact() {
+        this(IndexingStrategy.EAGER);
+    }
+
+    /**
+     * Creates a new graph that uses the given indexing strategy.
+     *
+     * @param indexingStrategy the indexing strategy to use; controls when the
+     *                         subject/predicate/object index is built and how
+     *                         pattern lookups are evaluated
+     */
+    public GraphMemCompact(IndexingStrategy indexingStrategy) {
+        this(new CompactTripleStore(indexingStrategy));
+    }
+
+    /**
+     * Internal constructor used by {@link #copy()} to wrap an already populated
+     * triple store.
+     *
+     * @param tripleStore the triple store to wrap (must be a
+     *                    {@link CompactTripleStore})
+     */
+    private GraphMemCompact(final CompactTripleStore tripleStore) {
+        super(tripleStore);
+        this.compactTripleStore = tripleStore;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Returns an independent copy that preserves the indexing strategy and,
+     * if the source has its index built, copies the index data structures
+     * directly to avoid rebuilding them.
+     */
+    @Override
+    public GraphMemCompact copy() {
+        return new GraphMemCompact(this.compactTripleStore.copy());
+    }
+
+    /**
+     * Returns the indexing strategy this graph was created with.
+     * The strategy is fixed for the lifetime of the graph; clearing or
+     * initializing the index does not change it.
+     *
+     * @return the indexing strategy
+     */
+    public IndexingStrategy getIndexingStrategy() {
+        return compactTripleStore.getIndexingStrategy();
+    }
+
+    /**
+     * Drops the current subject/predicate/object index and reverts to the
+     * initial strategy. Subsequent pattern lookups will trigger (re)building
+     * the index according to the configured {@link IndexingStrategy}.
+     */
+    public void resetIndexingStrategy() {
+        compactTripleStore.resetIndexingStrategy();
+    }
+
+    /**
+     * Build (or rebuild) the index sequentially.
+     * After this call, pattern lookups will be served by the eager strategy
+     * regardless of the originally configured indexing strategy.
+     */
+    public void initializeIndex() {
+        compactTripleStore.initializeIndex();
+    }
+
+    /**
+     * Build (or rebuild) the index in parallel.
+     * This can be substantially faster than {@link #initializeIndex()} for
+     * larger graphs. After this call, pattern lookups will be served by the
+     * eager strategy regardless of the originally configured indexing strategy.
+     */
+    public void initializeIndexParallel() {
+        compactTripleStore.initializeIndexParallel();
+    }
+
+    /**
+     * Reports whether the index is currently built and ready to serve pattern
+     * lookups directly. For graphs configured with a non-eager strategy this
+     * may flip from {@code false} to {@code true} as soon as the first lookup
+     * is performed (or when {@link #initializeIndex()} is called explicitly).
+     *
+     * @return {@code true} iff the index is initialized
+     */
+    @Override
+    public boolean isIndexInitialized() {
+        return compactTripleStore.isIndexInitialized();
+    }
+
+    /**
+     * Returns the number of distinct nodes used by the triples of this graph.
+     *
+     * @return the number of entries in the node dictionary
+     */
+    public int countNodes() {
+        return compactTripleStore.countNodes();
+    }
+}
\ No newline at end of file
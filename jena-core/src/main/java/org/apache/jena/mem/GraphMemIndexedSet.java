@@ -138,6 +138,7 @@ public class GraphMemIndexedSet extends GraphMem {
      *
      * @return {@code true} iff the index is initialized
      */
+    @Override
     public boolean isIndexInitialized() {
         return indexedSetTripleStore.isIndexInitialized();
     }
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.mem.store.mapped.GraphImage;
+import org.apache.jena.mem.store.mapped.MappedTripleStore;
+
+import java.nio.file.Path;
+
+/**
+ * In-memory {@link GraphMem} implementation backed by a memory-mapped image
+ * file ({@link MappedTripleStore}). This class is not thread-safe.
+ * <p>
+ * An image is written once from any graph with {@link #writeImage(Graph, Path)}.
+ * Opening it maps the file instead of parsing it, so the graph is available
+ * almost immediately, and the nodes, triples and indices stay off the Java
+ * heap. This makes it suitable for large reference data that is loaded at
+ * every start of a service.
+ * <p>
+ * The graph is either read-only or copy-on-write. A copy-on-write graph copies
+ * its triples into a {@link GraphMemCompact}-style heap store on the first
+ * modification; the image file is never changed.
+ */
+public class GraphMemMapped extends GraphMem {
+
+    private final MappedTripleStore mappedTripleStore;
+
+    /**
+     * Opens a read-only graph over an image file.
+     *
+     * @param imageFile the image file written by {@link #writeImage(Graph, Path)}
+     */
+    public GraphMemMapped(final Path imageFile) {
+        this(imageFile, false);
+    }
+
+    /**
+     * Opens a graph over an image file.
+     *
+     * @param imageFile   the image file written by {@link #writeImage(Graph, Path)}
+     * @param copyOnWrite if {@code true}, the graph may be modified, which copies
+     *                    its triples to the heap; otherwise it is read-only
+     */
+    public GraphMemMapped(final Path imageFile, final boolean copyOnWrite) {
+        this(new MappedTripleStore(GraphImage.open(imageFile), copyOnWrite));
+    }
+
+    /**
+     * Internal constructor used by {@link #copy()} to wrap an existing
+     * triple store.
+     *
+     * @param tripleStore the triple store to wrap
+     */
+    private GraphMemMapped(final MappedTripleStore tripleStore) {
+        super(tripleStore);
+        this.mappedTripleStore = tripleStore;
+    }
+
+    /**
+     * Write an image of the graph that can be opened with
+     * {@link #GraphMemMapped(Path)}. An existing file is replaced.
+     *
+     * @param graph     the graph to write
+     * @param imageFile the image file
+     */
+    public static void writeImage(final Graph graph, final Path imageFile) {
+        GraphImage.write(graph, imageFile);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The copy shares the mapped image with this graph. If this graph has been
+     * modified, its heap triples are copied.
+     */
+    @Override
+    public GraphMemMapped copy() {
+        return new GraphMemMapped(this.mappedTripleStore.copy());
+    }
+
+    /**
+     * @return true if the graph copies the image on the first modification,
+     *         false if it is read-only
+     */
+    public boolean isCopyOnWrite() {
+        return mappedTripleStore.isCopyOnWrite();
+    }
+
+    /**
+     * @return true if the graph has been modified and no longer reads from the
+     *         image
+     */
+    public boolean isModified() {
+        return mappedTripleStore.isModified();
+    }
+}
@@ -143,6 +143,7 @@ public class GraphMemRoaring extends GraphMem {
      *
      * @return true if the index is initialized, false otherwise
      */
+    @Override
     public boolean isIndexInitialized() {
         return getRoaringTripleStore().isIndexInitialized();
     }
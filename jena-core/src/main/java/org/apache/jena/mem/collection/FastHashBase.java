@@ -206,6 +206,29 @@ public abstract class FastHashBase<K> implements JenaMapSetCommon<K> {
         return true;
     }
 
+    /**
+     * Grows the internal arrays so that at least {@code expectedSize} entries
+     * fit without further resizing. Used before adding many entries at once:
+     * the probe table is rebuilt only once instead of at every doubling.
+     * <p>
+     * The keys are grown with {@link #growKeysAndHashCodeArrays()}, so that
+     * subclasses keep their parallel arrays in step.
+     *
+     * @param expectedSize the number of entries the collection should hold
+     */
+    public final void ensureCapacity(final int expectedSize) {
+        while (keys.length < expectedSize && keys.length < Integer.MAX_VALUE) {
+            growKeysAndHashCodeArrays();
+        }
+        if (expectedSize > (positions.length >> 1) && expectedSize <= (1 << 29)) {
+            var positionsSize = Integer.highestOneBit(expectedSize << 1);
+            if (positionsSize < expectedSize << 1) {
+                positionsSize <<= 1;
+            }
+            fillPositionsArray(positionsSize);
+        }
+    }
+
     /**
      * Returns the number of elements in this collection.  If this collection
      * contains more than {@code Integer.MAX_VALUE} elements, returns
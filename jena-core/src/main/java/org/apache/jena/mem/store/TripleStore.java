@@ -23,8 +23,10 @@ package org.apache.jena.mem.store;
 
 import org.apache.jena.atlas.lib.Copyable;
 import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.pattern.PatternClassifier;
 import org.apache.jena.util.iterator.ExtendedIterator;
 
+import java.util.Collection;
 import java.util.stream.Stream;
 
 /**
@@ -46,6 +48,19 @@ public interface TripleStore extends Copyable<TripleStore> {
      */
     void add(final Triple triple);
 
+    /**
+     * Add all the triples to the store. Triples already present are ignored.
+     * <p>
+     * The default implementation adds the triples one by one. Stores override
+     * it to size their tables once and to build their indices in parallel
+     * when many triples are added.
+     *
+     * @param triples the triples to add
+     */
+    default void addAll(final Collection<Triple> triples) {
+        triples.forEach(this::add);
+    }
+
     /**
      * Remove a triple from the store. Does nothing if the triple is not present.
      *
@@ -83,6 +98,46 @@ public interface TripleStore extends Copyable<TripleStore> {
      */
     boolean contains(final Triple tripleMatch);
 
+    /**
+     * Returns the number of triples matching the pattern, as far as it can be
+     * told from the indices without iterating: exact for patterns with at
+     * most one concrete node, an upper bound for patterns with two.
+     * <p>
+     * The default implementation only answers the fully open and the fully
+     * concrete patterns.
+     *
+     * @param tripleMatch the triple pattern to match (may contain wildcards)
+     * @return the (estimated) number of matches, or -1 if it is unknown
+     */
+    default long estimateCount(final Triple tripleMatch) {
+        return switch (PatternClassifier.classify(tripleMatch)) {
+            case ANY_ANY_ANY -> countTriples();
+            case SUB_PRE_OBJ -> contains(tripleMatch) ? 1 : 0;
+            default -> -1;
+        };
+    }
+
+    /**
+     * @return the number of distinct subjects, or -1 if it is unknown
+     */
+    default long countDistinctSubjects() {
+        return -1;
+    }
+
+    /**
+     * @return the number of distinct predicates, or -1 if it is unknown
+     */
+    default long countDistinctPredicates() {
+        return -1;
+    }
+
+    /**
+     * @return the number of distinct objects, or -1 if it is unknown
+     */
+    default long countDistinctObjects() {
+        return -1;
+    }
+
     /**
      * Returns a {@link Stream} of all triples in the store.
      * The returned stream supports {@link Stream#parallel()}.
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.compact;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.IndexingStrategy;
+import org.apache.jena.mem.pattern.PatternClassifier;
+import org.apache.jena.mem.store.TripleStore;
+import org.apache.jena.mem.store.strategies.LazyStoreStrategy;
+import org.apache.jena.mem.store.strategies.ManualStoreStrategy;
+import org.apache.jena.mem.store.strategies.StoreStrategy;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+import org.apache.jena.util.iterator.SingletonIterator;
+
+import java.util.stream.Stream;
+
+import static org.apache.jena.mem.store.compact.TripleIdSet.ANY;
+
+/**
+ * {@link TripleStore} that dictionary-encodes every node as an {@code int} id
+ * and stores each triple as three ids.
+ * <p>
+ * Each distinct node is held once by the {@link NodeDictionary}; the
+ * {@link TripleIdSet} keeps the triples in three {@code int} columns and the
+ * optional subject/predicate/object index holds triple indices per node id.
+ * No {@link Triple} object is retained; triples are created on demand when they
+ * are returned by {@link #find}, {@link #stream} and friends. This trades
+ * some allocation on reads for a considerably smaller footprint than the
+ * {@link org.apache.jena.mem.store.indexed.IndexedSetTripleStore}.
+ * <p>
+ * Pattern matching is delegated to a {@link StoreStrategy}, selected via an
+ * {@link IndexingStrategy} exactly as for the indexed set store.
+ */
+public class CompactTripleStore implements TripleStore {
+
+    private final NodeDictionary nodes;
+    private final TripleIdSet triples;
+    private StoreStrategy currentStrategy;
+    private final IndexingStrategy indexingStrategy;
+
+    /**
+     * Creates a compact store with the {@link IndexingStrategy#EAGER}
+     * default indexing strategy.
+     */
+    public CompactTripleStore() {
+        this(IndexingStrategy.EAGER);
+    }
+
+    /**
+     * Creates a compact store using the given indexing strategy.
+     *
+     * @param indexingStrategy the indexing strategy to use
+     */
+    public CompactTripleStore(final IndexingStrategy indexingStrategy) {
+        this.nodes = new NodeDictionary();
+        this.triples = new TripleIdSet(nodes);
+        this.indexingStrategy = indexingStrategy;
+        this.currentStrategy = createStoreStrategy(indexingStrategy);
+    }
+
+    /**
+     * Copy constructor used by {@link #copy()}. If the source store has its
+     * eager index built, the copy reuses the index data structures (without
+     * rebuilding them); otherwise the copy starts from the configured
+     * indexing strategy.
+     *
+     * @param storeToCopy the source store
+     */
+    private CompactTripleStore(final CompactTripleStore storeToCopy) {
+        this.nodes = storeToCopy.nodes.copy();
+        this.triples = storeToCopy.triples.copy(nodes);
+        this.indexingStrategy = storeToCopy.indexingStrategy;
+        if (storeToCopy.currentStrategy instanceof EagerStoreStrategy eagerStoreStrategy) {
+            currentStrategy = new EagerStoreStrategy(triples, eagerStoreStrategy); // Copy the indices from the original strategy
+        } else {
+            currentStrategy = createStoreStrategy(indexingStrategy);
+        }
+    }
+
+    private StoreStrategy createStoreStrategy(final IndexingStrategy indexingStrategy) {
+        return switch (indexingStrategy) {
+            case EAGER
+                    -> new EagerStoreStrategy(triples, false);
+            case LAZY
+                    -> new LazyStoreStrategy(this::setCurrentStrategyToNewEagerStoreStrategy);
+            case LAZY_PARALLEL
+                    -> new LazyStoreStrategy(this::setCurrentStrategyToNewEagerStoreStrategyParallel);
+            case MANUAL
+                    -> new ManualStoreStrategy();
+            case MINIMAL
+                    -> new ScanStoreStrategy(triples);
+        };
+    }
+
+    private EagerStoreStrategy setCurrentStrategyToNewEagerStoreStrategy() {
+        final var eagerStoreStrategy = new EagerStoreStrategy(triples, false);
+        this.currentStrategy = eagerStoreStrategy;
+        return eagerStoreStrategy;
+    }
+
+    private EagerStoreStrategy setCurrentStrategyToNewEagerStoreStrategyParallel() {
+        final var eagerStoreStrategy = new EagerStoreStrategy(triples, true);
+        this.currentStrategy = eagerStoreStrategy;
+        return eagerStoreStrategy;
+    }
+
+    /**
+     * Check if the index has been initialized and all triples are indexed.
+     *
+     * @return true if the index is initialized, false otherwise
+     */
+    public boolean isIndexInitialized() {
+        return currentStrategy.isIndexInitialized();
+    }
+
+    /**
+     * Get the indexing strategy of this store.
+     *
+     * @return the indexing strategy
+     */
+    public IndexingStrategy getIndexingStrategy() {
+        return indexingStrategy;
+    }
+
+    /**
+     * Reset the current strategy to the initial one.
+     */
+    public void resetIndexingStrategy() {
+        this.currentStrategy = createStoreStrategy(indexingStrategy);
+    }
+
+    /**
+     * Initialize the index for this store.
+     */
+    public void initializeIndex() {
+        currentStrategy = new EagerStoreStrategy(this.triples, false);
+    }
+
+    /**
+     * Initialize the index for this store in parallel.
+     * This will index all triples in parallel, which can be faster for large datasets.
+     */
+    public void initializeIndexParallel() {
+        currentStrategy = new EagerStoreStrategy(this.triples, true);
+    }
+
+    /**
+     * Returns the number of distinct nodes used by the stored triples.
+     *
+     * @return the size of the node dictionary
+     */
+    public int countNodes() {
+        return nodes.size();
+    }
+
+    @Override
+    public void add(final Triple triple) {
+        final var s = nodes.getOrAdd(triple.getSubject());
+        final var p = nodes.getOrAdd(triple.getPredicate());
+        final var o = nodes.getOrAdd(triple.getObject());
+        final var index = triples.addAndGetIndex(s, p, o);
+        if (index < 0) { /*triple already exists*/
+            return;
+        }
+        nodes.retain(s);
+        nodes.retain(p);
+        nodes.retain(o);
+        currentStrategy.addToIndex(triple, index);
+    }
+
+    @Override
+    public void remove(final Triple triple) {
+        final var s = nodes.indexOf(triple.getSubject());
+        if (s < 0) { /*triple does not exist*/
+            return;
+        }
+        final var p = nodes.indexOf(triple.getPredicate());
+        if (p < 0) {
+            return;
+        }
+        final var o = nodes.indexOf(triple.getObject());
+        if (o < 0) {
+            return;
+        }
+        final var index = triples.indexOf(s, p, o);
+        if (index < 0) {
+            return;
+        }
+        // The strategy reads the ids from the triple set, so unindex before removing.
+        currentStrategy.removeFromIndex(triple, index);
+        triples.removeAt(index);
+        nodes.release(s);
+        nodes.release(p);
+        nodes.release(o);
+    }
+
+    @Override
+    public void clear() {
+        this.triples.clear();
+        this.nodes.clear();
+        this.currentStrategy.clearIndex();
+    }
+
+    @Override
+    public int countTriples() {
+        return this.triples.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.triples.isEmpty();
+    }
+
+    private boolean containsConcrete(final Triple triple) {
+        final var s = nodes.indexOf(triple.getSubject());
+        if (s < 0) {
+            return false;
+        }
+        final var p = nodes.indexOf(triple.getPredicate());
+        if (p < 0) {
+            return false;
+        }
+        final var o = nodes.indexOf(triple.getObject());
+        if (o < 0) {
+            return false;
+        }
+        return triples.contains(s, p, o);
+    }
+
+    @Override
+    public boolean contains(Triple tripleMatch) {
+        return switch (PatternClassifier.classify(tripleMatch)) {
+
+            case SUB_PRE_OBJ -> containsConcrete(tripleMatch);
+
+            case SUB_ANY_ANY -> currentStrategy.containsSubAnyAny(tripleMatch.getSubject());
+            case ANY_PRE_ANY -> currentStrategy.containsAnyPreAny(tripleMatch.getPredicate());
+            case ANY_ANY_OBJ -> currentStrategy.containsAnyAnyObj(tripleMatch.getObject());
+
+            case SUB_PRE_ANY -> currentStrategy.containsSubPreAny(tripleMatch.getSubject(), tripleMatch.getPredicate());
+            case SUB_ANY_OBJ -> currentStrategy.containsSubAnyObj(tripleMatch.getSubject(), tripleMatch.getObject());
+            case ANY_PRE_OBJ -> currentStrategy.containsAnyPreObj(tripleMatch.getPredicate(), tripleMatch.getObject());
+
+            case ANY_ANY_ANY -> !this.isEmpty();
+        };
+    }
+
+    @Override
+    public Stream<Triple> stream() {
+        return this.triples.stream(ANY, ANY, ANY);
+    }
+
+    @Override
+    public Stream<Triple> stream(Triple tripleMatch) {
+        return switch (PatternClassifier.classify(tripleMatch)) {
+
+            case SUB_PRE_OBJ ->
+                    containsConcrete(tripleMatch) ? Stream.of(tripleMatch) : Stream.empty();
+
+            case SUB_ANY_ANY -> currentStrategy.streamSubAnyAny(tripleMatch.getSubject());
+            case ANY_PRE_ANY -> currentStrategy.streamAnyPreAny(tripleMatch.getPredicate());
+            case ANY_ANY_OBJ -> currentStrategy.streamAnyAnyObj(tripleMatch.getObject());
+
+            case SUB_PRE_ANY -> currentStrategy.streamSubPreAny(tripleMatch.getSubject(), tripleMatch.getPredicate());
+            case SUB_ANY_OBJ -> currentStrategy.streamSubAnyObj(tripleMatch.getSubject(), tripleMatch.getObject());
+            case ANY_PRE_OBJ -> currentStrategy.streamAnyPreObj(tripleMatch.getPredicate(), tripleMatch.getObject());
+
+            case ANY_ANY_ANY -> this.triples.stream(ANY, ANY, ANY);
+        };
+    }
+
+    @Override
+    public ExtendedIterator<Triple> find(Triple tripleMatch) {
+        return switch (PatternClassifier.classify(tripleMatch)) {
+
+            case SUB_PRE_OBJ ->
+                    containsConcrete(tripleMatch)
+                            ? new SingletonIterator<>(tripleMatch)
+                            : NiceIterator.emptyIterator();
+
+            case SUB_ANY_ANY -> currentStrategy.findSubAnyAny(tripleMatch.getSubject());
+            case ANY_PRE_ANY -> currentStrategy.findAnyPreAny(tripleMatch.getPredicate());
+            case ANY_ANY_OBJ -> currentStrategy.findAnyAnyObj(tripleMatch.getObject());
+
+            case SUB_PRE_ANY -> currentStrategy.findSubPreAny(tripleMatch.getSubject(), tripleMatch.getPredicate());
+            case SUB_ANY_OBJ -> currentStrategy.findSubAnyObj(tripleMatch.getSubject(), tripleMatch.getObject());
+            case ANY_PRE_OBJ -> currentStrategy.findAnyPreObj(tripleMatch.getPredicate(), tripleMatch.getObject());
+
+            case ANY_ANY_ANY -> this.triples.iterator(ANY, ANY, ANY);
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Partial patterns are answered by the current strategy; strategies
+     * without an index (e.g. a lazy strategy before the index is built)
+     * return -1.
+     */
+    @Override
+    public long estimateCount(final Triple tripleMatch) {
+        return switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_PRE_OBJ -> containsConcrete(tripleMatch) ? 1 : 0;
+            case ANY_ANY_ANY -> this.triples.size();
+            default -> currentStrategy.estimateCount(tripleMatch);
+        };
+    }
+
+    @Override
+    public long countDistinctSubjects() {
+        return currentStrategy.countDistinctSubjects();
+    }
+
+    @Override
+    public long countDistinctPredicates() {
+        return currentStrategy.countDistinctPredicates();
+    }
+
+    @Override
+    public long countDistinctObjects() {
+        return currentStrategy.countDistinctObjects();
+    }
+
+    @Override
+    public CompactTripleStore copy() {
+        return new CompactTripleStore(this);
+    }
+}
@@ -0,0 +1,560 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.compact;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.pattern.PatternClassifier;
+import org.apache.jena.mem.store.indexed.IndexList;
+import org.apache.jena.mem.store.strategies.StoreStrategy;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+import org.apache.jena.util.iterator.NullIterator;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link StoreStrategy} that maintains a complete subject/predicate/object
+ * index over a {@link TripleIdSet} at all times.
+ * <p>
+ * As the nodes are already encoded as dense ids by the {@link NodeDictionary},
+ * the indices are plain arrays of {@link IndexList}s addressed by node id; no
+ * node-keyed hash maps are needed. Three parallel reverse-index arrays store,
+ * for every triple slot, its position inside the corresponding
+ * {@code IndexList}, which makes {@code O(1)} removal possible.
+ * <p>
+ * Patterns with two concrete nodes walk the shorter of the two lists and
+ * compare the other id in the columns of the triple set, so no triple is
+ * materialized unless it matches.
+ * <p>
+ * The strategy reads the ids of a triple from the columns of the triple set,
+ * so {@link #addToIndex} must be called after the triple has been added and
+ * {@link #removeFromIndex} before it is removed.
+ */
+public class EagerStoreStrategy implements StoreStrategy {
+
+    private static final IndexList[] EMPTY = new IndexList[0];
+
+    private final TripleIdSet triples;
+    private final NodeDictionary nodes;
+    private IndexList[] sIndices;
+    private IndexList[] pIndices;
+    private IndexList[] oIndices;
+    private int[] sReverseIndices;
+    private int[] pReverseIndices;
+    private int[] oReverseIndices;
+    // Number of non-null lists in each index, i.e. the distinct nodes at that position.
+    private int sDistinct;
+    private int pDistinct;
+    private int oDistinct;
+
+    /**
+     * Build a new eager strategy over the given triple set, indexing every
+     * triple already present.
+     *
+     * @param triples  the canonical triple set
+     * @param parallel if {@code true}, build the three indices concurrently;
+     *                 otherwise build them sequentially
+     */
+    public EagerStoreStrategy(final TripleIdSet triples, boolean parallel) {
+        this.triples = triples;
+        this.nodes = triples.getNodes();
+        this.triples.setOnKeysGrowHook(this::growReverseIndices);
+        this.sIndices = EMPTY;
+        this.pIndices = EMPTY;
+        this.oIndices = EMPTY;
+        final var indexSize = triples.getInternalKeysLength();
+        this.sReverseIndices = new int[indexSize];
+        this.pReverseIndices = new int[indexSize];
+        this.oReverseIndices = new int[indexSize];
+        if (parallel) {
+            indexAllParallel();
+        } else {
+            indexAll();
+        }
+    }
+
+    /**
+     * Copy constructor that reuses an already-built index. The {@code triples}
+     * parameter must be a copy of the original triple set, as the indices
+     * reference triple slots by index.
+     *
+     * @param triples                   the (already-copied) triple set the
+     *                                  new strategy will operate on
+     * @param strategyToCopyIndicesFrom the strategy whose indices should
+     *                                  be cloned
+     */
+    public EagerStoreStrategy(final TripleIdSet triples, final EagerStoreStrategy strategyToCopyIndicesFrom) {
+        this.triples = triples;
+        this.nodes = triples.getNodes();
+        this.triples.setOnKeysGrowHook(this::growReverseIndices);
+        this.sIndices = copyOf(strategyToCopyIndicesFrom.sIndices);
+        this.pIndices = copyOf(strategyToCopyIndicesFrom.pIndices);
+        this.oIndices = copyOf(strategyToCopyIndicesFrom.oIndices);
+        this.sReverseIndices = strategyToCopyIndicesFrom.sReverseIndices.clone();
+        this.pReverseIndices = strategyToCopyIndicesFrom.pReverseIndices.clone();
+        this.oReverseIndices = strategyToCopyIndicesFrom.oReverseIndices.clone();
+        this.sDistinct = strategyToCopyIndicesFrom.sDistinct;
+        this.pDistinct = strategyToCopyIndicesFrom.pDistinct;
+        this.oDistinct = strategyToCopyIndicesFrom.oDistinct;
+    }
+
+    private static IndexList[] copyOf(final IndexList[] lists) {
+        final var copy = new IndexList[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            if (lists[i] != null) {
+                copy[i] = lists[i].copy();
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public boolean isIndexInitialized() {
+        return true;
+    }
+
+    private void indexAll() {
+        triples.forEachIndex(i -> {
+            addSIndex(i);
+            addPIndex(i);
+            addOIndex(i);
+        });
+    }
+
+    /**
+     * Populate the three indices in parallel. Each index is touched by exactly
+     * one thread; only the read-only iteration over the triple set runs
+     * concurrently.
+     */
+    private void indexAllParallel() {
+        final var futureIndexObjects = CompletableFuture.runAsync(
+                () -> triples.forEachIndex(this::addOIndex));
+
+        final var futureIndexSubjects = CompletableFuture.runAsync(
+                () -> triples.forEachIndex(this::addSIndex));
+
+        triples.forEachIndex(this::addPIndex);
+
+        CompletableFuture.allOf(futureIndexObjects, futureIndexSubjects).join();
+    }
+
+    private IndexList[] ensureCapacity(final IndexList[] lists, final int id) {
+        if (id < lists.length) {
+            return lists;
+        }
+        return Arrays.copyOf(lists, Math.max(id + 1, nodes.getInternalKeysLength()));
+    }
+
+    private static IndexList getOrNew(final IndexList[] lists, final int id) {
+        var list = lists[id];
+        if (list == null) {
+            list = new IndexList();
+            lists[id] = list;
+        }
+        return list;
+    }
+
+    private static IndexList get(final IndexList[] lists, final int id) {
+        return (id < 0 || id >= lists.length) ? null : lists[id];
+    }
+
+    private void addSIndex(final int index) {
+        final var id = triples.getSubjects()[index];
+        sIndices = ensureCapacity(sIndices, id);
+        if (sIndices[id] == null) {
+            sDistinct++;
+        }
+        sReverseIndices[index] = getOrNew(sIndices, id).add(index);
+    }
+
+    private void addPIndex(final int index) {
+        final var id = triples.getPredicates()[index];
+        pIndices = ensureCapacity(pIndices, id);
+        if (pIndices[id] == null) {
+            pDistinct++;
+        }
+        pReverseIndices[index] = getOrNew(pIndices, id).add(index);
+    }
+
+    private void addOIndex(final int index) {
+        final var id = triples.getObjects()[index];
+        oIndices = ensureCapacity(oIndices, id);
+        if (oIndices[id] == null) {
+            oDistinct++;
+        }
+        oReverseIndices[index] = getOrNew(oIndices, id).add(index);
+    }
+
+    /**
+     * Remove the triple slot from the list of the node.
+     *
+     * @return true if the list became empty and has been dropped
+     */
+    private static boolean removeIndex(final IndexList[] lists, final int id, final int[] reverseIndices, final int index) {
+        final var indices = lists[id];
+        final var oldPosition = reverseIndices[index];
+        final var switched = indices.removeAt(oldPosition);
+        if (indices.isEmpty()) {
+            lists[id] = null;
+            return true;
+        }
+        if (-1 < switched) {
+            reverseIndices[switched] = oldPosition;
+        }
+        return false;
+    }
+
+    private void growReverseIndices(int keysLength) {
+        sReverseIndices = Arrays.copyOf(sReverseIndices, keysLength);
+        pReverseIndices = Arrays.copyOf(pReverseIndices, keysLength);
+        oReverseIndices = Arrays.copyOf(oReverseIndices, keysLength);
+    }
+
+    @Override
+    public void addToIndex(final Triple triple, final int index) {
+        addSIndex(index);
+        addPIndex(index);
+        addOIndex(index);
+    }
+
+    @Override
+    public void removeFromIndex(final Triple triple, final int index) {
+        if (removeIndex(sIndices, triples.getSubjects()[index], sReverseIndices, index)) {
+            sDistinct--;
+        }
+        if (removeIndex(pIndices, triples.getPredicates()[index], pReverseIndices, index)) {
+            pDistinct--;
+        }
+        if (removeIndex(oIndices, triples.getObjects()[index], oReverseIndices, index)) {
+            oDistinct--;
+        }
+    }
+
+    @Override
+    public void clearIndex() {
+        this.sIndices = EMPTY;
+        this.pIndices = EMPTY;
+        this.oIndices = EMPTY;
+        final var indexSize = triples.getInternalKeysLength();
+        this.sReverseIndices = new int[indexSize];
+        this.pReverseIndices = new int[indexSize];
+        this.oReverseIndices = new int[indexSize];
+        this.sDistinct = 0;
+        this.pDistinct = 0;
+        this.oDistinct = 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * One-node patterns are answered exactly with the size of the index list
+     * of the node; two-node patterns with the size of the smaller list.
+     */
+    @Override
+    public long estimateCount(final Triple tripleMatch) {
+        final var s = tripleMatch.getSubject();
+        final var p = tripleMatch.getPredicate();
+        final var o = tripleMatch.getObject();
+        return switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_ANY_ANY -> listSize(lookup(sIndices, s));
+            case ANY_PRE_ANY -> listSize(lookup(pIndices, p));
+            case ANY_ANY_OBJ -> listSize(lookup(oIndices, o));
+            case SUB_PRE_ANY -> Math.min(listSize(lookup(sIndices, s)), listSize(lookup(pIndices, p)));
+            case SUB_ANY_OBJ -> Math.min(listSize(lookup(sIndices, s)), listSize(lookup(oIndices, o)));
+            case ANY_PRE_OBJ -> Math.min(listSize(lookup(pIndices, p)), listSize(lookup(oIndices, o)));
+            case SUB_PRE_OBJ, ANY_ANY_ANY -> -1;
+        };
+    }
+
+    private static int listSize(final IndexList indices) {
+        return indices == null ? 0 : indices.size();
+    }
+
+    @Override
+    public long countDistinctSubjects() {
+        return sDistinct;
+    }
+
+    @Override
+    public long countDistinctPredicates() {
+        return pDistinct;
+    }
+
+    @Override
+    public long countDistinctObjects() {
+        return oDistinct;
+    }
+
+    /**
+     * The index list of a node, or {@code null} if the node is not used at
+     * that position.
+     */
+    private IndexList lookup(final IndexList[] lists, final Node node) {
+        return get(lists, nodes.indexOf(node));
+    }
+
+    /**
+     * Returns true if any triple in {@code indices} has {@code id} in {@code column}.
+     */
+    private static boolean anyMatch(final IndexList indices, final int[] column, final int id) {
+        final var array = indices.getIndices();
+        for (int i = indices.lastPos(); i >= 0; i--) {
+            if (column[array[i]] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean containsTwo(final IndexList[] listsA, final Node a, final int[] columnA,
+                                final IndexList[] listsB, final Node b, final int[] columnB) {
+        final var idA = nodes.indexOf(a);
+        final var indicesA = get(listsA, idA);
+        if (null == indicesA)
+            return false;
+
+        final var idB = nodes.indexOf(b);
+        final var indicesB = get(listsB, idB);
+        if (null == indicesB)
+            return false;
+
+        return indicesA.size() <= indicesB.size()
+                ? anyMatch(indicesA, columnB, idB)
+                : anyMatch(indicesB, columnA, idA);
+    }
+
+    @Override
+    public boolean containsSubAnyAny(Node s) {
+        return null != lookup(sIndices, s);
+    }
+
+    @Override
+    public boolean containsAnyPreAny(Node p) {
+        return null != lookup(pIndices, p);
+    }
+
+    @Override
+    public boolean containsAnyAnyObj(Node o) {
+        return null != lookup(oIndices, o);
+    }
+
+    @Override
+    public boolean containsSubPreAny(Node s, Node p) {
+        return containsTwo(sIndices, s, triples.getSubjects(), pIndices, p, triples.getPredicates());
+    }
+
+    @Override
+    public boolean containsSubAnyObj(Node s, Node o) {
+        return containsTwo(sIndices, s, triples.getSubjects(), oIndices, o, triples.getObjects());
+    }
+
+    @Override
+    public boolean containsAnyPreObj(Node p, Node o) {
+        return containsTwo(pIndices, p, triples.getPredicates(), oIndices, o, triples.getObjects());
+    }
+
+    private Stream<Triple> streamOne(final IndexList indices) {
+        if (indices == null) {
+            return Stream.empty();
+        }
+        return Arrays.stream(indices.getIndices(), 0, indices.size())
+                .mapToObj(triples::getTriple);
+    }
+
+    private Stream<Triple> streamTwo(final IndexList[] listsA, final Node a, final int[] columnA,
+                                     final IndexList[] listsB, final Node b, final int[] columnB) {
+        final var idA = nodes.indexOf(a);
+        final var indicesA = get(listsA, idA);
+        if (null == indicesA)
+            return Stream.empty();
+
+        final var idB = nodes.indexOf(b);
+        final var indicesB = get(listsB, idB);
+        if (null == indicesB)
+            return Stream.empty();
+
+        final IndexList walk;
+        final int[] column;
+        final int id;
+        if (indicesA.size() <= indicesB.size()) {
+            walk = indicesA; column = columnB; id = idB;
+        } else {
+            walk = indicesB; column = columnA; id = idA;
+        }
+        return Arrays.stream(walk.getIndices(), 0, walk.size())
+                .filter(i -> column[i] == id)
+                .mapToObj(triples::getTriple);
+    }
+
+    @Override
+    public Stream<Triple> streamSubAnyAny(Node s) {
+        return streamOne(lookup(sIndices, s));
+    }
+
+    @Override
+    public Stream<Triple> streamAnyPreAny(Node p) {
+        return streamOne(lookup(pIndices, p));
+    }
+
+    @Override
+    public Stream<Triple> streamAnyAnyObj(Node o) {
+        return streamOne(lookup(oIndices, o));
+    }
+
+    @Override
+    public Stream<Triple> streamSubPreAny(Node s, Node p) {
+        return streamTwo(sIndices, s, triples.getSubjects(), pIndices, p, triples.getPredicates());
+    }
+
+    @Override
+    public Stream<Triple> streamSubAnyObj(Node s, Node o) {
+        return streamTwo(sIndices, s, triples.getSubjects(), oIndices, o, triples.getObjects());
+    }
+
+    @Override
+    public Stream<Triple> streamAnyPreObj(Node p, Node o) {
+        return streamTwo(pIndices, p, triples.getPredicates(), oIndices, o, triples.getObjects());
+    }
+
+    private ExtendedIterator<Triple> findOne(final IndexList indices) {
+        if (indices == null) {
+            return NullIterator.instance();
+        }
+        return new IdListIterator(indices, null, -1);
+    }
+
+    private ExtendedIterator<Triple> findTwo(final IndexList[] listsA, final Node a, final int[] columnA,
+                                             final IndexList[] listsB, final Node b, final int[] columnB) {
+        final var idA = nodes.indexOf(a);
+        final var indicesA = get(listsA, idA);
+        if (null == indicesA)
+            return NullIterator.instance();
+
+        final var idB = nodes.indexOf(b);
+        final var indicesB = get(listsB, idB);
+        if (null == indicesB)
+            return NullIterator.instance();
+
+        return indicesA.size() <= indicesB.size()
+                ? new IdListIterator(indicesA, columnB, idB)
+                : new IdListIterator(indicesB, columnA, idA);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findSubAnyAny(Node s) {
+        return findOne(lookup(sIndices, s));
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findAnyPreAny(Node p) {
+        return findOne(lookup(pIndices, p));
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findAnyAnyObj(Node o) {
+        return findOne(lookup(oIndices, o));
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findSubPreAny(Node s, Node p) {
+        return findTwo(sIndices, s, triples.getSubjects(), pIndices, p, triples.getPredicates());
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findSubAnyObj(Node s, Node o) {
+        return findTwo(sIndices, s, triples.getSubjects(), oIndices, o, triples.getObjects());
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findAnyPreObj(Node p, Node o) {
+        return findTwo(pIndices, p, triples.getPredicates(), oIndices, o, triples.getObjects());
+    }
+
+    /**
+     * Iterator over the triples of an {@link IndexList}, optionally restricted
+     * to those with a given id in a column. Walks the list from its last index
+     * to position {@code 0} and detects concurrent modifications by comparing
+     * the size of the triple set.
+     */
+    private class IdListIterator extends NiceIterator<Triple> {
+        private final int[] indices;
+        private final int[] column;
+        private final int id;
+        private final int sizeOfSetAtStart;
+        private int pos;
+
+        /**
+         * @param indexList the list of triple indices to walk
+         * @param column    the column to filter on, or {@code null} for no filter
+         * @param id        the id required in {@code column}
+         */
+        IdListIterator(final IndexList indexList, final int[] column, final int id) {
+            this.indices = indexList.getIndices();
+            this.column = column;
+            this.id = id;
+            this.pos = indexList.lastPos();
+            this.sizeOfSetAtStart = triples.size();
+            moveToMatch();
+        }
+
+        private void moveToMatch() {
+            if (column != null) {
+                while (-1 < pos && column[indices[pos]] != id) {
+                    pos--;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return -1 < pos;
+        }
+
+        @Override
+        public Triple next() {
+            if (sizeOfSetAtStart != triples.size()) throw new ConcurrentModificationException();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final var triple = triples.getTriple(indices[pos--]);
+            moveToMatch();
+            return triple;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Triple> action) {
+            while (-1 < pos) {
+                final var index = indices[pos--];
+                if (column == null || column[index] == id) {
+                    action.accept(triples.getTriple(index));
+                }
+            }
+            if (sizeOfSetAtStart != triples.size()) throw new ConcurrentModificationException();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.compact;
+
+import org.apache.jena.atlas.lib.Copyable;
+import org.apache.jena.graph.Node;
+import org.apache.jena.mem.collection.FastHashSet;
+
+/**
+ * Dictionary that encodes every {@link Node} used by a
+ * {@link CompactTripleStore} as an {@code int} id.
+ * <p>
+ * The id of a node is its stable index in this {@link FastHashSet}, so decoding
+ * an id is a plain array access ({@link #getKeyAt(int)}). Each node carries a
+ * reference count of the triples that use it (once per position, so a triple
+ * {@code (n p n)} counts twice for {@code n}). A node is removed from the
+ * dictionary when its count drops to zero and its id may then be reused.
+ */
+public class NodeDictionary
+        extends FastHashSet<Node>
+        implements Copyable<NodeDictionary> {
+
+    private int[] refCounts;
+
+    /**
+     * Creates an empty dictionary.
+     */
+    public NodeDictionary() {
+        super();
+        this.refCounts = new int[keys.length];
+    }
+
+    /**
+     * Copy constructor. The new dictionary assigns the same ids to the same nodes.
+     *
+     * @param dictionaryToCopy the source dictionary
+     */
+    private NodeDictionary(final NodeDictionary dictionaryToCopy) {
+        super(dictionaryToCopy);
+        this.refCounts = dictionaryToCopy.refCounts.clone();
+    }
+
+    @Override
+    protected Node[] newKeysArray(int size) {
+        return new Node[size];
+    }
+
+    @Override
+    protected void growKeysAndHashCodeArrays() {
+        super.growKeysAndHashCodeArrays();
+        final var oldRefCounts = this.refCounts;
+        this.refCounts = new int[keys.length];
+        System.arraycopy(oldRefCounts, 0, refCounts, 0, oldRefCounts.length);
+    }
+
+    /**
+     * Returns the id of the node, adding it to the dictionary if necessary.
+     * A node that has just been added has a reference count of zero; the caller
+     * must {@link #retain(int)} it or it stays in the dictionary unused.
+     *
+     * @param node the node to encode
+     * @return the id of the node
+     */
+    public int getOrAdd(final Node node) {
+        final var index = addAndGetIndex(node);
+        return index < 0 ? ~index : index;
+    }
+
+    /**
+     * Increment the reference count of the node with the given id.
+     *
+     * @param id the id of the node
+     */
+    public void retain(final int id) {
+        refCounts[id]++;
+    }
+
+    /**
+     * Decrement the reference count of the node with the given id, removing the
+     * node from the dictionary when it is no longer used.
+     *
+     * @param id the id of the node
+     */
+    public void release(final int id) {
+        if (--refCounts[id] == 0) {
+            removeUnchecked(keys[id], hashCodesOrDeletedIndices[id]);
+        }
+    }
+
+    /**
+     * Returns the reference count of the node with the given id.
+     *
+     * @param id the id of the node
+     * @return the number of uses of the node in the stored triples
+     */
+    public int getRefCount(final int id) {
+        return refCounts[id];
+    }
+
+    /**
+     * Returns the current length of the underlying {@code keys} array, which
+     * is an upper bound for all ids currently in use.
+     *
+     * @return the current capacity of the {@code keys} array
+     */
+    public int getInternalKeysLength() {
+        return keys.length;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.refCounts = new int[keys.length];
+    }
+
+    @Override
+    public NodeDictionary copy() {
+        return new NodeDictionary(this);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.compact;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.store.strategies.StoreStrategy;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NullIterator;
+
+import java.util.stream.Stream;
+
+/**
+ * {@link StoreStrategy} that never builds an index but answers pattern-match
+ * operations by scanning the id columns of a {@link TripleIdSet}.
+ * <p>
+ * This is the counterpart of
+ * {@link org.apache.jena.mem.store.strategies.MinimalStoreStrategy} for the
+ * compact store: the nodes of a pattern are encoded once and the scan compares
+ * {@code int} ids only, so no {@link Triple} is created for a non-matching entry.
+ * A node that is not in the dictionary cannot match any triple.
+ */
+public class ScanStoreStrategy implements StoreStrategy {
+    private static final int ANY = TripleIdSet.ANY;
+    private static final int ABSENT = -2;
+
+    private final TripleIdSet triples;
+    private final NodeDictionary nodes;
+
+    /**
+     * @param triples the canonical triple set to scan
+     */
+    public ScanStoreStrategy(final TripleIdSet triples) {
+        this.triples = triples;
+        this.nodes = triples.getNodes();
+    }
+
+    @Override
+    public void addToIndex(final Triple triple, final int index) {
+        // No-op, as we do not store any indices
+    }
+
+    @Override
+    public void removeFromIndex(final Triple triple, final int index) {
+        // No-op, as we do not store any indices
+    }
+
+    @Override
+    public void clearIndex() {
+        // No-op, as we do not store any indices
+    }
+
+    /**
+     * The id of a node, {@link TripleIdSet#ANY} for {@code null}, or
+     * {@code ABSENT} if the node is not in the dictionary.
+     */
+    private int encode(final Node node) {
+        if (node == null) {
+            return ANY;
+        }
+        final var id = nodes.indexOf(node);
+        return id < 0 ? ABSENT : id;
+    }
+
+    private boolean containsMatch(final Node s, final Node p, final Node o) {
+        final var sId = encode(s);
+        final var pId = encode(p);
+        final var oId = encode(o);
+        if (sId == ABSENT || pId == ABSENT || oId == ABSENT) {
+            return false;
+        }
+        return triples.anyMatch(sId, pId, oId);
+    }
+
+    private Stream<Triple> streamMatch(final Node s, final Node p, final Node o) {
+        final var sId = encode(s);
+        final var pId = encode(p);
+        final var oId = encode(o);
+        if (sId == ABSENT || pId == ABSENT || oId == ABSENT) {
+            return Stream.empty();
+        }
+        return triples.stream(sId, pId, oId);
+    }
+
+    private ExtendedIterator<Triple> findMatch(final Node s, final Node p, final Node o) {
+        final var sId = encode(s);
+        final var pId = encode(p);
+        final var oId = encode(o);
+        if (sId == ABSENT || pId == ABSENT || oId == ABSENT) {
+            return NullIterator.instance();
+        }
+        return triples.iterator(sId, pId, oId);
+    }
+
+    @Override
+    public boolean containsSubAnyAny(Node s) {
+        return containsMatch(s, null, null);
+    }
+
+    @Override
+    public boolean containsAnyPreAny(Node p) {
+        return containsMatch(null, p, null);
+    }
+
+    @Override
+    public boolean containsAnyAnyObj(Node o) {
+        return containsMatch(null, null, o);
+    }
+
+    @Override
+    public boolean containsSubPreAny(Node s, Node p) {
+        return containsMatch(s, p, null);
+    }
+
+    @Override
+    public boolean containsSubAnyObj(Node s, Node o) {
+        return containsMatch(s, null, o);
+    }
+
+    @Override
+    public boolean containsAnyPreObj(Node p, Node o) {
+        return containsMatch(null, p, o);
+    }
+
+    @Override
+    public Stream<Triple> streamSubAnyAny(Node s) {
+        return streamMatch(s, null, null);
+    }
+
+    @Override
+    public Stream<Triple> streamAnyPreAny(Node p) {
+        return streamMatch(null, p, null);
+    }
+
+    @Override
+    public Stream<Triple> streamAnyAnyObj(Node o) {
+        return streamMatch(null, null, o);
+    }
+
+    @Override
+    public Stream<Triple> streamSubPreAny(Node s, Node p) {
+        return streamMatch(s, p, null);
+    }
+
+    @Override
+    public Stream<Triple> streamSubAnyObj(Node s, Node o) {
+        return streamMatch(s, null, o);
+    }
+
+    @Override
+    public Stream<Triple> streamAnyPreObj(Node p, Node o) {
+        return streamMatch(null, p, o);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findSubAnyAny(Node s) {
+        return findMatch(s, null, null);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findAnyPreAny(Node p) {
+        return findMatch(null, p, null);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findAnyAnyObj(Node o) {
+        return findMatch(null, null, o);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findSubPreAny(Node s, Node p) {
+        return findMatch(s, p, null);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findSubAnyObj(Node s, Node o) {
+        return findMatch(s, null, o);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> findAnyPreObj(Node p, Node o) {
+        return findMatch(null, p, o);
+    }
+}
@@ -0,0 +1,512 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.compact;
+
+import org.apache.jena.atlas.lib.Copyable;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Hash set of triples encoded as three node ids of a {@link NodeDictionary}.
+ * <p>
+ * The layout follows {@link org.apache.jena.mem.collection.FastHashBase}, but
+ * instead of an array of keys and an array of cached hash codes there are three
+ * parallel {@code int} columns for the subject, predicate and object ids. The
+ * hash code of an entry is cheap to recompute from its ids, so it is not stored.
+ * <ul>
+ *   <li><b>positions</b>: power-of-two sized open-addressing probe table. A value
+ *   of {@code 0} marks an empty slot, other values are the bitwise complement
+ *   of the entry index.</li>
+ *   <li><b>subjects / predicates / objects</b>: dense columns, filled from index
+ *   0 up to {@code keysPos}. A freed entry has a subject of {@link #FREE} and its
+ *   predicate holds the index of the previously freed entry, forming a freelist
+ *   whose head is {@code lastDeletedIndex}.</li>
+ * </ul>
+ * The index of an entry never changes until it is removed, so it can be used
+ * to coordinate parallel arrays such as the reverse indices of the
+ * {@link EagerStoreStrategy}.
+ * <p>
+ * {@link Triple}s are only created when they are read, by {@link #getTriple(int)}
+ * and the iterators and streams of this set.
+ */
+public class TripleIdSet implements Copyable<TripleIdSet> {
+
+    /** Id used for a wildcard in the match methods. */
+    public static final int ANY = -1;
+
+    /** Subject id of a freed entry. */
+    private static final int FREE = -1;
+
+    private static final int MINIMUM_HASHES_SIZE = 16;
+    private static final int MINIMUM_ELEMENTS_SIZE = 8;
+
+    private final NodeDictionary nodes;
+    private int[] positions;
+    private int[] subjects;
+    private int[] predicates;
+    private int[] objects;
+    private int keysPos = 0;
+    private int lastDeletedIndex = -1;
+    private int removedKeysCount = 0;
+    private IntConsumer onKeysGrowHook = null;
+
+    /**
+     * Creates an empty set of triples encoded with the given dictionary.
+     *
+     * @param nodes the dictionary for the node ids
+     */
+    public TripleIdSet(final NodeDictionary nodes) {
+        this.nodes = nodes;
+        this.positions = new int[MINIMUM_HASHES_SIZE];
+        this.subjects = new int[MINIMUM_ELEMENTS_SIZE];
+        this.predicates = new int[MINIMUM_ELEMENTS_SIZE];
+        this.objects = new int[MINIMUM_ELEMENTS_SIZE];
+    }
+
+    /**
+     * Copy constructor.
+     * The {@code onKeysGrowHook} is not copied.
+     *
+     * @param nodes     the copy of the dictionary of the set to copy
+     * @param setToCopy the source set
+     */
+    @SuppressWarnings("CopyConstructorMissesField")
+    private TripleIdSet(final NodeDictionary nodes, final TripleIdSet setToCopy) {
+        this.nodes = nodes;
+        this.positions = setToCopy.positions.clone();
+        this.subjects = setToCopy.subjects.clone();
+        this.predicates = setToCopy.predicates.clone();
+        this.objects = setToCopy.objects.clone();
+        this.keysPos = setToCopy.keysPos;
+        this.lastDeletedIndex = setToCopy.lastDeletedIndex;
+        this.removedKeysCount = setToCopy.removedKeysCount;
+    }
+
+    /**
+     * Register a callback that is invoked after the columns grow; the callback
+     * receives the new column length. Setting this to {@code null} disables
+     * notifications.
+     *
+     * @param onKeysGrowHook callback receiving the new column length
+     */
+    public void setOnKeysGrowHook(final IntConsumer onKeysGrowHook) {
+        this.onKeysGrowHook = onKeysGrowHook;
+    }
+
+    /**
+     * @return the dictionary for the node ids
+     */
+    public NodeDictionary getNodes() {
+        return nodes;
+    }
+
+    private static int hashCode(final int s, final int p, final int o) {
+        var hash = s * 0x9E3779B1 + p * 0x85EBCA6B + o * 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private int calcStartIndexByHashCode(final int hashCode) {
+        return hashCode & (positions.length - 1);
+    }
+
+    private int hashCodeAt(final int index) {
+        return hashCode(subjects[index], predicates[index], objects[index]);
+    }
+
+    private void growPositionsArrayIfNeeded() {
+        if (keysPos << 1 <= positions.length) {
+            return;
+        }
+        var newLength = positions.length << 1;
+        if (newLength < 0) {
+            newLength = Integer.MAX_VALUE;
+        }
+        this.positions = new int[newLength];
+        var pos = keysPos - 1;
+        while (-1 < pos) {
+            if (FREE != subjects[pos]) {
+                this.positions[findEmptySlot(hashCodeAt(pos))] = ~pos;
+            }
+            pos--;
+        }
+    }
+
+    private void growColumns() {
+        var newSize = (subjects.length >> 1) + subjects.length;
+        if (newSize < 0) {
+            newSize = Integer.MAX_VALUE;
+        }
+        subjects = java.util.Arrays.copyOf(subjects, newSize);
+        predicates = java.util.Arrays.copyOf(predicates, newSize);
+        objects = java.util.Arrays.copyOf(objects, newSize);
+        if (onKeysGrowHook != null) {
+            onKeysGrowHook.accept(newSize);
+        }
+    }
+
+    private int getFreeKeyIndex() {
+        final int index;
+        if (lastDeletedIndex == -1) {
+            index = keysPos++;
+            if (index == subjects.length) {
+                growColumns();
+            }
+        } else {
+            index = lastDeletedIndex;
+            lastDeletedIndex = predicates[lastDeletedIndex];
+            removedKeysCount--;
+        }
+        return index;
+    }
+
+    private int findEmptySlot(final int hashCode) {
+        var pIndex = calcStartIndexByHashCode(hashCode);
+        while (true) {
+            if (0 == positions[pIndex]) {
+                return pIndex;
+            } else if (--pIndex < 0) {
+                pIndex += positions.length;
+            }
+        }
+    }
+
+    /**
+     * Locates the probe-table slot of the entry, or the complement of the empty
+     * slot where it would be inserted.
+     */
+    private int findPosition(final int s, final int p, final int o, final int hashCode) {
+        var pIndex = calcStartIndexByHashCode(hashCode);
+        while (true) {
+            if (0 == positions[pIndex]) {
+                return ~pIndex;
+            } else {
+                final var index = ~positions[pIndex];
+                if (s == subjects[index] && p == predicates[index] && o == objects[index]) {
+                    return pIndex;
+                } else if (--pIndex < 0) {
+                    pIndex += positions.length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a triple and return the index it was stored at.
+     *
+     * @param s the subject id
+     * @param p the predicate id
+     * @param o the object id
+     * @return the new index, or {@code ~existingIndex} if already present
+     */
+    public int addAndGetIndex(final int s, final int p, final int o) {
+        growPositionsArrayIfNeeded();
+        final var pIndex = findPosition(s, p, o, hashCode(s, p, o));
+        if (pIndex < 0) {
+            final var index = getFreeKeyIndex();
+            subjects[index] = s;
+            predicates[index] = p;
+            objects[index] = o;
+            positions[~pIndex] = ~index;
+            return index;
+        }
+        return positions[pIndex];
+    }
+
+    /**
+     * Returns the index of the triple, or {@code -1} if not present.
+     *
+     * @param s the subject id
+     * @param p the predicate id
+     * @param o the object id
+     * @return the index of the triple, or {@code -1}
+     */
+    public int indexOf(final int s, final int p, final int o) {
+        final var pIndex = findPosition(s, p, o, hashCode(s, p, o));
+        return pIndex < 0 ? -1 : ~positions[pIndex];
+    }
+
+    /**
+     * Returns true if the set contains the triple.
+     *
+     * @param s the subject id
+     * @param p the predicate id
+     * @param o the object id
+     * @return true if the triple is present
+     */
+    public boolean contains(final int s, final int p, final int o) {
+        return findPosition(s, p, o, hashCode(s, p, o)) >= 0;
+    }
+
+    /**
+     * Remove the triple at the given index, which must be in use.
+     * The probe chain is repaired with Knuth's Algorithm R, as in
+     * {@link org.apache.jena.mem.collection.FastHashBase}.
+     *
+     * @param index the index of the triple to remove
+     */
+    public void removeAt(final int index) {
+        var here = calcStartIndexByHashCode(hashCodeAt(index));
+        while (positions[here] != ~index) {
+            if (--here < 0) here += positions.length;
+        }
+        subjects[index] = FREE;
+        predicates[index] = lastDeletedIndex;
+        lastDeletedIndex = index;
+        removedKeysCount++;
+        while (true) {
+            positions[here] = 0;
+            int scan = here;
+            while (true) {
+                if (--scan < 0) scan += positions.length;
+                if (positions[scan] == 0) return;
+                int r = calcStartIndexByHashCode(hashCodeAt(~positions[scan]));
+                if ((scan > r || r >= here) && (r >= here || here >= scan) && (here >= scan || scan > r)) {
+                    positions[here] = positions[scan];
+                    here = scan;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of triples in the set
+     */
+    public int size() {
+        return keysPos - removedKeysCount;
+    }
+
+    /**
+     * @return true if the set is empty
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Remove all triples.
+     */
+    public void clear() {
+        positions = new int[MINIMUM_HASHES_SIZE];
+        subjects = new int[MINIMUM_ELEMENTS_SIZE];
+        predicates = new int[MINIMUM_ELEMENTS_SIZE];
+        objects = new int[MINIMUM_ELEMENTS_SIZE];
+        keysPos = 0;
+        lastDeletedIndex = -1;
+        removedKeysCount = 0;
+    }
+
+    /**
+     * Returns the current length of the columns. This is the upper bound on the
+     * indices that may currently be valid.
+     *
+     * @return the current capacity of the columns
+     */
+    public int getInternalKeysLength() {
+        return subjects.length;
+    }
+
+    /**
+     * @return one past the largest index ever used
+     */
+    public int getKeysPos() {
+        return keysPos;
+    }
+
+    /**
+     * @param index an index below {@link #getKeysPos()}
+     * @return true if the index holds a triple
+     */
+    public boolean isInUse(final int index) {
+        return FREE != subjects[index];
+    }
+
+    /** @return the subject ids, indexed by triple index */
+    public int[] getSubjects() {
+        return subjects;
+    }
+
+    /** @return the predicate ids, indexed by triple index */
+    public int[] getPredicates() {
+        return predicates;
+    }
+
+    /** @return the object ids, indexed by triple index */
+    public int[] getObjects() {
+        return objects;
+    }
+
+    /**
+     * Create the triple stored at the given index.
+     *
+     * @param index the index of a triple
+     * @return the triple
+     */
+    public Triple getTriple(final int index) {
+        return Triple.create(nodes.getKeyAt(subjects[index]),
+                nodes.getKeyAt(predicates[index]),
+                nodes.getKeyAt(objects[index]));
+    }
+
+    /**
+     * Sequentially invokes {@code consumer} for the index of every triple.
+     *
+     * @param consumer receives each index
+     */
+    public void forEachIndex(final IntConsumer consumer) {
+        for (int i = 0; i < keysPos; i++) {
+            if (FREE != subjects[i]) {
+                consumer.accept(i);
+            }
+        }
+    }
+
+    private boolean matches(final int index, final int s, final int p, final int o) {
+        return FREE != subjects[index]
+                && (s == ANY || s == subjects[index])
+                && (p == ANY || p == predicates[index])
+                && (o == ANY || o == objects[index]);
+    }
+
+    /**
+     * Returns true if any triple matches the ids, where {@link #ANY} is a wildcard.
+     *
+     * @param s the subject id or {@link #ANY}
+     * @param p the predicate id or {@link #ANY}
+     * @param o the object id or {@link #ANY}
+     * @return true if a triple matches
+     */
+    public boolean anyMatch(final int s, final int p, final int o) {
+        for (int i = keysPos - 1; i >= 0; i--) {
+            if (matches(i, s, p, o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stream the triples matching the ids, where {@link #ANY} is a wildcard, by
+     * scanning the columns. The stream supports {@link Stream#parallel()}.
+     *
+     * @param s the subject id or {@link #ANY}
+     * @param p the predicate id or {@link #ANY}
+     * @param o the object id or {@link #ANY}
+     * @return the matching triples
+     */
+    public Stream<Triple> stream(final int s, final int p, final int o) {
+        return IntStream.range(0, keysPos)
+                .filter(i -> matches(i, s, p, o))
+                .mapToObj(this::getTriple);
+    }
+
+    /**
+     * Iterate the triples matching the ids, where {@link #ANY} is a wildcard, by
+     * scanning the columns.
+     *
+     * @param s the subject id or {@link #ANY}
+     * @param p the predicate id or {@link #ANY}
+     * @param o the object id or {@link #ANY}
+     * @return the matching triples
+     */
+    public ExtendedIterator<Triple> iterator(final int s, final int p, final int o) {
+        return new ScanIterator(s, p, o);
+    }
+
+    @Override
+    public TripleIdSet copy() {
+        return copy(nodes.copy());
+    }
+
+    /**
+     * Returns an independent copy of this set for the given copy of its dictionary.
+     *
+     * @param nodesCopy a copy of {@link #getNodes()}, which assigns the same ids
+     * @return a new set with the same triples
+     */
+    public TripleIdSet copy(final NodeDictionary nodesCopy) {
+        return new TripleIdSet(nodesCopy, this);
+    }
+
+    /**
+     * Iterator over the triples matching a pattern of ids, walking the columns
+     * from the highest index down.
+     */
+    private class ScanIterator extends NiceIterator<Triple> {
+        private final int s;
+        private final int p;
+        private final int o;
+        private final int sizeAtStart;
+        private int pos;
+
+        ScanIterator(final int s, final int p, final int o) {
+            this.s = s;
+            this.p = p;
+            this.o = o;
+            this.sizeAtStart = size();
+            this.pos = keysPos - 1;
+            moveToMatch();
+        }
+
+        private void moveToMatch() {
+            while (pos >= 0 && !matches(pos, s, p, o)) {
+                pos--;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos >= 0;
+        }
+
+        @Override
+        public Triple next() {
+            if (sizeAtStart != size()) throw new ConcurrentModificationException();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final var triple = getTriple(pos--);
+            moveToMatch();
+            return triple;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Triple> action) {
+            while (pos >= 0) {
+                if (matches(pos, s, p, o)) {
+                    action.accept(getTriple(pos));
+                }
+                pos--;
+            }
+            if (sizeAtStart != size()) throw new ConcurrentModificationException();
+        }
+    }
+}
@@ -20,6 +20,7 @@
  */
 package org.apache.jena.mem.store.fast;
 
+import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.mem.collection.FastHashMap;
 import org.apache.jena.mem.iterator.IteratorOfJenaSets;
@@ -29,6 +30,9 @@ import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.util.iterator.NiceIterator;
 import org.apache.jena.util.iterator.SingletonIterator;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -84,6 +88,16 @@ public class FastTripleStore implements TripleStore {
      * promoted to a hashed bunch.
      */
     protected static final int MAX_ARRAY_BUNCH_SIZE_PREDICATE_OBJECT = 32;
+    /**
+     * Minimum number of triples for {@link #addAll} to update the indices
+     * concurrently.
+     */
+    protected static final int PARALLEL_BULK_ADD_THRESHOLD = 10_000;
+    /**
+     * Minimum number of triples for {@link #copy()} to copy the indices
+     * concurrently.
+     */
+    protected static final int PARALLEL_COPY_THRESHOLD = 10_000;
     private final FastHashedBunchMap subjects;
     private final FastHashedBunchMap predicates;
     private final FastHashedBunchMap objects;
@@ -101,49 +115,103 @@ public class FastTripleStore implements TripleStore {
     /**
      * Copy constructor used by {@link #copy()}; produces an independent store
      * by deep-copying each of the three index maps (which in turn deep-copy
-     * their bunches).
+     * their bunches). Large stores copy the three maps concurrently.
      *
      * @param tripleStoreToCopy the source store
      */
     private FastTripleStore(final FastTripleStore tripleStoreToCopy) {
-        subjects = tripleStoreToCopy.subjects.copy();
-        predicates = tripleStoreToCopy.predicates.copy();
-        objects = tripleStoreToCopy.objects.copy();
+        if (tripleStoreToCopy.size < PARALLEL_COPY_THRESHOLD) {
+            subjects = tripleStoreToCopy.subjects.copy();
+            predicates = tripleStoreToCopy.predicates.copy();
+            objects = tripleStoreToCopy.objects.copy();
+        } else {
+            final var futureSubjects = CompletableFuture.supplyAsync(tripleStoreToCopy.subjects::copy);
+            final var futureObjects = CompletableFuture.supplyAsync(tripleStoreToCopy.objects::copy);
+            predicates = tripleStoreToCopy.predicates.copy();
+            subjects = futureSubjects.join();
+            objects = futureObjects.join();
+        }
         size = tripleStoreToCopy.size;
     }
 
     @Override
     public void add(Triple triple) {
         final int hashCodeOfTriple = triple.hashCode();
-        final boolean added;
+        if (addToSubjects(triple, hashCodeOfTriple)) {
+            size++;
+            addToPredicates(triple, hashCodeOfTriple);
+            addToObjects(triple, hashCodeOfTriple);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * For {@value #PARALLEL_BULK_ADD_THRESHOLD} or more triples, the subject
+     * index is updated first, which also finds the triples that are new. The
+     * predicate and object indices are then updated for these triples
+     * concurrently; each index is only touched by one thread.
+     * <p>
+     * The index maps are not pre-sized: they are keyed by distinct nodes, and
+     * {@code triples.size()} is only an upper bound on their number. The maps
+     * never shrink, and growing them copies the arrays and rebuilds the probe
+     * table from the cached hash codes.
+     */
+    @Override
+    public void addAll(final Collection<Triple> triples) {
+        if (triples.size() < PARALLEL_BULK_ADD_THRESHOLD) {
+            triples.forEach(this::add);
+            return;
+        }
+        final var added = new ArrayList<Triple>(triples.size());
+        for (final var triple : triples) {
+            if (addToSubjects(triple, triple.hashCode())) {
+                added.add(triple);
+            }
+        }
+        size += added.size();
+        final var futureIndexObjects = CompletableFuture.runAsync(
+                () -> added.forEach(t -> addToObjects(t, t.hashCode())));
+        added.forEach(t -> addToPredicates(t, t.hashCode()));
+        futureIndexObjects.join();
+    }
+
+    /**
+     * Add the triple to the subject index.
+     *
+     * @return true if the triple was not in the store
+     */
+    private boolean addToSubjects(final Triple triple, final int hashCodeOfTriple) {
         var sBunch = subjects.get(triple.getSubject());
         if (sBunch == null) {
             sBunch = new ArrayBunchWithSameSubject();
             sBunch.addUnchecked(triple, hashCodeOfTriple);
             subjects.put(triple.getSubject(), sBunch);
-            added = true;
-        } else {
-            if (sBunch.isArray() && sBunch.size() == MAX_ARRAY_BUNCH_SIZE_SUBJECT) {
-                sBunch = new FastHashedTripleBunch(sBunch);
-                subjects.put(triple.getSubject(), sBunch);
-            }
-            added = sBunch.tryAdd(triple, hashCodeOfTriple);
+            return true;
         }
-        if (added) {
-            size++;
-            var pBunch = predicates.computeIfAbsent(triple.getPredicate(), ArrayBunchWithSamePredicate::new);
-            if (pBunch.isArray() && pBunch.size() == MAX_ARRAY_BUNCH_SIZE_PREDICATE_OBJECT) {
-                pBunch = new FastHashedTripleBunch(pBunch);
-                predicates.put(triple.getPredicate(), pBunch);
-            }
-            pBunch.addUnchecked(triple, hashCodeOfTriple);
-            var oBunch = objects.computeIfAbsent(triple.getObject(), ArrayBunchWithSameObject::new);
-            if (oBunch.isArray() && oBunch.size() == MAX_ARRAY_BUNCH_SIZE_PREDICATE_OBJECT) {
-                oBunch = new FastHashedTripleBunch(oBunch);
-                objects.put(triple.getObject(), oBunch);
-            }
-            oBunch.addUnchecked(triple, hashCodeOfTriple);
+        if (sBunch.isArray() && sBunch.size() == MAX_ARRAY_BUNCH_SIZE_SUBJECT) {
+            sBunch = new FastHashedTripleBunch(sBunch);
+            subjects.put(triple.getSubject(), sBunch);
         }
+        return sBunch.tryAdd(triple, hashCodeOfTriple);
+    }
+
+    private void addToPredicates(final Triple triple, final int hashCodeOfTriple) {
+        var pBunch = predicates.computeIfAbsent(triple.getPredicate(), ArrayBunchWithSamePredicate::new);
+        if (pBunch.isArray() && pBunch.size() == MAX_ARRAY_BUNCH_SIZE_PREDICATE_OBJECT) {
+            pBunch = new FastHashedTripleBunch(pBunch);
+            predicates.put(triple.getPredicate(), pBunch);
+        }
+        pBunch.addUnchecked(triple, hashCodeOfTriple);
+    }
+
+    private void addToObjects(final Triple triple, final int hashCodeOfTriple) {
+        var oBunch = objects.computeIfAbsent(triple.getObject(), ArrayBunchWithSameObject::new);
+        if (oBunch.isArray() && oBunch.size() == MAX_ARRAY_BUNCH_SIZE_PREDICATE_OBJECT) {
+            oBunch = new FastHashedTripleBunch(oBunch);
+            objects.put(triple.getObject(), oBunch);
+        }
+        oBunch.addUnchecked(triple, hashCodeOfTriple);
     }
 
     @Override
@@ -398,6 +466,49 @@ public class FastTripleStore implements TripleStore {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * One-node patterns are answered with the size of the bunch of the node;
+     * two-node patterns with the size of the smaller of the two bunches.
+     */
+    @Override
+    public long estimateCount(final Triple tripleMatch) {
+        return switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_PRE_OBJ -> contains(tripleMatch) ? 1 : 0;
+            case SUB_ANY_ANY -> bunchSize(subjects, tripleMatch.getSubject());
+            case ANY_PRE_ANY -> bunchSize(predicates, tripleMatch.getPredicate());
+            case ANY_ANY_OBJ -> bunchSize(objects, tripleMatch.getObject());
+            case SUB_PRE_ANY -> Math.min(bunchSize(subjects, tripleMatch.getSubject()),
+                    bunchSize(predicates, tripleMatch.getPredicate()));
+            case SUB_ANY_OBJ -> Math.min(bunchSize(subjects, tripleMatch.getSubject()),
+                    bunchSize(objects, tripleMatch.getObject()));
+            case ANY_PRE_OBJ -> Math.min(bunchSize(predicates, tripleMatch.getPredicate()),
+                    bunchSize(objects, tripleMatch.getObject()));
+            case ANY_ANY_ANY -> size;
+        };
+    }
+
+    private static int bunchSize(final FastHashedBunchMap map, final Node node) {
+        final var bunch = map.get(node);
+        return bunch == null ? 0 : bunch.size();
+    }
+
+    @Override
+    public long countDistinctSubjects() {
+        return subjects.size();
+    }
+
+    @Override
+    public long countDistinctPredicates() {
+        return predicates.size();
+    }
+
+    @Override
+    public long countDistinctObjects() {
+        return objects.size();
+    }
+
     @Override
     public FastTripleStore copy() {
         return new FastTripleStore(this);
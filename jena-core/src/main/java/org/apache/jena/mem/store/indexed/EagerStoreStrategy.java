@@ -23,6 +23,7 @@ package org.apache.jena.mem.store.indexed;
 
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.pattern.PatternClassifier;
 import org.apache.jena.mem.store.strategies.StoreStrategy;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.util.iterator.NullIterator;
@@ -54,6 +55,9 @@ import java.util.stream.StreamSupport;
  */
 public class EagerStoreStrategy implements StoreStrategy {
 
+    /** Minimum number of triples for the copy constructor to copy the indices concurrently. */
+    static final int PARALLEL_COPY_THRESHOLD = 10_000;
+
     final TripleSet triples;
     final NodesToIndices sNodeToIndices;
     final NodesToIndices pNodeToIndices;
@@ -104,7 +108,8 @@ public class EagerStoreStrategy implements StoreStrategy {
      * <p>
      * The {@code triples} parameter must be a copy of the original triple
      * set (the indices reference triple slots by index, so the two sets
-     * must have identical layouts).
+     * must have identical layouts). For large sets, the three index maps are
+     * copied concurrently.
      *
      * @param triples                   the (already-copied) triple set the
      *                                  new strategy will operate on
@@ -114,9 +119,17 @@ public class EagerStoreStrategy implements StoreStrategy {
     public EagerStoreStrategy(final TripleSet triples, EagerStoreStrategy strategyToCopyIndicesFrom) {
         this.triples = triples;
         this.triples.setOnKeysGrowHook(this::growReverseIndices);
-        this.sNodeToIndices = strategyToCopyIndicesFrom.sNodeToIndices.copy();
-        this.pNodeToIndices = strategyToCopyIndicesFrom.pNodeToIndices.copy();
-        this.oNodeToIndices = strategyToCopyIndicesFrom.oNodeToIndices.copy();
+        if (triples.size() < PARALLEL_COPY_THRESHOLD) {
+            this.sNodeToIndices = strategyToCopyIndicesFrom.sNodeToIndices.copy();
+            this.pNodeToIndices = strategyToCopyIndicesFrom.pNodeToIndices.copy();
+            this.oNodeToIndices = strategyToCopyIndicesFrom.oNodeToIndices.copy();
+        } else {
+            final var futureSubjects = CompletableFuture.supplyAsync(strategyToCopyIndicesFrom.sNodeToIndices::copy);
+            final var futureObjects = CompletableFuture.supplyAsync(strategyToCopyIndicesFrom.oNodeToIndices::copy);
+            this.pNodeToIndices = strategyToCopyIndicesFrom.pNodeToIndices.copy();
+            this.sNodeToIndices = futureSubjects.join();
+            this.oNodeToIndices = futureObjects.join();
+        }
         this.sReverseIndices = strategyToCopyIndicesFrom.sReverseIndices.clone();
         this.pReverseIndices = strategyToCopyIndicesFrom.pReverseIndices.clone();
         this.oReverseIndices = strategyToCopyIndicesFrom.oReverseIndices.clone();
@@ -225,6 +238,48 @@ public class EagerStoreStrategy implements StoreStrategy {
         removeIndexO(triple.getObject(), index);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * One-node patterns are answered exactly with the size of the index list
+     * of the node; two-node patterns with the size of the smaller list.
+     */
+    @Override
+    public long estimateCount(final Triple tripleMatch) {
+        final var s = tripleMatch.getSubject();
+        final var p = tripleMatch.getPredicate();
+        final var o = tripleMatch.getObject();
+        return switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_ANY_ANY -> listSize(sNodeToIndices, s);
+            case ANY_PRE_ANY -> listSize(pNodeToIndices, p);
+            case ANY_ANY_OBJ -> listSize(oNodeToIndices, o);
+            case SUB_PRE_ANY -> Math.min(listSize(sNodeToIndices, s), listSize(pNodeToIndices, p));
+            case SUB_ANY_OBJ -> Math.min(listSize(sNodeToIndices, s), listSize(oNodeToIndices, o));
+            case ANY_PRE_OBJ -> Math.min(listSize(pNodeToIndices, p), listSize(oNodeToIndices, o));
+            case SUB_PRE_OBJ, ANY_ANY_ANY -> -1;
+        };
+    }
+
+    private static int listSize(final NodesToIndices map, final Node node) {
+        final var indices = map.get(node);
+        return indices == null ? 0 : indices.size();
+    }
+
+    @Override
+    public long countDistinctSubjects() {
+        return sNodeToIndices.size();
+    }
+
+    @Override
+    public long countDistinctPredicates() {
+        return pNodeToIndices.size();
+    }
+
+    @Override
+    public long countDistinctObjects() {
+        return oNodeToIndices.size();
+    }
+
     @Override
     public void clearIndex() {
         sNodeToIndices.clear();
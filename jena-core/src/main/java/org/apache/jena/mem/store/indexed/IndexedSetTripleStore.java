@@ -30,6 +30,7 @@ import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.util.iterator.NiceIterator;
 import org.apache.jena.util.iterator.SingletonIterator;
 
+import java.util.Collection;
 import java.util.stream.Stream;
 
 /**
@@ -48,6 +49,12 @@ import java.util.stream.Stream;
  */
 public class IndexedSetTripleStore implements TripleStore {
 
+    /**
+     * Minimum number of triples for {@link #addAll} to rebuild the eager index
+     * in parallel.
+     */
+    protected static final int PARALLEL_BULK_ADD_THRESHOLD = 10_000;
+
     /** The flat set of stored triples. Each element has a stable integer index. */
     private final TripleSet triples;
     private StoreStrategy currentStrategy;
@@ -167,6 +174,31 @@ public class IndexedSetTripleStore implements TripleStore {
         currentStrategy.addToIndex(triple, index);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The triple set is sized once for all the triples. If the eager index is
+     * in use and at least {@value #PARALLEL_BULK_ADD_THRESHOLD} triples are
+     * added to a store that at least doubles in size, the triples are added
+     * unindexed and the index is then rebuilt with the subject, predicate and
+     * object indices built concurrently, as for
+     * {@link IndexingStrategy#LAZY_PARALLEL}.
+     */
+    @Override
+    public void addAll(final Collection<Triple> triplesToAdd) {
+        triples.ensureCapacity(triples.size() + triplesToAdd.size());
+        if (currentStrategy instanceof EagerStoreStrategy
+                && triplesToAdd.size() >= PARALLEL_BULK_ADD_THRESHOLD
+                && triplesToAdd.size() >= triples.size()) {
+            for (final var triple : triplesToAdd) {
+                triples.addAndGetIndex(triple);
+            }
+            currentStrategy = new EagerStoreStrategy(triples, true);
+            return;
+        }
+        triplesToAdd.forEach(this::add);
+    }
+
     @Override
     public void remove(final Triple triple) {
         final var index = triples.removeAndGetIndex(triple);
@@ -256,6 +288,37 @@ public class IndexedSetTripleStore implements TripleStore {
         };
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Partial patterns are answered by the current strategy; strategies
+     * without an index (e.g. a lazy strategy before the index is built)
+     * return -1.
+     */
+    @Override
+    public long estimateCount(final Triple tripleMatch) {
+        return switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_PRE_OBJ -> this.triples.containsKey(tripleMatch) ? 1 : 0;
+            case ANY_ANY_ANY -> this.triples.size();
+            default -> currentStrategy.estimateCount(tripleMatch);
+        };
+    }
+
+    @Override
+    public long countDistinctSubjects() {
+        return currentStrategy.countDistinctSubjects();
+    }
+
+    @Override
+    public long countDistinctPredicates() {
+        return currentStrategy.countDistinctPredicates();
+    }
+
+    @Override
+    public long countDistinctObjects() {
+        return currentStrategy.countDistinctObjects();
+    }
+
     @Override
     public IndexedSetTripleStore copy() {
         return new IndexedSetTripleStore(this);
@@ -0,0 +1,469 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.mapped;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.shared.WrappedIOException;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+import org.apache.jena.util.iterator.SingletonIterator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Immutable, memory-mapped image of a graph.
+ * <p>
+ * An image is a single file written by {@link #write(Graph, Path)}. It holds a
+ * dictionary of the encoded nodes, the triples as three columns of node ids, a
+ * hash table for the triples and, for each of subject, predicate and object, a
+ * compressed-row index from node id to the indices of the triples using it.
+ * Everything is laid out as flat little-endian arrays, so {@link #open(Path)}
+ * only maps the file and reads a fixed-size header; nothing is parsed or
+ * copied onto the heap.
+ * <p>
+ * The only heap data is a lazily filled cache of decoded {@link Node}s, so
+ * repeated access to the same node (typically predicates and classes) does not
+ * decode it again. Lookups of a node compare encoded bytes and do not decode.
+ * <p>
+ * Each section of the image is mapped separately with a {@link FileChannel},
+ * which limits every section to 2 GiB; an image of a graph exceeding that
+ * cannot be written. The mapping is released when the image becomes
+ * unreachable. An image is safe for concurrent reads.
+ */
+public final class GraphImage {
+
+    static final long MAGIC = 0x314D454D414E454AL; // "JENAMEM1"
+    static final int VERSION = 1;
+
+    /** Sections of the image, in file order. */
+    enum Section {
+        NODE_OFFSETS, NODE_DATA, NODE_TABLE,
+        SUBJECTS, PREDICATES, OBJECTS, TRIPLE_TABLE,
+        S_START, S_POSTINGS, P_START, P_POSTINGS, O_START, O_POSTINGS
+    }
+
+    static final int HEADER_FIXED_SIZE = Long.BYTES + 6 * Integer.BYTES;
+    static final int HEADER_SIZE = HEADER_FIXED_SIZE + Section.values().length * 2 * Long.BYTES;
+
+    /** Id used for a wildcard in the match methods. */
+    public static final int ANY = -1;
+
+    private final int nodeCount;
+    private final int tripleCount;
+    private final IntBuffer nodeOffsets;
+    private final ByteBuffer nodeData;
+    private final IntBuffer nodeTable;
+    private final IntBuffer subjects;
+    private final IntBuffer predicates;
+    private final IntBuffer objects;
+    private final IntBuffer tripleTable;
+    private final IntBuffer[] starts;
+    private final IntBuffer[] postings;
+    private final Node[] nodeCache;
+
+    private GraphImage(final ByteBuffer header, final ByteBuffer[] sections) {
+        header.position(Long.BYTES + Integer.BYTES);
+        this.nodeCount = header.getInt();
+        this.tripleCount = header.getInt();
+        this.nodeData = sections[Section.NODE_DATA.ordinal()];
+        this.nodeOffsets = ints(sections, Section.NODE_OFFSETS);
+        this.nodeTable = ints(sections, Section.NODE_TABLE);
+        this.subjects = ints(sections, Section.SUBJECTS);
+        this.predicates = ints(sections, Section.PREDICATES);
+        this.objects = ints(sections, Section.OBJECTS);
+        this.tripleTable = ints(sections, Section.TRIPLE_TABLE);
+        this.starts = new IntBuffer[] {
+                ints(sections, Section.S_START), ints(sections, Section.P_START), ints(sections, Section.O_START) };
+        this.postings = new IntBuffer[] {
+                ints(sections, Section.S_POSTINGS), ints(sections, Section.P_POSTINGS), ints(sections, Section.O_POSTINGS) };
+        this.nodeCache = new Node[nodeCount];
+    }
+
+    private static IntBuffer ints(final ByteBuffer[] sections, final Section section) {
+        return sections[section.ordinal()].asIntBuffer();
+    }
+
+    /**
+     * Write an image of the graph to a file, replacing any existing file.
+     *
+     * @param graph     the graph to write
+     * @param imageFile the image file
+     */
+    public static void write(final Graph graph, final Path imageFile) {
+        try {
+            GraphImageWriter.write(graph, imageFile);
+        } catch (IOException e) {
+            throw new WrappedIOException(e);
+        }
+    }
+
+    /**
+     * Map an image file written by {@link #write(Graph, Path)}.
+     *
+     * @param imageFile the image file
+     * @return the mapped image
+     */
+    public static GraphImage open(final Path imageFile) {
+        try (var channel = FileChannel.open(imageFile, StandardOpenOption.READ)) {
+            final var header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new IllegalStateException("Not a graph image (truncated header): " + imageFile);
+                }
+            }
+            header.flip();
+            if (header.getLong(0) != MAGIC) {
+                throw new IllegalStateException("Not a graph image: " + imageFile);
+            }
+            if (header.getInt(Long.BYTES) != VERSION) {
+                throw new IllegalStateException("Unsupported graph image version " + header.getInt(Long.BYTES) + ": " + imageFile);
+            }
+            final var sections = new ByteBuffer[Section.values().length];
+            var pos = HEADER_FIXED_SIZE;
+            for (int i = 0; i < sections.length; i++) {
+                final var offset = header.getLong(pos);
+                final var length = header.getLong(pos + Long.BYTES);
+                pos += 2 * Long.BYTES;
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new GraphImage(header, sections);
+        } catch (IOException e) {
+            throw new WrappedIOException(e);
+        }
+    }
+
+    static int hashCode(final int s, final int p, final int o) {
+        var hash = s * 0x9E3779B1 + p * 0x85EBCA6B + o * 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * @return the number of triples in the image
+     */
+    public int size() {
+        return tripleCount;
+    }
+
+    /**
+     * @return true if the image has no triples
+     */
+    public boolean isEmpty() {
+        return tripleCount == 0;
+    }
+
+    /**
+     * @return the number of distinct nodes in the image
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the id of a node, or {@code -1} if the node is not in the image.
+     *
+     * @param node a concrete node
+     * @return the id of the node or {@code -1}
+     */
+    public int lookup(final Node node) {
+        if (nodeCount == 0 || !node.isConcrete() && !node.isVariable()) {
+            return -1;
+        }
+        final byte[] bytes;
+        try {
+            bytes = NodeCodec.encode(node);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        final var mask = nodeTable.capacity() - 1;
+        var slot = NodeCodec.hash(bytes) & mask;
+        while (true) {
+            final var entry = nodeTable.get(slot);
+            if (entry == 0) {
+                return -1;
+            }
+            final var id = entry - 1;
+            if (hasEncoding(id, bytes)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean hasEncoding(final int id, final byte[] bytes) {
+        final var start = nodeOffsets.get(id);
+        if (nodeOffsets.get(id + 1) - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (nodeData.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the node with the given id.
+     *
+     * @param id a node id
+     * @return the node
+     */
+    public Node node(final int id) {
+        var node = nodeCache[id];
+        if (node == null) {
+            // Benign race: nodes are immutable and decoding is idempotent.
+            node = NodeCodec.decode(nodeData, nodeOffsets.get(id));
+            nodeCache[id] = node;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the triple with the given index.
+     *
+     * @param index a triple index, between {@code 0} and {@link #size()}
+     * @return the triple
+     */
+    public Triple triple(final int index) {
+        return Triple.create(node(subjects.get(index)), node(predicates.get(index)), node(objects.get(index)));
+    }
+
+    /**
+     * Returns true if the image contains the triple with the given node ids.
+     *
+     * @param s the subject id
+     * @param p the predicate id
+     * @param o the object id
+     * @return true if the triple is present
+     */
+    public boolean contains(final int s, final int p, final int o) {
+        if (tripleCount == 0) {
+            return false;
+        }
+        final var mask = tripleTable.capacity() - 1;
+        var slot = hashCode(s, p, o) & mask;
+        while (true) {
+            final var entry = tripleTable.get(slot);
+            if (entry == 0) {
+                return false;
+            }
+            final var index = entry - 1;
+            if (subjects.get(index) == s && predicates.get(index) == p && objects.get(index) == o) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean matches(final int index, final int s, final int p, final int o) {
+        return (s == ANY || subjects.get(index) == s)
+                && (p == ANY || predicates.get(index) == p)
+                && (o == ANY || objects.get(index) == o);
+    }
+
+    /**
+     * Selects the shortest postings list among the bound ids.
+     *
+     * @return {column, start, end}, or {@code null} if no id is bound
+     */
+    private int[] selectPostings(final int s, final int p, final int o) {
+        int[] best = null;
+        final int[] ids = {s, p, o};
+        for (int column = 0; column < 3; column++) {
+            final var id = ids[column];
+            if (id == ANY) {
+                continue;
+            }
+            final var start = starts[column].get(id);
+            final var end = starts[column].get(id + 1);
+            if (best == null || end - start < best[2] - best[1]) {
+                best = new int[] {column, start, end};
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Estimates the number of triples matching the ids, where {@link #ANY} is a
+     * wildcard, from the lengths of the postings lists. The count is exact
+     * unless two ids are bound, in which case the shorter list is an upper bound.
+     *
+     * @param s the subject id or {@link #ANY}
+     * @param p the predicate id or {@link #ANY}
+     * @param o the object id or {@link #ANY}
+     * @return the estimated number of matching triples
+     */
+    public long estimateCount(final int s, final int p, final int o) {
+        if (s != ANY && p != ANY && o != ANY) {
+            return contains(s, p, o) ? 1 : 0;
+        }
+        final var selected = selectPostings(s, p, o);
+        return selected == null ? tripleCount : selected[2] - selected[1];
+    }
+
+    /**
+     * Returns true if any triple matches the ids, where {@link #ANY} is a wildcard.
+     *
+     * @param s the subject id or {@link #ANY}
+     * @param p the predicate id or {@link #ANY}
+     * @param o the object id or {@link #ANY}
+     * @return true if a triple matches
+     */
+    public boolean anyMatch(final int s, final int p, final int o) {
+        if (s != ANY && p != ANY && o != ANY) {
+            return contains(s, p, o);
+        }
+        final var selected = selectPostings(s, p, o);
+        if (selected == null) {
+            return !isEmpty();
+        }
+        final var list = postings[selected[0]];
+        for (int i = selected[1]; i < selected[2]; i++) {
+            if (matches(list.get(i), s, p, o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stream the triples matching the ids, where {@link #ANY} is a wildcard.
+     * The stream supports {@link Stream#parallel()}.
+     *
+     * @param s the subject id or {@link #ANY}
+     * @param p the predicate id or {@link #ANY}
+     * @param o the object id or {@link #ANY}
+     * @return the matching triples
+     */
+    public Stream<Triple> stream(final int s, final int p, final int o) {
+        if (s != ANY && p != ANY && o != ANY) {
+            return contains(s, p, o) ? Stream.of(tripleOf(s, p, o)) : Stream.empty();
+        }
+        final var selected = selectPostings(s, p, o);
+        if (selected == null) {
+            return IntStream.range(0, tripleCount).mapToObj(this::triple);
+        }
+        final var list = postings[selected[0]];
+        return IntStream.range(selected[1], selected[2])
+                .map(list::get)
+                .filter(i -> matches(i, s, p, o))
+                .mapToObj(this::triple);
+    }
+
+    /**
+     * Iterate the triples matching the ids, where {@link #ANY} is a wildcard.
+     *
+     * @param s the subject id or {@link #ANY}
+     * @param p the predicate id or {@link #ANY}
+     * @param o the object id or {@link #ANY}
+     * @return the matching triples
+     */
+    public ExtendedIterator<Triple> find(final int s, final int p, final int o) {
+        if (s != ANY && p != ANY && o != ANY) {
+            return contains(s, p, o)
+                    ? new SingletonIterator<>(tripleOf(s, p, o))
+                    : NiceIterator.emptyIterator();
+        }
+        final var selected = selectPostings(s, p, o);
+        if (selected == null) {
+            return new PostingsIterator(null, 0, tripleCount, s, p, o);
+        }
+        return new PostingsIterator(postings[selected[0]], selected[1], selected[2], s, p, o);
+    }
+
+    private Triple tripleOf(final int s, final int p, final int o) {
+        return Triple.create(node(s), node(p), node(o));
+    }
+
+    /**
+     * Iterator over a range of a postings list, or of all triple indices if the
+     * list is {@code null}, filtered by the bound ids.
+     */
+    private class PostingsIterator extends NiceIterator<Triple> {
+        private final IntBuffer list;
+        private final int end;
+        private final int s;
+        private final int p;
+        private final int o;
+        private int pos;
+        private int next = -1;
+
+        PostingsIterator(final IntBuffer list, final int start, final int end, final int s, final int p, final int o) {
+            this.list = list;
+            this.pos = start;
+            this.end = end;
+            this.s = s;
+            this.p = p;
+            this.o = o;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next < 0 && pos < end) {
+                final var index = list == null ? pos : list.get(pos);
+                pos++;
+                if (matches(index, s, p, o)) {
+                    next = index;
+                }
+            }
+            return next >= 0;
+        }
+
+        @Override
+        public Triple next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final var triple = triple(next);
+            next = -1;
+            return triple;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Triple> action) {
+            if (next >= 0) {
+                action.accept(triple(next));
+                next = -1;
+            }
+            while (pos < end) {
+                final var index = list == null ? pos : list.get(pos);
+                pos++;
+                if (matches(index, s, p, o)) {
+                    action.accept(triple(index));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.mapped;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.collection.FastHashMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.jena.mem.store.mapped.GraphImage.Section;
+
+/**
+ * Writes the file format read by {@link GraphImage}.
+ * <p>
+ * The image is built in memory and written to a temporary file next to the
+ * target, which is then moved into place, so a reader never maps a partially
+ * written image.
+ */
+final class GraphImageWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private GraphImageWriter() {}
+
+    private static final class NodeIds extends FastHashMap<Node, Integer> {
+        @Override
+        protected Node[] newKeysArray(int size) {
+            return new Node[size];
+        }
+
+        @Override
+        protected Integer[] newValuesArray(int size) {
+            return new Integer[size];
+        }
+    }
+
+    static void write(final Graph graph, final Path imageFile) throws IOException {
+        final var ids = new NodeIds();
+        final List<byte[]> encodedNodes = new ArrayList<>();
+        var subjects = new int[1024];
+        var predicates = new int[1024];
+        var objects = new int[1024];
+        var tripleCount = 0;
+
+        final var it = graph.find();
+        try {
+            while (it.hasNext()) {
+                final Triple triple = it.next();
+                if (tripleCount == subjects.length) {
+                    final var newLength = checkedGrow(subjects.length);
+                    subjects = Arrays.copyOf(subjects, newLength);
+                    predicates = Arrays.copyOf(predicates, newLength);
+                    objects = Arrays.copyOf(objects, newLength);
+                }
+                subjects[tripleCount] = idOf(triple.getSubject(), ids, encodedNodes);
+                predicates[tripleCount] = idOf(triple.getPredicate(), ids, encodedNodes);
+                objects[tripleCount] = idOf(triple.getObject(), ids, encodedNodes);
+                tripleCount++;
+            }
+        } finally {
+            it.close();
+        }
+        final var nodeCount = encodedNodes.size();
+
+        // Node dictionary
+        final var nodeOffsets = new int[nodeCount + 1];
+        long dataLength = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            nodeOffsets[i] = (int) dataLength;
+            dataLength += encodedNodes.get(i).length;
+            if (dataLength > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Graph too large for an image: the encoded nodes exceed 2 GiB");
+            }
+        }
+        nodeOffsets[nodeCount] = (int) dataLength;
+        final var nodeTable = new int[tableSize(nodeCount)];
+        for (int id = 0; id < nodeCount; id++) {
+            final var mask = nodeTable.length - 1;
+            var slot = NodeCodec.hash(encodedNodes.get(id)) & mask;
+            while (nodeTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            nodeTable[slot] = id + 1;
+        }
+
+        // Triple hash table
+        final var tripleTable = new int[tableSize(tripleCount)];
+        for (int i = 0; i < tripleCount; i++) {
+            final var mask = tripleTable.length - 1;
+            var slot = GraphImage.hashCode(subjects[i], predicates[i], objects[i]) & mask;
+            while (tripleTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            tripleTable[slot] = i + 1;
+        }
+
+        final var sStart = new int[nodeCount + 1];
+        final var sPostings = postings(subjects, tripleCount, sStart);
+        final var pStart = new int[nodeCount + 1];
+        final var pPostings = postings(predicates, tripleCount, pStart);
+        final var oStart = new int[nodeCount + 1];
+        final var oPostings = postings(objects, tripleCount, oStart);
+
+        final var tmp = imageFile.resolveSibling(imageFile.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            final var sections = Section.values();
+            final var offsets = new long[sections.length];
+            final var lengths = new long[sections.length];
+            channel.position(GraphImage.HEADER_SIZE);
+            for (final var section : sections) {
+                final var i = section.ordinal();
+                offsets[i] = channel.position();
+                switch (section) {
+                    case NODE_OFFSETS -> writeInts(channel, nodeOffsets, nodeOffsets.length);
+                    case NODE_DATA -> {
+                        for (final var bytes : encodedNodes) {
+                            writeFully(channel, ByteBuffer.wrap(bytes));
+                        }
+                    }
+                    case NODE_TABLE -> writeInts(channel, nodeTable, nodeTable.length);
+                    case SUBJECTS -> writeInts(channel, subjects, tripleCount);
+                    case PREDICATES -> writeInts(channel, predicates, tripleCount);
+                    case OBJECTS -> writeInts(channel, objects, tripleCount);
+                    case TRIPLE_TABLE -> writeInts(channel, tripleTable, tripleTable.length);
+                    case S_START -> writeInts(channel, sStart, sStart.length);
+                    case S_POSTINGS -> writeInts(channel, sPostings, sPostings.length);
+                    case P_START -> writeInts(channel, pStart, pStart.length);
+                    case P_POSTINGS -> writeInts(channel, pPostings, pPostings.length);
+                    case O_START -> writeInts(channel, oStart, oStart.length);
+                    case O_POSTINGS -> writeInts(channel, oPostings, oPostings.length);
+                }
+                lengths[i] = channel.position() - offsets[i];
+                // Keep every section int-aligned.
+                final var padding = (int) (-channel.position() & (Integer.BYTES - 1));
+                if (padding > 0) {
+                    writeFully(channel, ByteBuffer.allocate(padding));
+                }
+            }
+            final var header = ByteBuffer.allocate(GraphImage.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(GraphImage.MAGIC);
+            header.putInt(GraphImage.VERSION);
+            header.putInt(nodeCount);
+            header.putInt(tripleCount);
+            header.putInt(0).putInt(0).putInt(0); // reserved
+            for (int i = 0; i < sections.length; i++) {
+                header.putLong(offsets[i]);
+                header.putLong(lengths[i]);
+            }
+            header.flip();
+            channel.position(0);
+            writeFully(channel, header);
+            channel.force(true);
+        }
+        Files.move(tmp, imageFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int idOf(final Node node, final NodeIds ids, final List<byte[]> encodedNodes) {
+        final var existing = ids.get(node);
+        if (existing != null) {
+            return existing;
+        }
+        final var id = encodedNodes.size();
+        encodedNodes.add(NodeCodec.encode(node));
+        ids.put(node, id);
+        return id;
+    }
+
+    private static int checkedGrow(final int length) {
+        final var newLength = length + (length >> 1);
+        if (newLength < 0 || (long) newLength * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Graph too large for an image: too many triples");
+        }
+        return newLength;
+    }
+
+    /** Open-addressing table size with a load factor of at most 0.5. */
+    private static int tableSize(final int count) {
+        var size = 2;
+        while (size < 2L * count) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * Compressed-row index of the column: fills {@code start} so that the
+     * triples with node id {@code n} are at {@code postings[start[n]..start[n+1])}.
+     */
+    private static int[] postings(final int[] column, final int tripleCount, final int[] start) {
+        for (int i = 0; i < tripleCount; i++) {
+            start[column[i] + 1]++;
+        }
+        for (int n = 1; n < start.length; n++) {
+            start[n] += start[n - 1];
+        }
+        final var postings = new int[tripleCount];
+        final var fill = Arrays.copyOf(start, start.length - 1);
+        for (int i = 0; i < tripleCount; i++) {
+            postings[fill[column[i]]++] = i;
+        }
+        return postings;
+    }
+
+    private static void writeInts(final FileChannel channel, final int[] ints, final int length) throws IOException {
+        final var buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        final var intBuffer = buffer.asIntBuffer();
+        var pos = 0;
+        while (pos < length) {
+            final var n = Math.min(intBuffer.capacity(), length - pos);
+            intBuffer.clear();
+            intBuffer.put(ints, pos, n);
+            buffer.clear().limit(n * Integer.BYTES);
+            writeFully(channel, buffer);
+            pos += n;
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
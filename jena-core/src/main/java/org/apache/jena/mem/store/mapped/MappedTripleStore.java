@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.mapped;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.store.TripleStore;
+import org.apache.jena.mem.store.compact.CompactTripleStore;
+import org.apache.jena.shared.AddDeniedException;
+import org.apache.jena.shared.DeleteDeniedException;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.apache.jena.util.iterator.NiceIterator;
+
+import java.util.stream.Stream;
+
+import static org.apache.jena.mem.store.mapped.GraphImage.ANY;
+
+/**
+ * {@link TripleStore} that serves a memory-mapped {@link GraphImage}.
+ * <p>
+ * The store is either read-only, in which case {@link #add} and
+ * {@link #remove} throw {@link AddDeniedException} and
+ * {@link DeleteDeniedException}, or copy-on-write: the first modification
+ * copies the triples of the image into a heap-based {@link CompactTripleStore},
+ * which serves all operations from then on. The image itself is never modified,
+ * so any number of stores can share it; {@link #copy()} is cheap as long as
+ * the store has not been modified.
+ */
+public class MappedTripleStore implements TripleStore {
+
+    private final GraphImage image;
+    private final boolean copyOnWrite;
+    /** The modified triples; {@code null} while the image is used. */
+    private TripleStore modified;
+
+    /**
+     * Creates a store over the given image.
+     *
+     * @param image       the mapped image
+     * @param copyOnWrite if {@code true}, modifications copy the image to the
+     *                    heap; otherwise the store is read-only
+     */
+    public MappedTripleStore(final GraphImage image, final boolean copyOnWrite) {
+        this(image, copyOnWrite, null);
+    }
+
+    private MappedTripleStore(final GraphImage image, final boolean copyOnWrite, final TripleStore modified) {
+        this.image = image;
+        this.copyOnWrite = copyOnWrite;
+        this.modified = modified;
+    }
+
+    /**
+     * @return the image this store was created from
+     */
+    public GraphImage getImage() {
+        return image;
+    }
+
+    /**
+     * @return true if the store copies the image on the first modification
+     */
+    public boolean isCopyOnWrite() {
+        return copyOnWrite;
+    }
+
+    /**
+     * @return true if the store has been modified and no longer uses the image
+     */
+    public boolean isModified() {
+        return modified != null;
+    }
+
+    private TripleStore modifiable(final Triple triple, final boolean add) {
+        if (modified == null) {
+            if (!copyOnWrite) {
+                throw add
+                        ? new AddDeniedException("Read-only graph image", triple)
+                        : new DeleteDeniedException("Read-only graph image", triple);
+            }
+            final var store = new CompactTripleStore();
+            image.find(ANY, ANY, ANY).forEachRemaining(store::add);
+            modified = store;
+        }
+        return modified;
+    }
+
+    @Override
+    public void add(final Triple triple) {
+        if (modified == null && contains(triple)) {
+            return;
+        }
+        modifiable(triple, true).add(triple);
+    }
+
+    @Override
+    public void remove(final Triple triple) {
+        if (modified == null && !contains(triple)) {
+            return;
+        }
+        modifiable(triple, false).remove(triple);
+    }
+
+    @Override
+    public void clear() {
+        if (modified == null && !copyOnWrite) {
+            throw new DeleteDeniedException("Read-only graph image");
+        }
+        modified = new CompactTripleStore();
+    }
+
+    @Override
+    public int countTriples() {
+        return modified == null ? image.size() : modified.countTriples();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return modified == null ? image.isEmpty() : modified.isEmpty();
+    }
+
+    private static final int ABSENT = -2;
+
+    /**
+     * The id of a concrete node, {@link GraphImage#ANY} for a wildcard, or
+     * {@code ABSENT} if the node is not in the image.
+     */
+    private int encode(final Node node) {
+        if (!node.isConcrete()) {
+            return ANY;
+        }
+        final var id = image.lookup(node);
+        return id < 0 ? ABSENT : id;
+    }
+
+    @Override
+    public boolean contains(final Triple tripleMatch) {
+        if (modified != null) {
+            return modified.contains(tripleMatch);
+        }
+        final var s = encode(tripleMatch.getSubject());
+        final var p = encode(tripleMatch.getPredicate());
+        final var o = encode(tripleMatch.getObject());
+        if (s == ABSENT || p == ABSENT || o == ABSENT) {
+            return false;
+        }
+        return image.anyMatch(s, p, o);
+    }
+
+    @Override
+    public Stream<Triple> stream() {
+        return modified == null ? image.stream(ANY, ANY, ANY) : modified.stream();
+    }
+
+    @Override
+    public Stream<Triple> stream(final Triple tripleMatch) {
+        if (modified != null) {
+            return modified.stream(tripleMatch);
+        }
+        final var s = encode(tripleMatch.getSubject());
+        final var p = encode(tripleMatch.getPredicate());
+        final var o = encode(tripleMatch.getObject());
+        if (s == ABSENT || p == ABSENT || o == ABSENT) {
+            return Stream.empty();
+        }
+        return image.stream(s, p, o);
+    }
+
+    @Override
+    public ExtendedIterator<Triple> find(final Triple tripleMatch) {
+        if (modified != null) {
+            return modified.find(tripleMatch);
+        }
+        final var s = encode(tripleMatch.getSubject());
+        final var p = encode(tripleMatch.getPredicate());
+        final var o = encode(tripleMatch.getObject());
+        if (s == ABSENT || p == ABSENT || o == ABSENT) {
+            return NiceIterator.emptyIterator();
+        }
+        return image.find(s, p, o);
+    }
+
+    @Override
+    public long estimateCount(final Triple tripleMatch) {
+        if (modified != null) {
+            return modified.estimateCount(tripleMatch);
+        }
+        final var s = encode(tripleMatch.getSubject());
+        final var p = encode(tripleMatch.getPredicate());
+        final var o = encode(tripleMatch.getObject());
+        if (s == ABSENT || p == ABSENT || o == ABSENT) {
+            return 0;
+        }
+        return image.estimateCount(s, p, o);
+    }
+
+    @Override
+    public long countDistinctSubjects() {
+        return modified == null ? -1 : modified.countDistinctSubjects();
+    }
+
+    @Override
+    public long countDistinctPredicates() {
+        return modified == null ? -1 : modified.countDistinctPredicates();
+    }
+
+    @Override
+    public long countDistinctObjects() {
+        return modified == null ? -1 : modified.countDistinctObjects();
+    }
+
+    @Override
+    public MappedTripleStore copy() {
+        return new MappedTripleStore(image, copyOnWrite, modified == null ? null : modified.copy());
+    }
+}
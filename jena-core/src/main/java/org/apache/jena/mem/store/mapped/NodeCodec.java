@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.mapped;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.TextDirection;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of {@link Node}s for a {@link GraphImage}.
+ * <p>
+ * Each node starts with a one byte tag, followed by its strings, each written
+ * as a little-endian {@code int} length and the UTF-8 bytes:
+ * <ul>
+ *   <li>{@code 'U'}: IRI</li>
+ *   <li>{@code 'B'}: blank node label</li>
+ *   <li>{@code 'L'}: lexical form, language tag, base direction, datatype IRI
+ *   (absent values are empty strings)</li>
+ *   <li>{@code 'V'}: variable name</li>
+ *   <li>{@code 'T'}: triple term, followed by the three encoded nodes</li>
+ * </ul>
+ * The encoding is canonical for term equality, so two nodes are
+ * {@link Node#equals equal} exactly when their encodings are equal. The image
+ * relies on this to look up nodes by comparing bytes instead of decoding.
+ */
+final class NodeCodec {
+
+    private static final byte URI = 'U';
+    private static final byte BLANK = 'B';
+    private static final byte LITERAL = 'L';
+    private static final byte VARIABLE = 'V';
+    private static final byte TRIPLE_TERM = 'T';
+
+    private NodeCodec() {}
+
+    /**
+     * Encode a concrete node.
+     *
+     * @param node the node to encode
+     * @return the encoded bytes
+     * @throws IllegalArgumentException if the node kind cannot be stored
+     */
+    static byte[] encode(final Node node) {
+        final var out = new ByteArrayOutputStream(32);
+        encode(node, out);
+        return out.toByteArray();
+    }
+
+    private static void encode(final Node node, final ByteArrayOutputStream out) {
+        if (node.isURI()) {
+            out.write(URI);
+            writeString(node.getURI(), out);
+        } else if (node.isBlank()) {
+            out.write(BLANK);
+            writeString(node.getBlankNodeLabel(), out);
+        } else if (node.isLiteral()) {
+            out.write(LITERAL);
+            writeString(node.getLiteralLexicalForm(), out);
+            writeString(node.getLiteralLanguage(), out);
+            final var direction = node.getLiteralBaseDirection();
+            writeString(direction == null ? "" : direction.direction(), out);
+            writeString(node.getLiteralDatatypeURI(), out);
+        } else if (node.isVariable()) {
+            out.write(VARIABLE);
+            writeString(node.getName(), out);
+        } else if (node.isTripleTerm()) {
+            out.write(TRIPLE_TERM);
+            final var triple = node.getTriple();
+            encode(triple.getSubject(), out);
+            encode(triple.getPredicate(), out);
+            encode(triple.getObject(), out);
+        } else {
+            throw new IllegalArgumentException("Node cannot be stored in a graph image: " + node);
+        }
+    }
+
+    private static void writeString(final String string, final ByteArrayOutputStream out) {
+        final var bytes = string == null ? new byte[0] : string.getBytes(StandardCharsets.UTF_8);
+        final var length = bytes.length;
+        out.write(length);
+        out.write(length >>> 8);
+        out.write(length >>> 16);
+        out.write(length >>> 24);
+        out.write(bytes, 0, length);
+    }
+
+    /**
+     * Decode the node starting at {@code offset}.
+     *
+     * @param buffer a little-endian buffer holding encoded nodes
+     * @param offset the absolute position of the node in the buffer
+     * @return the node
+     */
+    static Node decode(final ByteBuffer buffer, final int offset) {
+        return new Decoder(buffer, offset).node();
+    }
+
+    /**
+     * Hash code of an encoded node. Unlike {@link Node#hashCode()}, it only
+     * depends on the bytes and is therefore stable across JVMs.
+     *
+     * @param bytes the encoded node
+     * @return the hash code
+     */
+    static int hash(final byte[] bytes) {
+        var hash = 0x811C9DC5;
+        for (final byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private int pos;
+
+        Decoder(final ByteBuffer buffer, final int offset) {
+            this.buffer = buffer;
+            this.pos = offset;
+        }
+
+        private String string() {
+            final var length = buffer.getInt(pos);
+            pos += Integer.BYTES;
+            final var bytes = new byte[length];
+            buffer.get(pos, bytes);
+            pos += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Node node() {
+            final var tag = buffer.get(pos++);
+            return switch (tag) {
+                case URI -> NodeFactory.createURI(string());
+                case BLANK -> NodeFactory.createBlankNode(string());
+                case LITERAL -> {
+                    final var lex = string();
+                    final var lang = string();
+                    final var direction = string();
+                    final var datatypeURI = string();
+                    yield NodeFactory.createLiteral(lex, lang,
+                            direction.isEmpty() ? null : TextDirection.create(direction),
+                            TypeMapper.getInstance().getSafeTypeByName(datatypeURI));
+                }
+                case VARIABLE -> NodeFactory.createVariable(string());
+                case TRIPLE_TERM -> {
+                    final var s = node();
+                    final var p = node();
+                    final var o = node();
+                    yield NodeFactory.createTripleTerm(s, p, o);
+                }
+                default -> throw new IllegalStateException("Corrupt graph image: unknown node tag " + tag);
+            };
+        }
+    }
+}
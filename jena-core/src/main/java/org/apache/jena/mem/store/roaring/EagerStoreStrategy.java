@@ -23,6 +23,7 @@ package org.apache.jena.mem.store.roaring;
 
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.pattern.PatternClassifier;
 import org.apache.jena.mem.store.strategies.StoreStrategy;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.util.iterator.NiceIterator;
@@ -159,6 +160,47 @@ public class EagerStoreStrategy implements StoreStrategy {
 
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * One-node patterns are answered exactly with the cardinality of the bitmap
+     * of the node; two-node patterns with the cardinality of the smaller bitmap.
+     */
+    @Override
+    public long estimateCount(final Triple tripleMatch) {
+        final var s = tripleMatch.getSubject();
+        final var p = tripleMatch.getPredicate();
+        final var o = tripleMatch.getObject();
+        return switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_ANY_ANY -> cardinality(spoBitmaps[0], s);
+            case ANY_PRE_ANY -> cardinality(spoBitmaps[1], p);
+            case ANY_ANY_OBJ -> cardinality(spoBitmaps[2], o);
+            case SUB_PRE_ANY -> Math.min(cardinality(spoBitmaps[0], s), cardinality(spoBitmaps[1], p));
+            case SUB_ANY_OBJ -> Math.min(cardinality(spoBitmaps[0], s), cardinality(spoBitmaps[2], o));
+            case ANY_PRE_OBJ -> Math.min(cardinality(spoBitmaps[1], p), cardinality(spoBitmaps[2], o));
+            case SUB_PRE_OBJ, ANY_ANY_ANY -> -1;
+        };
+    }
+
+    private static long cardinality(final NodesToBitmapsMap map, final Node node) {
+        return map.getOrDefault(node, EMPTY_BITMAP).getLongCardinality();
+    }
+
+    @Override
+    public long countDistinctSubjects() {
+        return spoBitmaps[0].size();
+    }
+
+    @Override
+    public long countDistinctPredicates() {
+        return spoBitmaps[1].size();
+    }
+
+    @Override
+    public long countDistinctObjects() {
+        return spoBitmaps[2].size();
+    }
+
     @Override
     public void clearIndex() {
         for (var bitmapMap : spoBitmaps) {
@@ -271,6 +271,37 @@ public class RoaringTripleStore implements TripleStore {
         };
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Partial patterns are answered by the current strategy; strategies
+     * without an index (e.g. a lazy strategy before the index is built)
+     * return -1.
+     */
+    @Override
+    public long estimateCount(final Triple tripleMatch) {
+        return switch (PatternClassifier.classify(tripleMatch)) {
+            case SUB_PRE_OBJ -> this.triples.containsKey(tripleMatch) ? 1 : 0;
+            case ANY_ANY_ANY -> this.triples.size();
+            default -> currentStrategy.estimateCount(tripleMatch);
+        };
+    }
+
+    @Override
+    public long countDistinctSubjects() {
+        return currentStrategy.countDistinctSubjects();
+    }
+
+    @Override
+    public long countDistinctPredicates() {
+        return currentStrategy.countDistinctPredicates();
+    }
+
+    @Override
+    public long countDistinctObjects() {
+        return currentStrategy.countDistinctObjects();
+    }
+
     @Override
     public RoaringTripleStore copy() {
         return new RoaringTripleStore(this);
@@ -90,6 +90,39 @@ public interface StoreStrategy {
     ExtendedIterator<Triple> findSubAnyObj(final Node s, final Node o);
     ExtendedIterator<Triple> findAnyPreObj(final Node p, final Node o);
 
+    /**
+     * Number of triples matching a partial pattern, taken from the index
+     * alone. For the two-node patterns this may be an upper bound.
+     * Strategies without an index return -1.
+     *
+     * @param tripleMatch a partial pattern
+     * @return the (estimated) number of matches, or -1 if it is unknown
+     */
+    default long estimateCount(final Triple tripleMatch) {
+        return -1;
+    }
+
+    /**
+     * @return the number of distinct subjects in the index, or -1 if unknown
+     */
+    default long countDistinctSubjects() {
+        return -1;
+    }
+
+    /**
+     * @return the number of distinct predicates in the index, or -1 if unknown
+     */
+    default long countDistinctPredicates() {
+        return -1;
+    }
+
+    /**
+     * @return the number of distinct objects in the index, or -1 if unknown
+     */
+    default long countDistinctObjects() {
+        return -1;
+    }
+
     /**
      * Check if the index has been initialized and all triples are indexed.
      *
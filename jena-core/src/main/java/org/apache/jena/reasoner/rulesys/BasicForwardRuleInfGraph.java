@@ -31,6 +31,7 @@ import org.apache.jena.graph.Triple ;
 import org.apache.jena.reasoner.* ;
 import org.apache.jena.reasoner.rulesys.impl.FRuleEngineI ;
 import org.apache.jena.reasoner.rulesys.impl.FRuleEngineIFactory ;
+import org.apache.jena.reasoner.rulesys.impl.RETEEngine ;
 import org.apache.jena.reasoner.rulesys.impl.SafeGraph ;
 import org.apache.jena.util.OneToManyMap ;
 import org.apache.jena.util.iterator.ExtendedIterator ;
@@ -72,6 +73,12 @@ public class BasicForwardRuleInfGraph extends BaseInfGraph implements ForwardRul
     /** Flag which, if true, enables tracing of rule actions to logger.info */
     protected boolean traceOn = false;
 
+    /** Flag, if true then deletes are propagated incrementally by a RETE engine */
+    protected boolean incrementalDelete = false;
+
+    /** Number of threads used by a RETE engine to propagate changes */
+    protected int forwardParallelism = 1;
+
 //    private static Logger logger = LoggerFactory.getLogger(BasicForwardRuleInfGraph.class);
 
 //=======================================================================
@@ -189,6 +196,7 @@ public class BasicForwardRuleInfGraph extends BaseInfGraph implements ForwardRul
     public synchronized void prepare() {
         if (this.isPrepared()) return;
         this.setPreparedState(true);
+        configureEngine();
 
         // initilize the deductions graph
         fdeductions = new FGraph( createDeductionsGraph() );
@@ -501,6 +509,53 @@ public class BasicForwardRuleInfGraph extends BaseInfGraph implements ForwardRul
         traceOn = state;
     }
 
+    /**
+     * Set to true to propagate deletes incrementally, rather than recomputing the
+     * deductions, when the forward engine is a RETE engine. The support for each
+     * deduction is then tracked. Takes effect the next time the graph is prepared.
+     */
+    public void setIncrementalDelete(boolean incrementalDelete) {
+        this.incrementalDelete = incrementalDelete;
+    }
+
+    /**
+     * Set the number of threads used by a RETE forward engine to propagate changes.
+     * Takes effect the next time the graph is prepared.
+     */
+    public void setForwardParallelism(int forwardParallelism) {
+        this.forwardParallelism = forwardParallelism;
+    }
+
+    /**
+     * Pass the engine settings to the forward engine, before it is initialized.
+     */
+    protected void configureEngine() {
+        if (engine instanceof RETEEngine reteEngine) {
+            reteEngine.setIncrementalDelete(incrementalDelete);
+            reteEngine.setParallelism(forwardParallelism);
+        }
+    }
+
+    /**
+     * Return true if the forward engine is propagating deletes incrementally.
+     */
+    protected boolean isIncrementalDelete() {
+        return engine instanceof RETEEngine reteEngine && reteEngine.isIncrementalDelete();
+    }
+
+    /**
+     * Return true if the triple is already in the data or deductions, in which case it
+     * has already been passed to an incremental engine.
+     */
+    protected boolean isPresent(Triple t) {
+        ExtendedIterator<Triple> it = findDataMatches(t.getSubject(), t.getPredicate(), t.getObject());
+        try {
+            return it.hasNext();
+        } finally {
+            it.close();
+        }
+    }
+
     /**
      * Return true if tracing should be acted on - i.e. if traceOn is true
      * and we are past the bootstrap phase.
@@ -321,6 +321,17 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
         }
     }
 
+    /**
+     * Remove a deduction from the deductions graph, when a delete is being
+     * propagated incrementally. Returns false if the deduction was also in the
+     * subClass/subProperty caches, which are then out of date.
+     */
+    @Override
+    public boolean removeDeduction(Triple t) {
+        getCurrentDeductionsGraph().delete(t);
+        return !(useTGCCaching && transitiveEngine.delete(t));
+    }
+
     /**
      * Retrieve or create a bNode representing an inferred property value.
      * @param instance the base instance node to which the property applies
@@ -381,6 +392,7 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
         if (this.isPrepared()) return;
 
         this.setPreparedState(true);
+        configureEngine();
 
         // Restore the original pre-hookProcess rules
         rules = rawRules;
@@ -620,33 +632,42 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
     @Override
     public synchronized void performAdd(Triple t) {
         version++;
+        // Already passed to an incremental engine
+        boolean present = this.isPrepared() && isIncrementalDelete() && isPresent(t);
         fdata.getGraph().add(t);
         if (useTGCCaching) {
             if (transitiveEngine.add(t)) this.setPreparedState(false);
         }
         if (this.isPrepared()) {
-            boolean needReset = false;
-            if (preprocessorHooks != null && preprocessorHooks.size() > 0) {
-                if (preprocessorHooks.size() > 1) {
-                    for ( RulePreprocessHook preprocessorHook : preprocessorHooks )
+            if (needsRerun(t)) {
+                this.setPreparedState(false);
+            } else if (!present) {
+                engine.add(t);
+            }
+        }
+        bEngine.reset();
+    }
+
+    /**
+     * Return true if a preprocessing hook needs to be rerun because of a change to the triple.
+     */
+    private boolean needsRerun(Triple t) {
+        boolean needReset = false;
+        if (preprocessorHooks != null && preprocessorHooks.size() > 0) {
+            if (preprocessorHooks.size() > 1) {
+                for ( RulePreprocessHook preprocessorHook : preprocessorHooks )
+                {
+                    if ( preprocessorHook.needsRerun( this, t ) )
                     {
-                        if ( preprocessorHook.needsRerun( this, t ) )
-                        {
-                            needReset = true;
-                            break;
-                        }
+                        needReset = true;
+                        break;
                     }
-                } else {
-                    needReset = preprocessorHooks.get(0).needsRerun(this, t);
                 }
-            }
-            if (needReset) {
-                this.setPreparedState(false);
             } else {
-                engine.add(t);
+                needReset = preprocessorHooks.get(0).needsRerun(this, t);
             }
         }
-        bEngine.reset();
+        return needReset;
     }
 
     /**
@@ -666,14 +687,14 @@ public class FBRuleInfGraph  extends BasicForwardRuleInfGraph implements Backwar
             }
         }
         // Full incremental remove processing requires reference counting
-        // of all deductions. It's not clear the cost of maintaining the
-        // reference counts is worth it so the current implementation
-        // forces a recompute if any external deletes are performed.
+        // of all deductions. This is only done if incremental deletes have been
+        // enabled, otherwise the deductions are recomputed if any external
+        // deletes are performed.
         if (this.isPrepared()) {
-            bEngine.deleteAllRules();
-            this.setPreparedState(false);
-            // Re-enable the code below when/if ref counting is added and remove above
-            // if (removeIsFromBase) engine.delete(t);
+            if (!isIncrementalDelete() || needsRerun(t) || !engine.delete(t)) {
+                bEngine.deleteAllRules();
+                this.setPreparedState(false);
+            }
         }
         bEngine.reset();
     }
@@ -52,6 +52,12 @@ public class FBRuleReasoner implements RuleReasoner {
     boolean traceOn = false;
 //    boolean traceOn = true;
 
+    /** Flag, if true then deletes are propagated incrementally by the forward engine */
+    protected boolean incrementalDelete = false;
+
+    /** Number of threads used by the forward engine to propagate changes */
+    protected int forwardParallelism = 1;
+
     /** Flag, if true we cache the closure of the pure rule set with its axioms */
     protected static final boolean cachePreload = true;
 
@@ -198,10 +204,13 @@ public class FBRuleReasoner implements RuleReasoner {
             throw new ReasonerException("Can only bind one schema at a time to an OWLRuleReasoner");
         }
         FBRuleInfGraph graph = new FBRuleInfGraph(this, rules, getPreload(), tbox);
+        configure(graph);
         graph.prepare();
         FBRuleReasoner fbr  = new FBRuleReasoner(rules, graph, factory);
         fbr.setDerivationLogging(recordDerivations);
         fbr.setTraceOn(traceOn);
+        fbr.setIncrementalDelete(incrementalDelete);
+        fbr.setForwardParallelism(forwardParallelism);
         return fbr;
     }
 
@@ -231,10 +240,19 @@ public class FBRuleReasoner implements RuleReasoner {
         FBRuleInfGraph graph = new FBRuleInfGraph( this, rules, schemaArg );
         graph.setDerivationLogging( recordDerivations );
         graph.setTraceOn( traceOn );
+        configure(graph);
         graph.rebind( data );
         return graph;
     }
 
+    /**
+     * Pass the forward engine settings to an inference graph.
+     */
+    protected void configure(BasicForwardRuleInfGraph graph) {
+        graph.setIncrementalDelete(incrementalDelete);
+        graph.setForwardParallelism(forwardParallelism);
+    }
+
     /**
      * Set (or change) the rule set that this reasoner should execute.
      * @param rules a list of Rule objects
@@ -292,6 +310,7 @@ public class FBRuleReasoner implements RuleReasoner {
     protected synchronized InfGraph getPreload() {
         if (cachePreload && preload == null) {
             preload = (new FBRuleInfGraph(this, rules, null));
+            configure((FBRuleInfGraph)preload);
             preload.prepare();
         }
         return preload;
@@ -326,12 +345,39 @@ public class FBRuleReasoner implements RuleReasoner {
         return traceOn;
     }
 
+    /**
+     * Switch on/off incremental processing of deletes. If set to true then the
+     * forward RETE engine tracks the support for each deduction, so that deleting
+     * a triple only removes the deductions which depend on it, instead of all the
+     * deductions being recomputed. Only applies to monotonic rule sets.
+     * <p>
+     * Default - false.
+     */
+    public synchronized void setIncrementalDelete(boolean incrementalDelete) {
+        if (this.incrementalDelete != incrementalDelete) {
+            this.incrementalDelete = incrementalDelete;
+            preload = null;
+        }
+    }
+
+    /**
+     * Set the number of threads used by the forward RETE engine to propagate changes
+     * through the networks of the rules of a monotonic rule set.
+     * <p>
+     * Default - 1.
+     */
+    public void setForwardParallelism(int forwardParallelism) {
+        this.forwardParallelism = forwardParallelism;
+    }
+
     /**
      * Set a configuration parameter for the reasoner. The supported parameters
      * are:
      * <ul>
      * <li>PROPderivationLogging - set to true to enable recording all rule derivations</li>
      * <li>PROPtraceOn - set to true to enable verbose trace information to be sent to the logger INFO channel</li>
+     * <li>PROPincrementalDelete - set to true to propagate deletes incrementally</li>
+     * <li>PROPforwardParallelism - the number of threads used to propagate changes through the forward rules</li>
      * </ul>
      *
      * @param parameter the property identifying the parameter to be changed
@@ -386,6 +432,8 @@ public class FBRuleReasoner implements RuleReasoner {
      * <ul>
      * <li>PROPderivationLogging - set to true to enable recording all rule derivations</li>
      * <li>PROPtraceOn - set to true to enable verbose trace information to be sent to the logger INFO channel</li>
+     * <li>PROPincrementalDelete - set to true to propagate deletes incrementally</li>
+     * <li>PROPforwardParallelism - the number of threads used to propagate changes through the forward rules</li>
      * </ul>
      * @param parameter the property identifying the parameter to be changed
      * @param value the new value for the parameter, typically this is a wrapped
@@ -399,6 +447,12 @@ public class FBRuleReasoner implements RuleReasoner {
         } else if (parameter.equals(ReasonerVocabulary.PROPtraceOn)) {
             traceOn =  Util.convertBooleanPredicateArg(parameter, value);
             return true;
+        } else if (parameter.equals(ReasonerVocabulary.PROPincrementalDelete)) {
+            setIncrementalDelete(Util.convertBooleanPredicateArg(parameter, value));
+            return true;
+        } else if (parameter.equals(ReasonerVocabulary.PROPforwardParallelism)) {
+            setForwardParallelism(Util.convertIntegerPredicateArg(parameter, value));
+            return true;
         } else {
             return false;
         }
@@ -67,6 +67,17 @@ public interface ForwardRuleInfGraphI extends InfGraph, SilentAddI {
      */
     public void addDeduction(Triple t);
     
+    /**
+     * Remove a deduction from the deductions graph, when a delete is being
+     * propagated incrementally.
+     * @return false if the removal cannot be handled incrementally, in which case the
+     * inference graph should be prepared again.
+     */
+    public default boolean removeDeduction(Triple t) {
+        getCurrentDeductionsGraph().delete(t);
+        return true;
+    }
+    
     /**
      * Search the combination of data and deductions graphs for the given triple pattern.
      * This may different from the normal find operation in the base of hybrid reasoners
@@ -339,6 +339,7 @@ public class GenericRuleReasoner extends FBRuleReasoner {
             ((InfGraph)graph).prepare();
         } else if (mode == FORWARD_RETE) {
                 graph = new RETERuleInfGraph(this, rules, null, tbox);
+                configure((RETERuleInfGraph)graph);
                 ((InfGraph)graph).prepare();
         } else if (mode == BACKWARD) {
             graph = tbox;
@@ -346,11 +347,14 @@ public class GenericRuleReasoner extends FBRuleReasoner {
             List<Rule> ruleSet = rules;
             graph = new FBRuleInfGraph(this, ruleSet, getPreload(), tbox);
             if (enableTGCCaching) ((FBRuleInfGraph)graph).setUseTGCCache();
+            configure((FBRuleInfGraph)graph);
             ((FBRuleInfGraph)graph).prepare();
         }
         GenericRuleReasoner grr = new GenericRuleReasoner(rules, graph, factory, mode);
         grr.setDerivationLogging(recordDerivations);
         grr.setTraceOn(traceOn);
+        grr.setIncrementalDelete(incrementalDelete);
+        grr.setForwardParallelism(forwardParallelism);
         grr.setTransitiveClosureCaching(enableTGCCaching);
         grr.setFunctorFiltering(filterFunctors);
         if (preprocessorHooks != null) {
@@ -383,6 +387,7 @@ public class GenericRuleReasoner extends FBRuleReasoner {
         } else if (mode == FORWARD_RETE) {
                 graph = new RETERuleInfGraph(this, rules, schemaArg);
                 ((BasicForwardRuleInfGraph)graph).setTraceOn(traceOn);
+                configure((BasicForwardRuleInfGraph)graph);
                 ((BasicForwardRuleInfGraph)graph).setFunctorFiltering(filterFunctors);
         } else if (mode == BACKWARD) {
             graph = new LPBackwardRuleInfGraph(this, getBruleStore(), data, schemaArg);
@@ -393,6 +398,7 @@ public class GenericRuleReasoner extends FBRuleReasoner {
             graph = fbgraph; 
             if (enableTGCCaching) fbgraph.setUseTGCCache();
             fbgraph.setTraceOn(traceOn);
+            configure(fbgraph);
             fbgraph.setFunctorFiltering(filterFunctors);
             if (preprocessorHooks!= null) {
                 for ( RulePreprocessHook preprocessorHook : preprocessorHooks )
@@ -415,6 +421,7 @@ public class GenericRuleReasoner extends FBRuleReasoner {
         if (cachePreload && preload == null && mode == HYBRID) {
             preload = new FBRuleInfGraph( this, rules, null, GraphMemFactory.createDefaultGraph() );
             if (enableTGCCaching) ((FBRuleInfGraph)preload).setUseTGCCache();
+            configure((FBRuleInfGraph)preload);
             preload.prepare();
         }
         return preload;
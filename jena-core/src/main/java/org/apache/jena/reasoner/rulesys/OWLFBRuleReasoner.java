@@ -108,6 +108,7 @@ public class OWLFBRuleReasoner extends FBRuleReasoner {
         graph.addPreprocessingHook(new OWLRuleTranslationHook());
         graph.setDerivationLogging(recordDerivations);
         graph.setTraceOn(traceOn);
+        configure(graph);
         graph.rebind(data);
         graph.setDatatypeRangeValidation(true);
                 
@@ -162,6 +162,7 @@ public class RDFSRuleReasoner extends GenericRuleReasoner {
             }
         }
         graph.setDerivationLogging(recordDerivations);
+        configure(fbgraph);
         graph.rebind(data);
         return graph;
     }
@@ -91,8 +91,11 @@ public class RETERuleInfGraph extends BasicForwardRuleInfGraph {
     @Override
     public synchronized void performAdd(Triple t) {
         this.requirePrepared();
+        boolean present = isIncrementalDelete() && isPresent(t);
         fdata.getGraph().add(t);
-        engine.add(t);
+        if (!present) {
+            engine.add(t);
+        }
     }
     
     /** 
@@ -107,8 +110,15 @@ public class RETERuleInfGraph extends BasicForwardRuleInfGraph {
                 data.delete(t);
             }
         }
-        engine.delete(t);
-        fdeductions.getGraph().delete(t);
+        if (isIncrementalDelete()) {
+            // Deductions which are still supported are kept
+            if (!engine.delete(t)) {
+                rebind();
+            }
+        } else {
+            engine.delete(t);
+            fdeductions.getGraph().delete(t);
+        }
     }
 
 }
@@ -161,12 +161,15 @@ public class RETEConflictSet {
                     // E.g. RDFS rules can create assertions about literals
                     // that we can't record in RDF
                     if (isAdd) {
+                        engine.addSupport(t);
                         if ( ! context.contains(t) ) {
                             engine.addTriple(t, true);
                             if (infGraph.shouldLogDerivations()) {
                                 infGraph.logDerivation(t, new RuleDerivation(rule, t, matchList, infGraph));
                             }
                         }
+                    } else if (engine.isIncrementalDelete()) {
+                        engine.retractDeduction(t);
                     } else {
                         if ( context.contains(t)) {
                             // Remove the generated triple
@@ -185,10 +188,15 @@ public class RETEConflictSet {
             } else if (hClause instanceof Rule) {
                 Rule r = (Rule)hClause;
                 if (r.isBackward()) {
+                    Rule brule = r.instantiate(env);
                     if (isAdd) {
-                        infGraph.addBRule(r.instantiate(env));
+                        if (engine.addSupport(brule)) {
+                            infGraph.addBRule(brule);
+                        }
                     } else {
-                        infGraph.deleteBRule(r.instantiate(env));
+                        if (engine.removeSupport(brule)) {
+                            infGraph.deleteBRule(brule);
+                        }
                     }
                 } else {
                     throw new ReasonerException("Found non-backward subrule : " + r); 
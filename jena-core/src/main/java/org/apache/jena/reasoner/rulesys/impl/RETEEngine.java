@@ -22,12 +22,15 @@
 package org.apache.jena.reasoner.rulesys.impl;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.apache.jena.graph.* ;
 import org.apache.jena.reasoner.* ;
 import org.apache.jena.reasoner.rulesys.* ;
 import org.apache.jena.util.OneToManyMap ;
 import org.apache.jena.util.PrintUtil ;
+import org.apache.jena.util.iterator.ClosableIterator ;
 import org.apache.jena.util.iterator.WrappedIterator ;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,6 +83,42 @@ public class RETEEngine implements FRuleEngineI {
     /** True if all the rules are monotonic, so we short circuit the conflict set processing */
     boolean isMonotonic = true;
     
+    /** True if the rules have no non-monotonic body or head clauses, so deletes can be propagated incrementally */
+    boolean isIncrementalSafe = true;
+    
+    /** True if incremental deletes have been requested */
+    protected boolean incrementalDelete = false;
+    
+    /**
+     * The number of rule firings supporting each deduced triple or backward rule, null
+     * if these are not being tracked
+     */
+    protected Map<Object, Integer> supports;
+    
+    /** Deductions removed while propagating a delete, which may be derived again, null if not deleting */
+    protected Set<Triple> overDeleted;
+    
+    /** Set if a deduction could not be removed incrementally during the current delete */
+    protected boolean deleteFailed = false;
+    
+    /** Number of threads used to propagate tokens through the network */
+    protected int parallelism = 1;
+    
+    /** Thread pool for parallel propagation, for the duration of {@link #runAll()} */
+    protected ForkJoinPool pool;
+    
+    /** The clause filters of each rule, indexed by predicate, created on demand for parallel propagation */
+    protected List<OneToManyMap<Node, RETENode>> subnetworks;
+    
+    /** Rule firings deferred by the current parallel propagation task, unset when propagating sequentially */
+    protected final ThreadLocal<List<DeferredFiring>> deferredFirings = new ThreadLocal<>();
+    
+    /** Number of pending triples propagated in parallel in one round */
+    protected static final int PARALLEL_BATCH_SIZE = 4096;
+    
+    /** Minimum number of pending triples for which parallel propagation is used */
+    protected static final int PARALLEL_THRESHOLD = 64;
+    
     protected static Logger logger = LoggerFactory.getLogger(FRuleEngine.class);
     
 //  =======================================================================
@@ -104,6 +143,17 @@ public class RETEEngine implements FRuleEngineI {
                 break;
             }
         }
+        isIncrementalSafe = isMonotonic;
+        for ( Rule r : rules )
+        {
+            for ( int i = 0; i < r.bodyLength(); i++ )
+            {
+                if ( r.getBodyElement( i ) instanceof Functor f && f.getImplementor() != null && !f.getImplementor().isMonotonic() )
+                {
+                    isIncrementalSafe = false;
+                }
+            }
+        }
     }
 
     /**
@@ -172,20 +222,82 @@ public class RETEEngine implements FRuleEngineI {
      */
     @Override
     public synchronized void add(Triple t) {
+        if (supports != null && supports.containsKey(t)) {
+            // Already deduced, so already in the network
+            return;
+        }
         addTriple(t, false);
         runAll();
     }
     
     /**
      * Remove one triple to the data graph.
+     * <p>
+     * If incremental deletes are enabled (see {@link #setIncrementalDelete(boolean)}),
+     * deductions which are no longer supported are removed in the manner of DRed:
+     * everything derived from the triple is removed and then the deductions which
+     * still have some support are derived again.
      * @return true if the effects could be correctly propagated or
      * false if not (in which case the entire engine should be restarted).
      */
     @Override
     public synchronized boolean delete(Triple t) {
-        deleteTriple(t, false);
+        if (supports == null) {
+            deleteTriple(t, false);
+            runAll();
+            return true;
+        }
+        if (isVisible(t)) {
+            // Still present as a deduction or in some other part of the data
+            return true;
+        }
+        deleteFailed = false;
+        overDeleted = new LinkedHashSet<>();
+        Set<Triple> removed = overDeleted;
+        // The triple may itself be deduced, from triples which depend on it
+        removed.add(t);
+        try {
+            deleteTriple(t, false);
+            runAll();
+        } finally {
+            overDeleted = null;
+        }
+        // Derive again the deductions that have other support
+        for (Triple d : removed) {
+            if (supports.containsKey(d) && !isVisible(d)) {
+                addTriple(d, true);
+            }
+        }
         runAll();
-        return true;
+        return !deleteFailed;
+    }
+    
+    /**
+     * Track the support for each deduction so that deletes can be propagated
+     * incrementally, rather than the engine being restarted. This must be set before the
+     * engine is initialized. It has no effect if the rules include non-monotonic clauses
+     * such as noValue or remove.
+     */
+    public void setIncrementalDelete(boolean incrementalDelete) {
+        this.incrementalDelete = incrementalDelete;
+    }
+    
+    /**
+     * Return true if deletes are propagated incrementally.
+     */
+    public boolean isIncrementalDelete() {
+        return supports != null;
+    }
+    
+    /**
+     * Set the number of threads used to propagate tokens through the network.
+     * The rules of a monotonic rule set have independent networks: large batches of
+     * pending triples are propagated through each rule's network in parallel and the
+     * resulting rule firings are then executed in order. The default, 1, propagates
+     * triples one at a time.
+     */
+    public synchronized void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
     }
     
     /**
@@ -221,7 +333,7 @@ public class RETEEngine implements FRuleEngineI {
      */
     @Override
     public Object getRuleStore() {
-        return new RuleStore(clauseIndex, predicatePatterns, wildcardRule, isMonotonic);
+        return new RuleStore(clauseIndex, predicatePatterns, wildcardRule, isMonotonic, isIncrementalSafe, supports);
     }
     
     /**
@@ -233,6 +345,10 @@ public class RETEEngine implements FRuleEngineI {
         predicatePatterns = rs.predicatePatterns;
         wildcardRule = rs.wildcardRule;
         isMonotonic = rs.isMonotonic;
+        isIncrementalSafe = rs.isIncrementalSafe;
+        // The network has been built by the engine for the preloaded data, so the support must be too
+        supports = (incrementalDelete && rs.supports != null) ? new HashMap<>(rs.supports) : null;
+        subnetworks = null;
         
         // Clone the RETE network to this engine
         RETERuleContext context = new RETERuleContext(infGraph, this);
@@ -251,6 +367,18 @@ public class RETEEngine implements FRuleEngineI {
         conflictSet.add(rule, env, isAdd);
     }
     
+    /**
+     * Defer a token reaching a terminal node, if it is being propagated in parallel.
+     * The terminal is then fired again once the propagation has finished.
+     * @return true if the firing has been deferred
+     */
+    protected boolean deferFiring(RETETerminal terminal, BindingVector env, boolean isAdd) {
+        List<DeferredFiring> deferred = deferredFirings.get();
+        if (deferred == null) return false;
+        deferred.add(new DeferredFiring(terminal, env, isAdd));
+        return true;
+    }
+    
 //  =======================================================================
 //  Compiler support  
 
@@ -263,6 +391,8 @@ public class RETEEngine implements FRuleEngineI {
         clauseIndex = new OneToManyMap<>();
         predicatePatterns = new OneToManyMap<>();
         wildcardRule = false;
+        supports = (incrementalDelete && isIncrementalSafe) ? new HashMap<>() : null;
+        subnetworks = null;
 
         for ( Rule rule : rules )
         {
@@ -423,6 +553,69 @@ public class RETEEngine implements FRuleEngineI {
         }
     }
     
+    /**
+     * Record a rule firing which supports a deduced triple or backward rule.
+     * @return true if this is the first support, or support is not being tracked
+     */
+    protected synchronized boolean addSupport(Object deduction) {
+        if (supports == null) return true;
+        return supports.merge(deduction, 1, Integer::sum) == 1;
+    }
+    
+    /**
+     * Remove a rule firing which supported a deduced triple or backward rule.
+     * @return true if this was the last support, or support is not being tracked
+     */
+    protected synchronized boolean removeSupport(Object deduction) {
+        if (supports == null) return true;
+        Integer n = supports.get(deduction);
+        if (n == null || n <= 1) {
+            supports.remove(deduction);
+            return true;
+        }
+        supports.put(deduction, n - 1);
+        return false;
+    }
+    
+    /**
+     * Remove a deduced triple whose support has been reduced by a delete. The
+     * triple is removed even if it has other support, since that may itself depend on
+     * the triple; it is derived again at the end of the delete if it is still supported.
+     */
+    protected synchronized void retractDeduction(Triple triple) {
+        removeSupport(triple);
+        Graph deductions = infGraph.getCurrentDeductionsGraph();
+        if (!deductions.contains(triple)) return;
+        if (!infGraph.removeDeduction(triple)) {
+            deleteFailed = true;
+        }
+        if (isVisible(triple)) {
+            // Also in the data, the network is unchanged
+            return;
+        }
+        if (infGraph.shouldTrace()) {
+            logger.debug("Retract triple: " + PrintUtil.print(triple));
+        }
+        addsPending.remove(triple);
+        addsHash.remove(triple);
+        deletesPending.add(triple);
+        if (overDeleted != null) {
+            overDeleted.add(triple);
+        }
+    }
+    
+    /**
+     * Return true if the triple is in the data or deductions.
+     */
+    private boolean isVisible(Triple t) {
+        ClosableIterator<Triple> it = infGraph.findDataMatches(t.getSubject(), t.getPredicate(), t.getObject());
+        try {
+            return it.hasNext();
+        } finally {
+            it.close();
+        }
+    }
+    
     /**
      * Increment the rule firing count, called by the terminal nodes in the
      * network.
@@ -462,6 +655,10 @@ public class RETEEngine implements FRuleEngineI {
      * Public to simplify unit tests - not normally called directly.
      */
     public void runAll() {
+        if (parallelism > 1 && isMonotonic) {
+            runAllParallel();
+            return;
+        }
         while(true) {
             boolean isAdd = false;
             Triple next = nextDeleteTriple();
@@ -479,6 +676,123 @@ public class RETEEngine implements FRuleEngineI {
         }
     }
     
+    /**
+     * Process the queue of pending insert/deletes until the queues are empty,
+     * propagating batches of triples through the network of each rule in parallel.
+     * Only used for monotonic rule sets, where rule firings are not ordered by
+     * a conflict set.
+     */
+    private void runAllParallel() {
+        // The pool is shut down when the pending triples have been processed, so that
+        // an engine that is no longer used does not keep its threads.
+        ForkJoinPool created = null;
+        synchronized (this) {
+            if (pool == null) {
+                pool = created = new ForkJoinPool(parallelism);
+            }
+        }
+        try {
+            processPendingParallel();
+        } finally {
+            if (created != null) {
+                synchronized (this) {
+                    pool = null;
+                }
+                created.shutdown();
+            }
+        }
+    }
+
+    private void processPendingParallel() {
+        while (true) {
+            List<Triple> batch;
+            boolean isAdd;
+            synchronized (this) {
+                isAdd = deletesPending.isEmpty();
+                List<Triple> pending = isAdd ? addsPending : deletesPending;
+                if (pending.isEmpty()) return;
+                if (pending.size() < PARALLEL_THRESHOLD) {
+                    batch = null;
+                } else {
+                    List<Triple> tail = pending.subList(Math.max(0, pending.size() - PARALLEL_BATCH_SIZE), pending.size());
+                    batch = new ArrayList<>(tail);
+                    tail.clear();
+                    if (isAdd) {
+                        addsHash.removeAll(batch);
+                    }
+                }
+            }
+            if (batch == null) {
+                // Too few for parallel processing to be worthwhile
+                Triple next = isAdd ? nextAddTriple() : nextDeleteTriple();
+                inject(next, isAdd);
+            } else {
+                injectParallel(batch, isAdd);
+            }
+        }
+    }
+    
+    /**
+     * Inject a batch of triples into the network, propagating them through the network of
+     * each rule in a separate task. The rule firings are collected and executed once
+     * all the tasks have finished.
+     */
+    private void injectParallel(List<Triple> batch, boolean isAdd) {
+        if (infGraph.shouldTrace()) {
+            logger.debug((isAdd ? "Inserting " : "Deleting ") + batch.size() + " triples");
+        }
+        List<OneToManyMap<Node, RETENode>> networks = getSubnetworks();
+        List<ForkJoinTask<List<DeferredFiring>>> tasks = new ArrayList<>(networks.size());
+        ForkJoinPool threads;
+        synchronized (this) {
+            threads = pool;
+        }
+        for (OneToManyMap<Node, RETENode> network : networks) {
+            tasks.add(threads.submit(() -> {
+                List<DeferredFiring> deferred = new ArrayList<>();
+                deferredFirings.set(deferred);
+                try {
+                    for (Triple t : batch) {
+                        Iterator<RETENode> i1 = network.getAll(t.getPredicate());
+                        Iterator<RETENode> i2 = network.getAll(Node.ANY);
+                        Iterator<RETENode> i = WrappedIterator.create(i1).andThen( i2 );
+                        while (i.hasNext()) {
+                            ((RETEClauseFilter) i.next()).fire(t, isAdd);
+                        }
+                    }
+                } finally {
+                    deferredFirings.remove();
+                }
+                return deferred;
+            }));
+        }
+        // Execute the rule firings in order
+        for (ForkJoinTask<List<DeferredFiring>> task : tasks) {
+            for (DeferredFiring firing : task.join()) {
+                firing.terminal.fire(firing.env, firing.isAdd);
+            }
+        }
+    }
+    
+    /**
+     * The clause filters of each rule, indexed by predicate. Each rule has its own
+     * join queues so the rules can be processed independently.
+     */
+    private synchronized List<OneToManyMap<Node, RETENode>> getSubnetworks() {
+        if (subnetworks == null) {
+            Map<RETESinkNode, OneToManyMap<Node, RETENode>> byTerminal = new LinkedHashMap<>();
+            for (Map.Entry<Node, RETENode> entry : clauseIndex.entrySet()) {
+                RETESinkNode terminal = ((RETEClauseFilter) entry.getValue()).continuation;
+                while (terminal instanceof RETEQueue queue) {
+                    terminal = queue.continuation;
+                }
+                byTerminal.computeIfAbsent(terminal, x -> new OneToManyMap<>()).put(entry.getKey(), entry.getValue());
+            }
+            subnetworks = new ArrayList<>(byTerminal.values());
+        }
+        return subnetworks;
+    }
+    
     /**
      * Inject a single triple into the RETE network
      */
@@ -603,6 +917,11 @@ public class RETEEngine implements FRuleEngineI {
         }
     }
     
+    /**
+     * A token which reached a terminal node while being propagated in parallel.
+     */
+    protected record DeferredFiring(RETETerminal terminal, BindingVector env, boolean isAdd) {}
+    
     /**
      * Structure used to wrap up processed rule indexes.
      */
@@ -620,12 +939,21 @@ public class RETEEngine implements FRuleEngineI {
         /** True if all the rules are monotonic, so we short circuit the conflict set processing */
         protected boolean isMonotonic = true;
         
+        /** True if deletes can be propagated incrementally */
+        protected boolean isIncrementalSafe = true;
+        
+        /** The support for the deductions, null if not tracked */
+        protected Map<Object, Integer> supports;
+        
         /** Constructor */
-        RuleStore(OneToManyMap<Node, RETENode> clauseIndex, OneToManyMap<Node, Node> predicatesPatterns, boolean wildcardRule, boolean isMonotonic) {
+        RuleStore(OneToManyMap<Node, RETENode> clauseIndex, OneToManyMap<Node, Node> predicatesPatterns, boolean wildcardRule, boolean isMonotonic,
+                  boolean isIncrementalSafe, Map<Object, Integer> supports) {
             this.clauseIndex = clauseIndex;
             this.predicatePatterns = predicatesPatterns;
             this.wildcardRule = wildcardRule;
             this.isMonotonic = isMonotonic;
+            this.isIncrementalSafe = isIncrementalSafe;
+            this.supports = supports;
         }
     }
 
@@ -75,6 +75,8 @@ public class RETETerminal implements RETESinkNode {
      */
     @Override
     public void fire(BindingVector env, boolean isAdd) {
+        // Guards and firings are run after a parallel propagation
+        if (context.getEngine().deferFiring(this, env, isAdd)) return;
         Rule rule = context.getRule();
         context.setEnv(env);
         
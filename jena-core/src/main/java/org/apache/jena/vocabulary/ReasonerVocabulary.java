@@ -103,6 +103,14 @@ public class ReasonerVocabulary {
      *  in the generic rule engine. Default is filtering on. */
     public static final Property PROPenableFunctorFiltering = ruleReasonerProperty( "enableFunctorFiltering" );
     
+    /** Property used to switch on/off incremental processing of deletes by the forward
+     *  RETE engine, rather than recomputing the deductions. Set to "true" to enable. */
+    public static final Property PROPincrementalDelete = ruleReasonerProperty( "incrementalDelete" );
+    
+    /** Property used to set the number of threads used by the forward RETE engine
+     *  to propagate changes. Default is 1. */
+    public static final Property PROPforwardParallelism = ruleReasonerProperty( "forwardParallelism" );
+    
     /** Constant for PROPsetRDFSLevel - default behaviour */
     public static final String RDFS_DEFAULT = RDFSRuleReasoner.DEFAULT_RULES;
     
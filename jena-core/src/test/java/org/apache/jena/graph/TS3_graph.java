@@ -31,6 +31,7 @@ import org.junit.runners.Suite;
     TestLiteralLabelSameValueAs.class,
     TestNode.class,
     TestNodeCreateStrings.class,
+    TestNodeInterner.class,
     TestTriple.class,
     TestTripleField.class,
     TestReifier.class,
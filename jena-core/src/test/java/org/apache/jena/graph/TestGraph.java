@@ -29,6 +29,7 @@ package org.apache.jena.graph;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 import org.apache.jena.graph.impl.WrappedGraph;
+import org.apache.jena.mem.GraphMemCompact;
 import org.apache.jena.mem.GraphMemFast;
 import org.apache.jena.mem.GraphMemLegacy;
 import org.apache.jena.mem.GraphMemRoaring;
@@ -63,6 +64,9 @@ public class TestGraph extends JenaTestBase {
         result.addTest(suite(MetaTestGraph.class, GraphMemRoaring.class));
         result.addTest(suite(TestReifier.class, GraphMemRoaring.class));
 
+        result.addTest(suite(MetaTestGraph.class, GraphMemCompact.class));
+        result.addTest(suite(TestReifier.class, GraphMemCompact.class));
+
         result.addTest(TestGraphListener.suite());
         result.addTestSuite(TestRegisterGraphListener.class);
         return result;
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.graph;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestSuite;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.mem.GraphMemFast;
+import org.apache.jena.test.JenaTestBase;
+
+public class TestNodeInterner extends JenaTestBase {
+    public TestNodeInterner(String name) {
+        super(name);
+    }
+
+    public static TestSuite suite() {
+        return new TestSuite(TestNodeInterner.class);
+    }
+
+    public void testInternReturnsCanonicalNode() {
+        NodeInterner interner = new NodeInterner(4);
+        Node a1 = new Node_URI("http://example/a");
+        Node a2 = new Node_URI("http://example/a");
+        assertSame(a1, interner.intern(a1));
+        assertSame(a1, interner.intern(a2));
+        Node lit1 = new Node_Literal("1", XSDDatatype.XSDinteger);
+        Node lit2 = new Node_Literal("01", XSDDatatype.XSDinteger);
+        assertSame(lit1, interner.intern(lit1));
+        assertSame(lit2, interner.intern(lit2));
+        assertEquals(3, interner.size());
+        assertEquals(4, interner.stats().requests);
+        assertEquals(1, interner.stats().hits);
+    }
+
+    public void testOnlyUrisAndLiterals() {
+        NodeInterner interner = new NodeInterner(1);
+        Node b = NodeFactory.createBlankNode();
+        Node v = NodeFactory.createVariable("x");
+        assertSame(b, interner.intern(b));
+        assertSame(v, interner.intern(v));
+        assertSame(Node.ANY, interner.intern(Node.ANY));
+        assertEquals(0, interner.size());
+        assertEquals(0, interner.stats().requests);
+    }
+
+    public void testInternTriple() {
+        NodeInterner interner = new NodeInterner(8);
+        Triple t1 = GraphTestLib.triple("s p o");
+        assertSame(t1, interner.intern(t1));
+        Triple t2 = GraphTestLib.triple("s p o");
+        Triple t3 = interner.intern(t2);
+        assertEquals(t1, t3);
+        assertSame(t1.getSubject(), t3.getSubject());
+        assertSame(t1.getPredicate(), t3.getPredicate());
+        assertSame(t1.getObject(), t3.getObject());
+    }
+
+    public void testClear() {
+        NodeInterner interner = new NodeInterner(8);
+        interner.intern(NodeFactory.createURI("http://example/a"));
+        interner.clear();
+        assertEquals(0, interner.size());
+        assertEquals(0, interner.stats().requests);
+    }
+
+    public void testNodeFactory() {
+        assertFalse(NodeInterner.isEnabled());
+        assertNotSame(NodeFactory.createURI("http://example/nf"), NodeFactory.createURI("http://example/nf"));
+        NodeInterner.setEnabled(true);
+        try {
+            assertSame(NodeFactory.createURI("http://example/nf"), NodeFactory.createURI("http://example/nf"));
+            assertSame(NodeFactory.createLiteralString("abc"), NodeFactory.createLiteral("abc", null, null));
+            assertSame(NodeFactory.createLiteralLang("abc", "en"), NodeFactory.createLiteralLang("abc", "EN"));
+            assertSame(NodeFactory.createLiteralDT("1", XSDDatatype.XSDint), NodeFactory.createLiteralDT("1", XSDDatatype.XSDint));
+            assertNotSame(NodeFactory.createBlankNode("b"), NodeFactory.createBlankNode("b"));
+        } finally {
+            NodeInterner.setEnabled(false);
+        }
+    }
+
+    public void testGraphMemInternsAddedTriples() {
+        Node s = NodeFactory.createURI("http://example/gs");
+        Node p = NodeFactory.createURI("http://example/gp");
+        Node o = NodeFactory.createLiteralString("go");
+        NodeInterner.setEnabled(true);
+        try {
+            Node canonical = NodeFactory.createURI("http://example/gs");
+            Graph graph = new GraphMemFast();
+            graph.add(Triple.create(s, p, o));
+            assertSame(canonical, graph.find().next().getSubject());
+        } finally {
+            NodeInterner.setEnabled(false);
+        }
+    }
+
+    public void testConcurrentIntern() throws Exception {
+        NodeInterner interner = new NodeInterner(16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Node[]>> results = executor.invokeAll(List.of(
+                    () -> internAll(interner), () -> internAll(interner),
+                    () -> internAll(interner), () -> internAll(interner)));
+            Node[] first = results.get(0).get();
+            for ( Future<Node[]> result : results ) {
+                Node[] nodes = result.get();
+                for ( int i = 0 ; i < nodes.length ; i++ )
+                    assertSame(first[i], nodes[i]);
+            }
+            assertEquals(1000, interner.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Node[] internAll(NodeInterner interner) {
+        Node[] nodes = new Node[1000];
+        for ( int i = 0 ; i < nodes.length ; i++ )
+            nodes[i] = interner.intern(new Node_URI("http://example/n" + i));
+        return nodes;
+    }
+}
@@ -30,12 +30,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.apache.jena.datatypes.xsd.impl.XSDDouble;
+import org.apache.jena.graph.GraphListenerBase;
+import org.apache.jena.graph.Node;
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.graph.Triple;
 import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.collection.IsIterableContainingInAnyOrder;
 
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 public abstract class AbstractGraphMemTest {
 
@@ -1078,4 +1081,59 @@ public abstract class AbstractGraphMemTest {
             }
         }
     }
+
+    @Test
+    public void testAddAll() {
+        final var added = new ArrayList<Triple>();
+        sut.getEventManager().register(new GraphListenerBase() {
+            @Override
+            protected void addEvent(Triple t) {
+                added.add(t);
+            }
+
+            @Override
+            protected void deleteEvent(Triple t) {
+            }
+        });
+        sut.add(triple("s p o"));
+        sut.addAll(Stream.of(triple("s p o"), triple("s1 p1 o1"), triple("s2 p2 o2")));
+
+        assertEquals(3, sut.size());
+        assertTrue(sut.contains(triple("s1 p1 o1")));
+        assertTrue(sut.contains(triple("s2 p2 o2")));
+        assertEquals(4, added.size());
+    }
+
+    @Test
+    public void testEstimateCardinality() {
+        sut.add(triple("s p o"));
+        sut.add(triple("s p o2"));
+        sut.add(triple("s2 p o"));
+
+        assertEquals(3, sut.estimateCardinality(null, null, null));
+        assertEquals(3, sut.estimateCardinality(Node.ANY, Node.ANY, Node.ANY));
+        assertEquals(1, sut.estimateCardinality(node("s"), node("p"), node("o")));
+        assertEquals(0, sut.estimateCardinality(node("s2"), node("p"), node("o2")));
+        final var bySubject = sut.estimateCardinality(node("s"), NodeFactory.createVariable("x"), null);
+        assertTrue(bySubject == -1 || bySubject == 2);
+    }
+
+    @Test
+    public void testCount() {
+        sut.add(triple("s p o"));
+        sut.add(triple("s p o2"));
+        sut.add(triple("s2 p o"));
+        sut.add(triple("s2 q o"));
+
+        assertEquals(4, sut.count(null, null, null));
+        assertEquals(2, sut.count(node("s"), null, null));
+        assertEquals(3, sut.count(null, node("p"), null));
+        assertEquals(3, sut.count(null, null, node("o")));
+        assertEquals(2, sut.count(node("s"), node("p"), null));
+        assertEquals(0, sut.count(node("s2"), null, node("o2")));
+        assertEquals(2, sut.count(null, node("p"), node("o")));
+        assertEquals(1, sut.count(node("s2"), node("q"), node("o")));
+        assertEquals(0, sut.count(node("s"), node("q"), node("o")));
+        assertEquals(0, sut.count(node("x"), null, null));
+    }
 }
@@ -22,11 +22,17 @@
 package org.apache.jena.mem;
 
 import static org.apache.jena.junit.GraphHelper.triple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
+import org.apache.jena.graph.Triple;
+
 /**
  * Concrete instantiation of {@link AbstractGraphMemTest} that exercises
  * {@link GraphMemFast} (a {@link GraphMem} backed by a
@@ -50,4 +56,19 @@ public class GraphMemFastTest extends AbstractGraphMemTest {
         assertTrue(copy instanceof GraphMemFast, "copy() must return a GraphMemFast");
         assertNotSame(sut, copy);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void addAllUsesPerformAddOverride() {
+        final List<Triple> performed = new ArrayList<>();
+        final GraphMem graph = new GraphMemFast() {
+            @Override
+            public void performAdd(Triple t) {
+                performed.add(t);
+                super.performAdd(t);
+            }
+        };
+        graph.addAll(List.of(triple("s p o"), triple("s1 p1 o1")));
+        assertEquals(List.of(triple("s p o"), triple("s1 p1 o1")), performed);
+        assertEquals(2, graph.size());
+    }
+}
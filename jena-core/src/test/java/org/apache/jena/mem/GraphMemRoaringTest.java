@@ -131,6 +131,30 @@ public class GraphMemRoaringTest extends AbstractGraphMemTest {
                         Mockito.argThat(triplePatternMatcher),
                         Mockito.argThat(triplePatternMatcher));
 
+        var countPatternMatcher = new TriplePatternArgumentCollectMatcher();
+
+        // Mock {@link GraphMem#count(Node, Node, Node)}
+        Mockito.doAnswer(invocation -> {
+            final Node sm = invocation.getArgument(0);
+            final Node pm = invocation.getArgument(1);
+            final Node om = invocation.getArgument(2);
+
+            // If the triple match is a pattern that requires indexing, throw an exception
+            assertThrows(UnsupportedOperationException.class, () -> realGraph.count(sm, pm, om));
+
+            // now initialize the index
+            realGraph.initializeIndex();
+            // determine the result with the index
+            final var result = realGraph.count(sm, pm, om);
+            // Clear the index to reset the state for the next call
+            realGraph.clearIndex();
+            // Return the result of the store with the index
+            return result;
+        }).when(spyGraph)
+                .count(Mockito.argThat(countPatternMatcher),
+                        Mockito.argThat(countPatternMatcher),
+                        Mockito.argThat(countPatternMatcher));
+
         return spyGraph;
     }
 
@@ -32,7 +32,9 @@ import org.apache.jena.mem.spliterator.ArraySpliteratorTest;
 import org.apache.jena.mem.spliterator.ArraySubSpliteratorTest;
 import org.apache.jena.mem.spliterator.SparseArraySpliteratorTest;
 import org.apache.jena.mem.spliterator.SparseArraySubSpliteratorTest;
+import org.apache.jena.mem.store.compact.CompactTripleStoreTest;
 import org.apache.jena.mem.store.fast.FastArrayBunchTest;
+import org.apache.jena.mem.store.mapped.MappedTripleStoreTest;
 import org.apache.jena.mem.store.fast.FastHashedBunchMapTest;
 import org.apache.jena.mem.store.fast.FastHashedTripleBunchTest;
 import org.apache.jena.mem.store.fast.FastTripleStoreTest;
@@ -77,6 +79,12 @@ import org.apache.jena.mem.store.roaring.RoaringTripleStoreTest;
     NodesToIndicesTest.class,
     TripleSetTest.class,
 
+    // store/compact
+    CompactTripleStoreTest.class,
+
+    // store/mapped
+    MappedTripleStoreTest.class,
+
     // store/roaring
     RoaringTripleStoreTest.class,
     RoaringBitmapTripleIteratorTest.class,
@@ -96,6 +104,7 @@ import org.apache.jena.mem.store.roaring.RoaringTripleStoreTest;
     GraphMemFastTest.class,
     GraphMemIndexedSetTest.class, //5 less - 5 indexing strategies.
     GraphMemRoaringTest.class,
+    GraphMemCompactTest.class,
     GraphMemTest.class,
     IndexingStrategyTest.class
 } )
@@ -28,12 +28,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.apache.jena.datatypes.xsd.impl.XSDDouble;
 import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.pattern.PatternClassifier;
 import org.hamcrest.collection.IsEmptyCollection;
 import org.hamcrest.collection.IsIterableContainingInAnyOrder;
 
@@ -1084,4 +1088,107 @@ public abstract class AbstractTripleStoreTest {
         assertFalse(sut.contains(triple("s p100 o100")));
     }
 
+    @Test
+    public void testAddAll() {
+        sut.add(triple("s p o"));
+        sut.addAll(List.of(triple("s p o"), triple("s p o2"), triple("s2 p o"), triple("s p o2")));
+
+        assertEquals(3, sut.countTriples());
+        assertTrue(sut.contains(triple("s p o2")));
+        assertTrue(sut.contains(triple("s2 p o")));
+        assertEquals(3, sut.find(triple("?? p ??")).toList().size());
+    }
+
+    @Test
+    public void testAddAllManyTriples() {
+        final var triples = new ArrayList<Triple>();
+        for (int i = 0; i < 12_000; i++) {
+            triples.add(triple("s" + (i % 500) + " p" + (i % 7) + " o" + i));
+        }
+        sut.add(triples.get(0));
+        // Duplicates within the batch and with the store are ignored.
+        triples.add(triples.get(1));
+        sut.addAll(triples);
+
+        assertEquals(12_000, sut.countTriples());
+        assertEquals(24, sut.find(triple("s3 ?? ??")).toList().size());
+        assertEquals(1715, sut.find(triple("?? p1 ??")).toList().size());
+        assertEquals(1, sut.find(triple("?? ?? o11999")).toList().size());
+        assertEquals(4, sut.find(triple("s3 p3 ??")).toList().size());
+
+        sut.remove(triple("s3 p3 o3"));
+        sut.addAll(List.of(triple("s3 p3 o3"), triple("x R y")));
+        assertEquals(12_001, sut.countTriples());
+        assertTrue(sut.contains(triple("s3 p3 o3")));
+    }
+
+    @Test
+    public void testCopyOfManyTriples() {
+        for (int i = 0; i < 12_000; i++) {
+            sut.add(triple("s" + (i % 500) + " p" + (i % 7) + " o" + i));
+        }
+        var copy = sut.copy();
+        copy.remove(triple("s0 p0 o0"));
+        copy.add(triple("x R y"));
+
+        assertEquals(12_000, copy.countTriples());
+        assertFalse(copy.contains(triple("s0 p0 o0")));
+        assertTrue(copy.contains(triple("x R y")));
+        assertEquals(23, copy.stream().filter(t -> t.getSubject().equals(node("s0"))).count());
+
+        assertEquals(12_000, sut.countTriples());
+        assertTrue(sut.contains(triple("s0 p0 o0")));
+        assertEquals(24, sut.find(triple("s0 ?? ??")).toList().size());
+        assertFalse(sut.contains(triple("x R y")));
+    }
+
+    @Test
+    public void testEstimateCount() {
+        for (int i = 0; i < 100; i++) {
+            sut.add(triple("s" + (i % 10) + " p" + (i % 7) + " o" + (i % 20)));
+        }
+        sut.remove(triple("s0 p0 o0"));
+
+        assertEquals(99, sut.estimateCount(triple("?? ?? ??")));
+        assertEquals(1, sut.estimateCount(triple("s1 p1 o1")));
+        assertEquals(0, sut.estimateCount(triple("s0 p0 o0")));
+        for (final var pattern : List.of(triple("s0 ?? ??"), triple("?? p1 ??"), triple("?? ?? o5"),
+                triple("s1 p1 ??"), triple("s1 ?? o1"), triple("?? p2 o5"), triple("s1 p0 ??"),
+                triple("x ?? ??"), triple("x R ??"))) {
+            final var estimate = sut.estimateCount(pattern);
+            if (estimate != -1) {
+                // An estimate is never less than the real count.
+                final var count = sut.stream(pattern).count();
+                assertTrue(estimate >= count, pattern + ": " + estimate + " < " + count);
+                switch (PatternClassifier.classify(pattern)) {
+                    // One concrete node: the index gives the exact count.
+                    case SUB_ANY_ANY, ANY_PRE_ANY, ANY_ANY_OBJ -> assertEquals(count, estimate, pattern.toString());
+                    default -> {}
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCountDistinct() {
+        for (int i = 0; i < 100; i++) {
+            sut.add(triple("s" + (i % 10) + " p" + (i % 7) + " o" + (i % 20)));
+        }
+        sut.add(triple("x R y"));
+        sut.remove(triple("x R y"));
+        assertDistinct(10, sut.countDistinctSubjects());
+        assertDistinct(7, sut.countDistinctPredicates());
+        assertDistinct(20, sut.countDistinctObjects());
+
+        sut.clear();
+        assertDistinct(0, sut.countDistinctSubjects());
+        assertDistinct(0, sut.countDistinctPredicates());
+        assertDistinct(0, sut.countDistinctObjects());
+    }
+
+    private static void assertDistinct(final long expected, final long actual) {
+        if (actual != -1) {
+            assertEquals(expected, actual);
+        }
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.mem.store.mapped;
+
+import static org.apache.jena.junit.GraphHelper.triple;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.mem.GraphMemFast;
+import org.apache.jena.mem.GraphMemMapped;
+import org.apache.jena.mem.store.AbstractTripleStoreTest;
+import org.apache.jena.mem.store.TripleStore;
+import org.apache.jena.shared.AddDeniedException;
+import org.apache.jena.shared.DeleteDeniedException;
+
+/**
+ * Runs the generic store tests against a copy-on-write store over an empty
+ * image and checks the image itself with graphs written to temporary files.
+ */
+public class MappedTripleStoreTest extends AbstractTripleStoreTest {
+
+    @Override
+    protected TripleStore createTripleStore() {
+        return new MappedTripleStore(image(new GraphMemFast()), true);
+    }
+
+    private static GraphImage image(final Graph graph) {
+        try {
+            final Path file = Files.createTempFile("graph", ".img");
+            file.toFile().deleteOnExit();
+            GraphImage.write(graph, file);
+            return GraphImage.open(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Graph randomGraph() {
+        final var graph = new GraphMemFast();
+        final var random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            graph.add(triple("s" + random.nextInt(30) + " p" + random.nextInt(5) + " o" + random.nextInt(40)));
+        }
+        return graph;
+    }
+
+    @Test
+    public void testImageMatchesGraph() {
+        final var graph = randomGraph();
+        final var store = new MappedTripleStore(image(graph), false);
+
+        assertEquals(graph.size(), store.countTriples());
+        assertEquals(graph.find().toSet(), store.stream().collect(Collectors.toSet()));
+        for (final var pattern : List.of(triple("?? ?? ??"), triple("s3 ?? ??"), triple("?? p2 ??"),
+                triple("?? ?? o7"), triple("s3 p2 ??"), triple("s3 ?? o7"), triple("?? p2 o7"),
+                triple("s3 p2 o7"), triple("s3 p2 unknown"), triple("unknown ?? ??"))) {
+            final Set<Triple> expected = graph.find(pattern).toSet();
+            assertEquals(expected, store.find(pattern).toSet(), pattern.toString());
+            assertEquals(expected, store.stream(pattern).collect(Collectors.toSet()), pattern.toString());
+            assertEquals(expected, store.stream(pattern).parallel().collect(Collectors.toSet()), pattern.toString());
+            assertEquals(!expected.isEmpty(), store.contains(pattern), pattern.toString());
+            assertTrue(store.estimateCount(pattern) >= expected.size(), pattern.toString());
+        }
+    }
+
+    @Test
+    public void testNodeKindsRoundTrip() {
+        final var graph = new GraphMemFast();
+        final Node s = NodeFactory.createURI("http://example/s");
+        final Node p = NodeFactory.createURI("http://example/p");
+        final List<Node> objects = List.of(
+                NodeFactory.createBlankNode("b1"),
+                NodeFactory.createLiteralString("plain"),
+                NodeFactory.createLiteralString("ünïcödé ✓"),
+                NodeFactory.createLiteralLang("chat", "fr"),
+                NodeFactory.createLiteralDirLang("salam", "ar", "rtl"),
+                NodeFactory.createLiteralDT("42", XSDDatatype.XSDinteger),
+                NodeFactory.createLiteralDT("4.2e0", XSDDatatype.XSDdouble),
+                NodeFactory.createTripleTerm(s, p, NodeFactory.createLiteralString("nested")));
+        objects.forEach(o -> graph.add(Triple.create(s, p, o)));
+        graph.add(Triple.create(NodeFactory.createBlankNode("b1"), p, s));
+
+        final var store = new MappedTripleStore(image(graph), false);
+
+        assertEquals(graph.find().toSet(), store.stream().collect(Collectors.toSet()));
+        for (final var o : objects) {
+            assertTrue(store.contains(Triple.create(s, p, o)), o.toString());
+            assertEquals(1, store.find(Triple.create(Node.ANY, Node.ANY, o)).toList().size(), o.toString());
+        }
+        assertFalse(store.contains(Triple.create(s, p, NodeFactory.createLiteralLang("chat", "en"))));
+        assertFalse(store.contains(Triple.create(s, p, NodeFactory.createLiteralDT("42", XSDDatatype.XSDint))));
+    }
+
+    @Test
+    public void testReadOnly() {
+        final var store = new MappedTripleStore(image(randomGraph()), false);
+        final var size = store.countTriples();
+
+        assertThrows(AddDeniedException.class, () -> store.add(triple("x R y")));
+        assertThrows(DeleteDeniedException.class, () -> store.remove(triple("s0 p0 o0")));
+        assertThrows(DeleteDeniedException.class, store::clear);
+        // Adding an existing triple or removing an absent one is not a modification.
+        store.find(triple("?? ?? ??")).toList().forEach(store::add);
+        store.remove(triple("x R y"));
+
+        assertEquals(size, store.countTriples());
+        assertFalse(store.isModified());
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        final var graph = randomGraph();
+        final var store = new MappedTripleStore(image(graph), true);
+        final var copy = store.copy();
+        final var t = graph.find().next();
+
+        store.remove(t);
+        store.add(triple("x R y"));
+
+        assertTrue(store.isModified());
+        assertFalse(store.contains(t));
+        assertTrue(store.contains(triple("x R y")));
+        assertEquals(graph.size(), store.countTriples());
+        // The copy still uses the unchanged image.
+        assertFalse(copy.isModified());
+        assertTrue(copy.contains(t));
+        assertFalse(copy.contains(triple("x R y")));
+    }
+
+    @Test
+    public void testGraphMemMapped() throws IOException {
+        final var graph = randomGraph();
+        final Path file = Files.createTempFile("graph", ".img");
+        file.toFile().deleteOnExit();
+        GraphMemMapped.writeImage(graph, file);
+
+        final var mapped = new GraphMemMapped(file);
+        assertTrue(mapped.isIsomorphicWith(graph));
+        assertFalse(mapped.isCopyOnWrite());
+        assertThrows(AddDeniedException.class, () -> mapped.add(triple("x R y")));
+
+        final var writable = new GraphMemMapped(file, true);
+        writable.add(triple("x R y"));
+        assertTrue(writable.isModified());
+        assertEquals(graph.size() + 1, writable.size());
+    }
+
+    @Test
+    public void testNotAnImage() throws IOException {
+        final Path file = Files.createTempFile("graph", ".img");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, "not an image".repeat(100));
+        assertThrows(IllegalStateException.class, () -> GraphImage.open(file));
+    }
+}
@@ -30,6 +30,10 @@ import org.apache.jena.reasoner.*;
 import org.apache.jena.reasoner.rulesys.*;
 import org.apache.jena.reasoner.rulesys.impl.*;
 import org.apache.jena.reasoner.test.TestUtil;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.ReasonerVocabulary;
 
 public class TestRETE  extends TestCase {
 
@@ -289,4 +293,132 @@ public class TestRETE  extends TestCase {
                 Triple.create(n1, p, d)
             });
     }
+
+    /**
+     * Check that deletes are propagated incrementally, including through
+     * recursive rules and generated backward rules.
+     */
+    public void testIncrementalDelete() {
+        String rules = "[sym: (?x p ?y) -> (?y p ?x)]" +
+                       "[trans: (?x p ?y) (?y p ?z) -> (?x p ?z)]" +
+                       "[copy: (?x q ?y) -> (?x p ?y)]";
+        Graph data = createGraphForTest();
+        data.add(Triple.create(a, p, b));
+        data.add(Triple.create(b, p, c));
+        data.add(Triple.create(c, q, d));
+        data.add(Triple.create(d, p, e));
+        data.add(Triple.create(a, r, b));
+        data.add(Triple.create(b, s, c));
+        for (String mode : new String[] {"hybrid", "forwardRETE"}) {
+            InfGraph incremental = createInfGraph(rules, mode, true, 1, data);
+            incremental.prepare();
+            incremental.delete(Triple.create(b, p, c));
+            assertTrue(((BaseInfGraph)incremental).isPrepared());
+            assertIsomorphic(createInfGraph(rules, mode, false, 1, incremental.getRawGraph()), incremental);
+            // Deduced from b p c through the symmetric rule
+            assertFalse(incremental.contains(Triple.create(c, p, b)));
+            assertTrue(incremental.contains(Triple.create(c, p, e)));
+
+            incremental.delete(Triple.create(c, q, d));
+            assertIsomorphic(createInfGraph(rules, mode, false, 1, incremental.getRawGraph()), incremental);
+            assertFalse(incremental.contains(Triple.create(c, p, e)));
+            assertTrue(incremental.contains(Triple.create(e, p, d)));
+
+            incremental.add(Triple.create(c, q, a));
+            assertIsomorphic(createInfGraph(rules, mode, false, 1, incremental.getRawGraph()), incremental);
+        }
+
+        // Generated backward rules
+        rules = "[back: (?x r ?y) -> [(?x s ?z) <- (?y s ?z)]]";
+        InfGraph incremental = createInfGraph(rules, "hybrid", true, 1, data);
+        assertTrue(incremental.contains(Triple.create(a, s, c)));
+        incremental.delete(Triple.create(a, r, b));
+        assertFalse(incremental.contains(Triple.create(a, s, c)));
+    }
+
+    /**
+     * Check that a triple which is both asserted and deduced survives its deletion.
+     */
+    public void testIncrementalDeleteAsserted() {
+        String rules = "[copy: (?x q ?y) -> (?x p ?y)]";
+        Graph data = createGraphForTest();
+        data.add(Triple.create(a, q, b));
+        data.add(Triple.create(a, p, b));
+        InfGraph incremental = createInfGraph(rules, "hybrid", true, 1, data);
+        incremental.delete(Triple.create(a, p, b));
+        assertTrue(incremental.contains(Triple.create(a, p, b)));
+        incremental.delete(Triple.create(a, q, b));
+        assertFalse(incremental.contains(Triple.create(a, p, b)));
+    }
+
+    /**
+     * Check that parallel propagation gives the same deductions as sequential propagation.
+     */
+    public void testParallelPropagation() {
+        String rules = "[trans: (?x p ?y) (?y p ?z) -> (?x p ?z)]" +
+                       "[copy: (?x q ?y) -> (?x p ?y)]" +
+                       "[join: (?x p ?y) (?y r ?z) -> (?x s ?z)]";
+        Graph data = createGraphForTest();
+        for (int i = 0; i < 100; i++) {
+            Node n = NodeFactory.createURI("n" + i);
+            Node next = NodeFactory.createURI("n" + (i + 1));
+            data.add(Triple.create(n, (i % 2 == 0) ? p : q, next));
+            if (i % 10 == 0) data.add(Triple.create(n, r, res));
+        }
+        for (String mode : new String[] {"hybrid", "forwardRETE"}) {
+            InfGraph expected = createInfGraph(rules, mode, false, 1, data);
+            InfGraph parallel = createInfGraph(rules, mode, true, 4, data);
+            assertIsomorphic(expected, parallel);
+            parallel.delete(Triple.create(NodeFactory.createURI("n50"), p, NodeFactory.createURI("n51")));
+            assertIsomorphic(createInfGraph(rules, mode, false, 1, parallel.getRawGraph()), parallel);
+        }
+    }
+
+    /**
+     * Check deletes with the OWL micro rules, which fall back to recomputing the
+     * closure when the subClass/subProperty caches are affected.
+     */
+    public void testIncrementalDeleteOWLMicro() {
+        Node objectProperty = OWL.ObjectProperty.asNode();
+        Graph data = createGraphForTest();
+        data.add(Triple.create(c, RDFS.subClassOf.asNode(), d));
+        data.add(Triple.create(p, RDF.type.asNode(), objectProperty));
+        data.add(Triple.create(q, RDF.type.asNode(), objectProperty));
+        data.add(Triple.create(p, OWL.inverseOf.asNode(), q));
+        data.add(Triple.create(a, RDF.type.asNode(), c));
+        data.add(Triple.create(a, p, b));
+        data.add(Triple.create(b, q, a));
+
+        Reasoner reasoner = OWLMicroReasonerFactory.theInstance().create(null);
+        reasoner.setParameter(ReasonerVocabulary.PROPincrementalDelete, true);
+        Graph copy = createGraphForTest();
+        GraphUtil.addInto(copy, data);
+        InfGraph incremental = reasoner.bind(copy);
+        incremental.prepare();
+
+        Triple[] deletes = { Triple.create(a, p, b), Triple.create(b, q, a), Triple.create(a, RDF.type.asNode(), c) };
+        for ( Triple t : deletes ) {
+            incremental.delete(t);
+            Reasoner recompute = OWLMicroReasonerFactory.theInstance().create(null);
+            assertIsomorphic(recompute.bind(incremental.getRawGraph()), incremental);
+        }
+        assertFalse(incremental.contains(Triple.create(a, p, b)));
+        assertFalse(incremental.contains(Triple.create(a, RDF.type.asNode(), d)));
+    }
+
+    private static InfGraph createInfGraph(String rules, String mode, boolean incrementalDelete, int parallelism, Graph data) {
+        GenericRuleReasoner reasoner = new GenericRuleReasoner(Rule.parseRules(rules));
+        reasoner.setParameter(ReasonerVocabulary.PROPruleMode, mode);
+        reasoner.setParameter(ReasonerVocabulary.PROPincrementalDelete, incrementalDelete);
+        reasoner.setParameter(ReasonerVocabulary.PROPforwardParallelism, parallelism);
+        Graph copy = createGraphForTest();
+        GraphUtil.addInto(copy, data);
+        return reasoner.bind(copy);
+    }
+
+    private void assertIsomorphic(InfGraph expected, InfGraph actual) {
+        Set<Triple> expectedTriples = expected.find(null, null, null).toSet();
+        Set<Triple> actualTriples = actual.find(null, null, null).toSet();
+        assertEquals(expectedTriples, actualTriples);
+    }
 }
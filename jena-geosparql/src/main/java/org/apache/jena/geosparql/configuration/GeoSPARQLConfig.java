@@ -43,6 +43,7 @@ import org.apache.jena.geosparql.spatial.SpatialIndexException;
 import org.apache.jena.geosparql.spatial.index.compat.SpatialIndexIo;
 import org.apache.jena.geosparql.spatial.index.v2.SpatialIndexIoKryo;
 import org.apache.jena.geosparql.spatial.index.v2.SpatialIndexLib;
+import org.apache.jena.geosparql.spatial.join.TransformSpatialJoin;
 import org.apache.jena.query.Dataset;
 import org.apache.jena.sparql.function.FunctionRegistry;
 import org.apache.jena.sparql.pfunction.PropertyFunctionRegistry;
@@ -213,6 +214,9 @@ public class GeoSPARQLConfig {
             GeometryProperty.loadFilterFunctions(functionRegistry);
             Spatial.loadPropertyFunctions(propertyRegistry);
             Spatial.loadFilterFunctions(functionRegistry);
+
+            //Spatial joins for topological filter functions between two variables.
+            TransformSpatialJoin.register();
         }
     }
 
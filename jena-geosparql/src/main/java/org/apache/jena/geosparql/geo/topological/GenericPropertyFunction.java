@@ -20,8 +20,17 @@
  */
 package org.apache.jena.geosparql.geo.topological;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.jena.atlas.iterator.Iter;
@@ -32,6 +41,7 @@ import org.apache.jena.geosparql.implementation.access.AccessWGS84;
 import org.apache.jena.geosparql.implementation.index.QueryRewriteIndex;
 import org.apache.jena.geosparql.spatial.SpatialIndex;
 import org.apache.jena.geosparql.spatial.index.v2.SpatialIndexLib;
+import org.apache.jena.geosparql.spatial.join.SpatialJoinLib;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
@@ -118,6 +128,11 @@ public abstract class GenericPropertyFunction extends PFuncSimple {
         Graph graph = execCxt.getActiveGraph();
         AtomicBoolean cancel = execCxt.getCancelSignal();
 
+        if (spatialIndex == null && SpatialJoinLib.isSpatialJoinRelation(filterFunction) && !subject.equals(object)) {
+            //No spatial index so join all spatial objects with each other by their envelopes.
+            return planeSweepJoin(binding, subjectVar, predicate, Var.alloc(object.getName()), execCxt, queryRewriteIndex);
+        }
+
         //Search for both Features and Geometry in the Graph. Reliant upon consistent usage of SpatialObject (which is base class of Feature and Geometry) if present.
         ExtendedIterator<Binding> iterator = findSpatialObjects(cancel, graph)
             .mapWith(node -> BindingFactory.binding(binding, subjectVar, node));
@@ -130,6 +145,70 @@ public abstract class GenericPropertyFunction extends PFuncSimple {
         return queryIter;
     }
 
+    /**
+     * Spatial join of all the spatial objects of the graph with each other.
+     * Only the pairs whose geometry envelopes intersect, found by a plane sweep, and the
+     * asserted relations are tested, rather than every pair.
+     * The results are the same, in the same order, as testing every pair.
+     */
+    private QueryIterator planeSweepJoin(Binding binding, Var subjectVar, Node predicate, Var objectVar, ExecutionContext execCxt, QueryRewriteIndex queryRewriteIndex) {
+        Graph graph = execCxt.getActiveGraph();
+        AtomicBoolean cancel = execCxt.getCancelSignal();
+
+        //The spatial objects may occur more than once: keep their positions.
+        List<Node> spatialObjects = findSpatialObjects(cancel, graph).toList();
+        Map<Node, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < spatialObjects.size(); i++) {
+            positions.computeIfAbsent(spatialObjects.get(i), n -> new ArrayList<>()).add(i);
+        }
+        List<Node> nodes = new ArrayList<>(positions.keySet());
+
+        //Candidate pairs by intersecting envelopes, in the SRS of the first geometry.
+        Map<Node, Set<Node>> candidates = new HashMap<>();
+        if (queryRewriteIndex.isIndexActive()) {
+            List<Envelope> envelopes = new ArrayList<>(nodes.size());
+            String srsURI = null;
+            for (Node node : nodes) {
+                SpatialObjectGeometryLiteral spatialLiteral = SpatialObjectGeometryLiteral.retrieve(graph, node);
+                Envelope envelope = null;
+                if (spatialLiteral.isValid()) {
+                    Node geometryLiteral = spatialLiteral.getGeometryLiteral();
+                    if (srsURI == null) {
+                        srsURI = SpatialJoinLib.srsURI(geometryLiteral);
+                    }
+                    if (srsURI != null) {
+                        envelope = SpatialJoinLib.envelope(geometryLiteral, srsURI);
+                    }
+                }
+                envelopes.add(envelope);
+            }
+            SpatialJoinLib.planeSweep(envelopes, (i, j) -> {
+                candidates.computeIfAbsent(nodes.get(i), n -> new HashSet<>()).add(nodes.get(j));
+                candidates.computeIfAbsent(nodes.get(j), n -> new HashSet<>()).add(nodes.get(i));
+            });
+        }
+
+        Iterator<Binding> subjectBindings = Iter.map(spatialObjects.iterator(), node -> BindingFactory.binding(binding, subjectVar, node));
+        return QueryIter.flatMap(
+            QueryIterPlainWrapper.create(subjectBindings, execCxt),
+            b -> {
+                Node subjectNode = b.get(subjectVar);
+                SortedSet<Integer> objectPositions = new TreeSet<>();
+                for (Node node : candidates.getOrDefault(subjectNode, Set.of())) {
+                    objectPositions.addAll(positions.get(node));
+                }
+                for (Node node : G.listSP(graph, subjectNode, predicate)) {
+                    objectPositions.addAll(positions.getOrDefault(node, List.of()));
+                }
+                Iterator<Binding> results = Iter.iter(objectPositions)
+                    .map(spatialObjects::get)
+                    .filter(objectNode -> queryRewrite(graph, subjectNode, predicate, objectNode, queryRewriteIndex))
+                    .map(objectNode -> BindingFactory.binding(b, objectVar, objectNode));
+                return QueryIterPlainWrapper.create(results, execCxt);
+            },
+            execCxt);
+    }
+
     /** Validate the bound node for whether it is a literal or spatial object. */
     private QueryIterator oneBoundChecked(Binding binding, Node boundNode, Node predicate, Node unboundNode, boolean isSubjectBound, ExecutionContext execCxt, SpatialIndex spatialIndex, QueryRewriteIndex queryRewriteIndex) {
         Graph graph = execCxt.getActiveGraph();
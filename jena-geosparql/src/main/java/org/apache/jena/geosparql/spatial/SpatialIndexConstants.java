@@ -28,6 +28,18 @@ public class SpatialIndexConstants {
     public static final Symbol symSpatialIndex = Symbol.create("http://jena.apache.org/spatial#index");
     public static final Symbol symSrsUri = Symbol.create("http://jena.apache.org/spatial#srsURI");
 
+    /**
+     * Symbol for the number of threads used to parse and transform geometries when building a spatial index.
+     * Defaults to the number of available processors.
+     */
+    public static final Symbol symThreadCount = Symbol.create("http://jena.apache.org/spatial#threadCount");
+
+    /**
+     * Symbol to enable or disable the rewrite of GeoSPARQL filters between two geometry
+     * variables into spatial joins. Enabled unless set to false.
+     */
+    public static final Symbol symSpatialJoin = Symbol.create("http://jena.apache.org/spatial#spatialJoin");
+
     /** Symbol for a running task in a dataset's context. Used to synchronize tasks that modify the spatial index. */
     public static final Symbol symSpatialIndexTask = Symbol.create("http://jena.apache.org/spatial#indexTask");
 }
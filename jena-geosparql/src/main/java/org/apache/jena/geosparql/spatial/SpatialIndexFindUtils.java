@@ -20,8 +20,15 @@
  */
 package org.apache.jena.geosparql.spatial;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.atlas.iterator.IteratorCloseable;
@@ -38,6 +45,9 @@ import org.opengis.referencing.operation.TransformException;
 import org.opengis.util.FactoryException;
 
 public class SpatialIndexFindUtils {
+    /** The number of geo-literals that are collected from the graph before they are parsed in parallel. */
+    public static final int PARALLEL_BATCH_SIZE = 100_000;
+
     /**
      * Find Spatial Index Items from all graphs in Dataset.<br>
      *
@@ -123,6 +133,82 @@ public class SpatialIndexFindUtils {
         });
     }
 
+    /**
+     * Find items from the graph transformed to the SRS URI, as {@link #findIndexItems(AtomicBoolean, Graph, String)}.
+     * <p>
+     * The graph is read on the calling thread. Geo-literals are collected in batches and
+     * parsed and transformed on {@code threadCount} threads, which do not access the graph.
+     * The items are returned in the order they are found.
+     *
+     * @param cancel
+     * @param graph
+     * @param srsURI
+     * @param threadCount
+     * @return Items found in the graph in the SRS URI.
+     */
+    public static List<SpatialIndexItem> findIndexItems(AtomicBoolean cancel, Graph graph, String srsURI, int threadCount) {
+        if (threadCount <= 1) {
+            IteratorCloseable<SpatialIndexItem> it = findIndexItems(cancel, graph, srsURI);
+            try {
+                return Iter.toList(it);
+            } finally {
+                it.close();
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            if (AccessGeoSPARQL.containsGeoLiterals(graph)) {
+                // (feature, geo-literal)
+                Iterator<Map.Entry<Node, Node>> iter = Iter.iter(AccessGeoSPARQL.findSpecificGeoResources(cancel, graph)).flatMap(stmt -> {
+                    Node feature = stmt.getSubject();
+                    Node geometry = stmt.getObject();
+                    return Iter.map(AccessGeoSPARQL.findSpecificGeoLiterals(cancel, graph, geometry),
+                                    triple -> Map.entry(feature, triple.getObject()));
+                });
+                return parallelMap(cancel, pool, iter,
+                                   e -> makeSpatialIndexItem(e.getKey(), GeometryWrapper.extract(e.getValue()), srsURI));
+            } else if (AccessWGS84.containsGeoLiteralProperties(graph)) {
+                Iterator<Map.Entry<Node, GeometryWrapper>> iter = AccessWGS84.findGeoLiterals(cancel, graph, null);
+                return parallelMap(cancel, pool, iter,
+                                   e -> makeSpatialIndexItem(e.getKey(), e.getValue(), srsURI));
+            } else {
+                return List.of();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Map the elements of the iterator in batches, in order, using the pool. The iterator is closed. */
+    private static <X> List<SpatialIndexItem> parallelMap(AtomicBoolean cancel, ForkJoinPool pool, Iterator<X> iter, Function<X, SpatialIndexItem> function) {
+        List<SpatialIndexItem> result = new ArrayList<>();
+        try {
+            List<X> batch = new ArrayList<>(PARALLEL_BATCH_SIZE);
+            while (iter.hasNext()) {
+                batch.clear();
+                while (iter.hasNext() && batch.size() < PARALLEL_BATCH_SIZE) {
+                    batch.add(iter.next());
+                }
+                if (cancel != null && cancel.get()) {
+                    throw new CancellationException();
+                }
+                List<X> input = batch;
+                result.addAll(pool.submit(() -> input.parallelStream().map(function).toList()).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException ex) {
+                throw ex;
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            Iter.close(iter);
+        }
+        return result;
+    }
+
     public static SpatialIndexItem makeSpatialIndexItem(Node feature, GeometryWrapper geometryWrapper, String srsURI) {
         // Ensure all entries in the target SRS URI.
         GeometryWrapper transformedGeometryWrapper = unsafeConvert(geometryWrapper, srsURI);
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.geosparql.spatial.index.v2;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.apache.jena.graph.Node;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.quadtree.Quadtree;
+import org.locationtech.jts.index.strtree.AbstractNode;
+import org.locationtech.jts.index.strtree.Boundable;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/**
+ * Changes to the (immutable) {@link STRtree} of one graph.
+ * <p>
+ * A changed feature has all its entries in the base tree replaced by the envelopes
+ * recorded here, which are held in a dynamic {@link Quadtree}. A removed feature has no
+ * envelopes. The changes are merged into a new tree by {@link #merge(STRtree)}.
+ * <p>
+ * Not thread-safe: see {@link STRtreePerGraph}.
+ */
+class STRtreeDelta {
+
+    private record Entry(Envelope envelope, Node feature) {}
+
+    // Feature -> entries that replace the entries of the feature in the base tree.
+    private final Map<Node, List<Entry>> features = new HashMap<>();
+    private final Quadtree added = new Quadtree();
+    // Size of the base tree when the delta was started.
+    private final long baseSize;
+
+    STRtreeDelta(long baseSize) {
+        this.baseSize = baseSize;
+    }
+
+    long getBaseSize() {
+        return baseSize;
+    }
+
+    /** Number of features changed. */
+    int size() {
+        return features.size();
+    }
+
+    boolean isEmpty() {
+        return features.isEmpty();
+    }
+
+    /** Replace the entries for a feature. An empty collection removes the feature. */
+    void set(Node feature, Collection<Envelope> envelopes) {
+        List<Entry> prior = features.remove(feature);
+        if ( prior != null )
+            prior.forEach(e -> added.remove(e.envelope(), e));
+        List<Entry> entries = new ArrayList<>(envelopes.size());
+        for ( Envelope envelope : envelopes ) {
+            Entry e = new Entry(envelope, feature);
+            added.insert(envelope, e);
+            entries.add(e);
+        }
+        features.put(feature, entries);
+    }
+
+    /** Call the action for each (feature, envelopes) change. */
+    void forEach(BiConsumer<Node, List<Envelope>> action) {
+        features.forEach((feature, entries) -> action.accept(feature, entries.stream().map(Entry::envelope).toList()));
+    }
+
+    /** Query the base tree, with the changes applied. */
+    @SuppressWarnings("unchecked")
+    void query(STRtree base, Envelope searchEnvelope, Collection<Node> acc) {
+        if ( base != null && !base.isEmpty() ) {
+            List<Node> baseItems = base.query(searchEnvelope);
+            for ( Node n : baseItems ) {
+                if ( !features.containsKey(n) )
+                    acc.add(n);
+            }
+        }
+        // Quadtree results are candidates that need to be checked.
+        List<Entry> candidates = added.query(searchEnvelope);
+        for ( Entry e : candidates ) {
+            if ( e.envelope().intersects(searchEnvelope) )
+                acc.add(e.feature());
+        }
+    }
+
+    /** The number of entries of the base tree, with the changes applied. */
+    long size(STRtree base) {
+        long[] count = { 0 };
+        forEachBaseItem(base, (envelope, feature) -> {
+            if ( !features.containsKey(feature) )
+                count[0]++;
+        });
+        return count[0] + added.size();
+    }
+
+    /** Build a new tree from the base tree and the changes. */
+    STRtree merge(STRtree base) {
+        List<Entry> entries = new ArrayList<>();
+        forEachBaseItem(base, (envelope, feature) -> {
+            if ( !features.containsKey(feature) )
+                entries.add(new Entry(envelope, feature));
+        });
+        features.values().forEach(entries::addAll);
+        STRtree tree = new STRtree(Math.max(STRtreeUtils.MINIMUM_CAPACITY, entries.size()));
+        entries.forEach(e -> tree.insert(e.envelope(), e.feature()));
+        tree.build();
+        return tree;
+    }
+
+    /** Visit the (envelope, item) entries of a built tree. */
+    static void forEachBaseItem(STRtree tree, BiConsumer<Envelope, Node> action) {
+        if ( tree == null || tree.isEmpty() )
+            return;
+        tree.build();
+        forEachItem(tree.getRoot(), action);
+    }
+
+    private static void forEachItem(Boundable boundable, BiConsumer<Envelope, Node> action) {
+        if ( boundable instanceof ItemBoundable itemBoundable ) {
+            action.accept((Envelope)itemBoundable.getBounds(), (Node)itemBoundable.getItem());
+        } else if ( boundable instanceof AbstractNode node ) {
+            for ( Object child : node.getChildBoundables() )
+                forEachItem((Boundable)child, action);
+        }
+    }
+}
@@ -23,13 +23,16 @@ package org.apache.jena.geosparql.spatial.index.v2;
 import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.core.Quad;
@@ -57,6 +60,16 @@ public class STRtreePerGraph {
 
     private boolean isBuilt = false;
 
+    /**
+     * Changes to the trees since they were built, by graph node.
+     * Guarded by {@link #deltaLock}; the lock is only needed once there are changes.
+     */
+    private final Map<Node, STRtreeDelta> deltaMap = new HashMap<>();
+    private final ReadWriteLock deltaLock = new ReentrantReadWriteLock();
+
+    /** The minimum number of changed features before the changes are merged into a new tree. */
+    public static final int DELTA_MERGE_MIN = 1000;
+
     public STRtreePerGraph() {
         this(new ConcurrentHashMap<>());
     }
@@ -77,13 +90,15 @@ public class STRtreePerGraph {
         return treeMap.get(Quad.defaultGraphIRI);
     }
 
-    /** Returns an unmodifiable view of the tree map. */
+    /** Returns an unmodifiable view of the tree map. Any pending changes are merged first. */
     public Map<Node, STRtree> getTreeMap() {
+        compact();
         return treeMapView;
     }
 
-    /** For serialization. */
+    /** For serialization. Any pending changes are merged first. */
     Map<Node, STRtree> getInternalTreeMap() {
+        compact();
         return treeMap;
     }
 
@@ -119,7 +134,10 @@ public class STRtreePerGraph {
     /** Returns the prior tree of graphNode. */
     protected STRtree setNamedTree(Node graphNode, STRtree tree) {
         Objects.requireNonNull(graphNode); // Default graph must name must be Quad.defaultGraphIRI.
-        return treeMap.put(graphNode, tree);
+        return withWriteLock(() -> {
+            deltaMap.remove(graphNode);
+            return treeMap.put(graphNode, tree);
+        });
     }
 
     /** Add all data of 'other' to this. Builds the added trees if {@link #isBuilt()} is true. */
@@ -128,51 +146,142 @@ public class STRtreePerGraph {
         if (isBuilt()) {
             treeMap.values().forEach(STRtree::build);
         }
-        this.treeMap.putAll(treeMap);
+        withWriteLock(() -> {
+            treeMap.keySet().forEach(deltaMap::remove);
+            this.treeMap.putAll(treeMap);
+            return null;
+        });
     }
 
     public boolean removeTree(Node node) {
         if (node == null) {
             node = Quad.defaultGraphIRI;
         }
-        return treeMap.remove(node) != null;
+        Node graphNode = node;
+        return withWriteLock(() -> {
+            deltaMap.remove(graphNode);
+            return treeMap.remove(graphNode) != null;
+        });
+    }
+
+    /**
+     * Replace the envelopes of a feature in the tree of a graph.
+     * An empty collection of envelopes removes the feature.
+     * <p>
+     * The changes are kept in a dynamic index alongside the (immutable) tree and are
+     * merged into a new tree once the number of changed features reaches
+     * {@link #DELTA_MERGE_MIN} or one eighth of the size of the tree, whichever is larger.
+     */
+    public void update(Node graph, Node feature, Collection<Envelope> envelopes) {
+        Objects.requireNonNull(feature);
+        Node graphNode = (graph == null || Quad.isDefaultGraph(graph)) ? Quad.defaultGraphIRI : graph;
+        withWriteLock(() -> {
+            STRtree tree = treeMap.get(graphNode);
+            STRtreeDelta delta = deltaMap.computeIfAbsent(graphNode, g -> new STRtreeDelta(tree == null ? 0 : tree.size()));
+            delta.set(feature, envelopes);
+            if (delta.size() >= Math.max(DELTA_MERGE_MIN, delta.getBaseSize() / 8))
+                merge(graphNode);
+            return null;
+        });
+    }
+
+    /** Merge any pending changes into new trees. */
+    public void compact() {
+        withWriteLock(() -> {
+            Set.copyOf(deltaMap.keySet()).forEach(this::merge);
+            return null;
+        });
+    }
+
+    /** Whether there are changes that have not been merged into the trees. */
+    public boolean hasPendingChanges() {
+        return withReadLock(() -> !deltaMap.isEmpty());
+    }
+
+    // Called with the write lock held.
+    private void merge(Node graphNode) {
+        STRtreeDelta delta = deltaMap.remove(graphNode);
+        if (delta == null) {
+            return;
+        }
+        LOGGER.debug("Merging {} changed features into spatial index tree for graph {}", delta.size(), graphNode);
+        treeMap.put(graphNode, delta.merge(treeMap.get(graphNode)));
+    }
+
+    private <X> X withReadLock(Supplier<X> action) {
+        deltaLock.readLock().lock();
+        try {
+            return action.get();
+        } finally {
+            deltaLock.readLock().unlock();
+        }
+    }
+
+    private <X> X withWriteLock(Supplier<X> action) {
+        deltaLock.writeLock().lock();
+        try {
+            return action.get();
+        } finally {
+            deltaLock.writeLock().unlock();
+        }
     }
 
-    @SuppressWarnings("unchecked")
     public Collection<Node> queryOneGraph(Envelope searchEnvelope, Node graph) {
+        return withReadLock(() -> queryOneGraphWorker(searchEnvelope, graph));
+    }
+
+    private Collection<Node> queryOneGraphWorker(Envelope searchEnvelope, Node graph) {
         Collection<Node> result;
         if (graph == null || Quad.isDefaultGraph(graph)) {
             // Handle default graph.
             STRtree defaultTree = getDefaultTree();
-            result = defaultTree == null
-                ? Set.of()
-                : new LinkedHashSet<>(defaultTree.query(searchEnvelope));
+            STRtreeDelta delta = deltaMap.get(Quad.defaultGraphIRI);
+            if (defaultTree == null && delta == null) {
+                result = Set.of();
+            } else {
+                result = new LinkedHashSet<>();
+                queryTree(Quad.defaultGraphIRI, defaultTree, searchEnvelope, result);
+            }
         } else if (Quad.isUnionGraph(graph)) {
             // Handle union graph (avoid).
             LOGGER.warn("spatial index lookup on union graph");
-            result = treeMap.entrySet().stream()
-                .filter(e -> !Quad.isDefaultGraph(e.getKey())) // Exclude default graph.
-                .map(Entry::getValue)
-                .map(tree -> tree.query(searchEnvelope))
-                .collect(LinkedHashSet::new,
-                    Set::addAll,
-                    Set::addAll);
+            Set<Node> graphNodes = new LinkedHashSet<>(treeMap.keySet());
+            graphNodes.addAll(deltaMap.keySet());
+            result = new LinkedHashSet<>();
+            for (Node graphNode : graphNodes) {
+                if (!Quad.isDefaultGraph(graphNode)) { // Exclude default graph.
+                    queryTree(graphNode, treeMap.get(graphNode), searchEnvelope, result);
+                }
+            }
         } else {
             // Handle specific named graph.
             STRtree tree = treeMap.get(graph);
-            if (tree == null) {
+            STRtreeDelta delta = deltaMap.get(graph);
+            if (tree == null && delta == null) {
                 LOGGER.warn("graph not indexed: " + graph);
             }
-            if (tree != null && !tree.isEmpty()) {
-                result = new LinkedHashSet<>(tree.query(searchEnvelope));
-            } else {
-                result = new HashSet<>();
-            }
+            result = (tree != null && !tree.isEmpty()) || delta != null
+                ? new LinkedHashSet<>()
+                : new HashSet<>();
+            queryTree(graph, tree, searchEnvelope, result);
         }
         return result;
     }
 
+    @SuppressWarnings("unchecked")
+    private void queryTree(Node graphNode, STRtree tree, Envelope searchEnvelope, Collection<Node> acc) {
+        STRtreeDelta delta = deltaMap.get(graphNode);
+        if (delta != null) {
+            delta.query(tree, searchEnvelope, acc);
+        } else if (tree != null && !tree.isEmpty()) {
+            acc.addAll(tree.query(searchEnvelope));
+        }
+    }
+
     public boolean isEmpty() {
+        if (hasPendingChanges()) {
+            return size() == 0;
+        }
         boolean result = treeMap.values().stream().allMatch(STRtree::isEmpty);
         return result;
     }
@@ -189,7 +298,15 @@ public class STRtreePerGraph {
     }
 
     public long size() {
-        long result = treeMap.values().stream().mapToLong(STRtree::size).sum();
-        return result;
+        return withReadLock(() -> {
+            long result = treeMap.entrySet().stream()
+                .filter(e -> !deltaMap.containsKey(e.getKey()))
+                .mapToLong(e -> e.getValue().size())
+                .sum();
+            for (Map.Entry<Node, STRtreeDelta> e : deltaMap.entrySet()) {
+                result += e.getValue().size(treeMap.get(e.getKey()));
+            }
+            return result;
+        });
     }
 }
@@ -55,14 +55,34 @@ public class STRtreeUtils {
         }
     }
 
+    /**
+     * Build the tree for a graph, parsing and transforming the geometries on {@code threadCount} threads.
+     * The graph is only accessed from the calling thread.
+     */
+    public static STRtree buildSpatialIndexTree(Graph graph, String srsURI, int threadCount) throws SpatialIndexException {
+        if (threadCount <= 1) {
+            return buildSpatialIndexTree(graph, srsURI);
+        }
+        try {
+            List<SpatialIndexItem> items = SpatialIndexFindUtils.findIndexItems(null, graph, srsURI, threadCount);
+            return buildSpatialIndexTree(items);
+        } catch (Throwable e) {
+            throw new SpatialIndexException("Spatial index construction failed.", e);
+        }
+    }
+
     // XXX This method overlaps function-wise with SpatialIndexerComputation. Consolidate?
     public static STRtreePerGraph buildSpatialIndexTree(DatasetGraph datasetGraph, String srsURI) throws SpatialIndexException {
+        return buildSpatialIndexTree(datasetGraph, srsURI, 1);
+    }
+
+    public static STRtreePerGraph buildSpatialIndexTree(DatasetGraph datasetGraph, String srsURI, int threadCount) throws SpatialIndexException {
         Map<Node, STRtree> treeMap = new ConcurrentHashMap<>();
 
         // Process default graph.
         // LOGGER.info("building spatial index for default graph ...");
         Graph defaultGraph = datasetGraph.getDefaultGraph();
-        STRtree defaultGraphTree = buildSpatialIndexTree(defaultGraph, srsURI);
+        STRtree defaultGraphTree = buildSpatialIndexTree(defaultGraph, srsURI, threadCount);
         treeMap.put(Quad.defaultGraphIRI, defaultGraphTree);
 
         // Process named graphs.
@@ -72,7 +92,7 @@ public class STRtreeUtils {
                 Node graphNode = graphIter.next();
                 // LOGGER.info("building spatial index for graph {} ...", graphNode);
                 Graph namedGraph = datasetGraph.getGraph(graphNode);
-                treeMap.put(graphNode, buildSpatialIndexTree(namedGraph, srsURI));
+                treeMap.put(graphNode, buildSpatialIndexTree(namedGraph, srsURI, threadCount));
             }
         } finally {
             Iter.close(graphIter);
@@ -92,6 +112,7 @@ public class STRtreeUtils {
         return tree;
     }
 
+    /** Bulk-load a tree: the items are inserted and the tree is built by sort-tile-recursive packing. */
     public static STRtree buildSpatialIndexTree(Collection<SpatialIndexItem> items) throws SpatialIndexException {
         STRtree tree = new STRtree(Math.max(MINIMUM_CAPACITY, items.size()));
         addToTree(tree, items.iterator());
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.geosparql.spatial.index.v2;
+
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.geosparql.implementation.GeometryWrapper;
+import org.apache.jena.geosparql.implementation.access.AccessGeoSPARQL;
+import org.apache.jena.geosparql.implementation.access.AccessWGS84;
+import org.apache.jena.geosparql.implementation.vocabulary.Geo;
+import org.apache.jena.geosparql.implementation.vocabulary.SpatialExtension;
+import org.apache.jena.geosparql.spatial.SpatialIndexException;
+import org.apache.jena.geosparql.spatial.SpatialIndexFindUtils;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdfpatch.changes.RDFChangesBase;
+import org.apache.jena.rdfpatch.system.DatasetGraphChanges;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.system.G;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keep a {@link SpatialIndexPerGraph} up to date with the changes made to a dataset.
+ * <p>
+ * Used with {@link DatasetGraphChanges}, see
+ * {@link SpatialIndexLib#datasetWithSpatialIndexUpdates(DatasetGraph)}.
+ * The features affected by the changes of a transaction are recorded as the changes are made
+ * and, when the transaction commits, their entries in the index are recomputed from the
+ * data. The index is only changed once the commit of the dataset has succeeded
+ * ({@link #txnCommitted()}). Only the affected features are recomputed, unless a change switches a graph between
+ * GeoSPARQL and WGS84 geo-literals, in which case the index for that graph is rebuilt.
+ * <p>
+ * If the index has a {@link SpatialIndexPerGraph#getLocation() location}, the changes
+ * are also appended to the delta log of the index file (see
+ * {@link SpatialIndexIoKryo#appendDeltaLog}).
+ * <p>
+ * Changes made outside a transaction are applied by calling {@link #apply()}.
+ */
+public class SpatialIndexChanges extends RDFChangesBase {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /** How the spatial index finds geometries in a graph (see {@link SpatialIndexFindUtils#findIndexItems}). */
+    private enum Mode { GEOSPARQL, WGS84, NONE }
+
+    private static class GraphChanges {
+        final Mode priorMode;
+        final Set<Node> features = new LinkedHashSet<>();
+        final Set<Node> geometries = new LinkedHashSet<>();
+
+        GraphChanges(Mode priorMode) {
+            this.priorMode = priorMode;
+        }
+    }
+
+    private final DatasetGraph datasetGraph;
+    private final SpatialIndexPerGraph index;
+    // Graph name (the default graph is Quad.defaultGraphIRI) -> changes.
+    private final Map<Node, GraphChanges> changes = new LinkedHashMap<>();
+    // Computed at txnCommit, applied to the index when the dataset commit has succeeded.
+    private IndexUpdate pending = null;
+
+    /**
+     * Create a listener that updates the spatial index for changes to the dataset.
+     * The dataset is the one that the changes are applied to.
+     */
+    public SpatialIndexChanges(DatasetGraph datasetGraph, SpatialIndexPerGraph index) {
+        this.datasetGraph = Objects.requireNonNull(datasetGraph);
+        this.index = Objects.requireNonNull(index);
+    }
+
+    public SpatialIndexPerGraph getIndex() {
+        return index;
+    }
+
+    @Override
+    public void add(Node g, Node s, Node p, Node o) {
+        change(g, s, p);
+    }
+
+    @Override
+    public void delete(Node g, Node s, Node p, Node o) {
+        change(g, s, p);
+    }
+
+    /**
+     * Called before the dataset commits: the index entries are computed from the data of
+     * the transaction. The index and the delta log are updated by {@link #txnCommitted()}.
+     */
+    @Override
+    public void txnCommit() {
+        pending = prepare();
+    }
+
+    @Override
+    public void txnAbort() {
+        changes.clear();
+        pending = null;
+    }
+
+    // Called before the change is made to the dataset.
+    private void change(Node g, Node s, Node p) {
+        boolean isFeatureChange = AccessGeoSPARQL.isPredicateOfFeature(p)
+                || SpatialExtension.GEO_LAT_NODE.equals(p)
+                || SpatialExtension.GEO_LON_NODE.equals(p);
+        boolean isGeometryChange = AccessGeoSPARQL.isPredicateOfGeoResource(p);
+        if (!isFeatureChange && !isGeometryChange) {
+            return;
+        }
+        Node graphName = (g == null || Quad.isDefaultGraph(g)) ? Quad.defaultGraphIRI : g;
+        GraphChanges graphChanges = changes.computeIfAbsent(graphName, gn -> new GraphChanges(mode(graph(gn))));
+        if (isFeatureChange) {
+            graphChanges.features.add(s);
+        } else {
+            graphChanges.geometries.add(s);
+        }
+    }
+
+    /**
+     * Apply the changes recorded since the last commit or abort to the index.
+     * Used for changes made outside a transaction.
+     */
+    public void apply() {
+        update(prepare());
+    }
+
+    /**
+     * Update the index with the changes prepared by {@link #txnCommit}.
+     * Called after the dataset commit has succeeded.
+     */
+    public void txnCommitted() {
+        IndexUpdate update = pending;
+        pending = null;
+        update(update);
+    }
+
+    /** The new trees and the new envelopes of features, by graph name. */
+    private record IndexUpdate(Map<Node, STRtree> replacedTrees, Map<Node, Map<Node, List<Envelope>>> updates) {}
+
+    /**
+     * Compute the index entries for the changes recorded since the last commit or abort,
+     * reading the data. The index is not changed.
+     */
+    private IndexUpdate prepare() {
+        if (changes.isEmpty()) {
+            return null;
+        }
+        String srsURI = index.getSrsInfo().getSrsURI();
+        STRtreePerGraph trees = index.getIndex();
+        Map<Node, STRtree> replacedTrees = new LinkedHashMap<>();
+        Map<Node, Map<Node, List<Envelope>>> updates = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Node, GraphChanges> e : changes.entrySet()) {
+                Node graphName = e.getKey();
+                GraphChanges graphChanges = e.getValue();
+                Graph graph = graph(graphName);
+                Mode mode = mode(graph);
+                if (mode != graphChanges.priorMode || !trees.contains(graphName)) {
+                    LOGGER.debug("Rebuilding spatial index for graph {}", graphName);
+                    replacedTrees.put(graphName, STRtreeUtils.buildSpatialIndexTree(graph, srsURI));
+                    continue;
+                }
+                Set<Node> features = new LinkedHashSet<>(graphChanges.features);
+                for (Node geometry : graphChanges.geometries) {
+                    G.find(graph, null, Geo.HAS_DEFAULT_GEOMETRY_NODE, geometry).forEachRemaining(t -> features.add(t.getSubject()));
+                    G.find(graph, null, Geo.HAS_GEOMETRY_NODE, geometry).forEachRemaining(t -> features.add(t.getSubject()));
+                }
+                Map<Node, List<Envelope>> graphUpdates = new LinkedHashMap<>();
+                for (Node feature : features) {
+                    graphUpdates.put(feature, envelopes(graph, mode, feature, srsURI));
+                }
+                updates.put(graphName, graphUpdates);
+            }
+        } catch (SpatialIndexException ex) {
+            throw new RuntimeException(ex);
+        } finally {
+            changes.clear();
+        }
+        return new IndexUpdate(replacedTrees, updates);
+    }
+
+    private void update(IndexUpdate update) {
+        if (update == null) {
+            return;
+        }
+        STRtreePerGraph trees = index.getIndex();
+        update.replacedTrees().forEach(trees::setTree);
+        update.updates().forEach((graphName, graphUpdates) ->
+            graphUpdates.forEach((feature, envelopes) -> trees.update(graphName, feature, envelopes)));
+
+        Path location = index.getLocation();
+        if (location != null) {
+            try {
+                SpatialIndexIoKryo.appendDeltaLog(location, index, update.replacedTrees(), update.updates());
+            } catch (SpatialIndexException ex) {
+                LOGGER.warn("Failed to write spatial index changes to the delta log of " + location, ex);
+            }
+        }
+    }
+
+    private Graph graph(Node graphName) {
+        return Quad.isDefaultGraph(graphName)
+            ? datasetGraph.getDefaultGraph()
+            : datasetGraph.getGraph(graphName);
+    }
+
+    private static Mode mode(Graph graph) {
+        if (AccessGeoSPARQL.containsGeoLiterals(graph)) {
+            return Mode.GEOSPARQL;
+        }
+        if (AccessWGS84.containsGeoLiteralProperties(graph)) {
+            return Mode.WGS84;
+        }
+        return Mode.NONE;
+    }
+
+    /**
+     * The envelopes of a feature, as found when building the index for the graph.
+     * Geometries that can not be read are skipped.
+     */
+    private static List<Envelope> envelopes(Graph graph, Mode mode, Node feature, String srsURI) {
+        List<Envelope> envelopes = new ArrayList<>();
+        switch (mode) {
+            case GEOSPARQL -> {
+                // Default geometries take precedence.
+                List<Node> geometries = G.find(graph, feature, Geo.HAS_DEFAULT_GEOMETRY_NODE, null).mapWith(Triple::getObject).toList();
+                if (geometries.isEmpty()) {
+                    geometries = G.find(graph, feature, Geo.HAS_GEOMETRY_NODE, null).mapWith(Triple::getObject).toList();
+                }
+                for (Node geometry : geometries) {
+                    List<Triple> literals = Iter.toList(AccessGeoSPARQL.findSpecificGeoLiterals(null, graph, geometry));
+                    for (Triple t : literals) {
+                        try {
+                            GeometryWrapper geometryWrapper = GeometryWrapper.extract(t.getObject());
+                            envelopes.add(SpatialIndexFindUtils.makeSpatialIndexItem(feature, geometryWrapper, srsURI).getEnvelope());
+                        } catch (RuntimeException ex) {
+                            LOGGER.warn("Spatial index: skipping geometry " + t.getObject() + " of feature " + feature, ex);
+                        }
+                    }
+                }
+            }
+            case WGS84 -> {
+                try {
+                    AccessWGS84.findGeoLiterals(null, graph, feature).forEachRemaining(e -> {
+                        envelopes.add(SpatialIndexFindUtils.makeSpatialIndexItem(feature, e.getValue(), srsURI).getEnvelope());
+                    });
+                } catch (RuntimeException ex) {
+                    LOGGER.warn("Spatial index: skipping geo predicates of feature " + feature, ex);
+                }
+            }
+            case NONE -> {}
+        }
+        return envelopes;
+    }
+}
@@ -20,12 +20,17 @@
  */
 package org.apache.jena.geosparql.spatial.index.v2;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -36,12 +41,16 @@ import org.apache.jena.geosparql.implementation.registry.SRSRegistry;
 import org.apache.jena.geosparql.kryo.GeometrySerializerJtsWkb;
 import org.apache.jena.geosparql.spatial.SpatialIndex;
 import org.apache.jena.geosparql.spatial.SpatialIndexException;
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.Dataset;
+import org.locationtech.jts.geom.Envelope;
 import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.index.strtree.STRtree;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoException;
 import com.esotericsoftware.kryo.kryo5.Serializer;
 import com.esotericsoftware.kryo.kryo5.io.Input;
 import com.esotericsoftware.kryo.kryo5.io.Output;
@@ -61,6 +70,13 @@ public class SpatialIndexIoKryo {
     /** The version of the index that is created by this class. */
     public static final String VERSION = "3.0.0";
 
+    /** Suffix of the file, next to the index file, that records changes made since the index file was saved. */
+    public static final String DELTA_LOG_SUFFIX = ".delta";
+
+    // Delta log record kinds.
+    private static final byte RECORD_UPDATE = 1;
+    private static final byte RECORD_TREE = 2;
+
     public static SpatialIndex loadOrBuildSpatialIndex(Dataset dataset, Path spatialIndexFile) throws SpatialIndexException {
         SpatialIndex spatialIndex = loadOrBuildSpatialIndex(dataset, null, spatialIndexFile);
         return spatialIndex;
@@ -143,6 +159,15 @@ public class SpatialIndexIoKryo {
             throw new SpatialIndexException("Save Exception: " + originalFile + " (via temp file: " + tmpFile + ")", ex);
         }
 
+        // The saved index includes all changes.
+        // Replaying the delta log is idempotent so failing to delete it is not an error.
+        Path deltaFile = deltaLogPath(originalFile);
+        try {
+            Files.deleteIfExists(deltaFile);
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to remove no longer needed delta log: " + deltaFile, ex);
+        }
+
         // Delete backup
         try {
             Files.deleteIfExists(originalBackup);
@@ -253,6 +278,121 @@ public class SpatialIndexIoKryo {
         SRSInfo srsInfo = SRSRegistry.getSRSInfo(srsUri);
         SpatialIndexPerGraph spatialIndex = new SpatialIndexPerGraph(srsInfo, index, spatialIndexFile);
         spatialIndex.setLocation(spatialIndexFile);
+        replayDeltaLog(spatialIndexFile, spatialIndex);
         return spatialIndex;
     }
+
+    /** The delta log file for a spatial index file. */
+    public static Path deltaLogPath(Path spatialIndexFile) {
+        Path file = spatialIndexFile.toAbsolutePath();
+        return file.resolveSibling(file.getFileName().toString() + DELTA_LOG_SUFFIX);
+    }
+
+    /**
+     * Append changes to the delta log of a spatial index file.
+     * Changes are recorded per graph, either as the new envelopes of features
+     * (see {@link STRtreePerGraph#update}) or as a replacement tree.
+     * The log is applied by {@link #load(Path)} and removed by {@link #save(Path, SpatialIndexPerGraph)}.
+     * <p>
+     * Each call appends one length-prefixed batch so that a partially written
+     * batch is detected and ignored when the log is replayed.
+     */
+    public static void appendDeltaLog(Path spatialIndexFile, SpatialIndexPerGraph index,
+                                      Map<Node, STRtree> trees,
+                                      Map<Node, Map<Node, List<Envelope>>> updates) throws SpatialIndexException {
+        if (trees.isEmpty() && updates.values().stream().allMatch(Map::isEmpty)) {
+            return;
+        }
+        Path deltaFile = deltaLogPath(spatialIndexFile);
+        Kryo kryo = new Kryo();
+        KryoRegistratorSpatialIndexV2.registerClasses(kryo, null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Output output = new Output(bytes)) {
+            output.writeInt(trees.size() + updates.values().stream().mapToInt(Map::size).sum());
+            trees.forEach((graph, tree) -> {
+                output.writeByte(RECORD_TREE);
+                kryo.writeClassAndObject(output, graph);
+                kryo.writeObject(output, tree);
+            });
+            updates.forEach((graph, features) -> features.forEach((feature, envelopes) -> {
+                output.writeByte(RECORD_UPDATE);
+                kryo.writeClassAndObject(output, graph);
+                kryo.writeClassAndObject(output, feature);
+                output.writeInt(envelopes.size());
+                envelopes.forEach(envelope -> kryo.writeObject(output, envelope));
+            }));
+        }
+
+        try {
+            boolean isNew = !isNonEmptyFile(deltaFile);
+            try (Output output = new Output(Files.newOutputStream(deltaFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+                if (isNew) {
+                    SpatialIndexHeader header = new SpatialIndexHeader();
+                    header.setType(SpatialIndexHeader.TYPE_VALUE);
+                    header.setVersion(VERSION);
+                    header.setSrsUri(index.getSrsInfo().getSrsURI());
+                    writeHeader(output, header);
+                }
+                byte[] batch = bytes.toByteArray();
+                output.writeInt(batch.length);
+                output.writeBytes(batch);
+            }
+        } catch (IOException | KryoException ex) {
+            throw new SpatialIndexException("Failed to append to spatial index delta log: " + deltaFile, ex);
+        }
+    }
+
+    /** Apply the delta log of a spatial index file, if there is one, to the index. */
+    public static void replayDeltaLog(Path spatialIndexFile, SpatialIndexPerGraph index) throws SpatialIndexException {
+        Path deltaFile = deltaLogPath(spatialIndexFile);
+        if (!isNonEmptyFile(deltaFile)) {
+            return;
+        }
+        LOGGER.info("Applying Spatial Index changes: {}", deltaFile);
+        Kryo kryo = new Kryo();
+        KryoRegistratorSpatialIndexV2.registerClasses(kryo, null);
+        STRtreePerGraph trees = index.getIndex();
+        long batches = 0;
+        try (Input input = new Input(Files.newInputStream(deltaFile))) {
+            SpatialIndexHeader header = readHeader(input);
+            if (!VERSION.equals(header.getVersion()) || !index.getSrsInfo().getSrsURI().equals(header.getSrsUri())) {
+                throw new SpatialIndexException("Spatial index delta log does not match the index: " + deltaFile);
+            }
+            while (!input.end()) {
+                byte[] batch;
+                try {
+                    int length = input.readInt();
+                    batch = input.readBytes(length);
+                } catch (KryoException ex) {
+                    LOGGER.warn("Spatial index delta log ends with an incomplete batch: " + deltaFile);
+                    break;
+                }
+                try (Input batchInput = new Input(batch)) {
+                    int n = batchInput.readInt();
+                    for (int i = 0; i < n; i++) {
+                        byte kind = batchInput.readByte();
+                        Node graph = (Node)kryo.readClassAndObject(batchInput);
+                        switch (kind) {
+                            case RECORD_TREE -> trees.setTree(graph, kryo.readObject(batchInput, STRtree.class));
+                            case RECORD_UPDATE -> {
+                                Node feature = (Node)kryo.readClassAndObject(batchInput);
+                                int count = batchInput.readInt();
+                                List<Envelope> envelopes = new ArrayList<>(count);
+                                for (int j = 0; j < count; j++) {
+                                    envelopes.add(kryo.readObject(batchInput, Envelope.class));
+                                }
+                                trees.update(graph, feature, envelopes);
+                            }
+                            default -> throw new SpatialIndexException("Unrecognized record in spatial index delta log: " + deltaFile);
+                        }
+                    }
+                }
+                batches++;
+            }
+        } catch (IOException | KryoException ex) {
+            throw new SpatialIndexException("Failed to read spatial index delta log: " + deltaFile, ex);
+        }
+        LOGGER.info("Applying Spatial Index changes - Completed: {} batches", batches);
+    }
 }
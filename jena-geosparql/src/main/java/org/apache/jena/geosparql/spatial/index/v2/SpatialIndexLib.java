@@ -49,6 +49,7 @@ import org.apache.jena.query.Dataset;
 import org.apache.jena.query.DatasetFactory;
 import org.apache.jena.query.TxnType;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdfpatch.system.DatasetGraphChanges;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.NamedGraph;
 import org.apache.jena.sparql.core.Quad;
@@ -65,6 +66,20 @@ public class SpatialIndexLib {
 
     private static final Logger logger = LoggerFactory.getLogger(SpatialIndexLib.class);
 
+    /**
+     * The number of threads for building a spatial index, from the (dataset) context.
+     * Defaults to the number of available processors.
+     */
+    public static final int getThreadCount(Context context) {
+        int dft = Runtime.getRuntime().availableProcessors();
+        return context == null ? dft : context.getInt(SpatialIndexConstants.symThreadCount, dft);
+    }
+
+    /** Set the number of threads for building a spatial index for the given (dataset) context. */
+    public static final void setThreadCount(Context context, int threadCount) {
+        context.set(SpatialIndexConstants.symThreadCount, threadCount);
+    }
+
     /** Set the preferred SRS for the given (dataset) context. */
     public static final String getPreferredSRS(Context context) {
         return context == null ? null : context.getAsString(SpatialIndexConstants.symSrsUri);
@@ -104,6 +119,33 @@ public class SpatialIndexLib {
         return getSpatialIndex(dsg.getContext());
     }
 
+    /**
+     * Return a dataset that updates the spatial index of the given dataset as changes are committed.
+     * The spatial index must be a {@link SpatialIndexPerGraph}.
+     * Changes must be made through the returned dataset.
+     *
+     * @see SpatialIndexChanges
+     */
+    public static DatasetGraph datasetWithSpatialIndexUpdates(DatasetGraph dsg) throws SpatialIndexException {
+        SpatialIndex spatialIndex = getSpatialIndex(dsg);
+        if (!(spatialIndex instanceof SpatialIndexPerGraph index)) {
+            throw new SpatialIndexException("Dataset Context does not contain a SpatialIndexPerGraph: " + spatialIndex);
+        }
+        SpatialIndexChanges changes = new SpatialIndexChanges(dsg, index);
+        return new DatasetGraphChanges(dsg, changes) {
+            @Override
+            public void commit() {
+                try {
+                    super.commit();
+                } catch (RuntimeException ex) {
+                    changes.txnAbort();
+                    throw ex;
+                }
+                changes.txnCommitted();
+            }
+        };
+    }
+
     /**
      *
      * @param execCxt
@@ -189,6 +231,22 @@ public class SpatialIndexLib {
 
     public static SpatialIndexPerGraph buildSpatialIndexPerGraph(DatasetGraph datasetGraph, String srsURI) throws SpatialIndexException {
         Objects.requireNonNull(datasetGraph);
+        return buildSpatialIndexPerGraph(datasetGraph, srsURI, getThreadCount(datasetGraph.getContext()));
+    }
+
+    /**
+     * Build Spatial Index from all graphs in Dataset.<br>
+     * The graphs are read on the calling thread; geometries are parsed and transformed
+     * to the SRS on {@code threadCount} threads.
+     *
+     * @param datasetGraph
+     * @param srsURI
+     * @param threadCount
+     * @return SpatialIndex constructed.
+     * @throws SpatialIndexException
+     */
+    public static SpatialIndexPerGraph buildSpatialIndexPerGraph(DatasetGraph datasetGraph, String srsURI, int threadCount) throws SpatialIndexException {
+        Objects.requireNonNull(datasetGraph);
 
         if (srsURI == null) {
             // XXX Dataset wrapping due to legacy code.
@@ -202,7 +260,7 @@ public class SpatialIndexLib {
         STRtreePerGraph treePerGraph;
         logger.info("Building Spatial Index - Started");
         try (AutoTxn txn = Txn.autoTxn(datasetGraph, TxnType.READ)) {
-            treePerGraph = STRtreeUtils.buildSpatialIndexTree(datasetGraph, srsURI);
+            treePerGraph = STRtreeUtils.buildSpatialIndexTree(datasetGraph, srsURI, threadCount);
             txn.commit();
         }
         logger.info("Building Spatial Index - Completed");
@@ -109,7 +109,9 @@ public class SpatialIndexerComputation
                 ? datasetGraph.getDefaultGraph()
                 : datasetGraph.getGraph(graphNode);
             if (graph != null) { // May be null if the requested graph does not exist (possibly due to a dynamic dataset)
-                tree = STRtreeUtils.buildSpatialIndexTree(graph, srsURI);
+                // Threads not needed for graphs are used to parse the geometries of a graph.
+                int parseThreadCount = Math.max(1, threadCount / Math.max(1, graphNodes.size()));
+                tree = STRtreeUtils.buildSpatialIndexTree(graph, srsURI, parseThreadCount);
             }
 
             // XXX This commit is a workaround for DatasetGraphText.abort() causing a NPE in
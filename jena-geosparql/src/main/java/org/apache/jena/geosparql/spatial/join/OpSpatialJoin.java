@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.geosparql.spatial.join;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.IndentedWriter;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVisitor;
+import org.apache.jena.sparql.algebra.Transform;
+import org.apache.jena.sparql.algebra.Transformer;
+import org.apache.jena.sparql.algebra.op.OpExt;
+import org.apache.jena.sparql.algebra.op.OpFilter;
+import org.apache.jena.sparql.algebra.op.OpJoin;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIter;
+import org.apache.jena.sparql.engine.iterator.QueryIterNullIterator;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.engine.main.QC;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.serializer.SerializationContext;
+import org.apache.jena.sparql.sse.writers.WriterExpr;
+import org.apache.jena.sparql.sse.writers.WriterOp;
+import org.apache.jena.sparql.util.NodeIsomorphismMap;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.strtree.STRtree;
+
+/**
+ * Spatial join of two patterns on a GeoSPARQL filter function between a geometry literal
+ * variable of each side, for example {@code FILTER(geof:sfIntersects(?wktA, ?wktB))}.
+ * <p>
+ * This is equivalent to {@code (filter expr (join left right))}. The right side is
+ * evaluated and its geometries put in an {@link STRtree}. For each row of the left side,
+ * the expression is evaluated for the right rows whose geometry envelope intersects the
+ * envelope of the left geometry (index nested loop join).
+ * <p>
+ * Created by {@link TransformSpatialJoin}.
+ */
+public class OpSpatialJoin extends OpExt {
+    public static final String TAG = "spatialjoin";
+
+    private final Expr expr;
+    private final Var leftVar;
+    private final Var rightVar;
+    private final Op left;
+    private final Op right;
+
+    public OpSpatialJoin(Expr expr, Var leftVar, Var rightVar, Op left, Op right) {
+        super(TAG);
+        this.expr = Objects.requireNonNull(expr);
+        this.leftVar = Objects.requireNonNull(leftVar);
+        this.rightVar = Objects.requireNonNull(rightVar);
+        this.left = Objects.requireNonNull(left);
+        this.right = Objects.requireNonNull(right);
+    }
+
+    public Expr getExpr() {
+        return expr;
+    }
+
+    public Var getLeftVar() {
+        return leftVar;
+    }
+
+    public Var getRightVar() {
+        return rightVar;
+    }
+
+    public Op getLeft() {
+        return left;
+    }
+
+    public Op getRight() {
+        return right;
+    }
+
+    @Override
+    public Op effectiveOp() {
+        return OpFilter.filter(expr, OpJoin.create(left, right));
+    }
+
+    @Override
+    public Op apply(Transform transform, OpVisitor before, OpVisitor after) {
+        Op left2 = Transformer.transformSkipService(transform, null, left, before, after);
+        Op right2 = Transformer.transformSkipService(transform, null, right, before, after);
+        if (left2 == left && right2 == right) {
+            return this;
+        }
+        return new OpSpatialJoin(expr, leftVar, rightVar, left2, right2);
+    }
+
+    @Override
+    public Op apply(Transform transform) {
+        return apply(transform, null, null);
+    }
+
+    @Override
+    public QueryIterator eval(QueryIterator input, ExecutionContext execCxt) {
+        return QueryIter.flatMap(input, binding -> evalOne(binding, execCxt), execCxt);
+    }
+
+    private QueryIterator evalOne(Binding binding, ExecutionContext execCxt) {
+        // Index the geometries of the right side, in the SRS of the first one.
+        List<Binding> rightRows = new ArrayList<>();
+        QueryIterator rightIter = QC.execute(right, binding, execCxt);
+        try {
+            rightIter.forEachRemaining(rightRows::add);
+        } finally {
+            rightIter.close();
+        }
+        String srsURI = null;
+        STRtree tree = new STRtree();
+        for (int i = 0; i < rightRows.size(); i++) {
+            Node geometry = rightRows.get(i).get(rightVar);
+            if (geometry == null) {
+                continue;
+            }
+            if (srsURI == null) {
+                srsURI = SpatialJoinLib.srsURI(geometry);
+                if (srsURI == null) {
+                    continue;
+                }
+            }
+            Envelope envelope = SpatialJoinLib.envelope(geometry, srsURI);
+            if (envelope != null) {
+                tree.insert(envelope, i);
+            }
+        }
+        if (tree.isEmpty()) {
+            return QueryIterNullIterator.create(execCxt);
+        }
+        tree.build();
+
+        String indexSrsURI = srsURI;
+        QueryIterator leftIter = QC.execute(left, binding, execCxt);
+        return QueryIter.flatMap(leftIter, leftRow -> {
+            Node geometry = leftRow.get(leftVar);
+            Envelope envelope = (geometry == null) ? null : SpatialJoinLib.envelope(geometry, indexSrsURI);
+            if (envelope == null) {
+                return QueryIterNullIterator.create(execCxt);
+            }
+            @SuppressWarnings("unchecked")
+            List<Integer> candidates = tree.query(envelope);
+            candidates.sort(null);
+            Iterator<Binding> matches = Iter.iter(candidates)
+                .map(i -> Algebra.merge(leftRow, rightRows.get(i)))
+                .filter(b -> b != null && expr.isSatisfied(b, execCxt));
+            return QueryIterPlainWrapper.create(matches, execCxt);
+        }, execCxt);
+    }
+
+    @Override
+    public void outputArgs(IndentedWriter out, SerializationContext sCxt) {
+        WriterExpr.output(out, expr, sCxt);
+        out.println();
+        WriterOp.output(out, left, sCxt);
+        out.println();
+        WriterOp.output(out, right, sCxt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(TAG, expr, leftVar, rightVar, left, right);
+    }
+
+    @Override
+    public boolean equalTo(Op other, NodeIsomorphismMap labelMap) {
+        if (!(other instanceof OpSpatialJoin opSpatialJoin)) {
+            return false;
+        }
+        return expr.equals(opSpatialJoin.expr)
+                && leftVar.equals(opSpatialJoin.leftVar)
+                && rightVar.equals(opSpatialJoin.rightVar)
+                && left.equalTo(opSpatialJoin.left, labelMap)
+                && right.equalTo(opSpatialJoin.right, labelMap);
+    }
+}
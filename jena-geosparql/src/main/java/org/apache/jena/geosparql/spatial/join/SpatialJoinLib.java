@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.geosparql.spatial.join;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.jena.geosparql.geof.topological.GenericFilterFunction;
+import org.apache.jena.geosparql.implementation.GeometryWrapper;
+import org.apache.jena.graph.Node;
+import org.locationtech.jts.geom.Envelope;
+
+/**
+ * Support for spatial joins.
+ * <p>
+ * A spatial join only tests the pairs of geometries whose envelopes, in a common SRS,
+ * intersect. This is only correct for relations that imply the geometries intersect,
+ * that is, for {@link GenericFilterFunction}s that are neither disjoint nor disconnected
+ * (see {@link #isSpatialJoinRelation(GenericFilterFunction)}).
+ */
+public class SpatialJoinLib {
+
+    /**
+     * Envelopes are enlarged by this fraction of their size (or absolute amount for points)
+     * to allow for rounding when geometries are transformed to the common SRS.
+     */
+    private static final double ENVELOPE_TOLERANCE = 1e-9;
+
+    /** A pair of indexes. */
+    @FunctionalInterface
+    public interface PairAction {
+        void accept(int i, int j);
+    }
+
+    /** Whether the relation tested by the filter function implies the envelopes of the geometries intersect. */
+    public static boolean isSpatialJoinRelation(GenericFilterFunction filterFunction) {
+        return !filterFunction.isDisjoint() && !filterFunction.isDisconnected();
+    }
+
+    /**
+     * The envelope of a geometry literal in the given SRS, or null if the node is not
+     * a geometry literal, is empty, or can not be transformed.
+     * An empty geometry does not satisfy any relation.
+     */
+    public static Envelope envelope(Node geometryLiteral, String srsURI) {
+        try {
+            GeometryWrapper geometry = GeometryWrapper.extract(geometryLiteral);
+            return envelope(geometry, srsURI);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /** The envelope of a geometry in the given SRS, or null. See {@link #envelope(Node, String)}. */
+    public static Envelope envelope(GeometryWrapper geometry, String srsURI) {
+        try {
+            if (geometry.isEmpty()) {
+                return null;
+            }
+            GeometryWrapper transformed = srsURI.equals(geometry.getSrsURI()) ? geometry : geometry.convertSRS(srsURI);
+            Envelope envelope = new Envelope(transformed.getEnvelope());
+            if (envelope.isNull()) {
+                return null;
+            }
+            envelope.expandBy(ENVELOPE_TOLERANCE * Math.max(1.0, Math.max(envelope.getWidth(), envelope.getHeight())));
+            return envelope;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    /** The SRS URI of a geometry literal, or null if the node is not a geometry literal. */
+    public static String srsURI(Node geometryLiteral) {
+        try {
+            return GeometryWrapper.extract(geometryLiteral).getSrsURI();
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Plane sweep over the envelopes: call the action for each pair of indexes
+     * {@code (i, j)}, {@code i <= j}, of envelopes that intersect.
+     * Null envelopes are skipped.
+     */
+    public static void planeSweep(List<Envelope> envelopes, PairAction action) {
+        List<Integer> order = new ArrayList<>(envelopes.size());
+        for (int i = 0; i < envelopes.size(); i++) {
+            if (envelopes.get(i) != null) {
+                order.add(i);
+            }
+        }
+        order.sort(Comparator.comparingDouble(i -> envelopes.get(i).getMinX()));
+        for (int a = 0; a < order.size(); a++) {
+            int i = order.get(a);
+            Envelope e1 = envelopes.get(i);
+            action.accept(i, i);
+            for (int b = a + 1; b < order.size(); b++) {
+                int j = order.get(b);
+                Envelope e2 = envelopes.get(j);
+                if (e2.getMinX() > e1.getMaxX()) {
+                    break;
+                }
+                if (e2.getMinY() <= e1.getMaxY() && e1.getMinY() <= e2.getMaxY()) {
+                    action.accept(Math.min(i, j), Math.max(i, j));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.geosparql.spatial.join;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.jena.geosparql.geof.topological.GenericFilterFunction;
+import org.apache.jena.geosparql.spatial.SpatialIndexConstants;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVars;
+import org.apache.jena.sparql.algebra.TransformCopy;
+import org.apache.jena.sparql.algebra.Transformer;
+import org.apache.jena.sparql.algebra.op.OpBGP;
+import org.apache.jena.sparql.algebra.op.OpFilter;
+import org.apache.jena.sparql.algebra.op.OpJoin;
+import org.apache.jena.sparql.algebra.optimize.Optimize;
+import org.apache.jena.sparql.algebra.optimize.Rewrite;
+import org.apache.jena.sparql.algebra.optimize.RewriteFactory;
+import org.apache.jena.sparql.core.BasicPattern;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.E_Function;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.function.Function;
+import org.apache.jena.sparql.function.FunctionFactory;
+import org.apache.jena.sparql.function.FunctionRegistry;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * Rewrite a filter with a GeoSPARQL topological function of two geometry variables,
+ * such as {@code geof:sfIntersects(?wktA, ?wktB)}, over a pattern that splits into
+ * independent parts binding each variable into an {@link OpSpatialJoin}.
+ * <p>
+ * <pre>
+ *   (filter (geof:sfIntersects ?wktA ?wktB)
+ *      (bgp (?a geo:asWKT ?wktA) (?b geo:asWKT ?wktB)))
+ * =&gt;
+ *   (spatialjoin (geof:sfIntersects ?wktA ?wktB)
+ *      (bgp (?a geo:asWKT ?wktA))
+ *      (bgp (?b geo:asWKT ?wktB)))
+ * </pre>
+ * Only relations that imply the geometries intersect are rewritten
+ * (see {@link SpatialJoinLib#isSpatialJoinRelation}).
+ * <p>
+ * The rewrite is applied before the standard optimizer by {@link #register()}, which is
+ * called when GeoSPARQL is initialized. It can be disabled with the context symbol
+ * {@link SpatialIndexConstants#symSpatialJoin}.
+ */
+public class TransformSpatialJoin extends TransformCopy {
+
+    private static boolean registered = false;
+
+    private final FunctionRegistry registry;
+
+    /** The functions are looked up in the function registry of the context, if any. */
+    public TransformSpatialJoin(Context context) {
+        FunctionRegistry reg = FunctionRegistry.get(context);
+        this.registry = (reg != null) ? reg : FunctionRegistry.get();
+    }
+
+    /** Add this rewrite to the global optimizer. */
+    public static synchronized void register() {
+        if (registered) {
+            return;
+        }
+        registered = true;
+        RewriteFactory base = Optimize.getFactory();
+        Optimize.setFactory(context -> {
+            Rewrite rewrite = base.create(context);
+            return op -> rewrite.rewrite(transform(op, context));
+        });
+    }
+
+    /** Apply the rewrite, if enabled in the context. */
+    public static Op transform(Op op, Context context) {
+        if (context != null && !context.isTrueOrUndef(SpatialIndexConstants.symSpatialJoin)) {
+            return op;
+        }
+        return Transformer.transform(new TransformSpatialJoin(context), op);
+    }
+
+    @Override
+    public Op transform(OpFilter opFilter, Op subOp) {
+        ExprList exprs = opFilter.getExprs();
+        for (int i = 0; i < exprs.size(); i++) {
+            Expr expr = exprs.get(i);
+            Var[] vars = spatialJoinVars(expr);
+            if (vars == null) {
+                continue;
+            }
+            Op[] sides = split(subOp, vars[0], vars[1]);
+            if (sides == null) {
+                continue;
+            }
+            Op join = new OpSpatialJoin(expr, vars[0], vars[1], sides[0], sides[1]);
+            ExprList remaining = new ExprList();
+            for (int j = 0; j < exprs.size(); j++) {
+                if (j != i) {
+                    remaining.add(exprs.get(j));
+                }
+            }
+            return OpFilter.filterBy(remaining, join);
+        }
+        return super.transform(opFilter, subOp);
+    }
+
+    /** The two variables of a spatial join expression, or null. */
+    private Var[] spatialJoinVars(Expr expr) {
+        if (!(expr instanceof E_Function function) || function.getArgs().size() != 2) {
+            return null;
+        }
+        Expr arg1 = function.getArg(1);
+        Expr arg2 = function.getArg(2);
+        if (!arg1.isVariable() || !arg2.isVariable() || arg1.equals(arg2)) {
+            return null;
+        }
+        String iri = function.getFunctionIRI();
+        FunctionFactory factory = registry.getFunctionFactory(iri);
+        if (factory == null) {
+            return null;
+        }
+        Function f;
+        try {
+            f = factory.create(iri);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+        if (!(f instanceof GenericFilterFunction filterFunction) || !SpatialJoinLib.isSpatialJoinRelation(filterFunction)) {
+            return null;
+        }
+        return new Var[] { arg1.asVar(), arg2.asVar() };
+    }
+
+    /**
+     * Split the pattern into a part that binds {@code var1} and a part that binds
+     * {@code var2} with no variables in common, or return null.
+     */
+    private static Op[] split(Op op, Var var1, Var var2) {
+        if (op instanceof OpBGP opBGP) {
+            return split(opBGP.getPattern(), var1, var2);
+        }
+        if (op instanceof OpJoin opJoin) {
+            Set<Var> leftVars = OpVars.visibleVars(opJoin.getLeft());
+            Set<Var> rightVars = OpVars.visibleVars(opJoin.getRight());
+            if (!disjoint(leftVars, rightVars)) {
+                return null;
+            }
+            if (leftVars.contains(var1) && rightVars.contains(var2)) {
+                return new Op[] { opJoin.getLeft(), opJoin.getRight() };
+            }
+            if (leftVars.contains(var2) && rightVars.contains(var1)) {
+                return new Op[] { opJoin.getRight(), opJoin.getLeft() };
+            }
+        }
+        return null;
+    }
+
+    private static boolean disjoint(Set<Var> vars1, Set<Var> vars2) {
+        for (Var v : vars1) {
+            if (vars2.contains(v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Split the triple patterns into connected components (by shared variables).
+     * The component with {@code var2} is one side, and the other triples are the other side.
+     */
+    private static Op[] split(BasicPattern pattern, Var var1, Var var2) {
+        List<Triple> triples = pattern.getList();
+        int n = triples.size();
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        Map<Var, Integer> firstUse = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            for (Var v : vars(triples.get(i))) {
+                Integer j = firstUse.putIfAbsent(v, i);
+                if (j != null) {
+                    union(parent, i, j);
+                }
+            }
+        }
+        Integer t1 = firstUse.get(var1);
+        Integer t2 = firstUse.get(var2);
+        if (t1 == null || t2 == null || find(parent, t1) == find(parent, t2)) {
+            return null;
+        }
+        int component2 = find(parent, t2);
+        BasicPattern side1 = new BasicPattern();
+        BasicPattern side2 = new BasicPattern();
+        for (int i = 0; i < n; i++) {
+            if (find(parent, i) == component2) {
+                side2.add(triples.get(i));
+            } else {
+                side1.add(triples.get(i));
+            }
+        }
+        return new Op[] { new OpBGP(side1), new OpBGP(side2) };
+    }
+
+    private static List<Var> vars(Triple triple) {
+        List<Var> vars = new ArrayList<>(3);
+        for (Node n : List.of(triple.getSubject(), triple.getPredicate(), triple.getObject())) {
+            if (Var.isVar(n)) {
+                vars.add(Var.alloc(n));
+            }
+        }
+        return vars;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int i, int j) {
+        parent[find(parent, i)] = find(parent, j);
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+package org.apache.jena.geosparql.spatial.index.v2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.geosparql.implementation.datatype.WKTDatatype;
+import org.apache.jena.geosparql.implementation.vocabulary.Geo;
+import org.apache.jena.geosparql.implementation.vocabulary.SpatialExtension;
+import org.apache.jena.geosparql.spatial.SpatialIndexException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.sparql.JenaTransactionException;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.DatasetGraphWrapper;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.system.Txn;
+import org.locationtech.jts.geom.Envelope;
+
+public class SpatialIndexChangesTest {
+
+    private static final Envelope ENVELOPE = new Envelope(-170, 170, -85, 85);
+    private static final Node GRAPH = NodeFactory.createURI("http://www.example.org/graph");
+
+    private static DatasetGraph createDataset(int n) {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Graph data = GraphFactory.createDefaultGraph();
+        GeometryGenerator.generateGraph(data, ENVELOPE, GeometryGenerator.createConfig(n));
+        Txn.executeWrite(dsg, () -> {
+            data.find().forEachRemaining(t -> dsg.add(Quad.create(Quad.defaultGraphIRI, t)));
+            // A graph of WGS84 lat/long data.
+            for (int i = 0; i < 20; i++) {
+                Node feature = feature(1_000_000 + i);
+                dsg.add(GRAPH, feature, SpatialExtension.GEO_LAT_NODE, NodeFactory.createLiteralDT(Integer.toString(i), XSDDatatype.XSDdouble));
+                dsg.add(GRAPH, feature, SpatialExtension.GEO_LON_NODE, NodeFactory.createLiteralDT(Integer.toString(2 * i), XSDDatatype.XSDdouble));
+            }
+        });
+        return dsg;
+    }
+
+    @Test
+    public void testIncrementalUpdates() throws SpatialIndexException {
+        DatasetGraph dsg = createDataset(100);
+        SpatialIndexPerGraph index = SpatialIndexLib.buildSpatialIndex(dsg, null);
+        SpatialIndexLib.setSpatialIndex(dsg, index);
+        DatasetGraph dsg2 = SpatialIndexLib.datasetWithSpatialIndexUpdates(dsg);
+
+        Random random = new Random(1234);
+        for (int round = 0; round < 10; round++) {
+            // Enough changes in one round for the changes to be merged into the tree.
+            int numChanges = (round == 5) ? 3000 : 20;
+            Txn.executeWrite(dsg2, () -> {
+                for (int i = 0; i < numChanges; i++) {
+                    randomChange(dsg2, random, numChanges);
+                }
+            });
+            check(dsg, index, "Round " + round);
+        }
+        index.getIndex().compact();
+        assertFalse(index.getIndex().hasPendingChanges());
+        check(dsg, index, "Compacted");
+    }
+
+    @Test
+    public void testModeChange() throws SpatialIndexException {
+        DatasetGraph dsg = createDataset(10);
+        SpatialIndexPerGraph index = SpatialIndexLib.buildSpatialIndex(dsg, null);
+        SpatialIndexLib.setSpatialIndex(dsg, index);
+        DatasetGraph dsg2 = SpatialIndexLib.datasetWithSpatialIndexUpdates(dsg);
+
+        // GeoSPARQL geometries in the graph of WGS84 data: lat/long is no longer indexed.
+        Txn.executeWrite(dsg2, () -> {
+            dsg2.add(GRAPH, feature(1), Geo.HAS_GEOMETRY_NODE, geometry(1));
+            dsg2.add(GRAPH, geometry(1), Geo.AS_WKT_NODE, wkt(10, 10));
+        });
+        check(dsg, index, "GeoSPARQL");
+        assertEquals(1, index.query(ENVELOPE, GRAPH).size());
+
+        // A new graph.
+        Node graph2 = NodeFactory.createURI("http://www.example.org/graph2");
+        Txn.executeWrite(dsg2, () -> {
+            dsg2.add(graph2, feature(2), Geo.HAS_GEOMETRY_NODE, geometry(2));
+            dsg2.add(graph2, geometry(2), Geo.AS_WKT_NODE, wkt(20, 20));
+        });
+        check(dsg, index, "New graph");
+        assertEquals(Set.of(feature(2)), Set.copyOf(index.query(ENVELOPE, graph2)));
+    }
+
+    @Test
+    public void testAbort() throws SpatialIndexException {
+        DatasetGraph dsg = createDataset(10);
+        SpatialIndexPerGraph index = SpatialIndexLib.buildSpatialIndex(dsg, null);
+        SpatialIndexLib.setSpatialIndex(dsg, index);
+        DatasetGraph dsg2 = SpatialIndexLib.datasetWithSpatialIndexUpdates(dsg);
+        long size = index.getSize();
+
+        dsg2.begin(TxnType.WRITE);
+        dsg2.add(Quad.defaultGraphIRI, feature(5000), Geo.HAS_GEOMETRY_NODE, geometry(5000));
+        dsg2.add(Quad.defaultGraphIRI, geometry(5000), Geo.AS_WKT_NODE, wkt(1, 1));
+        dsg2.abort();
+        dsg2.end();
+        // An empty transaction does not apply the aborted changes.
+        Txn.executeWrite(dsg2, () -> {});
+        assertEquals(size, index.getSize());
+        check(dsg, index, "Abort");
+    }
+
+    @Test
+    public void testCommitFailure() throws IOException, SpatialIndexException {
+        DatasetGraph dsg = createDataset(10);
+        Path file = Files.createTempFile("jena-", ".spatial-index");
+        Path deltaFile = SpatialIndexIoKryo.deltaLogPath(file);
+        try {
+            SpatialIndexPerGraph index = SpatialIndexLib.buildSpatialIndex(dsg, null);
+            index.setLocation(file);
+            SpatialIndexIoKryo.save(file, index);
+            SpatialIndexLib.setSpatialIndex(dsg, index);
+            DatasetGraph failing = new DatasetGraphWrapper(dsg) {
+                @Override
+                public void commit() {
+                    throw new JenaTransactionException("Commit failure");
+                }
+            };
+            DatasetGraph dsg2 = SpatialIndexLib.datasetWithSpatialIndexUpdates(failing);
+            long size = index.getSize();
+
+            dsg2.begin(TxnType.WRITE);
+            dsg2.add(Quad.defaultGraphIRI, feature(5000), Geo.HAS_GEOMETRY_NODE, geometry(5000));
+            dsg2.add(Quad.defaultGraphIRI, geometry(5000), Geo.AS_WKT_NODE, wkt(1, 1));
+            assertThrows(JenaTransactionException.class, dsg2::commit);
+            dsg2.abort();
+            dsg2.end();
+            // Neither the index nor the delta log have the changes.
+            assertEquals(size, index.getSize());
+            check(dsg, index, "Commit failure");
+            assertFalse(Files.exists(deltaFile));
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(deltaFile);
+        }
+    }
+
+    @Test
+    public void testDeltaLog() throws IOException, SpatialIndexException {
+        DatasetGraph dsg = createDataset(50);
+        Path file = Files.createTempFile("jena-", ".spatial-index");
+        Path deltaFile = SpatialIndexIoKryo.deltaLogPath(file);
+        try {
+            SpatialIndexPerGraph index = SpatialIndexLib.buildSpatialIndex(dsg, null);
+            index.setLocation(file);
+            SpatialIndexIoKryo.save(file, index);
+            SpatialIndexLib.setSpatialIndex(dsg, index);
+            DatasetGraph dsg2 = SpatialIndexLib.datasetWithSpatialIndexUpdates(dsg);
+
+            Random random = new Random(5678);
+            for (int round = 0; round < 5; round++) {
+                Txn.executeWrite(dsg2, () -> {
+                    for (int i = 0; i < 20; i++) {
+                        randomChange(dsg2, random, 500);
+                    }
+                });
+            }
+            // Graph rebuild.
+            Txn.executeWrite(dsg2, () -> {
+                dsg2.add(GRAPH, feature(1), Geo.HAS_GEOMETRY_NODE, geometry(1));
+                dsg2.add(GRAPH, geometry(1), Geo.AS_WKT_NODE, wkt(10, 10));
+            });
+            assertTrue(Files.exists(deltaFile));
+
+            // The index file and the delta log.
+            SpatialIndexPerGraph index2 = SpatialIndexIoKryo.load(file);
+            check(dsg, index2, "Loaded");
+
+            // Saving includes the changes.
+            SpatialIndexIoKryo.save(file, index);
+            assertFalse(Files.exists(deltaFile));
+            SpatialIndexPerGraph index3 = SpatialIndexIoKryo.load(file);
+            check(dsg, index3, "Saved");
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(deltaFile);
+        }
+    }
+
+    /** Compare the index with one built from the dataset. */
+    private static void check(DatasetGraph dsg, SpatialIndexPerGraph index, String label) {
+        SpatialIndexPerGraph expected = Txn.calculateRead(dsg, () -> {
+            try {
+                return SpatialIndexLib.buildSpatialIndex(dsg, index.getSrsInfo().getSrsURI());
+            } catch (SpatialIndexException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        assertEquals(label, expected.getSize(), index.getSize());
+        List<Envelope> envelopes = new ArrayList<>();
+        envelopes.add(ENVELOPE);
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            double x = -170 + random.nextDouble(320);
+            double y = -85 + random.nextDouble(150);
+            envelopes.add(new Envelope(x, x + 20, y, y + 20));
+        }
+        for (Node graph : List.of(Quad.defaultGraphIRI, GRAPH)) {
+            for (Envelope envelope : envelopes) {
+                assertEquals(label + ": " + graph + " " + envelope,
+                             new HashSet<>(expected.query(envelope, graph)),
+                             new HashSet<>(index.query(envelope, graph)));
+            }
+        }
+    }
+
+    private static void randomChange(DatasetGraph dsg, Random random, int n) {
+        int id = random.nextInt(n);
+        Node feature = feature(id);
+        Node geometry = geometry(id);
+        Node g = Quad.defaultGraphIRI;
+        switch (random.nextInt(6)) {
+            case 0 -> {
+                // New or additional geometry.
+                dsg.add(g, feature, Geo.HAS_GEOMETRY_NODE, geometry);
+                dsg.add(g, geometry, Geo.AS_WKT_NODE, wkt(-170 + random.nextInt(340), -85 + random.nextInt(170)));
+            }
+            case 1 -> {
+                // Default geometry.
+                Node geometry2 = geometry(n + id);
+                dsg.add(g, feature, Geo.HAS_DEFAULT_GEOMETRY_NODE, geometry2);
+                dsg.add(g, geometry2, Geo.AS_WKT_NODE, wkt(-170 + random.nextInt(340), -85 + random.nextInt(170)));
+            }
+            case 2 -> dsg.deleteAny(g, feature, Geo.HAS_DEFAULT_GEOMETRY_NODE, Node.ANY);
+            case 3 -> dsg.deleteAny(g, geometry, Geo.AS_WKT_NODE, Node.ANY);
+            case 4 -> dsg.deleteAny(g, feature, Geo.HAS_GEOMETRY_NODE, Node.ANY);
+            default -> {
+                // A change unrelated to geometries.
+                dsg.add(g, feature, NodeFactory.createURI("http://www.example.org/p"), NodeFactory.createLiteralString("x"));
+            }
+        }
+    }
+
+    private static Node feature(long id) {
+        return NodeFactory.createURI("http://www.example.org/feature" + id);
+    }
+
+    private static Node geometry(long id) {
+        return NodeFactory.createURI("http://www.example.org/geometry" + id);
+    }
+
+    private static Node wkt(double x, double y) {
+        return NodeFactory.createLiteralDT("POINT(" + x + " " + y + ")", WKTDatatype.INSTANCE);
+    }
+}
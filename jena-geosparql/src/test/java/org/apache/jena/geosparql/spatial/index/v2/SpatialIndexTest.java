@@ -26,7 +26,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -41,8 +44,10 @@ import org.apache.jena.geosparql.spatial.SpatialIndexTestData;
 import org.apache.jena.geosparql.spatial.index.compat.SpatialIndexIo;
 import org.apache.jena.geosparql.spatial.index.v2.GeometryGenerator.GeometryType;
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
 import org.locationtech.jts.geom.Envelope;
 
 public class SpatialIndexTest {
@@ -125,4 +130,38 @@ public class SpatialIndexTest {
             Files.deleteIfExists(file);
         }
     }
+
+    /**
+     * Build the spatial index with several threads parsing the geometries
+     * and compare it with one built on a single thread.
+     */
+    @Test
+    public void testParallelBuild() throws SpatialIndexException {
+        DatasetGraph dsg = DatasetGraphFactory.create();
+        Envelope envelope = new Envelope(-170, 170, -85, 85);
+        GeometryGenerator.generateGraph(dsg.getDefaultGraph(), envelope, GeometryGenerator.createConfig(200));
+        Node graphName = NodeFactory.createURI("http://www.example.org/graph");
+        GeometryGenerator.generateGraph(dsg.getGraph(graphName), new Envelope(0, 10, 0, 10), GeometryGenerator.createConfig(50));
+
+        SpatialIndexPerGraph index1 = SpatialIndexLib.buildSpatialIndexPerGraph(dsg, null, 1);
+        SpatialIndexPerGraph index2 = SpatialIndexLib.buildSpatialIndexPerGraph(dsg, null, 4);
+        Assert.assertEquals(index1.getSize(), index2.getSize());
+
+        SpatialIndexerComputation computation = new SpatialIndexerComputation(dsg, index1.getSrsInfo().getSrsURI(), List.of(Quad.defaultGraphIRI, graphName), 4);
+        SpatialIndexPerGraph index3;
+        try {
+            index3 = computation.call();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new SpatialIndexException("Failed to build index", e);
+        }
+        Assert.assertEquals(index1.getSize(), index3.getSize());
+
+        for (Node g : List.of(Quad.defaultGraphIRI, graphName)) {
+            for (Envelope e : List.of(envelope, new Envelope(0, 20, 0, 20), new Envelope(-100, -50, 10, 40))) {
+                Set<Node> expected = Set.copyOf(index1.query(e, g));
+                Assert.assertEquals(expected, Set.copyOf(index2.query(e, g)));
+                Assert.assertEquals(expected, Set.copyOf(index3.query(e, g)));
+            }
+        }
+    }
 }
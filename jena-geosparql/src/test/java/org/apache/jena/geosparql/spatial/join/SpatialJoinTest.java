@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+package org.apache.jena.geosparql.spatial.join;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.jena.geosparql.configuration.GeoSPARQLConfig;
+import org.apache.jena.geosparql.spatial.SpatialIndexConstants;
+import org.apache.jena.geosparql.spatial.SpatialIndexException;
+import org.apache.jena.geosparql.spatial.index.v2.GeometryGenerator;
+import org.apache.jena.geosparql.spatial.index.v2.SpatialIndexLib;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVisitorBase;
+import org.apache.jena.sparql.algebra.OpWalker;
+import org.apache.jena.sparql.algebra.op.OpExt;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.RowSet;
+import org.apache.jena.sparql.function.FunctionRegistry;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.util.Context;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.locationtech.jts.geom.Envelope;
+
+public class SpatialJoinTest {
+
+    private static final String PREFIXES = """
+        PREFIX geo: <http://www.opengis.net/ont/geosparql#>
+        PREFIX geof: <http://www.opengis.net/def/function/geosparql/>
+        """;
+
+    private static final String FILTER_QUERY = PREFIXES + """
+        SELECT ?a ?b {
+          ?a geo:asWKT ?wktA .
+          ?b geo:asWKT ?wktB .
+          FILTER(geof:sfIntersects(?wktA, ?wktB))
+        }
+        """;
+
+    private static final String PROPERTY_FUNCTION_QUERY = PREFIXES + """
+        SELECT ?a ?b {
+          ?a geo:sfIntersects ?b .
+        }
+        """;
+
+    private static DatasetGraph dataset;
+
+    @BeforeClass
+    public static void setUpClass() {
+        GeoSPARQLConfig.setupNoIndex();
+        Graph graph = GraphFactory.createDefaultGraph();
+        // Geometries have a radius of up to 1, so many of them intersect.
+        GeometryGenerator.generateGraph(graph, new Envelope(0, 20, 0, 20), GeometryGenerator.createConfig(10));
+        dataset = DatasetGraphFactory.wrap(graph);
+    }
+
+    @Test
+    public void testRewrite() {
+        Query query = QueryFactory.create(FILTER_QUERY);
+        Op op = Algebra.compile(query);
+        assertTrue(containsSpatialJoin(Algebra.optimize(op, new Context())));
+
+        Context context = new Context();
+        context.set(SpatialIndexConstants.symSpatialJoin, false);
+        assertFalse(containsSpatialJoin(Algebra.optimize(op, context)));
+
+        // The function registry of the query: no GeoSPARQL functions.
+        Context context2 = new Context();
+        FunctionRegistry.set(context2, new FunctionRegistry());
+        assertFalse(containsSpatialJoin(Algebra.optimize(op, context2)));
+    }
+
+    @Test
+    public void testRewrite_connected() {
+        // ?a and ?b are connected: not a join of independent patterns.
+        Query query = QueryFactory.create(PREFIXES + """
+            SELECT * {
+              ?a geo:asWKT ?wktA .
+              ?a geo:hasGeometry ?b .
+              ?b geo:asWKT ?wktB .
+              FILTER(geof:sfIntersects(?wktA, ?wktB))
+            }
+            """);
+        assertFalse(containsSpatialJoin(Algebra.optimize(Algebra.compile(query), new Context())));
+    }
+
+    @Test
+    public void testRewrite_disjoint() {
+        // Disjoint does not imply intersecting envelopes.
+        Query query = QueryFactory.create(PREFIXES + """
+            SELECT * {
+              ?a geo:asWKT ?wktA .
+              ?b geo:asWKT ?wktB .
+              FILTER(geof:sfDisjoint(?wktA, ?wktB))
+            }
+            """);
+        assertFalse(containsSpatialJoin(Algebra.optimize(Algebra.compile(query), new Context())));
+    }
+
+    @Test
+    public void testFilterJoin() {
+        Context context = new Context();
+        context.set(SpatialIndexConstants.symSpatialJoin, false);
+        List<String> expected = results(dataset, FILTER_QUERY, context);
+        List<String> actual = results(dataset, FILTER_QUERY, new Context());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testPropertyFunctionJoin() throws SpatialIndexException {
+        Context context = new Context();
+        context.set(SpatialIndexConstants.symSpatialJoin, false);
+        List<String> expected = results(dataset, FILTER_QUERY, context);
+
+        // No spatial index: plane sweep.
+        List<String> actual = results(dataset, PROPERTY_FUNCTION_QUERY, new Context());
+        assertEquals(expected, actual);
+
+        // Spatial index.
+        DatasetGraph indexed = DatasetGraphFactory.wrap(dataset.getDefaultGraph());
+        SpatialIndexLib.setSpatialIndex(indexed, SpatialIndexLib.buildSpatialIndex(indexed, null));
+        List<String> actualIndexed = results(indexed, PROPERTY_FUNCTION_QUERY, new Context());
+        assertEquals(expected, actualIndexed);
+    }
+
+    /** The results, sorted. */
+    private static List<String> results(DatasetGraph dsg, String queryString, Context context) {
+        List<String> results = new ArrayList<>();
+        try (QueryExec qExec = QueryExec.dataset(dsg).query(queryString).context(context).build()) {
+            RowSet rowSet = qExec.select();
+            rowSet.forEachRemaining(b -> results.add(b.get("a").getURI() + " " + b.get("b").getURI()));
+        }
+        results.sort(null);
+        return results;
+    }
+
+    private static boolean containsSpatialJoin(Op op) {
+        AtomicBoolean found = new AtomicBoolean(false);
+        OpWalker.walk(op, new OpVisitorBase() {
+            @Override
+            public void visit(OpExt opExt) {
+                if (opExt instanceof OpSpatialJoin) {
+                    found.set(true);
+                }
+            }
+        });
+        return found.get();
+    }
+}
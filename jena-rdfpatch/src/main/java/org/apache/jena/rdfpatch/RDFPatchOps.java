@@ -46,6 +46,8 @@ import org.apache.jena.riot.RDFParser;
 import org.apache.jena.riot.system.ErrorHandler;
 import org.apache.jena.riot.system.StreamRDF;
 import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.util.iso.IsoDiff;
 
 public class RDFPatchOps {
     public static String namespace = "http://jena.apache.org/rdf-patch/";
@@ -249,6 +251,37 @@ public class RDFPatchOps {
         pr.apply(changes);
     }
 
+    /**
+     * Calculate a patch that changes {@code graph1} to be isomorphic to {@code graph2}.
+     * Blank nodes of {@code graph1} are used where they match blank nodes of {@code graph2}.
+     * See {@link IsoDiff}.
+     */
+    public static RDFPatch diff(Graph graph1, Graph graph2) {
+        return deltaToPatch(IsoDiff.diff(graph1, graph2), true);
+    }
+
+    /**
+     * Calculate a patch that changes {@code dsg1} to be isomorphic to {@code dsg2}.
+     * Blank nodes of {@code dsg1} are used where they match blank nodes of {@code dsg2}.
+     * See {@link IsoDiff}.
+     */
+    public static RDFPatch diff(DatasetGraph dsg1, DatasetGraph dsg2) {
+        return deltaToPatch(IsoDiff.diff(dsg1, dsg2), false);
+    }
+
+    private static RDFPatch deltaToPatch(IsoDiff.Delta delta, boolean isGraph) {
+        return build(changes->{
+            changes.txnBegin();
+            delta.removed().forEach(q->changes.delete(graphName(q, isGraph), q.getSubject(), q.getPredicate(), q.getObject()));
+            delta.added().forEach(q->changes.add(graphName(q, isGraph), q.getSubject(), q.getPredicate(), q.getObject()));
+            changes.txnCommit();
+        });
+    }
+
+    private static Node graphName(Quad quad, boolean isGraph) {
+        return ( isGraph || quad.isDefaultGraph() ) ? null : quad.getGraph();
+    }
+
     /** Create a {@link DatasetGraph} that sends changes to a {@link RDFChanges} stream */
     public static DatasetGraph changes(DatasetGraph dsgBase, RDFChanges changes) {
         return new DatasetGraphChanges(dsgBase, changes);
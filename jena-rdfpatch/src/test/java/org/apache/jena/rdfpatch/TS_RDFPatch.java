@@ -36,6 +36,7 @@ import org.apache.jena.rdfpatch.filelog.TestRotate;
     , TestRDFChangesDataset.class
     , TestRDFChangesGraph.class
     , TestRDFChangesCancel.class
+    , TestPatchDiff.class
     , TestRotate.class
     , TestAssemblerFileLog.class
 })
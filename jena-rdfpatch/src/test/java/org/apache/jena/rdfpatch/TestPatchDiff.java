@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.rdfpatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.rdfpatch.changes.PatchSummary;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.iso.IsoDiff;
+
+public class TestPatchDiff {
+
+    @Test public void patch_diff_graph() {
+        Graph g1 = SSE.parseGraph("(graph (<x> <p> _:a) (_:a <q> 1) (_:a <q> 2) (<x> <p> 'abc'))");
+        Graph g2 = SSE.parseGraph("(graph (<x> <p> _:b) (_:b <q> 1) (_:b <q> 3) (<x> <p> 'def'))");
+        RDFPatch patch = RDFPatchOps.diff(g1, g2);
+        PatchSummary summary = RDFPatchOps.summary(patch);
+        assertEquals(2, summary.getCountDeleteData());
+        assertEquals(2, summary.getCountAddData());
+
+        Graph graph = GraphFactory.createTxnGraph();
+        g1.find().forEach(graph::add);
+        RDFPatchOps.applyChange(graph, patch);
+        assertTrue(IsoDiff.isomorphic(graph, g2));
+    }
+
+    @Test public void patch_diff_dataset() {
+        DatasetGraph dsg1 = SSE.parseDatasetGraph("(dataset (graph (_:a <p> 1)) (graph <g> (_:a <p> 2)))");
+        DatasetGraph dsg2 = SSE.parseDatasetGraph("(dataset (graph (_:x <p> 1)) (graph <g> (_:x <p> 3)) (graph <g2> (<s> <p> 4)))");
+        RDFPatch patch = RDFPatchOps.diff(dsg1, dsg2);
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        dsg.executeWrite(()->dsg1.find().forEachRemaining(dsg::add));
+        RDFPatchOps.applyChange(dsg, patch);
+        dsg.executeRead(()->assertTrue(IsoDiff.isomorphic(dsg, dsg2)));
+    }
+}
@@ -22,6 +22,7 @@
 package org.apache.jena.shacl;
 
 import org.apache.jena.graph.Graph;
+import org.apache.jena.shacl.validation.ValidationProc;
 
 /** Operations to work on graph with SHACL.
  *
@@ -59,6 +60,7 @@ import org.apache.jena.graph.Graph;
  *        ShLib.printReport(report);
  *     }
  * </pre>
+ * Validation of a large graph can use multiple threads with {@link #validate(Shapes, Graph, int)}.
  */
 public class GraphValidation {
     /**
@@ -84,14 +86,36 @@ public class GraphValidation {
      * {@code ValidationReport.conforms} returning true).
      */
     public static ValidationReport update(Shapes shapes, Graph data, Runnable update) throws ShaclValidationException {
+        return update(shapes, data, update, 1);
+    }
+
+    /**
+     * Update the graph, then validate using up to {@code threads} threads.
+     * See {@link #update(Shapes, Graph, Runnable)}.
+     * <p>
+     * Changes made in a write transaction are only visible to the thread making them,
+     * so validation of a graph with transactions is done on the calling thread.
+     * Parallel validation applies to graphs without transactions.
+     */
+    public static ValidationReport update(Shapes shapes, Graph data, Runnable update, int threads) throws ShaclValidationException {
         return
             data.getTransactionHandler().calculateAlways(()->{
                 update.run();
-                ValidationReport report = ShaclValidator.get().validate(shapes, data);
+                ValidationReport report = ShaclValidator.get().validate(shapes, data, threads);
                 if ( report.conforms() )
                     return report;
                 // Causes abort.
                 throw new ShaclValidationException(report);
             });
     }
+
+    /**
+     * Validate the graph using up to {@code threads} threads.
+     * If the graph is transactional, several threads are only used when the calling
+     * thread is in a read transaction, and each thread uses its own read transaction.
+     * @see ValidationProc#parallelValidation(Shapes, Graph, int)
+     */
+    public static ValidationReport validate(Shapes shapes, Graph data, int threads) {
+        return ShaclValidator.get().validate(shapes, data, threads);
+    }
 }
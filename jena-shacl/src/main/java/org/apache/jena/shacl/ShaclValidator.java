@@ -25,6 +25,7 @@ import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.riot.RDFDataMgr;
 import org.apache.jena.shacl.sys.ShaclSystem;
+import org.apache.jena.shacl.validation.ValidationProc;
 
 /** Public API for the SHACL Validation. */
 public interface ShaclValidator {
@@ -68,6 +69,22 @@ public interface ShaclValidator {
     /** Produce a full validation report for this node in the data. */
     public ValidationReport validate(Shapes shapes, Graph data, Node node);
 
+    /**
+     * Produce a full validation report, using up to {@code threads} threads.
+     * The report is the same as for {@link #validate(Shapes, Graph)}.
+     * <p>
+     * For a transactional data graph, several threads are only used when the calling
+     * thread is in a read transaction. The threads each read in their own transactions,
+     * so if there are writers during validation, the report is not from one consistent
+     * snapshot of the data.
+     * @see ValidationProc#parallelValidation(Shapes, Graph, int)
+     */
+    public default ValidationReport validate(Shapes shapes, Graph data, int threads) {
+        if ( threads <= 1 )
+            return validate(shapes, data);
+        return ValidationProc.parallelValidation(shapes, data, threads);
+    }
+
     /** Produce a full validation report. */
     public default ValidationReport validate(Graph shapesGraph, Graph data) {
         return validate(parse(shapesGraph), data);
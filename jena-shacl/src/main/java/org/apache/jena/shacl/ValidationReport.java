@@ -214,6 +214,17 @@ public class ValidationReport {
             entries.add(e);
         }
 
+        /** Add the report entries of another builder, after any entries already in this builder. */
+        public void addReportEntries(Builder other) {
+            entries.addAll(other.entries);
+            paths.addAll(other.paths);
+        }
+
+        /** The report entries added so far (read-only view). */
+        public List<ReportEntry> getEntries() {
+            return Collections.unmodifiableList(entries);
+        }
+
         public ValidationReport build() {
             return new ValidationReport(paths, entries, prefixes);
         }
@@ -30,11 +30,13 @@ import org.apache.jena.shacl.ValidationReport;
 import org.apache.jena.shacl.parser.Constraint;
 import org.apache.jena.shacl.parser.Shape;
 import org.apache.jena.shacl.sys.ShaclSystem;
+import org.apache.jena.shacl.validation.ReportEntry;
 import org.apache.jena.shacl.validation.ReportItem;
 import org.apache.jena.shacl.validation.ValidationListener;
 import org.apache.jena.shacl.validation.event.ValidationEvent;
 import org.apache.jena.sparql.path.Path;
 
+import java.util.List;
 import java.util.function.Supplier;
 
 public class ValidationContext {
@@ -70,17 +72,26 @@ public class ValidationContext {
     }
 
     public static ValidationContext create(ValidationContext vCxt) {
-        return new ValidationContext(vCxt);
+        return new ValidationContext(vCxt, vCxt.out);
     }
 
-    private ValidationContext(ValidationContext vCxt) {
+    /**
+     * Create a {@code ValidationContext} with the same settings as {@code vCxt} for
+     * validating part of the data on another thread. It has its own report and output.
+     * The report entries are added to {@code vCxt} with {@link #merge}.
+     */
+    public static ValidationContext createParallel(ValidationContext vCxt) {
+        return new ValidationContext(vCxt, vCxt.out.clone());
+    }
+
+    private ValidationContext(ValidationContext vCxt, IndentedWriter out) {
         this.shapes = vCxt.shapes;
         this.dataGraph = vCxt.dataGraph;
         this.verbose = vCxt.verbose;
         this.strict = vCxt.strict;
         this.validationListener = vCxt.validationListener;
         this.errorHandler = vCxt.errorHandler;
-        this.out = vCxt.out;
+        this.out = out;
     }
 
     private ValidationContext(Shapes shapes, Graph data, ErrorHandler errorHandler, ValidationListener validationListener) {
@@ -113,10 +124,22 @@ public class ValidationContext {
         validationReportBuilder.addReportEntry(message, shape, focusNode, path, valueNode, constraint, sourceConstraint);
     }
 
+    /** Add the report entries of another {@code ValidationContext} to this one. */
+    public void merge(ValidationContext other) {
+        if ( other.seenValidationReportEntry )
+            seenValidationReportEntry = true;
+        validationReportBuilder.addReportEntries(other.validationReportBuilder);
+    }
+
     public ValidationReport generateReport() {
         return validationReportBuilder.build();
     }
 
+    /** The report entries recorded so far, in the order they were recorded. */
+    public List<ReportEntry> reportEntries() {
+        return validationReportBuilder.getEntries();
+    }
+
     public IndentedWriter out() { return out; }
 
     public boolean hasViolation() { return seenValidationReportEntry; }
@@ -65,5 +65,10 @@ public abstract class ConstraintTerm implements Constraint {
         vCxt.reportEntry(item, shape, focusNode, path, this);
     }
 
+    /** Test a single RDF term. Return true if the term satisfies this constraint. */
+    public boolean conforms(ValidationContext vCxt, Node n) {
+        return validate(vCxt, n) == null;
+    }
+
     protected abstract ReportItem validate(ValidationContext vCxt, Node n) ;
 }
@@ -50,6 +50,11 @@ public class ListMemberShape extends ConstraintList {
         this.shape = node;
     }
 
+    /** The shape for the list members. */
+    public Node getMemberShape() {
+        return shape;
+    }
+
     @Override
     public void visit(ConstraintVisitor visitor){
         visitor.visit(this);
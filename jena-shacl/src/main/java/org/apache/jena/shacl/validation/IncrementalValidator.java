@@ -0,0 +1,479 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.shacl.validation;
+
+import java.util.*;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdfpatch.RDFChanges;
+import org.apache.jena.rdfpatch.changes.RDFChangesBase;
+import org.apache.jena.rdfpatch.system.DatasetGraphChanges;
+import org.apache.jena.rdfpatch.system.GraphChanges;
+import org.apache.jena.shacl.ShaclValidationException;
+import org.apache.jena.shacl.Shapes;
+import org.apache.jena.shacl.ValidationReport;
+import org.apache.jena.shacl.engine.Target;
+import org.apache.jena.shacl.engine.TargetType;
+import org.apache.jena.shacl.engine.ValidationContext;
+import org.apache.jena.shacl.engine.constraint.*;
+import org.apache.jena.shacl.parser.Constraint;
+import org.apache.jena.shacl.parser.PropertyShape;
+import org.apache.jena.shacl.parser.Shape;
+import org.apache.jena.shacl.vocabulary.SHACL;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.Transactional;
+import org.apache.jena.sparql.path.*;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+/**
+ * Incremental validation of a data graph.
+ * <p>
+ * An {@code IncrementalValidator} keeps the validation results of a data graph,
+ * by target shape and focus node. Changes to the data graph are notified by
+ * {@link #add(Triple)} and {@link #delete(Triple)}, or by using {@link #changes()}
+ * with a {@link GraphChanges} or a {@link DatasetGraphChanges}.
+ * {@link #validate()} then re-validates only the focus nodes that may be affected
+ * by the changes.
+ * <p>
+ * The focus nodes to re-validate are found by following the paths of the shape
+ * (including nested shapes) in reverse, from the subjects and objects of the changed
+ * triples. Shapes that depend on the data in ways that can not be analysed (SPARQL
+ * targets and constraints) are validated in full. A change to {@code rdfs:subClassOf}
+ * causes all shapes to be validated in full.
+ * <p>
+ * The report has the same entries as validating the whole data graph. The order of
+ * entries may be different.
+ */
+public class IncrementalValidator {
+
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /** What parts of the data the validation of a focus node against a shape depends on. */
+    private record Dependency(Set<Node> predicates, boolean anyPredicate, int depth, boolean full) {}
+
+    private final Shapes shapes;
+    private final Graph data;
+    private final Transactional transactional;
+    private final Map<Shape, Dependency> dependencies = new LinkedHashMap<>();
+    // Validation results: target shape -> focus node -> report entries.
+    // Only focus nodes with report entries are recorded.
+    private final Map<Shape, Map<Node, List<ReportEntry>>> results = new LinkedHashMap<>();
+    // Changes since the last validation.
+    private final Set<Node> touched = new HashSet<>();
+    private boolean validateAll = false;
+    private ValidationReport report = null;
+
+    /**
+     * Create an {@code IncrementalValidator} for the data graph.
+     * This validates the data graph in full.
+     */
+    public static IncrementalValidator create(Shapes shapes, Graph data) {
+        IncrementalValidator validator = new IncrementalValidator(shapes, data);
+        validator.validateAll = true;
+        validator.validate();
+        return validator;
+    }
+
+    private IncrementalValidator(Shapes shapes, Graph data) {
+        this.shapes = shapes;
+        this.data = data;
+        this.transactional = ValidationProc.transactional(data);
+        for ( Shape shape : shapes.getTargetShapes() ) {
+            dependencies.put(shape, new Analysis(shapes).dependency(shape));
+            results.put(shape, new LinkedHashMap<>());
+        }
+    }
+
+    public Shapes getShapes() {
+        return shapes;
+    }
+
+    public Graph getDataGraph() {
+        return data;
+    }
+
+    /** Record that a triple has been added to the data graph. */
+    public void add(Triple triple) {
+        change(triple.getSubject(), triple.getPredicate(), triple.getObject());
+    }
+
+    /** Record that a triple has been deleted from the data graph. */
+    public void delete(Triple triple) {
+        change(triple.getSubject(), triple.getPredicate(), triple.getObject());
+    }
+
+    private void change(Node s, Node p, Node o) {
+        if ( RDFS.Nodes.subClassOf.equals(p) )
+            validateAll = true;
+        touched.add(s);
+        touched.add(o);
+    }
+
+    /** Discard changes recorded since the last validation. */
+    public void reset() {
+        touched.clear();
+        validateAll = false;
+    }
+
+    /**
+     * The validation report as of the last call of {@link #validate()}.
+     */
+    public ValidationReport report() {
+        if ( report == null ) {
+            ValidationReport.Builder builder = ValidationReport.create();
+            builder.addPrefixes(data.getPrefixMapping());
+            builder.addPrefixes(shapes.getGraph().getPrefixMapping());
+            results.values().forEach(map->map.values().forEach(entries->entries.forEach(builder::addReportEntry)));
+            report = builder.build();
+        }
+        return report;
+    }
+
+    /**
+     * Re-validate the focus nodes affected by the changes recorded since the last
+     * validation, and return the updated report.
+     */
+    public ValidationReport validate() {
+        Map<Shape, Map<Node, List<ReportEntry>>> updates = updates();
+        apply(updates);
+        return report();
+    }
+
+    /**
+     * As {@link #validate()} except that, if the updated report has any results,
+     * the report is left unchanged and a {@link ShaclValidationException} is thrown.
+     * The recorded changes are discarded in either case.
+     */
+    public ValidationReport validateOrReject() {
+        Map<Shape, Map<Node, List<ReportEntry>>> updates = updates();
+        if ( ! conforms(updates) ) {
+            ValidationReport.Builder builder = ValidationReport.create();
+            results.forEach((shape, map)->{
+                Map<Node, List<ReportEntry>> shapeUpdates = updates.getOrDefault(shape, Map.of());
+                map.forEach((focusNode, entries)->{
+                    if ( ! shapeUpdates.containsKey(focusNode) )
+                        entries.forEach(builder::addReportEntry);
+                });
+                shapeUpdates.values().forEach(entries->entries.forEach(builder::addReportEntry));
+            });
+            builder.addPrefixes(data.getPrefixMapping());
+            builder.addPrefixes(shapes.getGraph().getPrefixMapping());
+            throw new ShaclValidationException(builder.build());
+        }
+        apply(updates);
+        return report();
+    }
+
+    private boolean conforms(Map<Shape, Map<Node, List<ReportEntry>>> updates) {
+        for ( Shape shape : results.keySet() ) {
+            Map<Node, List<ReportEntry>> shapeUpdates = updates.getOrDefault(shape, Map.of());
+            for ( Map.Entry<Node, List<ReportEntry>> e : shapeUpdates.entrySet() ) {
+                if ( ! e.getValue().isEmpty() )
+                    return false;
+            }
+            for ( Node focusNode : results.get(shape).keySet() ) {
+                if ( ! shapeUpdates.containsKey(focusNode) )
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private void apply(Map<Shape, Map<Node, List<ReportEntry>>> updates) {
+        updates.forEach((shape, shapeUpdates)->{
+            Map<Node, List<ReportEntry>> map = results.get(shape);
+            shapeUpdates.forEach((focusNode, entries)->{
+                if ( entries.isEmpty() )
+                    map.remove(focusNode);
+                else
+                    map.put(focusNode, entries);
+            });
+        });
+        if ( ! updates.isEmpty() )
+            report = null;
+    }
+
+    /**
+     * Calculate the new results for the affected focus nodes, by shape.
+     * An empty list of entries means the focus node now conforms, or is no longer a focus node.
+     * The recorded changes are cleared.
+     */
+    private Map<Shape, Map<Node, List<ReportEntry>>> updates() {
+        if ( ! validateAll && touched.isEmpty() )
+            return Map.of();
+        try {
+            return ValidationProc.inTransaction(transactional, ()->{
+                Map<Shape, Map<Node, List<ReportEntry>>> updates = new LinkedHashMap<>();
+                dependencies.forEach((shape, dependency)->{
+                    Map<Node, List<ReportEntry>> shapeUpdates = updates(shape, dependency);
+                    if ( ! shapeUpdates.isEmpty() )
+                        updates.put(shape, shapeUpdates);
+                });
+                return updates;
+            });
+        } finally {
+            reset();
+        }
+    }
+
+    private Map<Node, List<ReportEntry>> updates(Shape shape, Dependency dependency) {
+        Map<Node, List<ReportEntry>> shapeUpdates = new LinkedHashMap<>();
+        Collection<Node> focusNodes;
+        if ( validateAll || dependency.full() ) {
+            // Existing results are replaced.
+            results.get(shape).keySet().forEach(focusNode->shapeUpdates.put(focusNode, List.of()));
+            focusNodes = VLib.focusNodes(data, shape);
+        } else {
+            focusNodes = new ArrayList<>();
+            for ( Node node : affected(dependency) ) {
+                if ( VLib.isFocusNode(shape, node, data) )
+                    focusNodes.add(node);
+                else if ( results.get(shape).containsKey(node) )
+                    shapeUpdates.put(node, List.of());
+            }
+        }
+        if ( focusNodes.isEmpty() )
+            return shapeUpdates;
+        ValidationContext vCxt = ValidationContext.create(shapes, data);
+        List<ReportEntry> entries = vCxt.reportEntries();
+        for ( Node focusNode : focusNodes ) {
+            int start = entries.size();
+            VLib.validateShape(vCxt, data, shape, focusNode);
+            shapeUpdates.put(focusNode, List.copyOf(entries.subList(start, entries.size())));
+        }
+        return shapeUpdates;
+    }
+
+    /**
+     * The nodes that may be focus nodes with a changed validation result:
+     * the nodes reachable from the changed nodes by following the predicates
+     * of the dependency, in either direction, up to the dependency depth.
+     */
+    private Set<Node> affected(Dependency dependency) {
+        Set<Node> acc = new LinkedHashSet<>(touched);
+        Collection<Node> frontier = touched;
+        for ( int step = 0 ; step < dependency.depth() && ! frontier.isEmpty() ; step++ ) {
+            List<Node> next = new ArrayList<>();
+            for ( Node node : frontier ) {
+                if ( dependency.anyPredicate() ) {
+                    step(node, Node.ANY, acc, next);
+                    continue;
+                }
+                for ( Node predicate : dependency.predicates() )
+                    step(node, predicate, acc, next);
+            }
+            frontier = next;
+        }
+        return acc;
+    }
+
+    private void step(Node node, Node predicate, Set<Node> acc, List<Node> next) {
+        data.find(Node.ANY, predicate, node).forEach(t->{
+            if ( acc.add(t.getSubject()) )
+                next.add(t.getSubject());
+        });
+        if ( node.isLiteral() )
+            return;
+        data.find(node, predicate, Node.ANY).forEach(t->{
+            if ( acc.add(t.getObject()) )
+                next.add(t.getObject());
+        });
+    }
+
+    /** Listen for changes to the default graph. Validate when a transaction commits. */
+    public RDFChanges changes() {
+        return changes(Quad.defaultGraphIRI, false);
+    }
+
+    /**
+     * Listen for changes to a graph (by graph name in a dataset, or {@link Quad#defaultGraphIRI}).
+     * Validate when a transaction commits.
+     * <p>
+     * If {@code rejectOnCommit} is true, a commit that results in validation results throws
+     * {@link ShaclValidationException}. When used with {@link DatasetGraphChanges},
+     * this causes the transaction to abort.
+     */
+    public RDFChanges changes(Node graphName, boolean rejectOnCommit) {
+        return new RDFChangesValidate(graphName, rejectOnCommit);
+    }
+
+    private class RDFChangesValidate extends RDFChangesBase {
+        private final Node graphName;
+        private final boolean rejectOnCommit;
+
+        RDFChangesValidate(Node graphName, boolean rejectOnCommit) {
+            this.graphName = graphName;
+            this.rejectOnCommit = rejectOnCommit;
+        }
+
+        private boolean accept(Node g) {
+            if ( g == null || Quad.isDefaultGraph(g) )
+                return Quad.isDefaultGraph(graphName);
+            return g.equals(graphName);
+        }
+
+        @Override
+        public void add(Node g, Node s, Node p, Node o) {
+            if ( accept(g) )
+                change(s, p, o);
+        }
+
+        @Override
+        public void delete(Node g, Node s, Node p, Node o) {
+            if ( accept(g) )
+                change(s, p, o);
+        }
+
+        @Override
+        public void txnCommit() {
+            if ( rejectOnCommit )
+                validateOrReject();
+            else
+                validate();
+        }
+
+        @Override
+        public void txnAbort() {
+            reset();
+        }
+    }
+
+    /** Work out the {@link Dependency} of a shape. */
+    private static class Analysis {
+        private final Shapes shapes;
+        private final Set<Node> predicates = new HashSet<>();
+        private boolean anyPredicate = false;
+        private boolean full = false;
+        // Shapes being analysed, to detect recursion.
+        private final Set<Shape> active = new HashSet<>();
+
+        Analysis(Shapes shapes) {
+            this.shapes = shapes;
+        }
+
+        Dependency dependency(Shape shape) {
+            for ( Target target : shape.getTargets() ) {
+                if ( target.getTargetType() == TargetType.targetExtension )
+                    full = true;
+            }
+            int depth = shape(shape);
+            return new Dependency(Set.copyOf(predicates), anyPredicate, depth, full);
+        }
+
+        /** The depth, from the focus node, of the data used to validate a shape. */
+        private int shape(Shape shape) {
+            if ( shape == null )
+                return 0;
+            if ( ! active.add(shape) )
+                // Recursive shapes.
+                return UNBOUNDED;
+            try {
+                // Constraints and nested shapes apply to the value nodes.
+                int base = ( shape instanceof PropertyShape propertyShape ) ? path(propertyShape.getPath()) : 0;
+                int depth = base;
+                for ( Constraint c : shape.getConstraints() )
+                    depth = Math.max(depth, add(base, constraint(c)));
+                for ( PropertyShape propertyShape : shape.getPropertyShapes() )
+                    depth = Math.max(depth, add(base, shape(propertyShape)));
+                return depth;
+            } finally {
+                active.remove(shape);
+            }
+        }
+
+        /** The depth, from the value node, of the data used by a constraint. */
+        private int constraint(Constraint c) {
+            if ( c instanceof ConstraintOp1 op1 )
+                return shape(op1.getOther());
+            if ( c instanceof ConstraintOpN opN ) {
+                int depth = 0;
+                for ( Shape other : opN.getOthers() )
+                    depth = Math.max(depth, shape(other));
+                return depth;
+            }
+            if ( c instanceof QualifiedValueShape qvs ) {
+                int depth = shape(qvs.getSub());
+                if ( qvs.qDisjoint() ) {
+                    // Sibling qualified value shapes.
+                    List<Node> others = shapes.getGraph().find(Node.ANY, SHACL.qualifiedValueShape, Node.ANY).mapWith(Triple::getObject).toList();
+                    for ( Node other : others )
+                        depth = Math.max(depth, shape(shapes.getShape(other)));
+                }
+                return depth;
+            }
+            if ( c instanceof ConstraintList ) {
+                predicates.add(RDF.Nodes.first);
+                predicates.add(RDF.Nodes.rest);
+                if ( c instanceof ListMemberShape listMemberShape )
+                    shape(shapes.getShape(listMemberShape.getMemberShape()));
+                return UNBOUNDED;
+            }
+            if ( c instanceof SparqlConstraint || c instanceof ConstraintComponentSPARQL )
+                full = true;
+            return 0;
+        }
+
+        /** The maximum length of a path. */
+        private int path(Path path) {
+            if ( path instanceof P_Path0 p0 ) {
+                predicates.add(p0.getNode());
+                return 1;
+            }
+            if ( path instanceof P_NegPropSet ) {
+                anyPredicate = true;
+                return 1;
+            }
+            if ( path instanceof P_Seq seq )
+                return add(path(seq.getLeft()), path(seq.getRight()));
+            if ( path instanceof P_Alt alt )
+                return Math.max(path(alt.getLeft()), path(alt.getRight()));
+            if ( path instanceof P_Inverse || path instanceof P_ZeroOrOne )
+                return path(((P_Path1)path).getSubPath());
+            if ( path instanceof P_FixedLength fixed )
+                return multiply(path(fixed.getSubPath()), fixed.getCount());
+            if ( path instanceof P_Mod mod ) {
+                int len = path(mod.getSubPath());
+                return ( mod.getMax() < 0 ) ? UNBOUNDED : multiply(len, mod.getMax());
+            }
+            if ( path instanceof P_Path1 path1 ) {
+                // Zero or more, one or more, and other repeating paths.
+                path(path1.getSubPath());
+                return UNBOUNDED;
+            }
+            anyPredicate = true;
+            return UNBOUNDED;
+        }
+
+        private static int add(int x, int y) {
+            return (int)Math.min((long)x + y, UNBOUNDED);
+        }
+
+        private static int multiply(int x, long y) {
+            if ( x == UNBOUNDED || y >= UNBOUNDED )
+                return UNBOUNDED;
+            return (int)Math.min(x * y, UNBOUNDED);
+        }
+    }
+}
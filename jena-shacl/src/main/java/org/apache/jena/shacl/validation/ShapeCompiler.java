@@ -0,0 +1,435 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.shacl.validation;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.shacl.Shapes;
+import org.apache.jena.shacl.ValidationReport;
+import org.apache.jena.shacl.engine.ValidationContext;
+import org.apache.jena.shacl.engine.constraint.*;
+import org.apache.jena.shacl.parser.Constraint;
+import org.apache.jena.shacl.parser.NodeShape;
+import org.apache.jena.shacl.parser.PropertyShape;
+import org.apache.jena.shacl.parser.Shape;
+import org.apache.jena.sparql.algebra.walker.Walker;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Prologue;
+import org.apache.jena.sparql.core.TriplePath;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.exec.QueryExec;
+import org.apache.jena.sparql.exec.QueryExecBuilder;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprFunctionOp;
+import org.apache.jena.sparql.expr.ExprVisitorBase;
+import org.apache.jena.sparql.path.*;
+import org.apache.jena.sparql.syntax.*;
+
+/**
+ * Compile shapes to set-oriented SPARQL queries.
+ * <p>
+ * Validation by {@link VLib} works one focus node at a time, finding the value nodes
+ * of each property shape and evaluating each constraint for that focus node.
+ * A compiled shape checks constraints for all the focus nodes of a target shape
+ * with one query. The query evaluates the path of a property shape for all subjects
+ * and the results are restricted to the focus nodes, which are found as usual.
+ * Only the focus nodes that violate a constraint are kept.
+ * <p>
+ * Constraints compiled:
+ * <ul>
+ * <li>{@code sh:minCount}, {@code sh:maxCount}, {@code sh:hasValue}, {@code sh:class}
+ *     and the constraints on the value node term ({@code sh:datatype}, {@code sh:nodeKind},
+ *     {@code sh:in}, {@code sh:pattern}, ranges, string lengths, {@code sh:languageIn}) -
+ *     one query per property shape, with each (focus node, value node) row tested and
+ *     counted as it is read. The {@code sh:class} test is done once for each value node.
+ * <li>SPARQL-based constraints of node shapes ({@code sh:sparql} SELECT) - the query is
+ *     executed once with {@code $this} unbound. This is only done when that gives the
+ *     same focus nodes as pre-binding {@code $this}: {@code $this} must be projected and
+ *     appear in a triple pattern of the top-level group, and the query must not use
+ *     sub-queries, {@code MINUS}, {@code VALUES}, {@code SERVICE}, assignment to {@code $this},
+ *     aggregation, or {@code LIMIT}/{@code OFFSET}.
+ * </ul>
+ * Property shapes are compiled when the path can not match zero steps.
+ * Shapes with few focus nodes (see {@link #compile(Shapes, int)}) are validated node-by-node.
+ * <p>
+ * Focus nodes that violate a compiled constraint, and all constraints that can not
+ * be compiled, are validated node-by-node, so the report is the same as
+ * {@link ValidationProc#plainValidation} and in the same order.
+ * <p>
+ * Validation listener events are not generated for the work done by compiled queries.
+ */
+public class ShapeCompiler {
+
+    private static final Var varThis = Var.alloc("this");
+    private static final Var varValue = Var.alloc("value");
+    // As SparqlValidation.
+    private static final Node shapesGraphName = NodeFactory.createURI("foo");
+    // No prefixes: write IRIs in full.
+    private static final Prologue prologue = new Prologue();
+
+    /** The kinds of set-oriented check. */
+    private enum CheckKind {
+        // The query returns ?this and ?value for each value node. Cardinality, sh:hasValue,
+        // sh:class and the term constraints are tested from the rows.
+        VALUE_NODES,
+        // A SPARQL constraint. The query returns ?this for candidate focus nodes.
+        SPARQL
+    }
+
+    private record Check(CheckKind kind, Shape shape, List<Constraint> constraints, Query query) {}
+
+    /** Compiled form of a target shape. */
+    private record ShapePlan(Shape shape, List<Check> checks, Set<Constraint> compiled) {}
+
+    /** Default for the number of focus nodes of a shape below which validation is node-by-node. */
+    public static final int DftMinFocusNodes = 100;
+
+    private final Shapes shapes;
+    private final int minFocusNodes;
+    private final List<ShapePlan> plans = new ArrayList<>();
+
+    /** Compile shapes. The compiled shapes can be used to validate any number of data graphs. */
+    public static ShapeCompiler compile(Shapes shapes) {
+        return compile(shapes, DftMinFocusNodes);
+    }
+
+    /**
+     * Compile shapes. The compiled checks of a shape are used when it has at least
+     * {@code minFocusNodes} focus nodes in the data.
+     */
+    public static ShapeCompiler compile(Shapes shapes, int minFocusNodes) {
+        return new ShapeCompiler(shapes, minFocusNodes);
+    }
+
+    private ShapeCompiler(Shapes shapes, int minFocusNodes) {
+        this.shapes = shapes;
+        this.minFocusNodes = minFocusNodes;
+        for ( Shape shape : shapes.getTargetShapes() )
+            plans.add(compile(shape));
+    }
+
+    public Shapes getShapes() {
+        return shapes;
+    }
+
+    /** The number of constraints evaluated by set-oriented queries. */
+    public int numCompiledConstraints() {
+        return plans.stream().mapToInt(plan->plan.compiled().size()).sum();
+    }
+
+    /** Validate a data graph. */
+    public ValidationReport validate(Graph data) {
+        return ValidationProc.inTransaction(ValidationProc.transactional(data), ()->{
+            ValidationContext vCxt = ValidationContext.create(shapes, data);
+            for ( ShapePlan plan : plans )
+                validate(vCxt, data, plan);
+            return vCxt.generateReport();
+        });
+    }
+
+    private void validate(ValidationContext vCxt, Graph data, ShapePlan plan) {
+        Shape shape = plan.shape();
+        Collection<Node> focusNodes = VLib.focusNodes(data, shape);
+        if ( focusNodes.isEmpty() )
+            return;
+        // Constraint -> focus nodes that need to be validated node-by-node.
+        // Null for "all focus nodes": few focus nodes are validated faster node-by-node.
+        Map<Constraint, Set<Node>> violations = null;
+        if ( focusNodes.size() >= minFocusNodes ) {
+            Set<Node> focusNodeSet = ( focusNodes instanceof Set<Node> set ) ? set : new HashSet<>(focusNodes);
+            violations = new IdentityHashMap<>();
+            for ( Check check : plan.checks() )
+                execute(vCxt, data, check, focusNodeSet, violations);
+        }
+
+        for ( Node focusNode : focusNodes ) {
+            if ( shape.deactivated() )
+                continue;
+            if ( shape instanceof NodeShape ) {
+                for ( Constraint c : shape.getConstraints() ) {
+                    if ( ! mustValidate(plan, violations, c, focusNode) )
+                        continue;
+                    VLib.evalConstraint(vCxt, data, shape, focusNode, null, null, c);
+                }
+            } else if ( mustValidate(plan, violations, shape, focusNode) ) {
+                // Target property shape.
+                VLib.validateShape(vCxt, data, shape, focusNode);
+                continue;
+            }
+            for ( PropertyShape propertyShape : shape.getPropertyShapes() ) {
+                if ( mustValidate(plan, violations, propertyShape, focusNode) )
+                    VLib.validationPropertyShapes(vCxt, data, List.of(propertyShape), focusNode);
+            }
+        }
+    }
+
+    private static boolean mustValidate(ShapePlan plan, Map<Constraint, Set<Node>> violations, Constraint c, Node focusNode) {
+        if ( violations == null || ! plan.compiled().contains(c) )
+            return true;
+        return violations.getOrDefault(c, Set.of()).contains(focusNode);
+    }
+
+    private static boolean mustValidate(ShapePlan plan, Map<Constraint, Set<Node>> violations, Shape shape, Node focusNode) {
+        if ( shape.deactivated() )
+            return false;
+        if ( ! shape.getPropertyShapes().isEmpty() )
+            return true;
+        for ( Constraint c : shape.getConstraints() ) {
+            if ( mustValidate(plan, violations, c, focusNode) )
+                return true;
+        }
+        return false;
+    }
+
+    private static void execute(ValidationContext vCxt, Graph data, Check check, Set<Node> focusNodes, Map<Constraint, Set<Node>> violations) {
+        switch (check.kind()) {
+            case VALUE_NODES -> {
+                List<Constraint> constraints = check.constraints();
+                // Distinct value nodes per focus node, for cardinality.
+                Map<Node, Integer> counts = new HashMap<>();
+                // sh:hasValue -> focus nodes with the value.
+                Map<Constraint, Set<Node>> hasValues = new IdentityHashMap<>();
+                // sh:class -> result for each value node. Value nodes are often shared.
+                Map<Constraint, Map<Node, Boolean>> classResults = new IdentityHashMap<>();
+                select(QueryExec.graph(data).query(check.query()), row->{
+                    Node n = row.get(varThis);
+                    if ( ! focusNodes.contains(n) )
+                        return;
+                    Node value = row.get(varValue);
+                    counts.merge(n, 1, Integer::sum);
+                    for ( Constraint c : constraints ) {
+                        if ( c instanceof HasValueConstraint hasValue ) {
+                            if ( hasValue.getValue().equals(value) )
+                                hasValues.computeIfAbsent(c, x->new HashSet<>()).add(n);
+                        } else if ( c instanceof ConstraintTerm constraintTerm ) {
+                            if ( ! constraintTerm.conforms(vCxt, value) )
+                                violations.computeIfAbsent(c, x->new HashSet<>()).add(n);
+                        } else if ( c instanceof ConstraintDataTerm constraintDataTerm ) {
+                            boolean conforms = classResults.computeIfAbsent(c, x->new HashMap<>())
+                                    .computeIfAbsent(value, v->constraintDataTerm.validate(vCxt, data, v) == null);
+                            if ( ! conforms )
+                                violations.computeIfAbsent(c, x->new HashSet<>()).add(n);
+                        }
+                    }
+                });
+                for ( Constraint c : constraints ) {
+                    Set<Node> acc = null;
+                    if ( c instanceof MinCount minCount )
+                        acc = select(focusNodes, n->counts.getOrDefault(n, 0) < minCount.getMinCount());
+                    else if ( c instanceof MaxCount maxCount )
+                        acc = select(focusNodes, n->counts.getOrDefault(n, 0) > maxCount.getMaxCount());
+                    else if ( c instanceof HasValueConstraint ) {
+                        Set<Node> satisfied = hasValues.getOrDefault(c, Set.of());
+                        acc = select(focusNodes, n->!satisfied.contains(n));
+                    }
+                    if ( acc != null )
+                        violations.put(c, acc);
+                }
+            }
+            case SPARQL -> {
+                Set<Node> acc = violations.computeIfAbsent(check.constraints().get(0), c->new HashSet<>());
+                DatasetGraph dsg = DatasetGraphFactory.createGeneral(data);
+                dsg.addGraph(shapesGraphName, check.shape().getShapeGraph());
+                Binding substitution = Binding.builder()
+                        .add(Var.alloc("currentShape"), check.shape().getShapeNode())
+                        .add(Var.alloc("shapesGraph"), shapesGraphName)
+                        .build();
+                select(QueryExec.dataset(dsg).query(check.query()).substitution(substitution), row->{
+                    Node n = row.get(varThis);
+                    if ( n != null && focusNodes.contains(n) )
+                        acc.add(n);
+                });
+            }
+        }
+    }
+
+    private static Set<Node> select(Set<Node> nodes, Predicate<Node> predicate) {
+        Set<Node> acc = new HashSet<>();
+        for ( Node n : nodes ) {
+            if ( predicate.test(n) )
+                acc.add(n);
+        }
+        return acc;
+    }
+
+    private static void select(QueryExecBuilder builder, Consumer<Binding> action) {
+        try ( QueryExec qExec = builder.build() ) {
+            qExec.select().forEachRemaining(action);
+        }
+    }
+
+    // ---- Compilation
+
+    private static ShapePlan compile(Shape shape) {
+        List<Check> checks = new ArrayList<>();
+        Set<Constraint> compiled = Collections.newSetFromMap(new IdentityHashMap<>());
+        if ( shape instanceof PropertyShape propertyShape )
+            compile(propertyShape, checks, compiled);
+        else {
+            for ( Constraint c : shape.getConstraints() ) {
+                if ( c instanceof SparqlConstraint sparqlConstraint && batchable(sparqlConstraint.getQuery()) ) {
+                    checks.add(new Check(CheckKind.SPARQL, shape, List.of(c), sparqlConstraint.getQuery()));
+                    compiled.add(c);
+                }
+            }
+            for ( PropertyShape propertyShape : shape.getPropertyShapes() )
+                compile(propertyShape, checks, compiled);
+        }
+        return new ShapePlan(shape, checks, compiled);
+    }
+
+    private static void compile(PropertyShape propertyShape, List<Check> checks, Set<Constraint> compiled) {
+        // The queries find the value nodes of all subjects of the path, and the results
+        // are restricted to the focus nodes. A path that can be zero length also connects
+        // a focus node that is not in the data to itself.
+        if ( ! nonZeroLength(propertyShape.getPath()) )
+            return;
+        String path = PathWriter.asString(propertyShape.getPath(), prologue);
+        // Constraints tested from the value nodes.
+        List<Constraint> valueConstraints = new ArrayList<>();
+        for ( Constraint c : propertyShape.getConstraints() ) {
+            if ( c instanceof MinCount || c instanceof MaxCount || c instanceof HasValueConstraint || c instanceof ClassConstraint )
+                valueConstraints.add(c);
+            else if ( c instanceof ConstraintTerm && ! ( c instanceof JLogConstraint || c instanceof JViolationConstraint ) )
+                valueConstraints.add(c);
+        }
+        if ( ! valueConstraints.isEmpty() ) {
+            // A simple property has no duplicate (focus node, value node) pairs.
+            String distinct = ( propertyShape.getPath() instanceof P_Link ) ? "" : "DISTINCT ";
+            String qs = "SELECT "+distinct+"?this ?value { ?this "+path+" ?value }";
+            checks.add(new Check(CheckKind.VALUE_NODES, propertyShape, List.copyOf(valueConstraints), QueryFactory.create(qs)));
+            compiled.addAll(valueConstraints);
+        }
+    }
+
+    /** Whether every match of the path is at least one step. */
+    private static boolean nonZeroLength(Path path) {
+        return switch (path) {
+            case P_Link p -> true;
+            case P_ReverseLink p -> true;
+            case P_NegPropSet p -> true;
+            case P_Inverse p -> nonZeroLength(p.getSubPath());
+            case P_OneOrMore1 p -> nonZeroLength(p.getSubPath());
+            case P_OneOrMoreN p -> nonZeroLength(p.getSubPath());
+            case P_Seq p -> nonZeroLength(p.getLeft()) || nonZeroLength(p.getRight());
+            case P_Alt p -> nonZeroLength(p.getLeft()) && nonZeroLength(p.getRight());
+            default -> false;
+        };
+    }
+
+    // ---- SPARQL constraints
+
+    /**
+     * Whether executing the query once, with {@code $this} unbound, finds all the
+     * focus nodes for which the query, with {@code $this} pre-bound, has results.
+     */
+    /*package*/ static boolean batchable(Query query) {
+        if ( ! query.isSelectType() )
+            return false;
+        if ( query.hasAggregators() || query.hasGroupBy() || query.hasHaving() || query.hasLimit() || query.hasOffset() || query.hasValues() )
+            return false;
+        if ( ! query.getResultVars().contains(varThis.getVarName()) )
+            return false;
+        if ( !(query.getQueryPattern() instanceof ElementGroup group) )
+            return false;
+        boolean mandatory = false;
+        for ( Element elt : group.getElements() ) {
+            if ( elt instanceof ElementPathBlock pathBlock ) {
+                for ( TriplePath tp : pathBlock.getPattern().getList() ) {
+                    // A zero length path with $this unbound only matches nodes in the graph.
+                    if ( ! tp.isTriple() && ! nonZeroLength(tp.getPath()) )
+                        continue;
+                    if ( varThis.equals(tp.getSubject()) || varThis.equals(tp.getObject()) )
+                        mandatory = true;
+                }
+            }
+        }
+        if ( ! mandatory )
+            return false;
+        for ( Element elt : group.getElements() ) {
+            // A filter of the top level group applies after $this is bound.
+            boolean ok = ( elt instanceof ElementFilter filter )
+                    ? batchable(filter.getExpr())
+                    : batchable(elt, true);
+            if ( ! ok )
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check the syntax elements.
+     * If {@code thisUnbound}, {@code $this} may be unbound when an expression is evaluated,
+     * which is different from pre-binding.
+     * Inside {@code EXISTS}, {@code $this} is substituted as it is when pre-binding.
+     */
+    private static boolean batchable(Element element, boolean thisUnbound) {
+        boolean[] result = { true };
+        ElementWalker.walk(element, new ElementVisitorBase() {
+            @Override public void visit(ElementSubQuery el)     { result[0] = false; }
+            @Override public void visit(ElementMinus el)        { result[0] = false; }
+            @Override public void visit(ElementService el)      { result[0] = false; }
+            @Override public void visit(ElementData el)         { result[0] = false; }
+            @Override public void visit(ElementLateral el)      { result[0] = false; }
+            @Override public void visit(ElementDataset el)      { result[0] = false; }
+            @Override public void visit(ElementAssign el)       { assigns(el.getVar(), el.getExpr()); }
+            @Override public void visit(ElementBind el)         { assigns(el.getVar(), el.getExpr()); }
+            @Override public void visit(ElementFilter el)       { expr(el.getExpr()); }
+
+            private void assigns(Var var, Expr expr) {
+                if ( varThis.equals(var) )
+                    result[0] = false;
+                expr(expr);
+            }
+
+            private void expr(Expr expr) {
+                if ( thisUnbound && expr.getVarsMentioned().contains(varThis) )
+                    result[0] = false;
+                if ( ! batchable(expr) )
+                    result[0] = false;
+            }
+        });
+        return result[0];
+    }
+
+    /** Check the patterns of any {@code EXISTS} and {@code NOT EXISTS} in an expression. */
+    private static boolean batchable(Expr expr) {
+        boolean[] result = { true };
+        Walker.walk(expr, new ExprVisitorBase() {
+            @Override
+            public void visit(ExprFunctionOp funcOp) {
+                if ( ! batchable(funcOp.getElement(), false) )
+                    result[0] = false;
+            }
+        });
+        return result[0];
+    }
+}
@@ -21,16 +21,24 @@
 
 package org.apache.jena.shacl.validation;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
+import org.apache.jena.query.ReadWrite;
 import org.apache.jena.shacl.Shapes;
 import org.apache.jena.shacl.ValidationReport;
 import org.apache.jena.shacl.engine.ValidationContext;
 import org.apache.jena.shacl.parser.Shape;
 import org.apache.jena.shacl.validation.event.*;
+import org.apache.jena.sparql.core.GraphView;
+import org.apache.jena.sparql.core.Transactional;
+import org.apache.jena.system.Txn;
 
 public class ValidationProc {
     /* 3.4 Validation
@@ -101,6 +109,141 @@ public class ValidationProc {
         plainValidationInternal(vCxt, data, null, shape);
     }
 
+    // ---- Parallel.
+
+    /** Default number of focus nodes in a unit of work for parallel validation. */
+    public static final int DFT_PARALLEL_BATCH_SIZE = 1_000;
+
+    /**
+     * Validate using multiple threads.
+     * <p>
+     * The units of work are batches of focus nodes of a shape; the threads take units
+     * as they become free. Each unit is validated with its own {@link ValidationContext}
+     * and the results are combined in shape order, then focus node order, so the report
+     * is the same as for {@link #plainValidation(Shapes, Graph)}.
+     * <p>
+     * Validation events for different shapes and focus nodes may be delivered
+     * concurrently, and a validation listener must be thread-safe.
+     * <p>
+     * Transactions are per-thread, so the threads can not share one snapshot of a
+     * transactional data graph:
+     * <ul>
+     * <li>If the calling thread is not in a transaction, validation is done on the
+     * calling thread in one read transaction, and the report is for one snapshot of
+     * the data.</li>
+     * <li>If the calling thread is in a write transaction, changes are not visible to
+     * other threads, and validation is done on the calling thread.</li>
+     * <li>If the calling thread is in a read transaction, finding the focus nodes of
+     * each shape and each unit of work is executed in its own read transaction on the
+     * thread doing the work. Each sees the data as last committed when it starts, so
+     * if there are writers during validation, the report is not from one consistent
+     * snapshot of the data.</li>
+     * </ul>
+     */
+    public static ValidationReport parallelValidation(Shapes shapes, Graph data, int threads) {
+        return parallelValidation(shapes, data, threads, DFT_PARALLEL_BATCH_SIZE);
+    }
+
+    /**
+     * Validate using multiple threads, with units of work of up to {@code batchSize}
+     * focus nodes. See {@link #parallelValidation(Shapes, Graph, int)}.
+     */
+    public static ValidationReport parallelValidation(Shapes shapes, Graph data, int threads, int batchSize) {
+        if ( batchSize < 1 )
+            throw new IllegalArgumentException("Batch size must be one or more: "+batchSize);
+        Transactional transactional = null;
+        if ( data.getTransactionHandler().transactionsSupported() ) {
+            transactional = transactional(data);
+            if ( transactional == null )
+                threads = 1;
+            else if ( ! transactional.isInTransaction() )
+                // One snapshot of the data.
+                return Txn.calculateRead(transactional, ()->plainValidation(shapes, data));
+            else if ( transactional.transactionMode() == ReadWrite.WRITE )
+                threads = 1;
+        }
+        if ( threads <= 1 )
+            return plainValidation(shapes, data);
+        ValidationContext vCxt = ValidationContext.create(shapes, data);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return parallelValidation(vCxt, shapes, data, transactional, batchSize, pool);
+        } finally { pool.shutdown(); }
+    }
+
+    /** One unit of work: focus nodes {@code [start, end)} of a shape. */
+    private record Unit(Shape shape, List<Node> focusNodes, int start, int end) {}
+
+    private static ValidationReport parallelValidation(ValidationContext vCxt, Shapes shapes, Graph data, Transactional transactional,
+                                                       int batchSize, ForkJoinPool pool) {
+        List<Shape> targetShapes = List.copyOf(shapes.getTargetShapes());
+        vCxt.notifyValidationListener(() -> new TargetShapesValidationStartedEvent(vCxt, targetShapes));
+        try {
+            // Focus nodes of each shape, then split into units of work, in the order of a sequential validation.
+            List<List<Node>> shapeFocusNodes = pool.submit(()->
+                targetShapes.parallelStream().map(shape->
+                    inTransaction(transactional, ()->{
+                        vCxt.notifyValidationListener(() -> new ShapeValidationStartedEvent(vCxt, shape));
+                        List<Node> focusNodes = List.copyOf(VLib.focusNodes(data, shape));
+                        vCxt.notifyValidationListener(() -> new FocusNodesDeterminedEvent(vCxt, shape, focusNodes));
+                        return focusNodes;
+                    })).toList()
+                ).join();
+
+            List<Unit> units = new ArrayList<>();
+            for ( int i = 0 ; i < targetShapes.size() ; i++ ) {
+                List<Node> focusNodes = shapeFocusNodes.get(i);
+                for ( int start = 0 ; start < focusNodes.size() ; start += batchSize )
+                    units.add(new Unit(targetShapes.get(i), focusNodes, start, Math.min(start+batchSize, focusNodes.size())));
+            }
+
+            List<ValidationContext> results = pool.submit(()->
+                units.parallelStream().map(unit->
+                    inTransaction(transactional, ()->{
+                        ValidationContext vCxtUnit = ValidationContext.createParallel(vCxt);
+                        for ( int j = unit.start ; j < unit.end ; j++ )
+                            VLib.validateShape(vCxtUnit, data, unit.shape, unit.focusNodes.get(j));
+                        return vCxtUnit;
+                    })).toList()
+                ).join();
+
+            results.forEach(vCxt::merge);
+            targetShapes.forEach(shape->vCxt.notifyValidationListener(() -> new ShapeValidationFinishedEvent(vCxt, shape)));
+            return vCxt.generateReport();
+        } finally {
+            vCxt.notifyValidationListener(() -> new TargetShapesValidationFinishedEvent(vCxt, targetShapes));
+        }
+    }
+
+    /*package*/ static <X> X inTransaction(Transactional transactional, Supplier<X> action) {
+        if ( transactional == null )
+            return action.get();
+        return Txn.calculateRead(transactional, action);
+    }
+
+    /**
+     * The {@link Transactional} for a graph that supports transactions,
+     * or null if it is not known how to start a transaction on another thread.
+     */
+    /*package*/ static Transactional transactional(Graph data) {
+        if ( data instanceof Transactional transactional )
+            return transactional;
+        if ( data instanceof GraphView graphView )
+            return graphView.getDataset();
+        return null;
+    }
+
+    // ---- Compiled.
+
+    /**
+     * Validate using set-oriented queries for the constraints that can be compiled.
+     * The report is the same as {@link #plainValidation(Shapes, Graph)}.
+     * To validate several data graphs with the same shapes, use {@link ShapeCompiler} directly.
+     */
+    public static ValidationReport compiledValidation(Shapes shapes, Graph data) {
+        return ShapeCompiler.compile(shapes).validate(data);
+    }
+
     // ---- Single node.
 
     public static ValidationReport plainValidationNode(Shapes shapes, Graph data, Node node) {
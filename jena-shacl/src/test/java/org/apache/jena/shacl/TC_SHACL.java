@@ -26,7 +26,10 @@ import org.junit.platform.suite.api.Suite;
 
 import org.apache.jena.shacl.compact.TS_Compact;
 import org.apache.jena.shacl.tests.TestImports;
+import org.apache.jena.shacl.tests.TestValidationCompiled;
+import org.apache.jena.shacl.tests.TestValidationIncremental;
 import org.apache.jena.shacl.tests.TestValidationListener;
+import org.apache.jena.shacl.tests.TestValidationParallel;
 import org.apache.jena.shacl.tests.TestValidationReport;
 import org.apache.jena.shacl.tests.jena_shacl.TS_JenaShacl;
 import org.apache.jena.shacl.tests.std.TS_StdSHACL;
@@ -41,6 +44,9 @@ import org.apache.jena.shacl.tests.std.TS_StdSHACL;
 
     , TestImports.class
     , TestValidationListener.class
+    , TestValidationParallel.class
+    , TestValidationIncremental.class
+    , TestValidationCompiled.class
 } )
 
 public class TC_SHACL { }
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.shacl.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.shacl.Shapes;
+import org.apache.jena.shacl.ValidationReport;
+import org.apache.jena.shacl.testing.ShaclTestItem;
+import org.apache.jena.shacl.testing.ShaclTests;
+import org.apache.jena.shacl.validation.ReportEntry;
+import org.apache.jena.shacl.validation.ShapeCompiler;
+import org.apache.jena.shacl.validation.ValidationProc;
+import org.apache.jena.sparql.graph.GraphFactory;
+
+public class TestValidationCompiled {
+
+    private static final String SHAPES = """
+            PREFIX sh:  <http://www.w3.org/ns/shacl#>
+            PREFIX xsd: <http://www.w3.org/2001/XMLSchema#>
+            PREFIX :    <http://example/>
+
+            :PersonShape a sh:NodeShape ;
+                sh:targetClass :Person ;
+                sh:property [ sh:path :name ; sh:minCount 1 ; sh:maxCount 1 ; sh:datatype xsd:string ; sh:minLength 2 ] ;
+                sh:property [ sh:path :age ; sh:datatype xsd:integer ; sh:minInclusive 0 ] ;
+                sh:property [ sh:path :knows ; sh:class :Person ; sh:nodeKind sh:IRI ] ;
+                sh:property [ sh:path ( :address :city ) ; sh:in ( "City1" "City2" ) ] ;
+                sh:property [ sh:path :status ; sh:hasValue "active" ] ;
+                sh:sparql [
+                    sh:select '''
+                        SELECT $this ?value {
+                            $this <http://example/knows> ?value .
+                            FILTER ( sameTerm($this, ?value) )
+                        }''' ;
+                ] .
+
+            :NameShape a sh:NodeShape ;
+                sh:targetObjectsOf :name ;
+                sh:pattern "^[A-Z]" .
+            """;
+
+    @Test public void compiled_generated() {
+        Graph data = data(2000);
+        Shapes shapes = Shapes.parse(RDFParser.fromString(SHAPES, Lang.TTL).toGraph());
+        ShapeCompiler compiler = ShapeCompiler.compile(shapes);
+        // All constraints apart from sh:pattern of the node shape :NameShape.
+        assertEquals(11, compiler.numCompiledConstraints());
+        ValidationReport report = ValidationProc.plainValidation(shapes, data);
+        assertFalse(report.conforms());
+        assertEquals(entries(report), entries(compiler.validate(data)));
+        assertEquals(entries(report), entries(ValidationProc.compiledValidation(shapes, data)));
+    }
+
+    @Test public void compiled_wg_tests() {
+        for ( String manifest : List.of("src/test/files/std/core/manifest.ttl", "src/test/files/std/sparql/manifest.ttl") ) {
+            List<ShaclTestItem> tests = ShaclTests.manifest(manifest);
+            for ( ShaclTestItem test : tests ) {
+                if ( test.isGeneralFailure() )
+                    continue;
+                Graph shapesGraph = RDFDataMgr.loadGraph(test.getShapesGraph().getURI());
+                Graph dataGraph = test.getShapesGraph().getURI().equals(test.getDataGraph().getURI())
+                        ? shapesGraph
+                        : RDFDataMgr.loadGraph(test.getDataGraph().getURI());
+                Shapes shapes = Shapes.parse(shapesGraph);
+                ValidationReport report = ValidationProc.plainValidation(shapes, dataGraph);
+                ValidationReport report2 = ShapeCompiler.compile(shapes, 0).validate(dataGraph);
+                assertEquals(entries(report), entries(report2), test.origin());
+            }
+        }
+    }
+
+    @Test public void compiled_sparql_batchable() {
+        assertTrue(batchable("SELECT $this { $this <http://example/p> ?o }"));
+        assertTrue(batchable("SELECT $this ?value { $this <http://example/p> ?value FILTER NOT EXISTS { ?value <http://example/q> $this } }"));
+        // $this not in a triple pattern of the top level group.
+        assertFalse(batchable("SELECT $this { OPTIONAL { $this <http://example/p> ?o } }"));
+        assertFalse(batchable("SELECT $this { FILTER ( $this = <http://example/s> ) }"));
+        // $this is unbound in the nested group.
+        assertFalse(batchable("SELECT $this { { FILTER ( bound($this) ) } $this <http://example/p> ?o }"));
+        assertTrue(batchable("SELECT $this { $this <http://example/p> ?o FILTER ( bound($this) ) }"));
+        // Evaluation with $this unbound is different.
+        assertFalse(batchable("SELECT $this { $this <http://example/p> ?o MINUS { $this <http://example/q> ?o } }"));
+        assertFalse(batchable("SELECT $this { $this <http://example/p> ?o { SELECT ?o { ?o <http://example/q> $this } } }"));
+        assertFalse(batchable("SELECT $this { $this <http://example/p> ?o FILTER EXISTS { { SELECT ?x { ?x <http://example/q> $this } } } }"));
+        assertFalse(batchable("SELECT $this (count(*) AS ?c) { $this <http://example/p> ?o } GROUP BY $this"));
+        assertFalse(batchable("SELECT $this { $this <http://example/p> ?o } LIMIT 1"));
+        // Zero length paths.
+        assertTrue(batchable("SELECT $this { $this <http://example/p>+ ?o }"));
+        assertFalse(batchable("SELECT $this { $this <http://example/p>* ?o }"));
+        assertFalse(batchable("SELECT $this { ?o <http://example/p>? $this }"));
+    }
+
+    @Test public void compiled_sparql_zero_length_path() {
+        // The target node :x is not in the data; a zero length path still matches it.
+        String shapesStr = """
+                PREFIX sh:  <http://www.w3.org/ns/shacl#>
+                PREFIX :    <http://example/>
+                :Shape a sh:NodeShape ;
+                    sh:targetNode :s , :x ;
+                    sh:sparql [ sh:select '''SELECT $this ?value { $this <http://example/p>* ?value }''' ] ;
+                    sh:sparql [ sh:select '''SELECT $this ?value { ?value <http://example/p>? $this }''' ] .
+                """;
+        Shapes shapes = Shapes.parse(RDFParser.fromString(shapesStr, Lang.TTL).toGraph());
+        Graph data = RDFParser.fromString("PREFIX : <http://example/> :s :p :o .", Lang.TTL).toGraph();
+        ValidationReport report = ValidationProc.plainValidation(shapes, data);
+        assertEquals(5, report.getEntries().size());
+        assertEquals(entries(report), entries(ShapeCompiler.compile(shapes, 0).validate(data)));
+    }
+
+    private static boolean batchable(String queryString) {
+        String shapesStr = """
+                PREFIX sh:  <http://www.w3.org/ns/shacl#>
+                PREFIX :    <http://example/>
+                :Shape a sh:NodeShape ;
+                    sh:targetNode :s ;
+                    sh:sparql [ sh:select '''%s''' ] .
+                """.formatted(queryString);
+        Shapes shapes = Shapes.parse(RDFParser.fromString(shapesStr, Lang.TTL).toGraph());
+        return ShapeCompiler.compile(shapes, 0).numCompiledConstraints() == 1;
+    }
+
+    // Some constraints (e.g. sh:qualifiedValueShape) report a constraint object created during validation.
+    // Compare the entries by their printed form.
+    private static List<String> entries(ValidationReport report) {
+        return report.getEntries().stream().map(ReportEntry::toString).toList();
+    }
+
+    /** People, some of whom do not conform. */
+    private static Graph data(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PREFIX : <http://example/>\n");
+        for ( int i = 0 ; i < n ; i++ ) {
+            sb.append(":p"+i+" a :Person ;");
+            if ( i % 17 != 0 )
+                sb.append(" :name \""+((i%23 == 0) ? "x" : "Name"+i)+"\" ;");
+            if ( i % 31 == 0 )
+                sb.append(" :name \"Other\" ;");
+            if ( i % 37 == 0 )
+                sb.append(" :knows \"literal\" ;");
+            if ( i % 41 == 0 )
+                sb.append(" :knows :p"+i+" ;");
+            sb.append(" :status \""+((i % 29 == 0) ? "inactive" : "active")+"\" ;");
+            sb.append(" :address [ :city \"City"+(i%3)+"\" ] ;");
+            sb.append(" :age "+((i % 13 == 0) ? "-1" : ""+(i%90))+" ;");
+            sb.append(" :knows :p"+((i*7+1)%(n+10))+" .\n");
+        }
+        Graph graph = GraphFactory.createDefaultGraph();
+        RDFDataMgr.read(graph, new StringReader(sb.toString()), null, Lang.TTL);
+        return graph;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.shacl.tests;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.TxnType;
+import org.apache.jena.rdfpatch.system.DatasetGraphChanges;
+import org.apache.jena.rdfpatch.system.GraphChanges;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.shacl.ShaclValidationException;
+import org.apache.jena.shacl.Shapes;
+import org.apache.jena.shacl.ValidationReport;
+import org.apache.jena.shacl.validation.IncrementalValidator;
+import org.apache.jena.shacl.validation.ReportEntry;
+import org.apache.jena.shacl.validation.ValidationProc;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.Txn;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+
+public class TestValidationIncremental {
+
+    private static final String SHAPES = """
+            PREFIX sh:  <http://www.w3.org/ns/shacl#>
+            PREFIX xsd: <http://www.w3.org/2001/XMLSchema#>
+            PREFIX :    <http://example/>
+
+            :PersonShape a sh:NodeShape ;
+                sh:targetClass :Person ;
+                sh:property [ sh:path :name ; sh:minCount 1 ; sh:maxCount 1 ; sh:datatype xsd:string ] ;
+                sh:property [ sh:path :knows ; sh:class :Person ] ;
+                sh:property [ sh:path ( :address :city ) ; sh:maxCount 1 ] ;
+                sh:property [ sh:path :address ; sh:node :AddressShape ] .
+
+            :AddressShape a sh:NodeShape ;
+                sh:property [ sh:path :postcode ; sh:minCount 1 ] .
+
+            :NameShape a sh:NodeShape ;
+                sh:targetObjectsOf :name ;
+                sh:minLength 2 .
+
+            :KnownShape a sh:NodeShape ;
+                sh:targetSubjectsOf :knows ;
+                sh:property [ sh:path [ sh:inversePath :knows ] ; sh:maxCount 2 ] .
+            """;
+
+    private static final String PREFIX = "http://example/";
+
+    private static Shapes shapes() {
+        return Shapes.parse(RDFParser.fromString(SHAPES, Lang.TTL).toGraph());
+    }
+
+    @Test public void incremental_create() {
+        Graph data = data(200);
+        Shapes shapes = shapes();
+        IncrementalValidator validator = IncrementalValidator.create(shapes, data);
+        ValidationReport report = ValidationProc.plainValidation(shapes, data);
+        assertFalse(report.conforms());
+        assertEquals(entries(report), entries(validator.report()));
+        // No changes.
+        assertEquals(entries(report), entries(validator.validate()));
+    }
+
+    @Test public void incremental_changes() {
+        Graph data = data(200);
+        Shapes shapes = shapes();
+        IncrementalValidator validator = IncrementalValidator.create(shapes, data);
+        Graph graph = new GraphChanges(data, validator.changes());
+        Random random = new Random(1234);
+        for ( int round = 0 ; round < 20 ; round++ ) {
+            for ( int i = 0 ; i < 10 ; i++ )
+                randomChange(graph, random, 200);
+            ValidationReport report = validator.validate();
+            assertEquals(entries(ValidationProc.plainValidation(shapes, data)), entries(report), "Round "+round);
+        }
+    }
+
+    @Test public void incremental_paths() {
+        Graph data = data(20);
+        Shapes shapes = shapes();
+        IncrementalValidator validator = IncrementalValidator.create(shapes, data);
+        Graph graph = new GraphChanges(data, validator.changes());
+
+        // Second step of the sequence path.
+        Node address = node("address1");
+        graph.add(Triple.create(address, node("city"), NodeFactory.createLiteralString("Other")));
+        check(validator, shapes, data);
+
+        // Nested shape.
+        graph.delete(Triple.create(address, node("postcode"), NodeFactory.createLiteralString("AB1")));
+        check(validator, shapes, data);
+        graph.add(Triple.create(address, node("postcode"), NodeFactory.createLiteralString("AB2")));
+        check(validator, shapes, data);
+
+        // Type of a value node.
+        graph.delete(Triple.create(node("p3"), RDF.Nodes.type, node("Person")));
+        check(validator, shapes, data);
+
+        // Inverse path.
+        graph.add(Triple.create(node("p10"), node("knows"), node("p5")));
+        graph.add(Triple.create(node("p11"), node("knows"), node("p5")));
+        check(validator, shapes, data);
+    }
+
+    @Test public void incremental_subclass() {
+        Graph data = data(20);
+        Shapes shapes = shapes();
+        IncrementalValidator validator = IncrementalValidator.create(shapes, data);
+        Graph graph = new GraphChanges(data, validator.changes());
+        graph.add(Triple.create(node("p7"), RDF.Nodes.type, node("Student")));
+        graph.delete(Triple.create(node("p7"), RDF.Nodes.type, node("Person")));
+        check(validator, shapes, data);
+        graph.add(Triple.create(node("Student"), RDFS.Nodes.subClassOf, node("Person")));
+        check(validator, shapes, data);
+    }
+
+    @Test public void incremental_dataset() {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Graph data = data(50);
+        Txn.executeWrite(dsg, ()->data.find().forEach(t->dsg.add(Quad.create(Quad.defaultGraphIRI, t))));
+        Shapes shapes = shapes();
+        IncrementalValidator validator = IncrementalValidator.create(shapes, dsg.getDefaultGraph());
+        DatasetGraph dsg2 = new DatasetGraphChanges(dsg, validator.changes());
+
+        // Validation on commit.
+        Txn.executeWrite(dsg2, ()->dsg2.add(SSE.parseQuad("(_ :p1 :name 'X')")));
+        ValidationReport report = Txn.calculateRead(dsg, ()->ValidationProc.plainValidation(shapes, dsg.getDefaultGraph()));
+        assertEquals(entries(report), entries(validator.report()));
+
+        // Other graph.
+        Txn.executeWrite(dsg2, ()->dsg2.add(SSE.parseQuad("(:g :p1 :name 'X')")));
+        assertEquals(entries(report), entries(validator.report()));
+
+        // Abort.
+        dsg2.begin(TxnType.WRITE);
+        dsg2.add(SSE.parseQuad("(_ :p2 :name 'Y')"));
+        dsg2.abort();
+        dsg2.end();
+        Txn.executeWrite(dsg2, ()->{});
+        assertEquals(entries(report), entries(validator.report()));
+    }
+
+    @Test public void incremental_reject() {
+        DatasetGraph dsg = DatasetGraphFactory.createTxnMem();
+        Shapes shapes = shapes();
+        Txn.executeWrite(dsg, ()->{
+            dsg.add(SSE.parseQuad("(_ :p1 rdf:type :Person)"));
+            dsg.add(SSE.parseQuad("(_ :p1 :name 'Name')"));
+        });
+        IncrementalValidator validator = IncrementalValidator.create(shapes, dsg.getDefaultGraph());
+        assertTrue(validator.report().conforms());
+        DatasetGraph dsg2 = new DatasetGraphChanges(dsg, validator.changes(Quad.defaultGraphIRI, true));
+
+        ShaclValidationException ex = assertThrows(ShaclValidationException.class,
+                ()->Txn.executeWrite(dsg2, ()->dsg2.add(SSE.parseQuad("(_ :p1 :name 'Other')"))));
+        assertFalse(ex.getReport().conforms());
+        // Aborted.
+        assertEquals(2, Txn.calculateRead(dsg, ()->dsg.getDefaultGraph().size()));
+        assertTrue(validator.report().conforms());
+
+        Txn.executeWrite(dsg2, ()->dsg2.add(SSE.parseQuad("(_ :p2 rdf:type :Other)")));
+        assertTrue(validator.report().conforms());
+    }
+
+    private static void check(IncrementalValidator validator, Shapes shapes, Graph data) {
+        ValidationReport report = validator.validate();
+        assertEquals(entries(ValidationProc.plainValidation(shapes, data)), entries(report));
+    }
+
+    // Some constraints (e.g. sh:qualifiedValueShape) report a constraint object created during validation.
+    // Compare the entries by their printed form, in sorted order.
+    private static List<String> entries(ValidationReport report) {
+        return report.getEntries().stream().map(ReportEntry::toString).sorted().toList();
+    }
+
+    private static Node node(String localName) {
+        return NodeFactory.createURI(PREFIX+localName);
+    }
+
+    private static void randomChange(Graph graph, Random random, int n) {
+        Node person = node("p"+random.nextInt(n));
+        switch ( random.nextInt(6) ) {
+            case 0 -> graph.add(Triple.create(person, node("name"), NodeFactory.createLiteralString(random.nextBoolean() ? "Z" : "Name")));
+            case 1 -> graph.add(Triple.create(person, node("knows"), node("p"+random.nextInt(n+10))));
+            case 2 -> graph.add(Triple.create(node("address"+random.nextInt(n)), node("city"), NodeFactory.createLiteralString("City")));
+            case 3 -> graph.add(Triple.create(person, RDF.Nodes.type, node("Person")));
+            default -> {
+                // Delete a triple about a person or address.
+                Node subject = random.nextBoolean() ? person : node("address"+random.nextInt(n));
+                List<Triple> triples = new ArrayList<>(graph.find(subject, null, null).toList());
+                if ( ! triples.isEmpty() )
+                    graph.delete(triples.get(random.nextInt(triples.size())));
+            }
+        }
+    }
+
+    /** People with addresses, some of which do not conform. */
+    private static Graph data(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PREFIX : <"+PREFIX+">\n");
+        for ( int i = 0 ; i < n ; i++ ) {
+            if ( i % 19 != 0 )
+                sb.append(":p"+i+" a :Person .\n");
+            if ( i % 17 != 0 )
+                sb.append(":p"+i+" :name \""+((i%23 == 0) ? "X" : "Name"+i)+"\" .\n");
+            sb.append(":p"+i+" :knows :p"+((i*7+1)%(n+5))+" .\n");
+            sb.append(":p"+i+" :address :address"+i+" .\n");
+            sb.append(":address"+i+" :city \"City"+i+"\" .\n");
+            if ( i % 11 != 0 )
+                sb.append(":address"+i+" :postcode \"AB"+i+"\" .\n");
+        }
+        Graph graph = GraphFactory.createDefaultGraph();
+        RDFParser.fromString(sb.toString(), Lang.TTL).parse(graph);
+        return graph;
+    }
+}
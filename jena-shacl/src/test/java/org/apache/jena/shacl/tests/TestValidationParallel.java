@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.shacl.tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.shacl.GraphValidation;
+import org.apache.jena.shacl.ShaclValidator;
+import org.apache.jena.shacl.Shapes;
+import org.apache.jena.shacl.ValidationReport;
+import org.apache.jena.shacl.testing.ShaclTestItem;
+import org.apache.jena.shacl.testing.ShaclTests;
+import org.apache.jena.shacl.validation.ReportEntry;
+import org.apache.jena.shacl.validation.ValidationProc;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.graph.GraphTxn;
+import org.apache.jena.system.Txn;
+
+public class TestValidationParallel {
+
+    private static final String SHAPES = """
+            PREFIX sh:  <http://www.w3.org/ns/shacl#>
+            PREFIX xsd: <http://www.w3.org/2001/XMLSchema#>
+            PREFIX :    <http://example/>
+
+            :PersonShape a sh:NodeShape ;
+                sh:targetClass :Person ;
+                sh:property [ sh:path :name ; sh:minCount 1 ; sh:maxCount 1 ; sh:datatype xsd:string ] ;
+                sh:property [ sh:path :age ; sh:datatype xsd:integer ; sh:minInclusive 0 ] ;
+                sh:property [ sh:path :knows ; sh:class :Person ] .
+
+            :NameShape a sh:NodeShape ;
+                sh:targetObjectsOf :name ;
+                sh:minLength 2 .
+            """;
+
+    @Test public void parallel_generated() {
+        Graph data = data(5000);
+        Shapes shapes = Shapes.parse(RDFParser.fromString(SHAPES, Lang.TTL).toGraph());
+        ValidationReport report = ValidationProc.plainValidation(shapes, data);
+        assertFalse(report.conforms());
+        for ( int batchSize : List.of(1, 7, 1000) ) {
+            ValidationReport report2 = ValidationProc.parallelValidation(shapes, data, 4, batchSize);
+            assertEquals(entries(report), entries(report2));
+        }
+        ValidationReport report3 = ShaclValidator.get().validate(shapes, data, 3);
+        assertEquals(entries(report), entries(report3));
+    }
+
+    @Test public void parallel_transactional() {
+        Graph data = data(500);
+        GraphTxn graph = GraphFactory.createTxnGraph();
+        Txn.executeWrite(graph, ()->data.find().forEach(graph::add));
+        Shapes shapes = Shapes.parse(RDFParser.fromString(SHAPES, Lang.TTL).toGraph());
+        ValidationReport report = Txn.calculateRead(graph, ()->ValidationProc.plainValidation(shapes, graph));
+
+        // Not in a transaction: one read transaction on the calling thread.
+        ValidationReport report2 = GraphValidation.validate(shapes, graph, 4);
+        assertEquals(entries(report), entries(report2));
+
+        // In a read transaction: read transactions on each thread.
+        ValidationReport report2a = Txn.calculateRead(graph, ()->ValidationProc.parallelValidation(shapes, graph, 4, 10));
+        assertEquals(entries(report), entries(report2a));
+
+        // In a write transaction: validation on the calling thread.
+        ValidationReport report3 = Txn.calculateWrite(graph, ()->ValidationProc.parallelValidation(shapes, graph, 4, 10));
+        assertEquals(entries(report), entries(report3));
+    }
+
+    @Test public void parallel_wg_core() {
+        List<ShaclTestItem> tests = ShaclTests.manifest("src/test/files/std/core/manifest.ttl");
+        for ( ShaclTestItem test : tests ) {
+            if ( test.isGeneralFailure() )
+                continue;
+            Graph shapesGraph = RDFDataMgr.loadGraph(test.getShapesGraph().getURI());
+            Graph dataGraph = test.getShapesGraph().getURI().equals(test.getDataGraph().getURI())
+                    ? shapesGraph
+                    : RDFDataMgr.loadGraph(test.getDataGraph().getURI());
+            Shapes shapes = Shapes.parse(shapesGraph);
+            ValidationReport report = ValidationProc.plainValidation(shapes, dataGraph);
+            ValidationReport report2 = ValidationProc.parallelValidation(shapes, dataGraph, 4, 1);
+            assertEquals(entries(report), entries(report2), test.origin());
+        }
+    }
+
+    // Some constraints (e.g. sh:qualifiedValueShape) report a constraint object created during validation.
+    // Compare the entries by their printed form.
+    private static List<String> entries(ValidationReport report) {
+        return report.getEntries().stream().map(ReportEntry::toString).toList();
+    }
+
+    /** People, some of whom do not conform. */
+    private static Graph data(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PREFIX : <http://example/>\n");
+        for ( int i = 0 ; i < n ; i++ ) {
+            sb.append(":p"+i+" a :Person ;");
+            if ( i % 17 != 0 )
+                sb.append(" :name \""+((i%23 == 0) ? "X" : "Name"+i)+"\" ;");
+            if ( i % 31 == 0 )
+                sb.append(" :name \"Other\" ;");
+            sb.append(" :age "+((i % 13 == 0) ? "-1" : ""+(i%90))+" ;");
+            sb.append(" :knows :p"+((i*7+1)%(n+10))+" .\n");
+        }
+        Graph graph = GraphFactory.createDefaultGraph();
+        RDFDataMgr.read(graph, new StringReader(sb.toString()), null, Lang.TTL);
+        return graph;
+    }
+}
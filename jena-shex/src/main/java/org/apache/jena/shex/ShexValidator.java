@@ -39,6 +39,44 @@ public interface ShexValidator {
     /** Validate data using a collection of shapes and a shape map */
     public ShexReport validate(Graph graph, ShexSchema shapes, ShapeMap shapeMap);
 
+    /**
+     * Validate data using a shape map, with a shared table of (node, shape) results so that
+     * shape references are evaluated once for each node. Shape map entries are validated
+     * using up to {@code threads} threads; the report is the same as a sequential validation
+     * of the same data.
+     * <p>
+     * Semantic action plugins must be thread-safe when {@code threads} is more than one,
+     * and are not called again for a (node, shape) result that has been recorded.
+     * <p>
+     * Transactions are per-thread, so the threads can not share one snapshot of a
+     * transactional data graph:
+     * <ul>
+     * <li>If the calling thread is not in a transaction, validation is done on the
+     * calling thread in one read transaction, and the report is for one snapshot of
+     * the data.</li>
+     * <li>If the calling thread is in a write transaction, changes are not visible to
+     * other threads, and validation is done on the calling thread.</li>
+     * <li>If the calling thread is in a read transaction, each unit of work is executed
+     * in its own read transaction on the thread doing the work. Each sees the data as
+     * last committed when it starts, so if there are writers during validation, the
+     * report is not from one consistent snapshot of the data.</li>
+     * </ul>
+     */
+    public default ShexReport validate(Graph graph, ShexSchema shapes, ShapeMap shapeMap, int threads) {
+        return validate(graph, shapes, shapeMap, threads, DFT_PARALLEL_BATCH_SIZE);
+    }
+
+    /** Default number of focus nodes in a unit of work for parallel validation. */
+    public static final int DFT_PARALLEL_BATCH_SIZE = 1_000;
+
+    /**
+     * Validate data using a shape map, with units of work of up to {@code batchSize}
+     * (shape map entry, focus node) pairs. See {@link #validate(Graph, ShexSchema, ShapeMap, int)}.
+     */
+    public default ShexReport validate(Graph graph, ShexSchema shapes, ShapeMap shapeMap, int threads, int batchSize) {
+        return validate(graph, shapes, shapeMap);
+    }
+
     /** Validate a specific node (the focus), with a specific shape in a set of shapes. */
     public ShexReport validate(Graph graphData, ShexSchema shapes, Node shapeRef, Node focus);
 
@@ -48,7 +48,7 @@ public class ShapeExprRef extends ShapeExpression {
             return false;
         if ( vCxt.cycle(shape, data) )
             return true;
-        return shape.satisfies(vCxt, data);
+        return vCxt.satisfies(shape, data);
     }
 
     @Override
@@ -22,14 +22,21 @@
 package org.apache.jena.shex.sys;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 import org.apache.jena.atlas.lib.InternalErrorException;
 import org.apache.jena.atlas.lib.ListUtils;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ReadWrite;
 import org.apache.jena.shex.*;
 import org.apache.jena.shex.semact.SemanticActionPlugin;
+import org.apache.jena.sparql.core.GraphView;
+import org.apache.jena.sparql.core.Transactional;
+import org.apache.jena.system.Txn;
 
 class ShexValidatorImpl implements ShexValidator{
 
@@ -67,6 +74,95 @@ class ShexValidatorImpl implements ShexValidator{
         return report;
     }
 
+    /** One unit of work: shape map entries and their focus nodes. */
+    private record Unit(List<ShexRecord> entries, List<Node> focusNodes) {}
+
+    @Override
+    public ShexReport validate(Graph dataGraph, ShexSchema shapes, ShapeMap shapeMap, int threads, int batchSize) {
+        Objects.requireNonNull(dataGraph);
+        Objects.requireNonNull(shapes);
+        Objects.requireNonNull(shapeMap);
+        if ( batchSize < 1 )
+            throw new IllegalArgumentException("Batch size must be one or more: "+batchSize);
+        Transactional transactional = null;
+        if ( dataGraph.getTransactionHandler().transactionsSupported() ) {
+            transactional = transactional(dataGraph);
+            if ( transactional == null )
+                threads = 1;
+            else if ( ! transactional.isInTransaction() ) {
+                // One snapshot of the data.
+                Transactional txn = transactional;
+                return Txn.calculateRead(txn, ()->validate(dataGraph, shapes, shapeMap, 1, batchSize));
+            }
+            else if ( transactional.transactionMode() == ReadWrite.WRITE )
+                threads = 1;
+        }
+        ShexSchema schema = shapes.importsClosure();
+        Map<ValidationContext.MemoKey, ValidationContext.MemoEntry> memo = new ConcurrentHashMap<>();
+        ValidationContext vCxt = new ValidationContext(dataGraph, schema, semanticActionPluginIndex, memo);
+        if ( threads <= 1 ) {
+            shapeMap.entries().forEach(mapEntry->{
+                for ( Node focus : focusNodesOrError(dataGraph, mapEntry) )
+                    validationStep(vCxt, mapEntry, mapEntry.shapeExprLabel, focus);
+            });
+            return vCxt.generateReport();
+        }
+
+        // Split into units of work, in the order of a sequential validation.
+        List<Unit> units = new ArrayList<>();
+        List<ShexRecord> unitEntries = new ArrayList<>();
+        List<Node> unitFocusNodes = new ArrayList<>();
+        for ( ShexRecord mapEntry : shapeMap.entries() ) {
+            for ( Node focus : focusNodesOrError(dataGraph, mapEntry) ) {
+                unitEntries.add(mapEntry);
+                unitFocusNodes.add(focus);
+                if ( unitEntries.size() >= batchSize ) {
+                    units.add(new Unit(unitEntries, unitFocusNodes));
+                    unitEntries = new ArrayList<>();
+                    unitFocusNodes = new ArrayList<>();
+                }
+            }
+        }
+        if ( ! unitEntries.isEmpty() )
+            units.add(new Unit(unitEntries, unitFocusNodes));
+
+        Transactional txn = transactional;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<ValidationContext> results = pool.submit(()->
+                units.parallelStream().map(unit->
+                    inTransaction(txn, ()->{
+                        ValidationContext vCxtUnit = new ValidationContext(dataGraph, schema, semanticActionPluginIndex, memo);
+                        for ( int i = 0 ; i < unit.entries().size() ; i++ ) {
+                            ShexRecord mapEntry = unit.entries().get(i);
+                            validationStep(vCxtUnit, mapEntry, mapEntry.shapeExprLabel, unit.focusNodes().get(i));
+                        }
+                        return vCxtUnit;
+                    })).toList()
+                ).join();
+            results.forEach(r->r.copyInto(vCxt));
+        } finally { pool.shutdown(); }
+        return vCxt.generateReport();
+    }
+
+    private static <X> X inTransaction(Transactional transactional, Supplier<X> action) {
+        if ( transactional == null )
+            return action.get();
+        return Txn.calculateRead(transactional, action);
+    }
+
+    /**
+     * The {@link Transactional} for a graph that supports transactions,
+     * or null if it is not known how to start a transaction on another thread.
+     */
+    private static Transactional transactional(Graph data) {
+        if ( data instanceof Transactional transactional )
+            return transactional;
+        if ( data instanceof GraphView graphView )
+            return graphView.getDataset();
+        return null;
+    }
+
     /** Validate a specific node (the focus), with a specific shape in a set of shapes. */
     @Override
     public ShexReport validate(Graph dataGraph, ShexSchema shapes, Node shapeRef, Node focus) {
@@ -128,6 +224,13 @@ class ShexValidatorImpl implements ShexValidator{
         return validationStep(vCxt, shapeRecord, shapeRecord.shapeExprLabel, focusNode);
     }
 
+    private static Collection<Node> focusNodesOrError(Graph graph, ShexRecord mapRecord) {
+        Collection<Node> focusNodes = focusNodes(graph, mapRecord);
+        if ( focusNodes == null )
+            throw new InternalErrorException("Shex shape mapping has no node and no pattern");
+        return focusNodes;
+    }
+
     private static Collection<Node> focusNodes(Graph graph, ShexRecord  mapRecord) {
         if ( mapRecord.node != null ) {
             return List.of(mapRecord.node);
@@ -171,9 +274,17 @@ class ShexValidatorImpl implements ShexValidator{
     private static boolean validationStepWorker(ValidationContext vCxt, ShexRecord mapEntry, ShexShape shape, Node shapeRef, Node focus) {
         // Isolate report entries.
         ValidationContext vCxtInner = vCxt.create();
-        vCxtInner.startValidate(shape, focus);
-        boolean isValid = shape.satisfies(vCxtInner, focus);
-        vCxtInner.finishValidate(shape, focus);
+        boolean isValid;
+        ValidationContext.MemoEntry memoEntry = vCxt.getMemo(shape, focus);
+        if ( memoEntry != null ) {
+            memoEntry.items().forEach(vCxtInner::reportEntry);
+            isValid = memoEntry.result();
+        } else {
+            vCxtInner.startValidate(shape, focus);
+            isValid = shape.satisfies(vCxtInner, focus);
+            vCxtInner.finishValidate(shape, focus);
+            vCxt.putMemo(shape, focus, isValid, vCxtInner.getReportItems());
+        }
         if ( ! isValid ) {
             atLeastOneReportItem(vCxtInner, focus);
             vCxtInner.copyInto(vCxt); // Report items.
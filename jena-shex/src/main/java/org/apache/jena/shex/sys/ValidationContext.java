@@ -45,6 +45,25 @@ public class ValidationContext {
     private Map<String, SemanticActionPlugin> semActPluginIndex;
     // <data node, shape>
     private Deque<Pair<Node, ShexShape>> inProgress = new ArrayDeque<>();
+    // Results of (data node, shape label) evaluations, shared between threads. May be null.
+    private final Map<MemoKey, MemoEntry> memo;
+    // Shared by this context and contexts created from it.
+    private final Assumptions assumptions;
+
+    /** Key for the memo table. */
+    public record MemoKey(Node node, Node shapeLabel) {}
+
+    /** A memoized result and the report items it generated. */
+    public record MemoEntry(boolean result, List<ReportItem> items) {}
+
+    /**
+     * The lowest depth in the in-progress stack of a cycle assumption used by an
+     * evaluation. A result that used an assumption made by an outer evaluation is
+     * only valid for that evaluation and is not memoized.
+     */
+    private static class Assumptions {
+        int lowWater = Integer.MAX_VALUE;
+    }
 
     private final ShexReport.Builder reportBuilder = ShexReport.create();
 
@@ -58,18 +77,29 @@ public class ValidationContext {
      * @param vCxt
      */
     private ValidationContext(ValidationContext vCxt) {
-        this(vCxt, vCxt.data, vCxt.shapes, vCxt.inProgress, vCxt.semActPluginIndex);
+        this(vCxt, vCxt.data, vCxt.shapes, vCxt.inProgress, vCxt.semActPluginIndex, vCxt.memo, vCxt.assumptions);
     }
 
     public ValidationContext(Graph data, ShexSchema shapes, Map<String, SemanticActionPlugin> semActPluginIndex) {
-        this(null, data, shapes, null, semActPluginIndex);
+        this(data, shapes, semActPluginIndex, null);
     }
 
-    private ValidationContext(ValidationContext parentCtx, Graph data, ShexSchema shapes, Deque<Pair<Node, ShexShape>> progress, Map<String, SemanticActionPlugin> semActPluginIndex) {
+    /**
+     * A validation context with a memo table of results.
+     * The memo table must be thread-safe if it is shared between threads.
+     */
+    public ValidationContext(Graph data, ShexSchema shapes, Map<String, SemanticActionPlugin> semActPluginIndex, Map<MemoKey, MemoEntry> memo) {
+        this(null, data, shapes, null, semActPluginIndex, memo, new Assumptions());
+    }
+
+    private ValidationContext(ValidationContext parentCtx, Graph data, ShexSchema shapes, Deque<Pair<Node, ShexShape>> progress,
+                              Map<String, SemanticActionPlugin> semActPluginIndex, Map<MemoKey, MemoEntry> memo, Assumptions assumptions) {
         this.parentCtx = parentCtx;
         this.data = data;
         this.shapes = shapes;
         this.semActPluginIndex = semActPluginIndex;
+        this.memo = memo;
+        this.assumptions = assumptions;
         if (progress != null)
             this.inProgress.addAll(progress);
     }
@@ -110,7 +140,7 @@ public class ValidationContext {
      */
     public ValidationContext create() {
         // Fresh ShexReport.Builder
-        return new ValidationContext(this, this.data, this.shapes, this.inProgress, this.semActPluginIndex);
+        return new ValidationContext(this, this.data, this.shapes, this.inProgress, this.semActPluginIndex, this.memo, this.assumptions);
     }
 
     public void startValidate(ShexShape shape, Node data) {
@@ -119,7 +149,60 @@ public class ValidationContext {
 
     // Return true if done or in-progress (i.e. don't walk further)
     public boolean cycle(ShexShape shape, Node data) {
-        return inProgress.stream().anyMatch(p -> p.equalElts(data, shape));
+        // Top of the stack first.
+        int depth = inProgress.size();
+        for ( Pair<Node, ShexShape> p : inProgress ) {
+            depth--;
+            if ( p.equalElts(data, shape) ) {
+                assumptions.lowWater = Math.min(assumptions.lowWater, depth);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether this context has a memo table of results. */
+    public boolean isMemoizing() {
+        return memo != null;
+    }
+
+    /** The memoized result of a shape for a data node, or null. */
+    public MemoEntry getMemo(ShexShape shape, Node data) {
+        return ( memo == null ) ? null : memo.get(new MemoKey(data, shape.getLabel()));
+    }
+
+    /**
+     * Evaluate a shape for a data node, using the memo table, if any.
+     * The report items of a memoized result are added to this context.
+     */
+    public boolean satisfies(ShexShape shape, Node data) {
+        if ( memo == null )
+            return shape.satisfies(this, data);
+        MemoEntry entry = getMemo(shape, data);
+        if ( entry != null ) {
+            entry.items().forEach(this::reportEntry);
+            return entry.result();
+        }
+        int depth = inProgress.size();
+        int itemsStart = reportBuilder.getItems().size();
+        int outerLowWater = assumptions.lowWater;
+        assumptions.lowWater = Integer.MAX_VALUE;
+        try {
+            boolean result = shape.satisfies(this, data);
+            if ( assumptions.lowWater >= depth ) {
+                List<ReportItem> items = List.copyOf(reportBuilder.getItems().subList(itemsStart, reportBuilder.getItems().size()));
+                memo.putIfAbsent(new MemoKey(data, shape.getLabel()), new MemoEntry(result, items));
+            }
+            return result;
+        } finally {
+            assumptions.lowWater = Math.min(outerLowWater, assumptions.lowWater);
+        }
+    }
+
+    /** Record the result of the evaluation of a shape for a data node from the start of an empty in-progress stack. */
+    public void putMemo(ShexShape shape, Node data, boolean result, List<ReportItem> items) {
+        if ( memo != null )
+            memo.putIfAbsent(new MemoKey(data, shape.getLabel()), new MemoEntry(result, List.copyOf(items)));
     }
 
     public boolean dispatchStartSemanticAction(ShexSchema schema, ValidationContext vCxt) {
@@ -30,7 +30,8 @@ import org.junit.runners.Suite;
     TestShexSyntaxBad.class,
     TestShexValidation.class,
     TestShexShapeMapSyntax.class,
-    TestShexPrintShexC.class
+    TestShexPrintShexC.class,
+    TestShexValidationParallel.class
 })
 
 public class TS_Shex {
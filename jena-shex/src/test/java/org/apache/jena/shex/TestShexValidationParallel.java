@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.shex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.graph.GraphTxn;
+import org.apache.jena.system.Txn;
+import org.junit.Test;
+
+public class TestShexValidationParallel {
+
+    private static final String SCHEMA = """
+            PREFIX :    <http://example/>
+            PREFIX xsd: <http://www.w3.org/2001/XMLSchema#>
+
+            :Person {
+                :name xsd:string ;
+                :age xsd:integer ? ;
+                :knows @:Person *
+            }
+
+            :Friendly {
+                :knows @:Friendly +
+            }
+
+            :NotPerson NOT @:Person
+            """;
+
+    private static final String SHAPE_MAP = """
+            PREFIX : <http://example/>
+            {FOCUS a :Person} @ :Person ,
+            {FOCUS :knows _} @ :Friendly ,
+            {FOCUS :age _} @ :NotPerson ,
+            :p1 @ :Person ,
+            :p1 @ :Friendly
+            """;
+
+    @Test public void parallel_shex_generated() {
+        Graph data = data(200);
+        ShexSchema schema = Shex.schemaFromString(SCHEMA);
+        ShapeMap shapeMap = Shex.shapeMapFromString(SHAPE_MAP, null);
+        ShexReport report = ShexValidator.get().validate(data, schema, shapeMap);
+        assertFalse(report.conforms());
+
+        ShexValidator validator = ShexValidator.getNew(List.of());
+        // Memoized, sequential.
+        assertEquals(records(report), records(validator.validate(data, schema, shapeMap, 1)));
+        for ( int batchSize : List.of(1, 7, 1000) ) {
+            ShexReport report2 = validator.validate(data, schema, shapeMap, 4, batchSize);
+            assertEquals(records(report), records(report2));
+        }
+    }
+
+    @Test public void parallel_shex_transactional() {
+        Graph data = data(100);
+        GraphTxn graph = GraphFactory.createTxnGraph();
+        Txn.executeWrite(graph, ()->data.find().forEach(graph::add));
+        ShexSchema schema = Shex.schemaFromString(SCHEMA);
+        ShapeMap shapeMap = Shex.shapeMapFromString(SHAPE_MAP, null);
+        ShexReport report = Txn.calculateRead(graph, ()->ShexValidator.get().validate(graph, schema, shapeMap));
+
+        // Not in a transaction: one read transaction on the calling thread.
+        ShexReport report2 = ShexValidator.get().validate(graph, schema, shapeMap, 4);
+        assertEquals(records(report), records(report2));
+
+        // In a read transaction: read transactions on each thread.
+        ShexReport report2a = Txn.calculateRead(graph, ()->ShexValidator.get().validate(graph, schema, shapeMap, 4, 10));
+        assertEquals(records(report), records(report2a));
+
+        // In a write transaction: validation on the calling thread.
+        ShexReport report3 = Txn.calculateWrite(graph, ()->ShexValidator.get().validate(graph, schema, shapeMap, 4));
+        assertEquals(records(report), records(report3));
+    }
+
+    private static List<String> records(ShexReport report) {
+        List<String> records = new ArrayList<>();
+        report.forEachReport(r->records.add(r.toString()));
+        return records;
+    }
+
+    /** People who know other people, some of whom do not conform. */
+    private static Graph data(int n) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("PREFIX : <http://example/>\n");
+        for ( int i = 0 ; i < n ; i++ ) {
+            sb.append(":p"+i+" a :Person ;");
+            if ( i % 17 != 0 )
+                sb.append(" :name \"Name"+i+"\" ;");
+            if ( i % 13 == 0 )
+                sb.append(" :age \"unknown\" ;");
+            else if ( i % 3 == 0 )
+                sb.append(" :age "+(i%90)+" ;");
+            // Validation without a memo table follows every path through the :knows cycle.
+            if ( i % 50 == 0 )
+                sb.append(" :knows :p"+((i*7+1)%n)+" ;");
+            sb.append(" :knows :p"+((i+1)%n)+" .\n");
+        }
+        Graph graph = GraphFactory.createDefaultGraph();
+        RDFParser.fromString(sb.toString(), Lang.TTL).parse(graph);
+        return graph;
+    }
+}
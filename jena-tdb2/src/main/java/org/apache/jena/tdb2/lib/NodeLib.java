@@ -30,6 +30,7 @@ import java.util.Iterator;
 
 import org.apache.jena.atlas.iterator.Iter;
 import org.apache.jena.atlas.lib.Bytes;
+import org.apache.jena.atlas.lib.LongHashSet;
 import org.apache.jena.atlas.lib.Pool;
 import org.apache.jena.atlas.lib.PoolBase;
 import org.apache.jena.atlas.lib.PoolSync;
@@ -147,4 +148,13 @@ public class NodeLib {
     public static Iterator<Node> nodes(final NodeTable nodeTable, Iterator<NodeId> iter) {
         return Iter.map(iter, nodeTable::getNodeForNodeId);
     }
+
+    /**
+     * Remove duplicates from NodeIds stored in an index.
+     * The NodeIds seen are kept as {@code long}s, without boxing.
+     */
+    public static Iterator<NodeId> distinct(Iterator<NodeId> iter) {
+        LongHashSet seen = new LongHashSet();
+        return Iter.filter(iter, nodeId -> seen.add(NodeIdFactory.encode64(nodeId)));
+    }
 }
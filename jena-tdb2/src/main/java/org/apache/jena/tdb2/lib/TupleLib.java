@@ -55,6 +55,55 @@ public class TupleLib {
         return Iter.map(iter, item -> quad(nodeTable, item));
     }
 
+    /**
+     * Convert the results of a find for the pattern {@code (s, p, o)} to triples.
+     * Where the pattern has a concrete term, that term is used and the NodeId is
+     * not decoded again. (Inline NodeIds are still decoded; they are cheap and
+     * the canonical value may differ from the pattern term.)
+     */
+    public static Iterator<Triple> convertToTriples(final NodeTable nodeTable, Iterator<Tuple<NodeId>> iter, Node s, Node p, Node o) {
+        Node sFixed = fixed(s);
+        Node pFixed = fixed(p);
+        Node oFixed = fixed(o);
+        if ( sFixed == null && pFixed == null && oFixed == null )
+            return convertToTriples(nodeTable, iter);
+        return Iter.map(iter, item -> {
+            if ( item.len() != 3 )
+                throw new TDBException("Tuple is not of length 3: " + item);
+            return triple(nodeTable, item.get(0), item.get(1), item.get(2), sFixed, pFixed, oFixed);
+        });
+    }
+
+    /**
+     * Convert the results of a find for the pattern {@code (g, s, p, o)} to quads.
+     * As {@link #convertToTriples(NodeTable, Iterator, Node, Node, Node)}.
+     */
+    public static Iterator<Quad> convertToQuads(final NodeTable nodeTable, Iterator<Tuple<NodeId>> iter, Node g, Node s, Node p, Node o) {
+        Node gFixed = fixed(g);
+        Node sFixed = fixed(s);
+        Node pFixed = fixed(p);
+        Node oFixed = fixed(o);
+        if ( gFixed == null && sFixed == null && pFixed == null && oFixed == null )
+            return convertToQuads(nodeTable, iter);
+        return Iter.map(iter, item -> {
+            if ( item.len() != 4 )
+                throw new TDBException("Tuple is not of length 4: " + item);
+            return quad(nodeTable, item.get(0), item.get(1), item.get(2), item.get(3), gFixed, sFixed, pFixed, oFixed);
+        });
+    }
+
+    /** The term of a pattern slot to use in the results, or null. */
+    private static Node fixed(Node node) {
+        return ( node != null && node.isConcrete() ) ? node : null;
+    }
+
+    /** Decode a NodeId, unless it is a pointer for the given term. */
+    private static Node node(NodeTable nodeTable, NodeId nodeId, Node fixed) {
+        if ( fixed != null && nodeId.isPtr() )
+            return fixed;
+        return nodeTable.getNodeForNodeId(nodeId);
+    }
+
     public static Tuple<Node> tupleNodes(NodeTable nodeTable, Tuple<NodeId> ids) {
         return ids.map(nid->nodeTable.getNodeForNodeId(nid));
     }
@@ -66,10 +115,10 @@ public class TupleLib {
     public static Triple triple(NodeTable nodeTable, Tuple<NodeId> tuple) {
         if ( tuple.len() != 3 )
             throw new TDBException("Tuple is not of length 3: " + tuple);
-        return triple(nodeTable, tuple.get(0), tuple.get(1), tuple.get(2));
+        return triple(nodeTable, tuple.get(0), tuple.get(1), tuple.get(2), null, null, null);
     }
 
-    private static Triple triple(NodeTable nodeTable, NodeId s, NodeId p, NodeId o) {
+    private static Triple triple(NodeTable nodeTable, NodeId s, NodeId p, NodeId o, Node sFixed, Node pFixed, Node oFixed) {
         if ( !NodeId.isConcrete(s) )
             throw new InternalErrorException("Invalid id for subject: " + fmt(s, p, o));
         if ( !NodeId.isConcrete(p) )
@@ -77,15 +126,15 @@ public class TupleLib {
         if ( !NodeId.isConcrete(o) )
             throw new InternalErrorException("Invalid id for object: " + fmt(s, p, o));
 
-        Node sNode = nodeTable.getNodeForNodeId(s);
+        Node sNode = node(nodeTable, s, sFixed);
         if ( sNode == null )
             throw new InternalErrorException("Invalid id node for subject (null node): " + fmt(s, p, o));
 
-        Node pNode = nodeTable.getNodeForNodeId(p);
+        Node pNode = node(nodeTable, p, pFixed);
         if ( pNode == null )
             throw new InternalErrorException("Invalid id node for predicate (null node): " + fmt(s, p, o));
 
-        Node oNode = nodeTable.getNodeForNodeId(o);
+        Node oNode = node(nodeTable, o, oFixed);
         if ( oNode == null )
             throw new InternalErrorException("Invalid id node for object (null node): " + fmt(s, p, o));
 
@@ -103,14 +152,14 @@ public class TupleLib {
     public static Quad quad(NodeTable nodeTable, Tuple<NodeId> tuple) {
         if ( tuple.len() != 4 )
             throw new TDBException("Tuple is not of length 4: " + tuple);
-        return quad(nodeTable, tuple.get(0), tuple.get(1), tuple.get(2), tuple.get(3));
+        return quad(nodeTable, tuple.get(0), tuple.get(1), tuple.get(2), tuple.get(3), null, null, null, null);
     }
 
-    private static Quad quad(NodeTable nodeTable, NodeId g, NodeId s, NodeId p, NodeId o) {
-        Node gNode = nodeTable.getNodeForNodeId(g);
-        Node sNode = nodeTable.getNodeForNodeId(s);
-        Node pNode = nodeTable.getNodeForNodeId(p);
-        Node oNode = nodeTable.getNodeForNodeId(o);
+    private static Quad quad(NodeTable nodeTable, NodeId g, NodeId s, NodeId p, NodeId o, Node gFixed, Node sFixed, Node pFixed, Node oFixed) {
+        Node gNode = node(nodeTable, g, gFixed);
+        Node sNode = node(nodeTable, s, sFixed);
+        Node pNode = node(nodeTable, p, pFixed);
+        Node oNode = node(nodeTable, o, oFixed);
         if ( gNode == null )
             throw new InternalErrorException("Invalid id node for graph (null node): " + fmt(g, s, p, o));
         if ( sNode == null )
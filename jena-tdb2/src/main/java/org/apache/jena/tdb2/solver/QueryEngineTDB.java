@@ -23,6 +23,7 @@ package org.apache.jena.tdb2.solver;
 
 
 import org.apache.jena.atlas.lib.Lib ;
+import org.apache.jena.query.ARQ ;
 import org.apache.jena.query.Query ;
 import org.apache.jena.sparql.algebra.Algebra ;
 import org.apache.jena.sparql.algebra.Op ;
@@ -108,6 +109,9 @@ public class QueryEngineTDB extends QueryEngineMain
             op = OpLib.unionDefaultGraphQuads(op) ;
             Explain.explain("REWRITE(Union default graph)", op, context);
         }
+        // The storage counts do not apply the quad filter.
+        if ( QC2.getFilter(context) != null )
+            context.set(ARQ.optStorageCount, false);
         QueryIterator results = super.eval(op, dsg, input, context);
         return results;
     }
@@ -206,7 +206,7 @@ public class SolverLibTDB
 
         // Apply the necessary distinct calculation (if any)
         Iterator<NodeId> iter3 = switch (distinctMode) {
-            case FULL -> Iter.distinct(iter2);
+            case FULL -> NodeLib.distinct(iter2);
             case ADJACENT -> Iter.distinctAdjacent(iter2);
             default -> iter2;
         };
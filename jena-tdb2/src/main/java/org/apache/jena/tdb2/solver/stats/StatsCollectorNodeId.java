@@ -24,18 +24,30 @@ package org.apache.jena.tdb2.solver.stats;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.jena.atlas.lib.LongLongHashMap;
 import org.apache.jena.graph.Node;
 import org.apache.jena.sparql.graph.NodeConst;
 import org.apache.jena.tdb2.store.NodeId;
+import org.apache.jena.tdb2.store.NodeIdFactory;
 import org.apache.jena.tdb2.store.nodetable.NodeTable;
 
-/** Statistics collector, aggregates based on NodeId */
-public class StatsCollectorNodeId extends StatsCollectorBase<NodeId> {
-    private NodeTable nodeTable;
+/**
+ * Statistics collector, aggregates based on NodeId.
+ * <p>
+ * This is called for every tuple by the loaders, so the counts are kept in
+ * primitive maps keyed by the 64 bit form of the NodeId
+ * ({@link NodeIdFactory#encode64}), avoiding a boxed {@code Long} per update.
+ */
+public class StatsCollectorNodeId {
+    private final NodeTable nodeTable;
+    private long count = 0;
+    private final LongLongHashMap predicates = new LongLongHashMap(1000);
+    private final LongLongHashMap types = new LongLongHashMap(1000);
+    private final NodeId typeTrigger;
 
     public StatsCollectorNodeId(NodeTable nodeTable) {
-        super(findRDFType(nodeTable));
         this.nodeTable = nodeTable;
+        this.typeTrigger = findRDFType(nodeTable);
     }
 
     private static NodeId findRDFType(NodeTable nodeTable) {
@@ -46,14 +58,24 @@ public class StatsCollectorNodeId extends StatsCollectorBase<NodeId> {
         return nodeId;
     }
 
-    @Override
-    protected Map<Node, Long> convert(Map<NodeId, Long> stats) {
+    public void record(NodeId g, NodeId s, NodeId p, NodeId o) {
+        count++;
+        predicates.addTo(NodeIdFactory.encode64(p), 1);
+        if ( typeTrigger != null && typeTrigger.equals(p) )
+            types.addTo(NodeIdFactory.encode64(o), 1);
+    }
+
+    public StatsResults results() {
+        return new StatsResults(convert(predicates), convert(types), count);
+    }
+
+    private Map<Node, Long> convert(LongLongHashMap stats) {
         // Predicate -> Count
         Map<Node, Long> statsNodes = new HashMap<>(1000);
-        for ( NodeId p : stats.keySet() ) {
-            Node n = nodeTable.getNodeForNodeId(p);
-            statsNodes.put(n, stats.get(p));
-        }
+        stats.forEach((id, n) -> {
+            Node node = nodeTable.getNodeForNodeId(NodeIdFactory.decode64(id));
+            statsNodes.put(node, n);
+        });
         return statsNodes;
     }
 }
@@ -162,7 +162,7 @@ public class DatasetGraphTDB extends DatasetGraphStorage
         boolean usingGraphBasedIndex = Strings.CS.startsWith(quads.getTupleTable().getIndex(0).getName(), "G");
         Iterator<NodeId> graphNodeIds = Iter.iter(x).map(t -> t.get(0));
         Iterator<NodeId> distinctGraphNodeIds
-                = usingGraphBasedIndex ? Iter.distinctAdjacent(graphNodeIds) : Iter.distinct(graphNodeIds);
+                = usingGraphBasedIndex ? Iter.distinctAdjacent(graphNodeIds) : NodeLib.distinct(graphNodeIds);
         Iterator<Node> r = NodeLib.nodes(quads.getNodeTable(), distinctGraphNodeIds);
         return r;
     }
@@ -30,6 +30,7 @@ import org.apache.jena.atlas.lib.tuple.TupleFactory;
 import org.apache.jena.dboe.DBOpEnvException;
 import org.apache.jena.dboe.storage.StoragePrefixes;
 import org.apache.jena.dboe.storage.system.GraphViewStorage;
+import org.apache.jena.graph.GraphCount;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.sparql.core.Quad;
@@ -47,7 +48,7 @@ import org.apache.jena.util.iterator.WrappedIterator;
  *
  * @see GraphViewSwitchable
  */
-public class GraphTDB extends GraphViewStorage {
+public class GraphTDB extends GraphViewStorage implements GraphCount {
 
     public /*package*/ static GraphTDB tdb_createDefaultGraph(DatasetGraphTDB dsg, StoragePrefixes prefixes)
     { return new GraphTDB(dsg, Quad.defaultGraphNodeGenerated, prefixes); }
@@ -80,15 +81,55 @@ public class GraphTDB extends GraphViewStorage {
     protected final int graphBaseSize() {
         if ( isDefaultGraph() )
             return (int)getNodeTupleTable().size();
+        return (int)Iter.count(findAsNodeIds(null, null, null));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * This is a scan of the NodeIds in the best index for the pattern; no
+     * triples are created.
+     */
+    @Override
+    public long count(Node s, Node p, Node o) {
+        if ( isDefaultGraph() && isAny(s) && isAny(p) && isAny(o) )
+            return getNodeTupleTable().size();
+        return Iter.count(findAsNodeIds(s, p, o));
+    }
+
+    @Override
+    protected boolean graphBaseContains(Triple t) {
+        if ( t.getSubject().isVariable() || t.getPredicate().isVariable() || t.getObject().isVariable() )
+            return super.graphBaseContains(t);
+        return findAsNodeIds(t.getSubject(), t.getPredicate(), t.getObject()).hasNext();
+    }
+
+    /**
+     * Find the tuples of NodeIds for triples matching the pattern, without
+     * decoding them. For the union graph, the tuples are projected to triples
+     * and duplicates removed.
+     */
+    private Iterator<Tuple<NodeId>> findAsNodeIds(Node s, Node p, Node o) {
+        Iterator<Tuple<NodeId>> iter;
+        if ( isDefaultGraph() ) {
+            iter = getNodeTupleTable().findAsNodeIds(s, p, o);
+            return iter == null ? Iter.nullIterator() : iter;
+        }
         Node gn = getGraphName();
         boolean unionGraph = isUnionGraph(gn);
         gn = unionGraph ? Node.ANY : gn;
-        Iterator<Tuple<NodeId>> iter = getDSG().getQuadTable().getNodeTupleTable().findAsNodeIds(gn, null, null, null);
+        iter = getDSG().getQuadTable().getNodeTupleTable().findAsNodeIds(gn, s, p, o);
+        if ( iter == null )
+            return Iter.nullIterator();
         if ( unionGraph ) {
             iter = Iter.map(iter, project4TupleTo3Tuple);
             iter = Iter.distinctAdjacent(iter);
         }
-        return (int)Iter.count(iter);
+        return iter;
+    }
+
+    private static boolean isAny(Node node) {
+        return node == null || Node.ANY.equals(node);
     }
 
     private static Function<Tuple<NodeId>, Tuple<NodeId>> project4TupleTo3Tuple = item -> {
@@ -22,6 +22,7 @@
 package org.apache.jena.tdb2.store;
 
 import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphCount;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.sparql.core.GraphView;
@@ -34,7 +35,7 @@ import java.util.stream.Stream;
  * A GraphView that is sensitive to {@link DatasetGraphSwitchable} switching.
  * This ensures that a graph object remains valid as the {@link DatasetGraphSwitchable} switches.
  */
-public class GraphViewSwitchable extends GraphView {
+public class GraphViewSwitchable extends GraphView implements GraphCount {
     public static GraphViewSwitchable createDefaultGraphSwitchable(DatasetGraphSwitchable dsg)
     { return new GraphViewSwitchable(dsg, Quad.defaultGraphNodeGenerated); }
 
@@ -100,6 +101,16 @@ public class GraphViewSwitchable extends GraphView {
         return getBaseGraph().stream(s, p, o);
     }
 
+    @Override
+    protected boolean graphBaseContains(Triple t) {
+        return getBaseGraph().contains(t);
+    }
+
+    @Override
+    public long count(Node s, Node p, Node o) {
+        return ((GraphCount)getBaseGraph()).count(s, p, o);
+    }
+
     private DatasetGraphTDB getDSG() {
         return ((DatasetGraphTDB)(getx().get()));
     }
@@ -134,6 +134,20 @@ public class NodeIdFactory
         return NodeIdFactory.create64(value2);
     }
 
+    /**
+     * The 64 bit on-disk form of a {@link NodeId}, as a {@code long}.
+     * This is lossless for pointer and inline NodeIds, not for special ones.
+     * @see #decode64
+     */
+    public static long encode64(NodeId nodeId) {
+        return encode(nodeId);
+    }
+
+    /** The {@link NodeId} for a {@code long} from {@link #encode64}. */
+    public static NodeId decode64(long value) {
+        return decode(value);
+    }
+
     /** Not relative - set at position zero */
     public static void set(NodeId nodeId, byte[] b) {
         long v2 = encode(nodeId);
@@ -83,10 +83,18 @@ public class QuadTable extends TableBase {
         Iterator<Tuple<NodeId>> iter = table.findAsNodeIds(g, s, p, o);
         if ( iter == null )
             return Iter.nullIterator();
-        Iterator<Quad> iter2 = TupleLib.convertToQuads(table.getNodeTable(), iter);
+        Iterator<Quad> iter2 = TupleLib.convertToQuads(table.getNodeTable(), iter, g, s, p, o);
         return iter2;
     }
 
+    /** Count matching quads, without decoding the NodeIds found */
+    public long count(Node g, Node s, Node p, Node o) {
+        Iterator<Tuple<NodeId>> iter = table.findAsNodeIds(g, s, p, o);
+        if ( iter == null )
+            return 0;
+        return Iter.count(iter);
+    }
+
     /** Clear - does not clear the associated node tuple table */
     public void clearQuads() {
         table.clear();
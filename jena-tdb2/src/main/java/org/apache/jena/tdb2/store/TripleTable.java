@@ -67,10 +67,18 @@ public class TripleTable extends TableBase {
         Iterator<Tuple<NodeId>> iter = table.findAsNodeIds(s, p, o);
         if ( iter == null )
             return Iter.nullIterator();
-        Iterator<Triple> iter2 = TupleLib.convertToTriples(table.getNodeTable(), iter);
+        Iterator<Triple> iter2 = TupleLib.convertToTriples(table.getNodeTable(), iter, s, p, o);
         return iter2;
     }
 
+    /** Count matching triples, without decoding the NodeIds found */
+    public long count(Node s, Node p, Node o) {
+        Iterator<Tuple<NodeId>> iter = table.findAsNodeIds(s, p, o);
+        if ( iter == null )
+            return 0;
+        return Iter.count(iter);
+    }
+
     /** Clear - does not clear the associated node tuple table */
     public void clearTriples() {
         table.clear();
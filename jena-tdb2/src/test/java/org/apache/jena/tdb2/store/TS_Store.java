@@ -38,6 +38,7 @@ import org.apache.jena.tdb2.sys.SystemTDB;
     , TestStorageDatasetGraphTests.class
     , TestGraphTDB.class
     , TestGraphNamedTDB.class
+    , TestGraphTDBCount.class
     , TestDatasetTDB.class
     , TestDatasetTDBPersist.class
     , Test_SPARQL_TDB.class
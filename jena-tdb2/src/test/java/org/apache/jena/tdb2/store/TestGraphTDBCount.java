@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.tdb2.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphCount;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.G;
+import org.apache.jena.tdb2.junit.TL;
+
+/** Counting and contains on TDB2 graphs, and the terms of the triples found */
+public class TestGraphTDBCount
+{
+    private static final Node g1 = SSE.parseNode(":g1");
+    private static final Node g2 = SSE.parseNode(":g2");
+    private static final Node s1 = SSE.parseNode(":s1");
+    private static final Node p  = SSE.parseNode(":p");
+    private static final Node q  = SSE.parseNode(":q");
+
+    private Dataset dataset;
+    private DatasetGraph dsg;
+
+    @BeforeEach
+    public void before() {
+        dataset = TL.createTestDatasetMem();
+        dataset.begin(ReadWrite.WRITE);
+        dsg = dataset.asDatasetGraph();
+        dsg.getDefaultGraph().add(SSE.parseTriple("(:s1 :p 1)"));
+        dsg.getDefaultGraph().add(SSE.parseTriple("(:s1 :p 2)"));
+        dsg.getDefaultGraph().add(SSE.parseTriple("(:s2 :p 1)"));
+        dsg.getDefaultGraph().add(SSE.parseTriple("(:s2 :q 'x')"));
+        dsg.add(SSE.parseQuad("(:g1 :s1 :p 1)"));
+        dsg.add(SSE.parseQuad("(:g1 :s1 :q 1)"));
+        dsg.add(SSE.parseQuad("(:g2 :s1 :p 1)"));
+        dsg.add(SSE.parseQuad("(:g2 :s3 :p 3)"));
+    }
+
+    @AfterEach
+    public void after() {
+        dataset.abort();
+        dataset.end();
+        TL.expel(dataset);
+    }
+
+    private static void testCount(Graph graph, Node s, Node p, Node o) {
+        long expected = Iter.count(graph.find(s, p, o));
+        assertTrue(graph instanceof GraphCount);
+        assertEquals(expected, ((GraphCount)graph).count(s, p, o));
+        assertEquals(expected, G.count(graph, s, p, o));
+        assertEquals(expected > 0, graph.contains(s, p, o));
+    }
+
+    private static void testCounts(Graph graph) {
+        testCount(graph, null, null, null);
+        testCount(graph, s1, null, null);
+        testCount(graph, null, p, null);
+        testCount(graph, s1, p, null);
+        testCount(graph, null, q, SSE.parseNode("1"));
+        testCount(graph, SSE.parseNode(":zzz"), null, null);
+        assertEquals(graph.size(), ((GraphCount)graph).count(Node.ANY, Node.ANY, Node.ANY));
+    }
+
+    @Test public void count_default() {
+        Graph graph = dsg.getDefaultGraph();
+        testCounts(graph);
+        assertEquals(4, G.count(graph, null, null, null));
+        assertEquals(2, G.countSP(graph, s1, p));
+    }
+
+    @Test public void count_named() {
+        testCounts(dsg.getGraph(g1));
+        testCounts(dsg.getGraph(g2));
+        assertEquals(2, G.count(dsg.getGraph(g1), s1, null, null));
+    }
+
+    @Test public void count_union() {
+        Graph graph = dsg.getUnionGraph();
+        testCounts(graph);
+        // (:s1 :p 1) is in both named graphs.
+        assertEquals(2, G.count(graph, s1, null, null));
+        assertEquals(2, G.countPO(graph, p, null));
+    }
+
+    @Test public void count_base() {
+        // The graphs of the storage, not the switchable views.
+        DatasetGraphTDB dsgTDB = (DatasetGraphTDB)((DatasetGraphSwitchable)dsg).get();
+        testCounts(dsgTDB.getDefaultGraphTDB());
+        testCounts(dsgTDB.getGraphTDB(g1));
+        testCounts(dsgTDB.getUnionGraphTDB());
+    }
+
+    @Test public void contains_01() {
+        Graph graph = dsg.getDefaultGraph();
+        assertTrue(graph.contains(SSE.parseTriple("(:s1 :p 1)")));
+        assertFalse(graph.contains(SSE.parseTriple("(:s1 :p 3)")));
+        assertFalse(graph.contains(SSE.parseTriple("(:s1 :p :unknown)")));
+        assertTrue(dsg.getGraph(g2).contains(SSE.parseTriple("(:s3 ANY ANY)")));
+        assertFalse(dsg.getGraph(g1).contains(SSE.parseTriple("(:s3 ANY ANY)")));
+    }
+
+    @Test public void find_boundTerms_01() {
+        // The terms of the pattern are used in the results.
+        List<Triple> triples = dsg.getDefaultGraph().find(s1, p, null).toList();
+        assertEquals(2, triples.size());
+        triples.forEach(t -> {
+            assertEquals(s1, t.getSubject());
+            assertEquals(p, t.getPredicate());
+        });
+        List<Quad> quads = Iter.toList(dsg.find(g1, s1, null, null));
+        assertEquals(2, quads.size());
+        quads.forEach(quad -> assertEquals(g1, quad.getGraph()));
+    }
+
+    @Test public void find_boundTerms_02() {
+        // Inline values are decoded: the stored term is the canonical one.
+        Node value = SSE.parseNode("'01'^^xsd:integer");
+        List<Triple> triples = dsg.getDefaultGraph().find(null, p, value).toList();
+        assertEquals(2, triples.size());
+        triples.forEach(t -> assertEquals(SSE.parseNode("1"), t.getObject()));
+    }
+}
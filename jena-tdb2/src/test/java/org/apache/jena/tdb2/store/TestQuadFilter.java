@@ -98,6 +98,27 @@ public class TestQuadFilter
     // Reified triple.
     @Test public void quad_filter_8()   { test(ds2, "SELECT * { << ?s ?p <http://example/o2> >> }", 0, 1); }
 
+    // Counts are not taken from the storage when there is a filter.
+    @Test public void quad_filter_count_1()   { testCount(ds1, "SELECT (COUNT(*) AS ?c) { ?s ?p ?o }", 1, 2); }
+    @Test public void quad_filter_count_2()   { testCount(ds1, "SELECT (COUNT(*) AS ?c) { GRAPH <http://example/g2> { ?s ?p ?o } }", 0, 1); }
+    @Test public void quad_filter_count_3()   { test(ds1, "SELECT * { VALUES ?o { <http://example/o2> } FILTER EXISTS { ?s ?p ?o } }", 0, 1); }
+
+    private static void testCount(Dataset dataset, String qs, int withFilter, int withoutFilter) {
+        Predicate<Tuple<NodeId>> filter = createFilter(dataset);
+        Query query = QueryFactory.create(qs);
+
+        Txn.executeRead(dataset, ()->{
+            try(QueryExecution qExec = QueryExecutionFactory.create(query, dataset)) {
+                qExec.getContext().set(SystemTDB.symTupleFilter, filter);
+                qExec.getContext().setTrue(TDB2.symUnionDefaultGraph);
+                assertEquals(withFilter, qExec.execSelect().next().getLiteral("c").getInt());
+            }
+            try(QueryExecution qExec = QueryExecutionFactory.create(query, dataset)) {
+                qExec.getContext().setTrue(TDB2.symUnionDefaultGraph);
+                assertEquals(withoutFilter, qExec.execSelect().next().getLiteral("c").getInt());
+            }
+        });
+    }
 
     private static void test(Dataset dataset, String qs, int withFilter, int withoutFilter) {
         Predicate<Tuple<NodeId>> filter = createFilter(dataset);
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.query.text;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.jena.atlas.io.IndentedWriter;
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVisitor;
+import org.apache.jena.sparql.algebra.Transform;
+import org.apache.jena.sparql.algebra.Transformer;
+import org.apache.jena.sparql.algebra.op.OpExt;
+import org.apache.jena.sparql.algebra.op.OpSequence;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ExecutionContext;
+import org.apache.jena.sparql.engine.QueryIterator;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.iterator.QueryIter;
+import org.apache.jena.sparql.engine.iterator.QueryIterNullIterator;
+import org.apache.jena.sparql.engine.iterator.QueryIterPlainWrapper;
+import org.apache.jena.sparql.engine.main.QC;
+import org.apache.jena.sparql.serializer.SerializationContext;
+import org.apache.jena.sparql.sse.writers.WriterOp;
+import org.apache.jena.sparql.util.NodeIsomorphismMap;
+
+/**
+ * Join of a {@code text:query} property function with a pattern on the same subject,
+ * evaluated from whichever side is smaller.
+ * <p>
+ * This is equivalent to {@code (sequence textQuery pattern)}. The pattern is evaluated
+ * first, for up to {@link TextQuery#textJoinThreshold} rows. If it has no more rows than
+ * that, the text index is probed once for each row, with the subject bound (the search
+ * is filtered to the subject). Otherwise, the rest of the pattern is read, and its rows,
+ * including those already read, are grouped by subject. The text hits are then streamed
+ * in score order and joined with the rows for their subject, so only as many hits are
+ * read as are needed, and the pattern is evaluated once.
+ * <p>
+ * Created by {@link TransformTextJoin}.
+ */
+public class OpTextJoin extends OpExt {
+    public static final String TAG = "textjoin";
+
+    /** Default for {@link TextQuery#textJoinThreshold}. */
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    private final Op textQuery;
+    private final Var subject;
+    private final Op pattern;
+
+    /**
+     * @param textQuery The {@code text:query} property function, with no sub-operation.
+     * @param subject The subject variable of the text query.
+     * @param pattern The pattern joined on the subject.
+     */
+    public OpTextJoin(Op textQuery, Var subject, Op pattern) {
+        super(TAG);
+        this.textQuery = Objects.requireNonNull(textQuery);
+        this.subject = Objects.requireNonNull(subject);
+        this.pattern = Objects.requireNonNull(pattern);
+    }
+
+    public Op getTextQuery() {
+        return textQuery;
+    }
+
+    public Var getSubject() {
+        return subject;
+    }
+
+    public Op getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public Op effectiveOp() {
+        return OpSequence.create(textQuery, pattern);
+    }
+
+    @Override
+    public Op apply(Transform transform, OpVisitor before, OpVisitor after) {
+        Op textQuery2 = Transformer.transformSkipService(transform, null, textQuery, before, after);
+        Op pattern2 = Transformer.transformSkipService(transform, null, pattern, before, after);
+        if ( textQuery2 == textQuery && pattern2 == pattern )
+            return this;
+        return new OpTextJoin(textQuery2, subject, pattern2);
+    }
+
+    @Override
+    public Op apply(Transform transform) {
+        return apply(transform, null, null);
+    }
+
+    @Override
+    public QueryIterator eval(QueryIterator input, ExecutionContext execCxt) {
+        return QueryIter.flatMap(input, binding -> evalOne(binding, execCxt), execCxt);
+    }
+
+    private QueryIterator evalOne(Binding binding, ExecutionContext execCxt) {
+        int threshold = execCxt.getContext().getInt(TextQuery.textJoinThreshold, DEFAULT_THRESHOLD);
+        List<Binding> rows = new ArrayList<>();
+        Map<Node, List<Binding>> bySubject = new HashMap<>();
+        QueryIterator patternIter = QC.execute(pattern, binding, execCxt);
+        try {
+            while ( rows.size() < threshold && patternIter.hasNext() )
+                rows.add(patternIter.next());
+            if ( !patternIter.hasNext() ) {
+                // Probe the text index for each row.
+                return QueryIter.flatMap(QueryIterPlainWrapper.create(rows.iterator(), execCxt),
+                                         row -> QC.execute(textQuery, row, execCxt),
+                                         execCxt);
+            }
+            // The rows of the pattern by subject, including the rows already read.
+            rows.forEach(row -> addBySubject(bySubject, row));
+            patternIter.forEachRemaining(row -> addBySubject(bySubject, row));
+        } finally {
+            patternIter.close();
+        }
+        // Stream the text hits and join each one with the pattern rows for its subject.
+        return QueryIter.flatMap(QC.execute(textQuery, binding, execCxt),
+                                 hit -> join(hit, bySubject.get(hit.get(subject)), execCxt),
+                                 execCxt);
+    }
+
+    private void addBySubject(Map<Node, List<Binding>> bySubject, Binding row) {
+        Node s = row.get(subject);
+        if ( s != null )
+            bySubject.computeIfAbsent(s, k -> new ArrayList<>()).add(row);
+    }
+
+    private static QueryIterator join(Binding hit, List<Binding> rows, ExecutionContext execCxt) {
+        if ( rows == null )
+            return QueryIterNullIterator.create(execCxt);
+        Iterator<Binding> iter = rows.stream()
+                .filter(row -> Algebra.compatible(hit, row))
+                .map(row -> Algebra.merge(hit, row))
+                .iterator();
+        return QueryIterPlainWrapper.create(iter, execCxt);
+    }
+
+    @Override
+    public void outputArgs(IndentedWriter out, SerializationContext sCxt) {
+        out.println();
+        WriterOp.output(out, textQuery, sCxt);
+        WriterOp.output(out, pattern, sCxt);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(TAG, textQuery, subject, pattern);
+    }
+
+    @Override
+    public boolean equalTo(Op other, NodeIsomorphismMap labelMap) {
+        if ( !(other instanceof OpTextJoin opTextJoin) )
+            return false;
+        return subject.equals(opTextJoin.subject)
+            && textQuery.equalTo(opTextJoin.textQuery, labelMap)
+            && pattern.equalTo(opTextJoin.pattern, labelMap);
+    }
+}
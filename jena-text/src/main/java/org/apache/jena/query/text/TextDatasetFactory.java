@@ -108,6 +108,8 @@ public class TextDatasetFactory
      */
     public static TextIndex createLuceneIndex(Directory directory, TextIndexConfig config)
     {
+        if ( config.isAsyncIndexing() )
+            return new TextIndexLuceneAsync(directory, config) ;
         return new TextIndexLucene(directory, config) ;
     }
 
@@ -21,6 +21,7 @@
 
 package org.apache.jena.query.text ;
 
+import java.util.Iterator ;
 import java.util.List ;
 import java.util.Map ;
 
@@ -66,5 +67,15 @@ public interface TextIndex extends Closeable //, Transactional
         return query(property, qs, graphURI, lang, limit, highlight);
     }
 
+    /**
+     * Access the index, returning the hits in score order.
+     * Implementations may fetch the hits lazily, in which case the iterator should be
+     * closed if not read to the end (see {@link org.apache.jena.atlas.iterator.Iter#close}).
+     * The limit is -1 for as many as possible.
+     */
+    default Iterator<TextHit> queryIterator(String subjectUri, List<Resource> props, String qs, String graphURI, String lang, int limit, String highlight) {
+        return query(subjectUri, props, qs, graphURI, lang, limit, highlight).iterator() ;
+    }
+
     EntityDefinition getDocDef() ;
 }
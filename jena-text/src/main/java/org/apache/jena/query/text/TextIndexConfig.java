@@ -21,6 +21,8 @@
 
 package org.apache.jena.query.text;
 
+import java.nio.file.Path;
+
 import org.apache.lucene.analysis.Analyzer;
 
 public class TextIndexConfig {
@@ -33,6 +35,9 @@ public class TextIndexConfig {
     int maxBasicQueries = 1024;
     boolean valueStored;
     boolean ignoreIndexErrors;
+    boolean asyncIndexing;
+    long maxVisibilityLag = 1000;
+    Path journal;
 
     public TextIndexConfig(EntityDefinition entDef) {
         this.entDef = entDef;
@@ -97,4 +102,31 @@ public class TextIndexConfig {
     public void setIgnoreIndexErrors(boolean ignore) {
         this.ignoreIndexErrors = ignore;
     }
+
+    /** Whether changes are applied to the index asynchronously, see {@link TextIndexLuceneAsync}. */
+    public boolean isAsyncIndexing() {
+        return asyncIndexing;
+    }
+
+    public void setAsyncIndexing(boolean asyncIndexing) {
+        this.asyncIndexing = asyncIndexing;
+    }
+
+    /** With asynchronous indexing, the time in milliseconds to collect changes before making them visible. */
+    public long getMaxVisibilityLag() {
+        return maxVisibilityLag;
+    }
+
+    public void setMaxVisibilityLag(long maxVisibilityLag) {
+        this.maxVisibilityLag = maxVisibilityLag;
+    }
+
+    /** With asynchronous indexing, the journal file of queued changes. */
+    public Path getJournal() {
+        return journal;
+    }
+
+    public void setJournal(Path journal) {
+        this.journal = journal;
+    }
 }
@@ -27,6 +27,8 @@ import java.util.Map.Entry ;
 import java.util.function.UnaryOperator;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.jena.atlas.iterator.Iter ;
+import org.apache.jena.atlas.lib.Closeable ;
 import org.apache.jena.datatypes.RDFDatatype ;
 import org.apache.jena.datatypes.TypeMapper ;
 import org.apache.jena.datatypes.xsd.XSDDatatype ;
@@ -374,19 +376,36 @@ public class TextIndexLucene implements TextIndex {
     @Override
     public Map<String, Node> get(String uri) {
         try {
-            IndexReader indexReader = DirectoryReader.open(directory);
-            List<Map<String, Node>> x = get$(indexReader, uri) ;
-            if ( x.size() == 0 )
-                return null ;
-            // if ( x.size() > 1)
-            // throw new TextIndexException("Multiple entires for "+uri) ;
-            return x.get(0) ;
+            IndexReader indexReader = acquireReader();
+            try {
+                List<Map<String, Node>> x = get$(indexReader, uri) ;
+                if ( x.size() == 0 )
+                    return null ;
+                // if ( x.size() > 1)
+                // throw new TextIndexException("Multiple entires for "+uri) ;
+                return x.get(0) ;
+            } finally {
+                releaseReader(indexReader);
+            }
         }
         catch (Exception ex) {
             throw new TextIndexException("get", ex) ;
         }
     }
 
+    /**
+     * A reader for a query. The reader sees the committed state of the index.
+     * Must be passed to {@link #releaseReader} after use.
+     */
+    protected IndexReader acquireReader() throws IOException {
+        return DirectoryReader.open(directory);
+    }
+
+    /** Release a reader obtained from {@link #acquireReader}. */
+    protected void releaseReader(IndexReader indexReader) throws IOException {
+        indexReader.close();
+    }
+
     private Query parseQuery(String queryString, Analyzer analyzer) throws ParseException {
         Query query = null;
         QueryParser qp = null;
@@ -498,8 +517,13 @@ public class TextIndexLucene implements TextIndex {
 
     @Override
     public List<TextHit> query(String subjectUri, List<Resource> props, String qs, String graphURI, String lang, int limit, String highlight) {
-        try (IndexReader indexReader = DirectoryReader.open(directory)) {
-            return query$(indexReader, props, qs, addUriPredicate(subjectUri), graphURI, lang, limit, highlight) ;
+        try {
+            IndexReader indexReader = acquireReader();
+            try {
+                return query$(indexReader, props, qs, addUriPredicate(subjectUri), graphURI, lang, limit, highlight) ;
+            } finally {
+                releaseReader(indexReader);
+            }
         }
         catch (ParseException ex) {
             throw new TextIndexParseException(qs, ex.getMessage()) ;
@@ -713,8 +737,37 @@ public class TextIndexLucene implements TextIndex {
         return textClause;
     }
 
+    /** A parsed query and the fields to take the hit literal from. */
+    private record PreparedQuery(Query query, List<String> textFields) {}
+
     private List<TextHit> query$(IndexReader indexReader, List<Resource> props, String qs, UnaryOperator<Query> textQueryExtender, String graphURI, String lang, int limit, String highlight)
             throws ParseException, IOException, InvalidTokenOffsetsException
+    {
+        PreparedQuery prepared = prepareQuery$(props, qs, textQueryExtender, graphURI, lang);
+        Query query = prepared.query();
+
+        if ( limit <= 0 )
+            limit = MAX_N ;
+
+        IndexSearcher indexSearcher = new IndexSearcher(indexReader) ;
+
+        ScoreDoc[] sDocs = indexSearcher.search(query, limit).scoreDocs ;
+
+        return results(sDocs, indexSearcher, prepared, highlight, lang);
+    }
+
+    private List<TextHit> results(ScoreDoc[] sDocs, IndexSearcher indexSearcher, PreparedQuery prepared, String highlight, String lang)
+            throws IOException, InvalidTokenOffsetsException
+    {
+        if (highlight != null) {
+            return highlightResults(sDocs, indexSearcher, prepared.query(), prepared.textFields(), highlight, lang);
+        } else {
+            return simpleResults(sDocs, indexSearcher, prepared.query(), prepared.textFields());
+        }
+    }
+
+    private PreparedQuery prepareQuery$(List<Resource> props, String qs, UnaryOperator<Query> textQueryExtender, String graphURI, String lang)
+            throws ParseException
     {
         List<String> textFields = new ArrayList<>();
         String qString = "";
@@ -780,14 +833,7 @@ public class TextIndexLucene implements TextIndex {
         Query textQuery = parseQuery(qString, qa);
         Query query = textQueryExtender.apply(textQuery);
 
-        if ( limit <= 0 )
-            limit = MAX_N ;
-
-        log.debug("query$ with LIST: {}; INPUT qString: {}; with queryParserType: {}; parseQuery with {} YIELDS: {}; parsed query: {}; limit: {}", props, qString, queryParserType, qa, textQuery, query, limit) ;
-
-        IndexSearcher indexSearcher = new IndexSearcher(indexReader) ;
-
-        ScoreDoc[] sDocs = indexSearcher.search(query, limit).scoreDocs ;
+        log.debug("query$ with LIST: {}; INPUT qString: {}; with queryParserType: {}; parseQuery with {} YIELDS: {}; parsed query: {}", props, qString, queryParserType, qa, textQuery, query) ;
 
         // if there were no explicit textFields supplied then Lucene used
         // the default field if defined otherwise Lucene simply interpreted the qs
@@ -797,11 +843,103 @@ public class TextIndexLucene implements TextIndex {
         if (textFields.isEmpty()) {
             textFields.add(docDef.getPrimaryField());
         }
+        return new PreparedQuery(query, textFields);
+    }
 
-        if (highlight != null) {
-            return highlightResults(sDocs, indexSearcher, query, textFields, highlight, lang);
-        } else {
-            return simpleResults(sDocs, indexSearcher, query, textFields);
+    /**
+     * Access the index lazily. Hits are returned in score order and are fetched from
+     * the index in pages, of increasing size, as the iterator is consumed, so there is
+     * no fixed limit on the number of hits. The iterator holds an index reader until it
+     * is exhausted or closed (see {@link Iter#close}).
+     */
+    @Override
+    public Iterator<TextHit> queryIterator(String subjectUri, List<Resource> props, String qs, String graphURI, String lang, int limit, String highlight) {
+        try {
+            PreparedQuery prepared = prepareQuery$(props, qs, addUriPredicate(subjectUri), graphURI, lang);
+            return new HitIterator(prepared, limit, highlight, lang);
+        }
+        catch (ParseException ex) {
+            throw new TextIndexParseException(qs, ex.getMessage()) ;
+        }
+        catch (Exception ex) {
+            throw new TextIndexException("query", ex) ;
+        }
+    }
+
+    private class HitIterator implements Iterator<TextHit>, Closeable {
+        private static final int FIRST_PAGE = 64;
+
+        private final PreparedQuery prepared;
+        private final String highlight;
+        private final String lang;
+        private IndexReader indexReader;
+        private IndexSearcher indexSearcher;
+        private int remaining;
+        private int pageSize = FIRST_PAGE;
+        private ScoreDoc after = null;
+        private Iterator<TextHit> page = Collections.emptyIterator();
+        private boolean finished = false;
+
+        HitIterator(PreparedQuery prepared, int limit, String highlight, String lang) throws IOException {
+            this.prepared = prepared;
+            this.highlight = highlight;
+            this.lang = lang;
+            this.remaining = (limit < 0) ? Integer.MAX_VALUE : limit;
+            this.indexReader = acquireReader();
+            this.indexSearcher = new IndexSearcher(indexReader);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ( !page.hasNext() ) {
+                if ( finished || remaining <= 0 ) {
+                    close();
+                    return false;
+                }
+                nextPage();
+            }
+            return true;
+        }
+
+        @Override
+        public TextHit next() {
+            if ( !hasNext() )
+                throw new NoSuchElementException();
+            return page.next();
+        }
+
+        private void nextPage() {
+            int n = Math.min(pageSize, remaining);
+            try {
+                ScoreDoc[] sDocs = (after == null)
+                    ? indexSearcher.search(prepared.query(), n).scoreDocs
+                    : indexSearcher.searchAfter(after, prepared.query(), n).scoreDocs;
+                if ( sDocs.length < n )
+                    finished = true;
+                if ( sDocs.length > 0 )
+                    after = sDocs[sDocs.length - 1];
+                remaining -= sDocs.length;
+                pageSize = Math.min(2 * pageSize, MAX_N);
+                page = results(sDocs, indexSearcher, prepared, highlight, lang).iterator();
+            } catch (Exception ex) {
+                close();
+                throw new TextIndexException("query", ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            finished = true;
+            if ( indexReader == null )
+                return;
+            IndexReader r = indexReader;
+            indexReader = null;
+            indexSearcher = null;
+            try {
+                releaseReader(r);
+            } catch (IOException ex) {
+                throw new TextIndexException("close", ex);
+            }
         }
     }
 
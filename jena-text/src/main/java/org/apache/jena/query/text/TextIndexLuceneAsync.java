@@ -0,0 +1,569 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.query.text;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.jena.datatypes.RDFDatatype;
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.FilterDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Lucene text index that applies changes asynchronously.
+ * <p>
+ * The entity changes of a transaction are recorded and, when the transaction commits,
+ * appended to a journal file and queued. A background thread applies the queued changes
+ * to the {@link IndexWriter} in batches and makes them visible to queries with a
+ * near-real-time reader ({@link SearcherManager}). The Lucene index itself is committed
+ * only occasionally; after a crash, the changes in the journal that are not in the last
+ * Lucene commit are applied again when the index is opened.
+ * <p>
+ * Queries see changes up to {@link TextIndexConfig#getMaxVisibilityLag() maxVisibilityLag}
+ * milliseconds after the transaction commits. Use {@link #awaitVisible()} to wait for the
+ * committed changes to be visible.
+ * <p>
+ * If applying changes fails, the changes since the last Lucene commit are discarded and
+ * no more changes are applied: the index stays as of that commit, and {@link #awaitVisible()}
+ * throws. The journal is kept from that commit, so the failed transaction and the ones after
+ * it are applied again when the index is next opened.
+ * <p>
+ * The journal is kept next to the index for an {@link FSDirectory}
+ * (see {@link #JOURNAL_FILENAME}), or in the file set by {@link TextIndexConfig#setJournal}.
+ * There is no journal for an in-memory index.
+ */
+public class TextIndexLuceneAsync extends TextIndexLucene {
+    private static Logger log = LoggerFactory.getLogger(TextIndexLuceneAsync.class);
+
+    /** File name of the journal in the index directory. */
+    public static final String JOURNAL_FILENAME = "jena-text-async.journal";
+
+    /** Key, in the Lucene commit data, of the last batch included in the commit. */
+    static final String COMMIT_SEQ = "jena.text.async.seq";
+
+    /** Interval between Lucene commits, in milliseconds. The journal has the changes in between. */
+    private static final long COMMIT_INTERVAL = 60_000;
+
+    private static final byte BATCH = 1;
+    private static final byte ABORT = 2;
+
+    private enum ChangeType { ADD, UPDATE, DELETE }
+
+    private record Change(ChangeType type, Entity entity) {}
+
+    private record Batch(long seq, List<Change> changes) {}
+
+    // Markers in the queue.
+    private static final Batch END = new Batch(-1, List.of());
+    private static final Batch FLUSH = new Batch(-1, List.of());
+
+    private final long maxVisibilityLag;
+    // Replaced when the index writer is reopened after a rollback.
+    private volatile SearcherManager searcherManager;
+    private final BlockingQueue<Batch> queue = new LinkedBlockingQueue<>();
+    private final Thread indexer;
+
+    // Changes of the current write transaction. There is only one writer at a time.
+    private final Object txnLock = new Object();
+    private List<Change> pending = new ArrayList<>();
+    private Batch prepared = null;
+    private long nextSeq;
+
+    private final Object journalLock = new Object();
+    private final FileChannel journal;
+    private long lastJournalSeq;
+
+    // Progress of the indexer thread.
+    private final Object progressLock = new Object();
+    private long lastQueuedSeq;
+    private long lastVisibleSeq;
+    // Set when applying changes failed; the indexer does not apply any more changes.
+    private volatile Throwable failure = null;
+    private long lastCommitTime = System.currentTimeMillis();
+
+    /**
+     * Constructs a new TextIndexLuceneAsync.
+     *
+     * @param directory The Lucene Directory for the index
+     * @param config The config definition for the index instantiation.
+     */
+    public TextIndexLuceneAsync(Directory directory, TextIndexConfig config) {
+        super(directory, config);
+        this.maxVisibilityLag = Math.max(0, config.getMaxVisibilityLag());
+        try {
+            Path journalPath = config.getJournal();
+            if ( journalPath == null && FilterDirectory.unwrap(directory) instanceof FSDirectory fsDirectory )
+                journalPath = fsDirectory.getDirectory().resolve(JOURNAL_FILENAME);
+
+            long seq = committedSeq(getIndexWriter());
+            if ( journalPath != null ) {
+                journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                seq = replayJournal(seq);
+            } else {
+                journal = null;
+            }
+            this.nextSeq = seq + 1;
+            this.lastJournalSeq = seq;
+            this.lastQueuedSeq = seq;
+            this.lastVisibleSeq = seq;
+            this.searcherManager = new SearcherManager(getIndexWriter(), null);
+        } catch (IOException e) {
+            throw new TextIndexException("TextIndexLuceneAsync", e);
+        }
+        indexer = new Thread(this::runIndexer, "jena-text-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+    }
+
+    // ---- Transaction (writer thread)
+
+    @Override
+    public void addEntity(Entity entity) {
+        record(ChangeType.ADD, entity);
+    }
+
+    @Override
+    public void updateEntity(Entity entity) {
+        record(ChangeType.UPDATE, entity);
+    }
+
+    @Override
+    public void deleteEntity(Entity entity) {
+        if ( getDocDef().getUidField() == null )
+            return;
+        record(ChangeType.DELETE, entity);
+    }
+
+    private void record(ChangeType type, Entity entity) {
+        synchronized (txnLock) {
+            pending.add(new Change(type, entity));
+        }
+    }
+
+    /** Write the changes of the transaction to the journal. */
+    @Override
+    public void prepareCommit() {
+        synchronized (txnLock) {
+            if ( prepared != null || pending.isEmpty() )
+                return;
+            Batch batch = new Batch(nextSeq++, pending);
+            pending = new ArrayList<>();
+            appendJournal(BATCH, batch);
+            prepared = batch;
+        }
+    }
+
+    /** Queue the changes of the transaction. They are applied to the index asynchronously. */
+    @Override
+    public void commit() {
+        synchronized (txnLock) {
+            // Changes outside a transaction are committed without prepareCommit.
+            prepareCommit();
+            if ( prepared == null )
+                return;
+            synchronized (progressLock) {
+                lastQueuedSeq = prepared.seq();
+            }
+            queue.add(prepared);
+            prepared = null;
+        }
+    }
+
+    @Override
+    public void rollback() {
+        synchronized (txnLock) {
+            if ( prepared != null )
+                appendJournal(ABORT, prepared);
+            prepared = null;
+            pending = new ArrayList<>();
+        }
+    }
+
+    // ---- Visibility
+
+    /**
+     * Wait until the changes of the transactions committed before this call are visible
+     * to queries.
+     *
+     * @throws TextIndexException if applying changes failed.
+     */
+    public void awaitVisible() {
+        try {
+            awaitVisible(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TextIndexException("awaitVisible", e);
+        }
+    }
+
+    /**
+     * Wait, at most the given time, until the changes of the transactions committed before
+     * this call are visible to queries.
+     *
+     * @return true if the changes are visible, false if the time ran out.
+     * @throws TextIndexException if applying changes failed.
+     */
+    public boolean awaitVisible(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + Math.min(unit.toNanos(timeout), Long.MAX_VALUE / 2);
+        synchronized (progressLock) {
+            long target = lastQueuedSeq;
+            if ( lastVisibleSeq < target )
+                // Do not wait for the visibility lag.
+                queue.add(FLUSH);
+            while ( lastVisibleSeq < target ) {
+                checkFailure();
+                long remaining = deadline - System.nanoTime();
+                if ( remaining <= 0 )
+                    return false;
+                TimeUnit.NANOSECONDS.timedWait(progressLock, remaining);
+            }
+            checkFailure();
+            return true;
+        }
+    }
+
+    // Call with progressLock held.
+    private void checkFailure() {
+        if ( failure != null )
+            throw new TextIndexException("Asynchronous text indexing failed", failure);
+    }
+
+    // ---- Queries
+
+    @Override
+    protected IndexReader acquireReader() throws IOException {
+        while ( true ) {
+            SearcherManager manager = searcherManager;
+            try {
+                return manager.acquire().getIndexReader();
+            } catch (AlreadyClosedException ex) {
+                // Replaced after a rollback: use the new one.
+                if ( manager == searcherManager )
+                    throw ex;
+            }
+        }
+    }
+
+    @Override
+    protected void releaseReader(IndexReader indexReader) throws IOException {
+        indexReader.decRef();
+    }
+
+    // ---- Indexer thread
+
+    private void runIndexer() {
+        boolean end = false;
+        while ( !end ) {
+            List<Batch> batches = new ArrayList<>();
+            try {
+                Batch first = queue.take();
+                if ( first == END )
+                    end = true;
+                else if ( first != FLUSH ) {
+                    batches.add(first);
+                    // Collect more batches, up to the visibility lag.
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxVisibilityLag);
+                    while ( true ) {
+                        long remaining = deadline - System.nanoTime();
+                        Batch b = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                        if ( b == null || b == FLUSH )
+                            break;
+                        if ( b == END ) {
+                            end = true;
+                            break;
+                        }
+                        batches.add(b);
+                    }
+                }
+            } catch (InterruptedException e) {
+                end = true;
+            }
+            // Queued after END or FLUSH.
+            List<Batch> more = new ArrayList<>();
+            queue.drainTo(more);
+            for ( Batch b : more ) {
+                if ( b == END )
+                    end = true;
+                else if ( b != FLUSH )
+                    batches.add(b);
+            }
+            applyBatches(batches, end);
+        }
+    }
+
+    private void applyBatches(List<Batch> batches, boolean end) {
+        // After a failure, the changes are only in the journal.
+        if ( failure != null )
+            return;
+        long seq;
+        synchronized (progressLock) {
+            seq = lastVisibleSeq;
+        }
+        Throwable th = null;
+        try {
+            for ( Batch batch : batches ) {
+                applyBatch(batch);
+                seq = batch.seq();
+            }
+            searcherManager.maybeRefreshBlocking();
+            long now = System.currentTimeMillis();
+            if ( end || now - lastCommitTime >= COMMIT_INTERVAL ) {
+                commitIndex(seq);
+                lastCommitTime = now;
+            }
+        } catch (Throwable ex) {
+            log.error("Asynchronous text indexing: " + ex.getMessage(), ex);
+            th = ex;
+            discardUncommitted();
+        }
+        synchronized (progressLock) {
+            lastVisibleSeq = seq;
+            if ( th != null )
+                failure = th;
+            progressLock.notifyAll();
+        }
+    }
+
+    /**
+     * Return the index to the last Lucene commit. The journal is not truncated after
+     * that commit, so the changes are applied again when the index is next opened.
+     * The rollback reopens the index writer; queries then use a reader of the new writer,
+     * which does not see the discarded changes.
+     */
+    private void discardUncommitted() {
+        try {
+            super.rollback();
+            SearcherManager old = searcherManager;
+            searcherManager = new SearcherManager(getIndexWriter(), null);
+            old.close();
+        } catch (Throwable ex) {
+            log.error("Asynchronous text indexing: rollback: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void applyBatch(Batch batch) {
+        for ( Change change : batch.changes() ) {
+            switch (change.type()) {
+                case ADD ->    super.addEntity(change.entity());
+                case UPDATE -> super.updateEntity(change.entity());
+                case DELETE -> super.deleteEntity(change.entity());
+            }
+        }
+    }
+
+    /** Commit Lucene, recording the last batch included, and then truncate the journal. */
+    private void commitIndex(long seq) throws IOException {
+        IndexWriter writer = getIndexWriter();
+        writer.setLiveCommitData(Map.of(COMMIT_SEQ, Long.toString(seq)).entrySet());
+        writer.commit();
+        if ( journal == null )
+            return;
+        synchronized (journalLock) {
+            // Journal records after this commit are kept. They are skipped on replay if
+            // included in a later commit.
+            if ( lastJournalSeq <= seq )
+                journal.truncate(0);
+        }
+    }
+
+    private static long committedSeq(IndexWriter writer) {
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if ( commitData != null ) {
+            for ( Map.Entry<String, String> e : commitData ) {
+                if ( COMMIT_SEQ.equals(e.getKey()) )
+                    return Long.parseLong(e.getValue());
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        queue.add(END);
+        try {
+            indexer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            searcherManager.close();
+            if ( journal != null )
+                journal.close();
+        } catch (IOException ex) {
+            throw new TextIndexException("close", ex);
+        }
+        super.close();
+    }
+
+    // ---- Journal
+    // Records are: int length, long seq, byte kind, then for a batch, the changes.
+
+    private void appendJournal(byte kind, Batch batch) {
+        if ( journal == null )
+            return;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeLong(batch.seq());
+            out.writeByte(kind);
+            if ( kind == BATCH ) {
+                out.writeInt(batch.changes().size());
+                for ( Change change : batch.changes() ) {
+                    out.writeByte(change.type().ordinal());
+                    writeEntity(out, change.entity());
+                }
+            }
+            out.flush();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            buffer.putInt(0, buffer.limit() - Integer.BYTES);
+            synchronized (journalLock) {
+                journal.position(journal.size());
+                while ( buffer.hasRemaining() )
+                    journal.write(buffer);
+                journal.force(false);
+                lastJournalSeq = Math.max(lastJournalSeq, batch.seq());
+            }
+        } catch (IOException e) {
+            throw new TextIndexException("Text index journal", e);
+        }
+    }
+
+    /**
+     * Apply the batches in the journal that are after the last Lucene commit, and commit.
+     * Returns the sequence number of the last batch.
+     */
+    private long replayJournal(long committedSeq) throws IOException {
+        Map<Long, Batch> batches = new HashMap<>();
+        List<Long> order = new ArrayList<>();
+        long maxSeq = committedSeq;
+        journal.position(0);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(journal)));
+        while ( true ) {
+            byte[] record;
+            try {
+                int length = in.readInt();
+                record = new byte[length];
+                in.readFully(record);
+            } catch (EOFException e) {
+                // End of the journal, or an incomplete record.
+                break;
+            }
+            DataInputStream r = new DataInputStream(new ByteArrayInputStream(record));
+            long seq = r.readLong();
+            byte kind = r.readByte();
+            maxSeq = Math.max(maxSeq, seq);
+            if ( seq <= committedSeq )
+                continue;
+            if ( kind == ABORT ) {
+                batches.remove(seq);
+                continue;
+            }
+            int n = r.readInt();
+            List<Change> changes = new ArrayList<>(n);
+            for ( int i = 0; i < n; i++ ) {
+                ChangeType type = ChangeType.values()[r.readByte()];
+                changes.add(new Change(type, readEntity(r)));
+            }
+            batches.put(seq, new Batch(seq, changes));
+            order.add(seq);
+        }
+        int count = 0;
+        for ( long seq : order ) {
+            Batch batch = batches.get(seq);
+            if ( batch != null ) {
+                applyBatch(batch);
+                count++;
+            }
+        }
+        if ( count > 0 )
+            log.info("Text index: applied {} transactions from the journal", count);
+        commitIndex(maxSeq);
+        return maxSeq;
+    }
+
+    private static void writeEntity(DataOutputStream out, Entity entity) throws IOException {
+        writeString(out, entity.getId());
+        writeString(out, entity.getGraph());
+        writeString(out, entity.getLanguage());
+        writeString(out, entity.getDatatype() == null ? null : entity.getDatatype().getURI());
+        out.writeInt(entity.getMap().size());
+        for ( Map.Entry<String, Object> e : entity.getMap().entrySet() ) {
+            writeString(out, e.getKey());
+            writeString(out, String.valueOf(e.getValue()));
+        }
+    }
+
+    private static Entity readEntity(DataInputStream in) throws IOException {
+        String id = readString(in);
+        String graph = readString(in);
+        String lang = readString(in);
+        String datatypeURI = readString(in);
+        RDFDatatype datatype = datatypeURI == null ? null : TypeMapper.getInstance().getSafeTypeByName(datatypeURI);
+        Entity entity = new Entity(id, graph, lang, datatype);
+        int n = in.readInt();
+        for ( int i = 0; i < n; i++ ) {
+            String key = readString(in);
+            entity.put(key, readString(in));
+        }
+        return entity;
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if ( string == null ) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if ( length < 0 )
+            return null;
+        byte[] b = new byte[length];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -38,6 +38,12 @@ public class TextQuery
     public static final String IRI                = "http://jena.apache.org/#text" ;
 
     public static final Symbol textIndex    = Symbol.create(NS+"index") ;
+    /**
+     * Number of solutions of a pattern on the subject of a {@code text:query} up to which
+     * the text index is probed per solution; above it, text hits are streamed.
+     * 0 disables the rewrite to {@link OpTextJoin}.
+     */
+    public static final Symbol textJoinThreshold = Symbol.create(NS+"joinThreshold") ;
     public static final String PATH         = "org.apache.jena.query.text";
 
     static { JenaSystem.init(); }
@@ -61,6 +67,7 @@ public class TextQuery
                     return new TextQueryPF() ;
                 }
             });
+            TransformTextJoin.register() ;
             JenaSystem.logLifecycle("TextQuery.init - finish") ;
             // Register indirections.
             InitTextCmds.cmds();
@@ -239,6 +239,10 @@ public class TextQueryPF extends PropertyFunctionBase {
     }
 
     private QueryIterator resultsToQueryIterator(Binding binding, Node subj, Node score, Node literal, Node graph, Node prop, Collection<TextHit> results, ExecutionContext execCxt) {
+        return resultsToQueryIterator(binding, subj, score, literal, graph, prop, results.iterator(), execCxt);
+    }
+
+    private QueryIterator resultsToQueryIterator(Binding binding, Node subj, Node score, Node literal, Node graph, Node prop, Iterator<TextHit> results, ExecutionContext execCxt) {
         log.trace("resultsToQueryIterator CALLED with results: {}", results);
         Var sVar = Var.isVar(subj) ? Var.alloc(subj) : null;
         Var scoreVar = (score==null) ? null : Var.alloc(score);
@@ -259,7 +263,7 @@ public class TextQueryPF extends PropertyFunctionBase {
             return bmap.build();
         };
 
-        Iterator<Binding> bIter = Iter.map(results.iterator(), converter);
+        Iterator<Binding> bIter = Iter.onClose(Iter.map(results, converter), ()->Iter.close(results));
         QueryIterator qIter = QueryIterPlainWrapper.create(bIter, execCxt);
         return qIter;
     }
@@ -270,6 +274,14 @@ public class TextQueryPF extends PropertyFunctionBase {
 
         if (!Var.isVar(subj))
             match.setQueryLimit(-1);
+        else if (match.getLimit() < 0 && !textIndex.getDocDef().areQueriesCached()) {
+            // No limit: stream the hits in score order, reading no more from the index than is used.
+            // Cached queries need all the hits, for the cache, so they are not streamed.
+            String graphURI = chooseGraphURI(execCxt);
+            explainQuery(match.getQueryString(), -1, execCxt, graphURI);
+            Iterator<TextHit> hits = textIndex.queryIterator(null, match.getProps(), match.getQueryString(), graphURI, match.getLang(), -1, match.getHighlight());
+            return resultsToQueryIterator(binding, subj, score, literal, graph, prop, hits, execCxt);
+        }
 
         rezList = query(subj, match, execCxt);
 
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.query.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVars;
+import org.apache.jena.sparql.algebra.TransformCopy;
+import org.apache.jena.sparql.algebra.Transformer;
+import org.apache.jena.sparql.algebra.op.OpPropFunc;
+import org.apache.jena.sparql.algebra.op.OpSequence;
+import org.apache.jena.sparql.algebra.op.OpTable;
+import org.apache.jena.sparql.algebra.optimize.Optimize;
+import org.apache.jena.sparql.algebra.optimize.Rewrite;
+import org.apache.jena.sparql.algebra.optimize.RewriteFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.pfunction.PropFuncArg;
+import org.apache.jena.sparql.util.Context;
+
+/**
+ * Rewrite a {@code text:query} property function followed, or preceded, by a pattern
+ * on the same subject variable into an {@link OpTextJoin}.
+ * <pre>
+ *   (sequence
+ *      (propfunc text:query ?s "word" (table unit))
+ *      (bgp (?s rdf:type :Class)))
+ * =&gt;
+ *   (textjoin
+ *      (propfunc text:query ?s "word" (table unit))
+ *      (bgp (?s rdf:type :Class)))
+ * </pre>
+ * Text queries with a limit are not rewritten because the limit applies to the text
+ * search before the join.
+ * <p>
+ * The rewrite is applied after the standard optimizer, which creates the property
+ * function operations, by {@link #register()}, which is called by {@link TextQuery#init()}.
+ * A {@link TextQuery#textJoinThreshold} of 0 disables it.
+ */
+public class TransformTextJoin extends TransformCopy {
+
+    private static final String TEXT_QUERY = TextQuery.NS+"query";
+
+    private static boolean registered = false;
+
+    /** Add this rewrite to the global optimizer. */
+    public static synchronized void register() {
+        if ( registered )
+            return;
+        registered = true;
+        RewriteFactory base = Optimize.getFactory();
+        Optimize.setFactory(context -> {
+            Rewrite rewrite = base.create(context);
+            return op -> transform(rewrite.rewrite(op), context);
+        });
+    }
+
+    /** Apply the rewrite, if enabled in the context. */
+    public static Op transform(Op op, Context context) {
+        if ( context != null && context.getInt(TextQuery.textJoinThreshold, OpTextJoin.DEFAULT_THRESHOLD) <= 0 )
+            return op;
+        return Transformer.transform(new TransformTextJoin(), op);
+    }
+
+    @Override
+    public Op transform(OpSequence opSequence, List<Op> elts) {
+        List<Op> elts2 = new ArrayList<>(elts.size());
+        boolean changed = false;
+        for ( int i = 0; i < elts.size(); i++ ) {
+            Op op = elts.get(i);
+            Var subject = textQuerySubject(op);
+            if ( subject != null && i + 1 < elts.size() && OpVars.visibleVars(elts.get(i + 1)).contains(subject) ) {
+                elts2.add(new OpTextJoin(op, subject, elts.get(i + 1)));
+                i++;
+                changed = true;
+                continue;
+            }
+            elts2.add(op);
+        }
+        if ( !changed )
+            return super.transform(opSequence, elts);
+        return elts2.size() == 1 ? elts2.get(0) : OpSequence.create().copy(elts2);
+    }
+
+    @Override
+    public Op transform(OpPropFunc opPropFunc, Op subOp) {
+        // The pattern is before the text query.
+        if ( !isUnit(subOp) ) {
+            OpPropFunc textQuery = new OpPropFunc(opPropFunc.getProperty(), opPropFunc.getSubjectArgs(), opPropFunc.getObjectArgs(), OpTable.unit());
+            Var subject = textQuerySubject(textQuery);
+            if ( subject != null && OpVars.visibleVars(subOp).contains(subject) )
+                return new OpTextJoin(textQuery, subject, subOp);
+        }
+        return super.transform(opPropFunc, subOp);
+    }
+
+    /**
+     * The subject variable, if the operation is a {@code text:query}, without a limit,
+     * with a variable subject and evaluated on its own, otherwise null.
+     */
+    private static Var textQuerySubject(Op op) {
+        if ( !(op instanceof OpPropFunc opPropFunc) )
+            return null;
+        if ( !opPropFunc.getProperty().isURI() || !TEXT_QUERY.equals(opPropFunc.getProperty().getURI()) )
+            return null;
+        if ( !isUnit(opPropFunc.getSubOp()) )
+            return null;
+        PropFuncArg subjArgs = opPropFunc.getSubjectArgs();
+        Node s = subjArgs.isList() ? subjArgs.getArg(0) : subjArgs.getArg();
+        if ( !Var.isVar(s) )
+            return null;
+        PropFuncArg objArgs = opPropFunc.getObjectArgs();
+        if ( objArgs.isList() ) {
+            for ( Node n : objArgs.getArgList() ) {
+                // Limit.
+                if ( n.isLiteral() && n.getLiteralValue() instanceof Number )
+                    return null;
+                // Not a constant at optimization time.
+                if ( Var.isVar(n) )
+                    return null;
+            }
+        }
+        return Var.alloc(s);
+    }
+
+    private static boolean isUnit(Op op) {
+        return op instanceof OpTable opTable && opTable.isJoinIdentity();
+    }
+}
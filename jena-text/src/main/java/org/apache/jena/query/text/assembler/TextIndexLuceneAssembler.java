@@ -48,6 +48,8 @@ public class TextIndexLuceneAssembler extends AssemblerBase {
         #text:directory "DIR" ;
         text:directory <file:DIR> ;
         text:entityMap <#entMap> ;
+        #text:asyncIndexing true ;
+        #text:maxVisibilityLag 1000 ;
         .
     */
 
@@ -190,6 +192,30 @@ public class TextIndexLuceneAssembler extends AssemblerBase {
                 ignoreIndexErrs = iieNode.asLiteral().getBoolean();
             }
 
+            boolean asyncIndexing = false;
+            Statement asyncIndexingStatement = root.getProperty(pAsyncIndexing);
+            if (null != asyncIndexingStatement) {
+                RDFNode aiNode = asyncIndexingStatement.getObject();
+                if (! aiNode.isLiteral()) {
+                    throw new TextIndexException("text:asyncIndexing property must be a boolean : " + aiNode);
+                }
+                asyncIndexing = aiNode.asLiteral().getBoolean();
+            }
+
+            long maxVisibilityLag = -1;
+            Statement maxVisibilityLagStatement = root.getProperty(pMaxVisibilityLag);
+            if (null != maxVisibilityLagStatement) {
+                RDFNode mvlNode = maxVisibilityLagStatement.getObject();
+                if (! mvlNode.isLiteral()) {
+                    throw new TextIndexException("text:maxVisibilityLag property must be a long : " + mvlNode);
+                }
+                try {
+                    maxVisibilityLag = mvlNode.asLiteral().getLong();
+                } catch (RuntimeException ex) {
+                    throw new TextIndexException("text:maxVisibilityLag property must be a long : " + mvlNode+ "("+ex.getMessage()+")");
+                }
+            }
+
             // use query cache by default
             boolean cacheQueries = true;
             Statement cacheQueriesStatement = root.getProperty(pCacheQueries);
@@ -211,6 +237,9 @@ public class TextIndexLuceneAssembler extends AssemblerBase {
             config.setMaxBasicQueries(maxBasicQueries);
             config.setValueStored(storeValues);
             config.setIgnoreIndexErrors(ignoreIndexErrs);
+            config.setAsyncIndexing(asyncIndexing);
+            if (maxVisibilityLag >= 0)
+                config.setMaxVisibilityLag(maxVisibilityLag);
             docDef.setCacheQueries(cacheQueries);
 
             return TextDatasetFactory.createLuceneIndex(directory, config) ;
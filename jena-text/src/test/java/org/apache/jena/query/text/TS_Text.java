@@ -44,6 +44,8 @@ import org.apache.jena.query.text.changes.TestDatasetMonitor;
     , TestTextTxn.class
     , TestTextNonTxnTDB1.class
     , TestTextTxnTDB.class
+    , TestTextIndexLuceneAsync.class
+    , TestTextQueryJoin.class
 
     , TestEntityMapAssembler.class
     , TestTextDatasetAssembler.class
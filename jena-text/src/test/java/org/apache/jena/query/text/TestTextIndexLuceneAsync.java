@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.query.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.atlas.logging.LogCtl;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.query.ReadWrite;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.system.Txn;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+
+/** Tests for {@link TextIndexLuceneAsync}. */
+public class TestTextIndexLuceneAsync
+{
+    private static TextIndexConfig config(long maxVisibilityLag, Path journal) {
+        EntityDefinition eDef = new EntityDefinition("iri", "text");
+        eDef.setPrimaryPredicate(RDFS.label);
+        eDef.setUidField("uid");
+        TextIndexConfig config = new TextIndexConfig(eDef);
+        config.setAsyncIndexing(true);
+        config.setMaxVisibilityLag(maxVisibilityLag);
+        config.setJournal(journal);
+        return config;
+    }
+
+    /** Fails to add the entity <bad>. */
+    private static class TextIndexLuceneAsyncFailing extends TextIndexLuceneAsync {
+        TextIndexLuceneAsyncFailing(Directory directory, TextIndexConfig config) {
+            super(directory, config);
+        }
+
+        @Override
+        protected void addDocument(Entity entity) throws IOException {
+            if ( entity.getId().endsWith("bad") )
+                throw new IOException("Test failure");
+            super.addDocument(entity);
+        }
+    }
+
+    private static void add(TextIndexLuceneAsync index, String quadStr) {
+        index.addEntity(TextQueryFuncs.entityFromQuad(index.getDocDef(), SSE.parseQuad(quadStr)));
+        index.commit();
+    }
+
+    private static int count(TextIndex index, String qs) {
+        return index.query(RDFS.label.asNode(), qs, null, null, 100).size();
+    }
+
+    @Test public void async_visibility() {
+        TextIndex index = TextDatasetFactory.createLuceneIndex(new ByteBuffersDirectory(), config(60_000, null));
+        assertTrue(index instanceof TextIndexLuceneAsync);
+        TextIndexLuceneAsync asyncIndex = (TextIndexLuceneAsync)index;
+        try {
+            Dataset ds = TextDatasetFactory.create(DatasetFactory.createTxnMem(), index);
+            for ( int i = 0; i < 10; i++ ) {
+                Quad quad = SSE.parseQuad("(_ <s"+i+"> rdfs:label 'foo"+i+" bar')");
+                Txn.executeWrite(ds, ()->ds.asDatasetGraph().add(quad));
+            }
+            // Within the visibility lag.
+            assertEquals(0, count(index, "bar"));
+            asyncIndex.awaitVisible();
+            assertEquals(10, count(index, "bar"));
+
+            Quad quad = SSE.parseQuad("(_ <s0> rdfs:label 'foo0 bar')");
+            Txn.executeWrite(ds, ()->ds.asDatasetGraph().delete(quad));
+            asyncIndex.awaitVisible();
+            assertEquals(9, count(index, "bar"));
+            assertEquals(0, count(index, "foo0"));
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test public void async_abort() throws InterruptedException {
+        TextIndexLuceneAsync index = new TextIndexLuceneAsync(new ByteBuffersDirectory(), config(0, null));
+        try {
+            Dataset ds = TextDatasetFactory.create(DatasetFactory.createTxnMem(), index);
+            ds.begin(ReadWrite.WRITE);
+            ds.asDatasetGraph().add(SSE.parseQuad("(_ <s1> rdfs:label 'foo')"));
+            ds.abort();
+            ds.end();
+            Txn.executeWrite(ds, ()->ds.asDatasetGraph().add(SSE.parseQuad("(_ <s2> rdfs:label 'foo')")));
+            assertTrue(index.awaitVisible(1, TimeUnit.MINUTES));
+            List<TextHit> hits = index.query(RDFS.label.asNode(), "foo", null, null, 10);
+            assertEquals(1, hits.size());
+            assertEquals("s2", hits.get(0).getNode().getURI());
+        } finally {
+            index.close();
+        }
+    }
+
+    @Test public void async_journal() throws IOException {
+        Path dir = Files.createTempDirectory("jena-text-");
+        Path journal = dir.resolve(TextIndexLuceneAsync.JOURNAL_FILENAME);
+        try {
+            // Changes that have not been applied to the first index (within the visibility lag).
+            TextIndexLuceneAsync index1 = new TextIndexLuceneAsync(new ByteBuffersDirectory(), config(60_000, journal));
+            for ( int i = 0; i < 5; i++ ) {
+                Entity entity = TextQueryFuncs.entityFromQuad(index1.getDocDef(), SSE.parseQuad("(_ <s"+i+"> rdfs:label 'foo"+i+" bar')"));
+                index1.addEntity(entity);
+                index1.commit();
+            }
+            // Aborted after writing to the journal.
+            index1.addEntity(TextQueryFuncs.entityFromQuad(index1.getDocDef(), SSE.parseQuad("(_ <s9> rdfs:label 'foo9 bar')")));
+            index1.prepareCommit();
+            index1.rollback();
+            assertTrue(Files.size(journal) > 0);
+
+            // Open an index with the journal: as if the first index stopped before applying the changes.
+            TextIndexLuceneAsync index2 = new TextIndexLuceneAsync(new ByteBuffersDirectory(), config(0, journal));
+            try {
+                assertEquals(5, count(index2, "bar"));
+                assertEquals(0, count(index2, "foo9"));
+                // The changes are in the Lucene commit.
+                assertEquals(0, Files.size(journal));
+            } finally {
+                index2.close();
+                index1.close();
+            }
+
+            // File system directory: the journal is in the index directory.
+            try ( FSDirectory fsDir = FSDirectory.open(dir.resolve("index")) ) {
+                TextIndexLuceneAsync index3 = new TextIndexLuceneAsync(fsDir, config(0, null));
+                index3.addEntity(TextQueryFuncs.entityFromQuad(index3.getDocDef(), SSE.parseQuad("(_ <s1> rdfs:label 'foo1 bar')")));
+                index3.commit();
+                index3.awaitVisible();
+                assertEquals(1, count(index3, "bar"));
+                assertTrue(Files.exists(dir.resolve("index").resolve(TextIndexLuceneAsync.JOURNAL_FILENAME)));
+                index3.close();
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    @Test public void async_failure() throws IOException {
+        Path dir = Files.createTempDirectory("jena-text-");
+        Path journal = dir.resolve(TextIndexLuceneAsync.JOURNAL_FILENAME);
+        String loggerLevel = LogCtl.getLevel(TextIndexLuceneAsync.class);
+        try {
+            LogCtl.setLevel(TextIndexLuceneAsync.class, "OFF");
+            try ( FSDirectory fsDir = FSDirectory.open(dir.resolve("index")) ) {
+                TextIndexLuceneAsync index1 = new TextIndexLuceneAsyncFailing(fsDir, config(0, journal));
+                add(index1, "(_ <s1> rdfs:label 'foo1 bar')");
+                index1.awaitVisible();
+                assertEquals(1, count(index1, "bar"));
+                add(index1, "(_ <bad> rdfs:label 'foo2 bar')");
+                assertThrows(TextIndexException.class, ()->index1.awaitVisible());
+                // Queries see the index as of the last Lucene commit.
+                assertEquals(0, count(index1, "bar"));
+                // Not applied after the failure.
+                add(index1, "(_ <s3> rdfs:label 'foo3 bar')");
+                assertThrows(TextIndexException.class, ()->index1.awaitVisible());
+                index1.close();
+            } finally {
+                LogCtl.setLevel(TextIndexLuceneAsync.class, loggerLevel);
+            }
+            // The failed transaction, and the ones after it, are applied from the journal.
+            try ( FSDirectory fsDir = FSDirectory.open(dir.resolve("index")) ) {
+                TextIndexLuceneAsync index2 = new TextIndexLuceneAsync(fsDir, config(0, journal));
+                try {
+                    assertEquals(3, count(index2, "bar"));
+                    assertEquals(0, Files.size(journal));
+                } finally {
+                    index2.close();
+                }
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try ( var files = Files.walk(dir) ) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+        }
+    }
+}
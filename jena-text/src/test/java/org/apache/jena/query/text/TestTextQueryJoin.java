@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ *
+ *   SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.apache.jena.query.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import org.apache.jena.query.*;
+import org.apache.jena.sparql.algebra.Algebra;
+import org.apache.jena.sparql.algebra.Op;
+import org.apache.jena.sparql.algebra.OpVisitorBase;
+import org.apache.jena.sparql.algebra.OpWalker;
+import org.apache.jena.sparql.algebra.op.OpExt;
+import org.apache.jena.sparql.sse.SSE;
+import org.apache.jena.sparql.util.Context;
+import org.apache.jena.system.Txn;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.lucene.store.ByteBuffersDirectory;
+
+/** Tests for {@link OpTextJoin} and {@link TransformTextJoin}. */
+public class TestTextQueryJoin
+{
+    private static final String PREFIXES = String.join("\n"
+        , "PREFIX text: <http://jena.apache.org/text#>"
+        , "PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>"
+        , "PREFIX : <http://example/>"
+        , "");
+
+    // 20 "small" subjects, all with "word"; 1500 subjects with "common".
+    private static final String QUERY_SMALL = PREFIXES + "SELECT ?s { ?s text:query 'word' . ?s a :Small }";
+    private static final String QUERY_SMALL_AFTER = PREFIXES + "SELECT ?s { ?s a :Small . ?s text:query 'word' }";
+    private static final String QUERY_LARGE = PREFIXES + "SELECT ?s { ?s text:query 'common' . ?s a :Large }";
+
+    private static TextIndex index;
+    private static Dataset dataset;
+
+    @BeforeAll public static void beforeClass() {
+        TextQuery.init();
+        EntityDefinition eDef = new EntityDefinition("iri", "text");
+        eDef.setPrimaryPredicate(RDFS.label);
+        index = TextDatasetFactory.createLuceneIndex(new ByteBuffersDirectory(), new TextIndexConfig(eDef));
+        dataset = TextDatasetFactory.create(DatasetFactory.createTxnMem(), index);
+        Txn.executeWrite(dataset, ()->{
+            for ( int i = 0; i < 1500; i++ ) {
+                String label = (i < 20) ? "word common" : "common";
+                dataset.asDatasetGraph().add(SSE.parseQuad("(_ <http://example/s"+i+"> rdfs:label '"+label+" "+i+"')"));
+                dataset.asDatasetGraph().add(SSE.parseQuad("(_ <http://example/s"+i+"> rdf:type <http://example/Large>)"));
+                if ( i % 10 == 0 )
+                    dataset.asDatasetGraph().add(SSE.parseQuad("(_ <http://example/s"+i+"> rdf:type <http://example/Small>)"));
+            }
+        });
+    }
+
+    @AfterAll public static void afterClass() {
+        index.close();
+    }
+
+    @Test public void textJoin_rewrite() {
+        assertTrue(containsTextJoin(QUERY_SMALL, new Context()));
+        assertTrue(containsTextJoin(QUERY_SMALL_AFTER, new Context()));
+        assertFalse(containsTextJoin(QUERY_SMALL, disabled()));
+        // A limit on the text query is not a limit on the join.
+        assertFalse(containsTextJoin(PREFIXES + "SELECT ?s { ?s text:query ('word' 5) . ?s a :Small }", new Context()));
+    }
+
+    @Test public void textJoin_small() {
+        List<String> expected = results(QUERY_SMALL, 0);
+        assertEquals(2, expected.size());
+        assertEquals(expected, results(QUERY_SMALL, OpTextJoin.DEFAULT_THRESHOLD));
+        assertEquals(expected, results(QUERY_SMALL_AFTER, OpTextJoin.DEFAULT_THRESHOLD));
+    }
+
+    @Test public void textJoin_large() {
+        List<String> expected = results(QUERY_LARGE, 0);
+        assertEquals(1500, expected.size());
+        assertEquals(expected, results(QUERY_LARGE, 100));
+    }
+
+    @Test public void textJoin_rowsPerSubject() {
+        // Several rows of the pattern for each subject.
+        String qs = PREFIXES + "SELECT ?s { ?s text:query 'word' . ?s ?p ?o }";
+        assertTrue(containsTextJoin(qs, new Context()));
+        List<String> expected = results(qs, 0);
+        assertEquals(20*2 + 2, expected.size());
+        // The pattern has 3150 rows: large, then small at the threshold.
+        assertEquals(expected, results(qs, 100));
+        assertEquals(expected, results(qs, 3149));
+        assertEquals(expected, results(qs, 3150));
+    }
+
+    @Test public void textQuery_streamed() {
+        // No limit: more hits than one page of the streamed search.
+        List<String> results = results(PREFIXES + "SELECT ?s { ?s text:query 'common' }", OpTextJoin.DEFAULT_THRESHOLD);
+        assertEquals(1500, results.size());
+    }
+
+    @Test public void textQuery_cached() {
+        // Cached queries are not streamed.
+        index.getDocDef().setCacheQueries(true);
+        try {
+            List<String> results = results(PREFIXES + "SELECT ?s { ?s text:query 'common' . ?s text:query 'word' }", 0);
+            assertEquals(20, results.size());
+        } finally {
+            index.getDocDef().setCacheQueries(false);
+        }
+    }
+
+    private static Context disabled() {
+        Context context = new Context();
+        context.set(TextQuery.textJoinThreshold, 0);
+        return context;
+    }
+
+    /** The results, sorted. */
+    private static List<String> results(String queryString, int threshold) {
+        List<String> results = new ArrayList<>();
+        Txn.executeRead(dataset, ()->{
+            try ( QueryExecution qExec = QueryExecution.dataset(dataset).query(queryString).set(TextQuery.textJoinThreshold, threshold).build() ) {
+                qExec.execSelect().forEachRemaining(row -> results.add(row.getResource("s").getURI()));
+            }
+        });
+        results.sort(null);
+        return results;
+    }
+
+    private static boolean containsTextJoin(String queryString, Context context) {
+        Op op = Algebra.optimize(Algebra.compile(QueryFactory.create(queryString)), context);
+        AtomicBoolean found = new AtomicBoolean(false);
+        OpWalker.walk(op, new OpVisitorBase() {
+            @Override
+            public void visit(OpExt opExt) {
+                if ( opExt instanceof OpTextJoin )
+                    found.set(true);
+            }
+        });
+        return found.get();
+    }
+}